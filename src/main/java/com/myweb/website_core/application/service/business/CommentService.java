@@ -3,7 +3,10 @@ package com.myweb.website_core.application.service.business;
 import com.myweb.website_core.application.service.security.integeration.dataManage.DataIntegrityService;
 import com.myweb.website_core.common.exception.DataIntegrityException;
 import com.myweb.website_core.common.util.DTOConverter;
+import com.myweb.website_core.common.util.RedisKey;
 import com.myweb.website_core.domain.business.dto.CommentDTO;
+import com.myweb.website_core.domain.business.dto.CommentPageDTO;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
 import com.myweb.website_core.domain.business.entity.Comment;
 import com.myweb.website_core.domain.business.entity.Post;
 import com.myweb.website_core.infrastructure.persistence.repository.comment.CommentRepository;
@@ -12,9 +15,14 @@ import com.myweb.website_core.domain.business.entity.User;
 import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -27,16 +35,28 @@ public class CommentService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final DataIntegrityService dataIntegrityService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RedisTemplate<String, Object> redisTemplate;
+    
+    /**
+     * 评论树缓存过期时间（秒），作者资料变更等未主动失效的情况依赖过期刷新
+     */
+    @Value("${app.comment.tree-cache.ttl-seconds:600}")
+    private long treeCacheTtlSeconds;
     
     @Autowired
     public CommentService(CommentRepository commentRepository, 
                          PostRepository postRepository,
                          UserRepository userRepository,
-                         DataIntegrityService dataIntegrityService) {
+                         DataIntegrityService dataIntegrityService,
+                         ApplicationEventPublisher eventPublisher,
+                         RedisTemplate<String, Object> redisTemplate) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.dataIntegrityService = dataIntegrityService;
+        this.eventPublisher = eventPublisher;
+        this.redisTemplate = redisTemplate;
     }
     
     /**
@@ -55,6 +75,7 @@ public class CommentService {
         
         // 更新帖子的评论数
         updatePostCommentCount(postId);
+        eventPublisher.publishEvent(ContentChangeEvent.comment(ContentChangeEvent.CHANGE_CREATE, savedComment.getId(), postId));
         
         return savedComment;
     }
@@ -79,6 +100,7 @@ public class CommentService {
         
         // 更新帖子的评论数
         updatePostCommentCount(postId);
+        eventPublisher.publishEvent(ContentChangeEvent.comment(ContentChangeEvent.CHANGE_CREATE, savedReply.getId(), postId));
         
         return savedReply;
     }
@@ -87,11 +109,85 @@ public class CommentService {
       *获取帖子的所有评论（包括回复）
       */
     public List<CommentDTO> getCommentsByPostId(Long postId) {
-        List<Comment> topLevelComments = commentRepository.findTopLevelCommentsByPostId(postId);
+        return getCommentTree(postId);
+    }
+    
+    /**
+     * 按顶级评论游标分页获取帖子评论
+     * 
+     * @param postId 帖子ID
+     * @param cursor 上一页返回的游标，首页为null
+     * @param size 每页顶级评论数
+     * @return 评论分页
+     */
+    public CommentPageDTO getCommentPage(Long postId, Long cursor, int size) {
+        List<CommentDTO> threads = getCommentTree(postId);
+        int pageSize = Math.max(1, size);
+        
+        int from = 0;
+        if (cursor != null) {
+            // 游标对应的评论已删除时，从ID更大的第一个顶级评论继续
+            from = threads.size();
+            for (int i = 0; i < threads.size(); i++) {
+                Long id = threads.get(i).getId();
+                if (id.equals(cursor)) {
+                    from = i + 1;
+                    break;
+                }
+                if (id > cursor) {
+                    from = i;
+                    break;
+                }
+            }
+        }
+        
+        int to = Math.min(threads.size(), from + pageSize);
+        List<CommentDTO> page = threads.subList(from, to);
+        boolean hasMore = to < threads.size();
+        Long nextCursor = hasMore && !page.isEmpty() ? page.get(page.size() - 1).getId() : null;
+        return new CommentPageDTO(List.copyOf(page), nextCursor, hasMore, threads.size());
+    }
+    
+    /**
+     * 获取帖子的评论树
+     * <p>
+     * 一次查询帖子的全部评论并在内存中组装，结果按帖子缓存到Redis；评论变更提交后失效。
+     */
+    @SuppressWarnings("unchecked")
+    private List<CommentDTO> getCommentTree(Long postId) {
+        String cacheKey = RedisKey.commentTreeKey(postId);
+        try {
+            Object cached = redisTemplate.opsForValue().get(cacheKey);
+            if (cached instanceof List<?> tree) {
+                return (List<CommentDTO>) tree;
+            }
+        } catch (Exception e) {
+            log.warn("读取评论树缓存失败: postId={}, error={}", postId, e.getMessage());
+        }
+        
+        List<CommentDTO> tree = DTOConverter.buildCommentTree(commentRepository.findAllWithAuthorByPostId(postId));
         
-        return topLevelComments.stream()
-                .map(DTOConverter::convertToDTO)
-                .toList();
+        try {
+            redisTemplate.opsForValue().set(cacheKey, tree, Duration.ofSeconds(treeCacheTtlSeconds));
+        } catch (Exception e) {
+            log.warn("写入评论树缓存失败: postId={}, error={}", postId, e.getMessage());
+        }
+        return tree;
+    }
+    
+    /**
+     * 评论创建、修改、删除提交后失效所属帖子的评论树缓存
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentChange(ContentChangeEvent event) {
+        if (!ContentChangeEvent.ENTITY_COMMENT.equals(event.getEntityType()) || event.getPostId() == null) {
+            return;
+        }
+        try {
+            redisTemplate.unlink(RedisKey.commentTreeKey(event.getPostId()));
+        } catch (Exception e) {
+            log.warn("失效评论树缓存失败: postId={}, error={}", event.getPostId(), e.getMessage());
+        }
     }
 
     /**
@@ -140,6 +236,8 @@ public class CommentService {
         
         // 重新计算哈希值（通过@PreUpdate自动触发）
         Comment savedComment = commentRepository.save(comment);
+        eventPublisher.publishEvent(ContentChangeEvent.comment(
+                ContentChangeEvent.CHANGE_UPDATE, commentId, comment.getPost().getId()));
         
         log.info("评论修改成功: commentId={}, 原内容长度={}, 新内容长度={}", 
             commentId, oldContent.length(), newContent.length());
@@ -188,6 +286,7 @@ public class CommentService {
         
         // 更新帖子的评论数
         updatePostCommentCount(postId);
+        eventPublisher.publishEvent(ContentChangeEvent.comment(ContentChangeEvent.CHANGE_DELETE, commentId, postId));
         
         log.info("评论删除成功: commentId={}", commentId);
     }
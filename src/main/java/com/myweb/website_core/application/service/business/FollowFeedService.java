@@ -0,0 +1,308 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.domain.business.dto.PostTimelineDTO;
+import com.myweb.website_core.domain.business.entity.Post;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.UserFollowRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 关注流服务
+ *
+ * 每个用户的关注流收件箱是一个Redis有序集合，成员和分数都是帖子ID（ID自增，与发布时间同序），
+ * 集合中固定包含一个分数为0的占位成员，用于区分“未加载”和“没有帖子”：
+ * - 写扩散：新帖子经 post.created.queue 异步推送到每个粉丝的收件箱，收件箱只保留最近 max-size 条；
+ *   收件箱不存在的粉丝（不活跃或已过期）不推送，下次读取时从数据库重建
+ * - 读扩散：粉丝数达到 celebrity-threshold 的作者只写入自己的发件箱，读取时合并已关注大V的发件箱
+ * - 读取一页是一次有序集合范围查询加一次批量帖子查询；已删除的帖子在读取时从收件箱移除
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FollowFeedService {
+
+    /**
+     * 收件箱占位成员，分数为0，不会出现在帖子ID范围内
+     */
+    private static final String SENTINEL = "_";
+
+    /**
+     * 推送脚本：只写入已存在的收件箱并截断到最大长度，保留占位成员
+     *
+     * KEYS 收件箱；ARGV[1] 最大长度，ARGV[2..] 帖子ID
+     * 返回写入的收件箱数
+     */
+    private static final String PUSH_SCRIPT =
+        "local pushed = 0 " +
+        "for _, key in ipairs(KEYS) do " +
+        "  if redis.call('EXISTS', key) == 1 then " +
+        "    for i = 2, #ARGV do " +
+        "      redis.call('ZADD', key, ARGV[i], ARGV[i]) " +
+        "    end " +
+        "    redis.call('ZREMRANGEBYRANK', key, 1, -(tonumber(ARGV[1]) + 1)) " +
+        "    pushed = pushed + 1 " +
+        "  end " +
+        "end " +
+        "return pushed";
+
+    private static final DefaultRedisScript<Long> PUSH = new DefaultRedisScript<>(PUSH_SCRIPT, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final UserFollowRepository userFollowRepository;
+    private final PostRepository postRepository;
+    private final PostTimelineService postTimelineService;
+
+    @Value("${app.feed.max-size:800}")
+    private int maxSize;
+
+    @Value("${app.feed.outbox-size:200}")
+    private int outboxSize;
+
+    @Value("${app.feed.celebrity-threshold:5000}")
+    private int celebrityThreshold;
+
+    @Value("${app.feed.fan-out-batch-size:500}")
+    private int fanOutBatchSize;
+
+    @Value("${app.feed.inbox-ttl-days:7}")
+    private long inboxTtlDays;
+
+    @Value("${app.feed.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.feed.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * 将新帖子推送到作者粉丝的收件箱；大V作者只写入发件箱
+     *
+     * @param postId 帖子ID
+     * @param authorId 作者ID
+     */
+    public void fanOut(Long postId, Long authorId) {
+        Integer followerCount = userFollowRepository.countByFollowingId(authorId);
+        if (followerCount != null && followerCount >= celebrityThreshold) {
+            String outbox = RedisKey.feedOutboxKey(authorId);
+            stringRedisTemplate.opsForZSet().add(outbox, postId.toString(), postId);
+            stringRedisTemplate.opsForZSet().removeRange(outbox, 0, -(outboxSize + 1));
+            // 只增不减：作者粉丝数回落后恢复写扩散，读取时按帖子ID去重
+            stringRedisTemplate.opsForSet().add(RedisKey.FEED_CELEBRITY_SET, authorId.toString());
+            log.debug("大V作者帖子写入发件箱: postId={}, authorId={}, followers={}", postId, authorId, followerCount);
+            return;
+        }
+
+        long afterId = 0;
+        long pushed = 0;
+        while (true) {
+            List<Long> followerIds = userFollowRepository.findFollowerIdsAfter(authorId, afterId,
+                    PageRequest.of(0, fanOutBatchSize));
+            if (followerIds.isEmpty()) {
+                break;
+            }
+            pushed += push(followerIds.stream().map(RedisKey::feedInboxKey).toList(), List.of(postId));
+            afterId = followerIds.get(followerIds.size() - 1);
+            if (followerIds.size() < fanOutBatchSize) {
+                break;
+            }
+        }
+        log.debug("帖子已推送到关注流: postId={}, authorId={}, inboxes={}", postId, authorId, pushed);
+    }
+
+    /**
+     * 关注/取消关注后，把被关注者最近的帖子并入或移出收件箱
+     *
+     * @param userId 关注者ID
+     * @param targetUserId 被关注者ID
+     * @param followed true关注，false取消关注
+     */
+    public void onFollowChanged(Long userId, Long targetUserId, boolean followed) {
+        List<Long> postIds = postRepository.findRecentIdsByAuthorIdIn(List.of(targetUserId), PageRequest.of(0, maxSize));
+        if (postIds.isEmpty()) {
+            return;
+        }
+        String inbox = RedisKey.feedInboxKey(userId);
+        if (followed) {
+            push(List.of(inbox), postIds);
+        } else {
+            stringRedisTemplate.opsForZSet().remove(inbox, postIds.stream().map(String::valueOf).toArray());
+        }
+    }
+
+    /**
+     * 获取关注流的一页
+     *
+     * @param userId 当前用户ID
+     * @param cursor 上一页最后一个帖子ID，首页为null
+     * @param size 每页帖子数，为空时使用默认值
+     * @return 关注流分页
+     * @throws IllegalArgumentException 游标无效时
+     */
+    public PostTimelineDTO getFeed(Long userId, String cursor, Integer size) {
+        int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize));
+        double max = parseCursor(cursor);
+        String inbox = RedisKey.feedInboxKey(userId);
+
+        // 一次往返：续期收件箱（同时判断是否存在）、读取本页范围、读取大V集合
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.expire(inbox, inboxTtlDays, TimeUnit.DAYS);
+                ops.opsForZSet().reverseRangeByScore(inbox, 1, max, 0, pageSize + 1);
+                ops.opsForSet().members(RedisKey.FEED_CELEBRITY_SET);
+                return null;
+            }
+        });
+
+        List<Long> candidates;
+        if (Boolean.TRUE.equals(results.get(0))) {
+            candidates = toIds(results.get(1));
+        } else {
+            candidates = rebuildInbox(userId).stream().filter(id -> id <= max).limit(pageSize + 1).toList();
+        }
+        candidates = mergeCelebrityPosts(userId, candidates, toIds(results.get(2)), max, pageSize + 1);
+
+        boolean hasMore = candidates.size() > pageSize;
+        List<Long> pageIds = hasMore ? candidates.subList(0, pageSize) : candidates;
+        String nextCursor = hasMore ? pageIds.get(pageIds.size() - 1).toString() : null;
+
+        return new PostTimelineDTO(postTimelineService.assemble(loadPosts(inbox, pageIds), userId), nextCursor, hasMore);
+    }
+
+    // ========== 私有方法 ==========
+
+    private long push(List<String> inboxes, Collection<Long> postIds) {
+        List<String> args = new ArrayList<>(postIds.size() + 1);
+        args.add(String.valueOf(maxSize));
+        postIds.forEach(id -> args.add(id.toString()));
+        Long pushed = stringRedisTemplate.execute(PUSH, inboxes, args.toArray());
+        return pushed != null ? pushed : 0;
+    }
+
+    /**
+     * 从数据库重建收件箱：关注的作者最近的帖子
+     *
+     * @return 帖子ID列表（按ID倒序）
+     */
+    private List<Long> rebuildInbox(Long userId) {
+        List<Long> followingIds = userFollowRepository.findFollowingIdsByFollowerId(userId);
+        List<Long> postIds = followingIds.isEmpty()
+                ? List.of()
+                : postRepository.findRecentIdsByAuthorIdIn(followingIds, PageRequest.of(0, maxSize));
+
+        String inbox = RedisKey.feedInboxKey(userId);
+        Set<TypedTuple<String>> tuples = new HashSet<>();
+        tuples.add(new DefaultTypedTuple<>(SENTINEL, 0d));
+        postIds.forEach(id -> tuples.add(new DefaultTypedTuple<>(id.toString(), id.doubleValue())));
+        stringRedisTemplate.opsForZSet().add(inbox, tuples);
+        stringRedisTemplate.expire(inbox, inboxTtlDays, TimeUnit.DAYS);
+
+        log.debug("关注流收件箱已重建: userId={}, followings={}, posts={}", userId, followingIds.size(), postIds.size());
+        return postIds;
+    }
+
+    /**
+     * 合并已关注大V发件箱中的帖子，按ID倒序去重后截取
+     */
+    private List<Long> mergeCelebrityPosts(Long userId, List<Long> inboxIds, List<Long> celebrityIds, double max, int limit) {
+        if (celebrityIds.isEmpty()) {
+            return inboxIds;
+        }
+        List<Long> followedCelebrities = userFollowRepository.findFollowingIdsIn(userId, celebrityIds);
+        if (followedCelebrities.isEmpty()) {
+            return inboxIds;
+        }
+
+        List<Object> outboxes = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (Long authorId : followedCelebrities) {
+                    ops.opsForZSet().reverseRangeByScore(RedisKey.feedOutboxKey(authorId), 1, max, 0, limit);
+                }
+                return null;
+            }
+        });
+
+        Set<Long> merged = new HashSet<>(inboxIds);
+        outboxes.forEach(outbox -> merged.addAll(toIds(outbox)));
+        return merged.stream().sorted(Comparator.reverseOrder()).limit(limit).toList();
+    }
+
+    /**
+     * 批量读取帖子并按ID顺序排列，已删除的帖子从收件箱移除
+     */
+    private List<Post> loadPosts(String inbox, List<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Post> found = postRepository.findAllWithAuthorByIdIn(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+
+        List<Post> posts = new ArrayList<>(postIds.size());
+        List<String> missing = new ArrayList<>();
+        for (Long postId : postIds) {
+            Post post = found.get(postId);
+            if (post != null) {
+                posts.add(post);
+            } else {
+                missing.add(postId.toString());
+            }
+        }
+        if (!missing.isEmpty()) {
+            stringRedisTemplate.opsForZSet().remove(inbox, missing.toArray());
+        }
+        return posts;
+    }
+
+    private static double parseCursor(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        try {
+            return Long.parseLong(cursor) - 1;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的游标: " + cursor);
+        }
+    }
+
+    private static List<Long> toIds(Object members) {
+        if (!(members instanceof Collection<?> collection)) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(collection.size());
+        for (Object member : collection) {
+            String value = member.toString();
+            if (!SENTINEL.equals(value)) {
+                ids.add(Long.valueOf(value));
+            }
+        }
+        return ids;
+    }
+}
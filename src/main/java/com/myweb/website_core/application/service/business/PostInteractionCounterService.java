@@ -0,0 +1,369 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.InteractionBatchRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.PostCollectRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.PostLikeRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 帖子点赞/收藏Redis计数服务
+ *
+ * 每个帖子的点赞用户、收藏用户分别保存为Redis集合，集合中固定包含一个占位成员，
+ * 用于区分“未加载”和“无人点赞”：
+ * - 切换点赞/收藏通过Lua脚本在一次往返内完成成员增删、计数和脏标记
+ * - 单个及批量的成员判断直接读取集合，不访问数据库
+ * - 集合不存在时从数据库加载一次（冷帖子首次访问）
+ * - 定时将脏帖子的集合大小对账写回posts表，这是帖子点赞数、收藏数的唯一写入方
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostInteractionCounterService {
+
+    /**
+     * 集合占位成员，计数时需要减去
+     */
+    private static final String SENTINEL = "_";
+
+    /**
+     * 加载集合时每次SADD的成员数
+     */
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    /**
+     * 切换成员脚本
+     *
+     * KEYS[1] 成员集合，KEYS[2] 脏帖子集合；ARGV[1] 用户ID，ARGV[2] 帖子ID，ARGV[3] 过期秒数
+     * 返回 {状态(1已添加/0已移除/-1未加载), 当前计数}
+     */
+    private static final String TOGGLE_SCRIPT =
+        "if redis.call('EXISTS', KEYS[1]) == 0 then " +
+        "  return {-1, 0} " +
+        "end " +
+        "local state " +
+        "if redis.call('SISMEMBER', KEYS[1], ARGV[1]) == 1 then " +
+        "  redis.call('SREM', KEYS[1], ARGV[1]) " +
+        "  state = 0 " +
+        "else " +
+        "  redis.call('SADD', KEYS[1], ARGV[1]) " +
+        "  state = 1 " +
+        "end " +
+        "redis.call('EXPIRE', KEYS[1], ARGV[3]) " +
+        "redis.call('SADD', KEYS[2], ARGV[2]) " +
+        "return {state, redis.call('SCARD', KEYS[1]) - 1}";
+
+    /**
+     * 批量成员判断脚本
+     *
+     * KEYS 各帖子的成员集合；ARGV[1] 用户ID
+     * 返回与KEYS等长的数组：1是成员，0不是成员，-1集合未加载
+     */
+    private static final String MEMBERSHIP_SCRIPT =
+        "local result = {} " +
+        "for i, key in ipairs(KEYS) do " +
+        "  if redis.call('EXISTS', key) == 0 then " +
+        "    result[i] = -1 " +
+        "  elseif redis.call('SISMEMBER', key, ARGV[1]) == 1 then " +
+        "    result[i] = 1 " +
+        "  else " +
+        "    result[i] = 0 " +
+        "  end " +
+        "end " +
+        "return result";
+
+    private static final DefaultRedisScript<List<Long>> TOGGLE = longListScript(TOGGLE_SCRIPT);
+    private static final DefaultRedisScript<List<Long>> MEMBERSHIP = longListScript(MEMBERSHIP_SCRIPT);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final PostRepository postRepository;
+    private final PostLikeRepository postLikeRepository;
+    private final PostCollectRepository postCollectRepository;
+    private final InteractionBatchRepository interactionBatchRepository;
+
+    @Value("${app.interaction.counter.ttl-days:7}")
+    private long ttlDays;
+
+    @Value("${app.interaction.counter.reconcile-batch-size:500}")
+    private int reconcileBatchSize;
+
+    /**
+     * 切换点赞状态
+     *
+     * @param postId 帖子ID
+     * @param userId 用户ID
+     * @return 切换后的状态和点赞数
+     */
+    public ToggleResult toggleLike(Long postId, Long userId) {
+        return toggle(RedisKey.postLikeMembersKey(postId), postId, userId, postLikeRepository::findUserIdsByPostId);
+    }
+
+    /**
+     * 切换收藏状态
+     *
+     * @param postId 帖子ID
+     * @param userId 用户ID
+     * @return 切换后的状态和收藏数
+     */
+    public ToggleResult toggleCollect(Long postId, Long userId) {
+        return toggle(RedisKey.postCollectMembersKey(postId), postId, userId, postCollectRepository::findUserIdsByPostId);
+    }
+
+    /**
+     * 判断用户是否点赞了帖子
+     */
+    public boolean isLiked(Long postId, Long userId) {
+        return isMember(RedisKey.postLikeMembersKey(postId), postId, userId, postLikeRepository::findUserIdsByPostId);
+    }
+
+    /**
+     * 判断用户是否收藏了帖子
+     */
+    public boolean isCollected(Long postId, Long userId) {
+        return isMember(RedisKey.postCollectMembersKey(postId), postId, userId, postCollectRepository::findUserIdsByPostId);
+    }
+
+    /**
+     * 批量判断用户对一组帖子的点赞状态（一次Redis往返）
+     *
+     * @param postIds 帖子ID列表
+     * @param userId 用户ID
+     * @return 帖子ID -> 是否点赞；集合尚未加载的帖子不在结果中，由调用方自行回退
+     */
+    public Map<Long, Boolean> findLiked(Collection<Long> postIds, Long userId) {
+        return findMembership(postIds, userId, RedisKey::postLikeMembersKey);
+    }
+
+    /**
+     * 批量判断用户对一组帖子的收藏状态（一次Redis往返）
+     *
+     * @param postIds 帖子ID列表
+     * @param userId 用户ID
+     * @return 帖子ID -> 是否收藏；集合尚未加载的帖子不在结果中，由调用方自行回退
+     */
+    public Map<Long, Boolean> findCollected(Collection<Long> postIds, Long userId) {
+        return findMembership(postIds, userId, RedisKey::postCollectMembersKey);
+    }
+
+    /**
+     * 批量判断用户对一组帖子的点赞和收藏状态
+     *
+     * 点赞集合和收藏集合在同一次脚本调用中判断，只需一次Redis往返
+     *
+     * @param postIds 帖子ID列表
+     * @param userId 用户ID
+     * @return 点赞和收藏状态；集合尚未加载的帖子不在对应结果中，由调用方自行回退
+     */
+    public Membership findInteractions(Collection<Long> postIds, Long userId) {
+        Map<Long, Boolean> liked = new HashMap<>();
+        Map<Long, Boolean> collected = new HashMap<>();
+        if (userId == null || postIds == null || postIds.isEmpty()) {
+            return new Membership(liked, collected);
+        }
+        List<Long> ids = new ArrayList<>(postIds);
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        ids.forEach(id -> keys.add(RedisKey.postLikeMembersKey(id)));
+        ids.forEach(id -> keys.add(RedisKey.postCollectMembersKey(id)));
+        List<Long> result = stringRedisTemplate.execute(MEMBERSHIP, keys, userId.toString());
+        for (int i = 0; i < ids.size(); i++) {
+            putMembership(liked, ids.get(i), result.get(i));
+            putMembership(collected, ids.get(i), result.get(ids.size() + i));
+        }
+        return new Membership(liked, collected);
+    }
+
+    /**
+     * 将有变更的帖子计数对账写回数据库
+     */
+    @Scheduled(fixedDelayString = "${app.interaction.counter.reconcile-interval-ms:5000}")
+    public void reconcileCounts() {
+        List<String> dirty;
+        try {
+            dirty = stringRedisTemplate.opsForSet().pop(RedisKey.POST_INTERACTION_DIRTY_SET, reconcileBatchSize);
+        } catch (Exception e) {
+            log.warn("获取待对账帖子失败: {}", e.getMessage());
+            return;
+        }
+        if (dirty == null || dirty.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Long> postIds = dirty.stream().map(Long::valueOf).toList();
+            List<Object> sizes = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Long postId : postIds) {
+                    connection.setCommands().sCard(bytes(RedisKey.postLikeMembersKey(postId)));
+                    connection.setCommands().sCard(bytes(RedisKey.postCollectMembersKey(postId)));
+                }
+                return null;
+            });
+
+            Map<Long, Long> likeCounts = new HashMap<>();
+            Map<Long, Long> collectCounts = new HashMap<>();
+            for (int i = 0; i < postIds.size(); i++) {
+                putLoadedCount(likeCounts, postIds.get(i), sizes.get(i * 2));
+                putLoadedCount(collectCounts, postIds.get(i), sizes.get(i * 2 + 1));
+            }
+            interactionBatchRepository.updatePostLikeCounts(likeCounts);
+            interactionBatchRepository.updatePostCollectCounts(collectCounts);
+
+            log.debug("帖子点赞/收藏计数对账完成，帖子数: {}", postIds.size());
+        } catch (Exception e) {
+            log.error("帖子点赞/收藏计数对账失败，将在下次重试: {}", e.getMessage(), e);
+            stringRedisTemplate.opsForSet().add(RedisKey.POST_INTERACTION_DIRTY_SET, dirty.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * 帖子删除后清除其成员集合
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChange(ContentChangeEvent event) {
+        if (!ContentChangeEvent.ENTITY_POST.equals(event.getEntityType()) || !event.isDelete()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.delete(List.of(
+                    RedisKey.postLikeMembersKey(event.getEntityId()),
+                    RedisKey.postCollectMembersKey(event.getEntityId())));
+        } catch (Exception e) {
+            log.warn("清除帖子点赞/收藏集合失败: postId={}, error={}", event.getEntityId(), e.getMessage());
+        }
+    }
+
+    // ========== 私有方法 ==========
+
+    private ToggleResult toggle(String key, Long postId, Long userId, Function<Long, List<Long>> loader) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            List<Long> result = stringRedisTemplate.execute(TOGGLE,
+                    List.of(key, RedisKey.POST_INTERACTION_DIRTY_SET),
+                    userId.toString(), postId.toString(), String.valueOf(TimeUnit.DAYS.toSeconds(ttlDays)));
+            long state = ((Number) result.get(0)).longValue();
+            if (state >= 0) {
+                return new ToggleResult(state == 1, ((Number) result.get(1)).intValue());
+            }
+            load(key, postId, loader);
+        }
+        throw new IllegalStateException("加载帖子交互集合失败: " + key);
+    }
+
+    private boolean isMember(String key, Long postId, Long userId, Function<Long, List<Long>> loader) {
+        if (userId == null) {
+            return false;
+        }
+        Map<Long, Boolean> known = findMembership(List.of(postId), userId, id -> key);
+        Boolean member = known.get(postId);
+        if (member != null) {
+            return member;
+        }
+        load(key, postId, loader);
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForSet().isMember(key, userId.toString()));
+    }
+
+    private Map<Long, Boolean> findMembership(Collection<Long> postIds, Long userId, Function<Long, String> keyOf) {
+        Map<Long, Boolean> membership = new HashMap<>();
+        if (userId == null || postIds == null || postIds.isEmpty()) {
+            return membership;
+        }
+        List<Long> ids = new ArrayList<>(postIds);
+        List<String> keys = ids.stream().map(keyOf).toList();
+        List<Long> result = stringRedisTemplate.execute(MEMBERSHIP, keys, userId.toString());
+        for (int i = 0; i < ids.size(); i++) {
+            putMembership(membership, ids.get(i), result.get(i));
+        }
+        return membership;
+    }
+
+    private void putMembership(Map<Long, Boolean> membership, Long postId, Object state) {
+        long value = ((Number) state).longValue();
+        if (value >= 0) {
+            membership.put(postId, value == 1);
+        }
+    }
+
+    /**
+     * 从数据库加载成员集合
+     *
+     * 先写入临时键，再通过RENAMENX原子地发布，避免并发加载时读到不完整的集合
+     */
+    private void load(String key, Long postId, Function<Long, List<Long>> loader) {
+        if (!postRepository.existsById(postId)) {
+            throw new RuntimeException("帖子不存在");
+        }
+        List<Long> userIds = loader.apply(postId);
+        List<String> members = new ArrayList<>(userIds.size() + 1);
+        members.add(SENTINEL);
+        userIds.forEach(id -> members.add(id.toString()));
+
+        String tempKey = key + ":loading:" + UUID.randomUUID();
+        for (int from = 0; from < members.size(); from += LOAD_CHUNK_SIZE) {
+            List<String> chunk = members.subList(from, Math.min(from + LOAD_CHUNK_SIZE, members.size()));
+            stringRedisTemplate.opsForSet().add(tempKey, chunk.toArray(new String[0]));
+        }
+        stringRedisTemplate.expire(tempKey, ttlDays, TimeUnit.DAYS);
+        if (!Boolean.TRUE.equals(stringRedisTemplate.renameIfAbsent(tempKey, key))) {
+            stringRedisTemplate.delete(tempKey);
+        }
+        log.debug("加载帖子交互集合: key={}, 成员数={}", key, userIds.size());
+    }
+
+    private void putLoadedCount(Map<Long, Long> counts, Long postId, Object size) {
+        long cardinality = size instanceof Number number ? number.longValue() : 0L;
+        // 集合不存在（已过期）时不覆盖数据库中的计数
+        if (cardinality > 0) {
+            counts.put(postId, cardinality - 1);
+        }
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 返回整数列表的脚本，结果类型无法以泛型Class表示，在此集中转换
+     */
+    @SuppressWarnings("unchecked")
+    private static DefaultRedisScript<List<Long>> longListScript(String script) {
+        DefaultRedisScript<List<Long>> redisScript = new DefaultRedisScript<>(script);
+        redisScript.setResultType((Class<List<Long>>) (Class<?>) List.class);
+        return redisScript;
+    }
+
+    /**
+     * 切换结果
+     *
+     * @param active 切换后是否处于点赞/收藏状态
+     * @param count 切换后的点赞/收藏数
+     */
+    public record ToggleResult(boolean active, int count) {
+    }
+
+    /**
+     * 批量成员判断结果
+     *
+     * @param liked 帖子ID -> 是否点赞（仅包含集合已加载的帖子）
+     * @param collected 帖子ID -> 是否收藏（仅包含集合已加载的帖子）
+     */
+    public record Membership(Map<Long, Boolean> liked, Map<Long, Boolean> collected) {
+    }
+}
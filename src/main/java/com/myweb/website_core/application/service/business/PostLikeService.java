@@ -1,28 +1,30 @@
 package com.myweb.website_core.application.service.business;
 
 import com.myweb.website_core.application.service.integration.MessageProducerService;
-import com.myweb.website_core.common.util.RedisKey;
 import com.myweb.website_core.domain.business.dto.CollectResponse;
+import com.myweb.website_core.domain.business.dto.PostInteractionEvent;
+import com.myweb.website_core.domain.business.dto.PostInteractionStatus;
 import com.myweb.website_core.domain.business.entity.Post;
-import com.myweb.website_core.domain.business.entity.PostCollect;
-import com.myweb.website_core.infrastructure.persistence.repository.interaction.PostCollectRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.InteractionBatchRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.interaction.PostLikeRepository;
-import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
 import com.myweb.website_core.domain.business.entity.PostLike;
 import com.myweb.website_core.domain.business.entity.User;
 import com.myweb.website_core.domain.business.dto.LikeResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -30,89 +32,106 @@ import java.util.concurrent.TimeUnit;
 public class PostLikeService {
     
     private final PostLikeRepository postLikeRepository;
-    private final PostRepository postRepository;
    // private final UserRepository userRepository;
-    private final PostCollectRepository postCollectRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
     private final MessageProducerService messageProducerService;
+    private final PostInteractionCounterService postInteractionCounterService;
+    private final InteractionBatchRepository interactionBatchRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     
     /**
      * 切换点赞状态
+     * 
+     * 成员判断和计数在Redis中一次完成，关系记录由消息消费者异步落库
      */
-    @Transactional
     public LikeResponse toggleLike(Long postId, Long userId) {
-        System.out.println("开始处理点赞操作: postId=" + postId + ", userId=" + userId);
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("帖子不存在"));
-
-        Optional<PostLike> existingLike = postLikeRepository.findByUserIdAndPostId(userId, postId);
-        //判断是否已点赞
-        boolean isLiked = existingLike.isPresent();
-        int likeCount = isLiked ? post.getLikeCount() - 1 : post.getLikeCount() + 1;
+        PostInteractionCounterService.ToggleResult result = postInteractionCounterService.toggleLike(postId, userId);
+        eventPublisher.publishEvent(PostInteractionEvent.like(postId, userId, result.active(), result.count()));
 
         // 发送消息到RabbitMQ（异步，不影响主业务）
         try {
-            messageProducerService.sendPostLikeMessage(postId, userId,!isLiked);
+            messageProducerService.sendPostLikeMessage(postId, userId, result.active());
         } catch (Exception e) {
-            System.err.println("Failed to send like message, but like operation succeeded: " + e.getMessage());
+            log.error("发送点赞消息失败: postId={}, userId={}, error={}", postId, userId, e.getMessage());
         }
 
-            // 记录到Redis缓存
-            String likeKey = RedisKey.likeKey(postId, userId);
-            redisTemplate.opsForValue().set(likeKey, !isLiked, 5, TimeUnit.MINUTES);
-            
-            // 控制台注解：记录取消点赞操作
-            System.out.println("User " + userId + " unliked post " + postId + " at " + java.time.LocalDateTime.now());
-
-            return new LikeResponse(!isLiked, likeCount);
+        return new LikeResponse(result.active(), result.count());
     }
-    @Transactional
-    public CollectResponse toggleCollect(Long postId, Long userId) {
-        System.out.println("开始处理收藏操作: postId=" + postId + ", userId=" + userId);
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("帖子不存在"));
 
-        Optional<PostCollect> existingCollect = postCollectRepository.findByUserIdAndPostId(userId, postId);
-        //判断是否已点赞
-        boolean isCollect = existingCollect.isPresent();
-        int CollectCount = isCollect ? post.getCollectCount() - 1 : post.getCollectCount() + 1;
+    /**
+     * 切换收藏状态
+     */
+    public CollectResponse toggleCollect(Long postId, Long userId) {
+        PostInteractionCounterService.ToggleResult result = postInteractionCounterService.toggleCollect(postId, userId);
+        eventPublisher.publishEvent(PostInteractionEvent.collect(postId, userId, result.active(), result.count()));
 
         // 发送消息到RabbitMQ（异步，不影响主业务）
         try {
-            messageProducerService.sendPostCollectMessage(postId, userId,!isCollect);
+            messageProducerService.sendPostCollectMessage(postId, userId, result.active());
         } catch (Exception e) {
-            System.err.println("Failed to send like message, but like operation succeeded: " + e.getMessage());
+            log.error("发送收藏消息失败: postId={}, userId={}, error={}", postId, userId, e.getMessage());
         }
 
-        // 记录到Redis缓存
-        String CollectKey = RedisKey.collectKey(postId, userId);
-        redisTemplate.opsForValue().set(CollectKey, !isCollect, 5, TimeUnit.MINUTES);
-
-        // 控制台注解：记录取消点赞操作
-        System.out.println("User " + userId + " unCollectd post " + postId + " at " + java.time.LocalDateTime.now());
-
-        return new CollectResponse(false,CollectCount);
+        return new CollectResponse(result.active(), result.count());
     }
+
     /**
      * 检查用户是否点赞了帖子
      */
     public boolean isLikedByUser(Long postId, Long userId) {
         if (userId == null) return false;
-        String likeKey = RedisKey.likeKey(postId, userId);
-        if(redisTemplate.opsForValue().get(likeKey) == null){
-            return postLikeRepository.existsByUserIdAndPostId(userId, postId);
-        }else{
-            return (boolean) redisTemplate.opsForValue().get(likeKey);
-        }
+        return postInteractionCounterService.isLiked(postId, userId);
     }
+
     public boolean isPostCollectedByUser(Long postId, Long userId) {
         if (userId == null) return false;
-        String collectKey = RedisKey.collectKey(postId, userId);
-        if(redisTemplate.opsForValue().get(collectKey) == null){
-            return postCollectRepository.findByUserIdAndPostId(userId, postId).isPresent();
-        }else{
-            return (boolean) redisTemplate.opsForValue().get(collectKey);
+        return postInteractionCounterService.isCollected(postId, userId);
+    }
+
+    /**
+     * 批量获取用户对一组帖子的点赞、收藏状态
+     * 
+     * 先在一次Redis往返中判断已加载的成员集合，集合未加载（或Redis不可用）的帖子
+     * 再通过一次IN查询从关系表补齐，不逐条查询，也不为冷帖子加载集合
+     *
+     * @param userId 用户ID，为空时所有帖子均为未点赞、未收藏
+     * @param postIds 帖子ID列表
+     * @return 帖子ID -> 交互状态，包含所有传入的帖子
+     */
+    public Map<Long, PostInteractionStatus> getInteractionStatus(Long userId, Collection<Long> postIds) {
+        Map<Long, PostInteractionStatus> statuses = new LinkedHashMap<>();
+        if (postIds == null || postIds.isEmpty()) {
+            return statuses;
+        }
+        Set<Long> ids = new LinkedHashSet<>(postIds);
+        ids.remove(null);
+        if (userId == null) {
+            ids.forEach(id -> statuses.put(id, new PostInteractionStatus(false, false)));
+            return statuses;
+        }
+
+        PostInteractionCounterService.Membership membership = findCachedInteractions(ids, userId);
+        List<Long> likeMisses = ids.stream().filter(id -> !membership.liked().containsKey(id)).toList();
+        List<Long> collectMisses = ids.stream().filter(id -> !membership.collected().containsKey(id)).toList();
+        InteractionBatchRepository.InteractedPostIds fallback =
+                interactionBatchRepository.findInteractedPostIds(userId, likeMisses, collectMisses);
+
+        for (Long id : ids) {
+            Boolean liked = membership.liked().get(id);
+            Boolean collected = membership.collected().get(id);
+            statuses.put(id, new PostInteractionStatus(
+                    liked != null ? liked : fallback.liked().contains(id),
+                    collected != null ? collected : fallback.collected().contains(id)));
+        }
+        return statuses;
+    }
+
+    private PostInteractionCounterService.Membership findCachedInteractions(Set<Long> postIds, Long userId) {
+        try {
+            return postInteractionCounterService.findInteractions(postIds, userId);
+        } catch (Exception e) {
+            log.warn("批量读取点赞/收藏集合失败，回退到数据库: userId={}, error={}", userId, e.getMessage());
+            return new PostInteractionCounterService.Membership(Map.of(), Map.of());
         }
     }
     
@@ -0,0 +1,358 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
+import com.myweb.website_core.domain.business.dto.PostDTO;
+import com.myweb.website_core.domain.business.dto.PostInteractionEvent;
+import com.myweb.website_core.domain.business.entity.Post;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 帖子排行榜服务
+ *
+ * 排行榜保存在Redis有序集合中，由点赞/收藏/评论事件增量维护，不再每次按 like_count 排序查询：
+ * - 总榜：成员分数为帖子当前点赞数，点赞切换时直接写入绝对值，定期从数据库重建以纠正偏差
+ * - 24小时/7天热榜：事件按权重累加到小时桶/天桶，定时按时间衰减权重合并窗口内的桶
+ * 每个榜单的前 size 名与帖子内容预先组装为进程内快照并定时刷新，读取排行榜不访问数据库和Redis。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostRankingService {
+
+    private static final long MILLIS_PER_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private static final int HOURS_PER_DAY = 24;
+
+    private static final int DAYS_PER_WEEK = 7;
+
+    /**
+     * 排行榜
+     */
+    public enum Board {
+        /**
+         * 总点赞榜
+         */
+        ALL_TIME("all"),
+        /**
+         * 24小时热榜，按小时桶合并
+         */
+        HOT_24H("24h"),
+        /**
+         * 7天热榜，按天桶合并
+         */
+        HOT_7D("7d");
+
+        private final String code;
+
+        Board(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public static Board fromCode(String code) {
+            for (Board board : values()) {
+                if (board.code.equalsIgnoreCase(code)) {
+                    return board;
+                }
+            }
+            throw new IllegalArgumentException("不支持的排行榜: " + code);
+        }
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final PostRepository postRepository;
+    private final PostTimelineService postTimelineService;
+
+    @Value("${app.post.ranking.size:100}")
+    private int size;
+
+    @Value("${app.post.ranking.capacity:1000}")
+    private int capacity;
+
+    @Value("${app.post.ranking.like-weight:1}")
+    private double likeWeight;
+
+    @Value("${app.post.ranking.collect-weight:2}")
+    private double collectWeight;
+
+    @Value("${app.post.ranking.comment-weight:3}")
+    private double commentWeight;
+
+    @Value("${app.post.ranking.half-life-hours-24h:6}")
+    private double halfLifeHours24h;
+
+    @Value("${app.post.ranking.half-life-hours-7d:48}")
+    private double halfLifeHours7d;
+
+    /**
+     * 各榜单预先组装的前 size 名
+     */
+    private volatile Map<Board, List<PostDTO>> snapshot = new EnumMap<>(Board.class);
+
+    /**
+     * 获取排行榜前 limit 名，只读取进程内快照
+     *
+     * @param board 排行榜
+     * @param limit 数量，最多 size
+     * @return 帖子列表
+     * @throws IllegalArgumentException 数量无效时
+     */
+    public List<PostDTO> getTopPosts(Board board, int limit) {
+        if (limit <= 0 || limit > size) {
+            throw new IllegalArgumentException("限制数量必须在1-" + size + "之间");
+        }
+        List<PostDTO> posts = snapshot.getOrDefault(board, List.of());
+        return posts.size() <= limit ? posts : posts.subList(0, limit);
+    }
+
+    /**
+     * 点赞/收藏切换后更新排行榜
+     */
+    @EventListener
+    public void onInteraction(PostInteractionEvent event) {
+        double weight = event.isLike() ? likeWeight : collectWeight;
+        try {
+            record(event.getPostId(), event.isActive() ? weight : -weight,
+                   event.isLike() ? event.getCount() : null);
+        } catch (Exception e) {
+            log.warn("更新帖子排行榜失败: postId={}, type={}, error={}", event.getPostId(), event.getType(), e.getMessage());
+        }
+    }
+
+    /**
+     * 评论增删后更新热榜，帖子删除后移出排行榜
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChange(ContentChangeEvent event) {
+        try {
+            if (ContentChangeEvent.ENTITY_COMMENT.equals(event.getEntityType()) && event.getPostId() != null) {
+                if (ContentChangeEvent.CHANGE_CREATE.equals(event.getChangeType())) {
+                    record(event.getPostId(), commentWeight, null);
+                } else if (event.isDelete()) {
+                    record(event.getPostId(), -commentWeight, null);
+                }
+            } else if (ContentChangeEvent.ENTITY_POST.equals(event.getEntityType()) && event.isDelete()) {
+                removePost(event.getEntityId());
+            }
+        } catch (Exception e) {
+            log.warn("更新帖子排行榜失败: entityType={}, entityId={}, error={}",
+                    event.getEntityType(), event.getEntityId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 合并热榜窗口并刷新进程内快照
+     */
+    @Scheduled(fixedDelayString = "${app.post.ranking.refresh-interval-ms:10000}")
+    public void refresh() {
+        try {
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisKey.POST_RANK_LIKES))) {
+                rebuildLikes();
+            } else {
+                stringRedisTemplate.opsForZSet().removeRange(RedisKey.POST_RANK_LIKES, 0, -(capacity + 1));
+            }
+            long hour = currentHour();
+            mergeWindow(Board.HOT_24H, hourBuckets(hour), 1, halfLifeHours24h);
+            mergeWindow(Board.HOT_7D, dayBuckets(hour / HOURS_PER_DAY), HOURS_PER_DAY, halfLifeHours7d);
+            snapshot = loadSnapshot();
+        } catch (Exception e) {
+            log.warn("刷新帖子排行榜失败，继续使用上次的快照: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定期从数据库重建总点赞榜，纠正被截断的帖子重新上榜等造成的偏差
+     */
+    @Scheduled(fixedDelayString = "${app.post.ranking.rebuild-interval-ms:3600000}",
+               initialDelayString = "${app.post.ranking.rebuild-interval-ms:3600000}")
+    public void rebuildLikes() {
+        List<PostRepository.PostLikeCount> counts = postRepository.findTopLikeCounts(PageRequest.of(0, capacity));
+        if (counts.isEmpty()) {
+            stringRedisTemplate.delete(RedisKey.POST_RANK_LIKES);
+            return;
+        }
+        Set<TypedTuple<String>> tuples = new HashSet<>();
+        counts.forEach(count -> tuples.add(new DefaultTypedTuple<>(count.getPostId().toString(),
+                count.getLikeCount().doubleValue())));
+
+        // 写入临时键后原子替换，重建期间读取的仍是旧榜单
+        String tempKey = RedisKey.POST_RANK_LIKES + ":loading:" + UUID.randomUUID();
+        stringRedisTemplate.opsForZSet().add(tempKey, tuples);
+        stringRedisTemplate.rename(tempKey, RedisKey.POST_RANK_LIKES);
+        log.debug("总点赞榜已重建，帖子数: {}", counts.size());
+    }
+
+    // ========== 私有方法 ==========
+
+    /**
+     * 一次往返内更新总榜和当前的小时桶、天桶
+     *
+     * @param likeCount 切换后的点赞数，非点赞事件为null
+     */
+    private void record(Long postId, double delta, Integer likeCount) {
+        long hour = currentHour();
+        String member = postId.toString();
+        String hourKey = RedisKey.postRankHourKey(hour);
+        String dayKey = RedisKey.postRankDayKey(hour / HOURS_PER_DAY);
+
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                if (likeCount != null) {
+                    if (likeCount > 0) {
+                        ops.opsForZSet().add(RedisKey.POST_RANK_LIKES, member, likeCount);
+                    } else {
+                        ops.opsForZSet().remove(RedisKey.POST_RANK_LIKES, member);
+                    }
+                }
+                ops.opsForZSet().incrementScore(hourKey, member, delta);
+                ops.expire(hourKey, HOURS_PER_DAY + 1, TimeUnit.HOURS);
+                ops.opsForZSet().incrementScore(dayKey, member, delta);
+                ops.expire(dayKey, DAYS_PER_WEEK + 1, TimeUnit.DAYS);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 按衰减权重合并窗口内的桶，只保留前 capacity 名
+     *
+     * @param buckets 桶键，从新到旧
+     * @param bucketHours 每个桶的小时数
+     * @param halfLifeHours 半衰期小时数
+     */
+    private void mergeWindow(Board board, List<String> buckets, int bucketHours, double halfLifeHours) {
+        double[] weights = new double[buckets.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = Math.pow(0.5, i * bucketHours / halfLifeHours);
+        }
+        String key = RedisKey.postRankHotKey(board.getCode());
+        stringRedisTemplate.opsForZSet().unionAndStore(buckets.get(0), buckets.subList(1, buckets.size()), key,
+                Aggregate.SUM, Weights.of(weights));
+        stringRedisTemplate.opsForZSet().removeRangeByScore(key, Double.NEGATIVE_INFINITY, 0);
+        stringRedisTemplate.opsForZSet().removeRange(key, 0, -(capacity + 1));
+    }
+
+    /**
+     * 读取各榜单前 size 名，一次批量查询帖子并组装
+     */
+    private Map<Board, List<PostDTO>> loadSnapshot() {
+        List<Object> ranges = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForZSet().reverseRange(RedisKey.POST_RANK_LIKES, 0, size - 1);
+                ops.opsForZSet().reverseRange(RedisKey.postRankHotKey(Board.HOT_24H.getCode()), 0, size - 1);
+                ops.opsForZSet().reverseRange(RedisKey.postRankHotKey(Board.HOT_7D.getCode()), 0, size - 1);
+                return null;
+            }
+        });
+
+        Map<Board, List<Long>> ids = new EnumMap<>(Board.class);
+        Set<Long> allIds = new LinkedHashSet<>();
+        Board[] boards = {Board.ALL_TIME, Board.HOT_24H, Board.HOT_7D};
+        for (int i = 0; i < boards.length; i++) {
+            List<Long> boardIds = toIds(ranges.get(i));
+            ids.put(boards[i], boardIds);
+            allIds.addAll(boardIds);
+        }
+
+        Map<Long, PostDTO> posts = Map.of();
+        if (!allIds.isEmpty()) {
+            List<Post> found = postRepository.findAllWithAuthorByIdIn(allIds);
+            posts = postTimelineService.assemble(found, null).stream()
+                    .collect(Collectors.toMap(PostDTO::getId, Function.identity()));
+        }
+
+        Map<Board, List<PostDTO>> loaded = new EnumMap<>(Board.class);
+        for (Board board : boards) {
+            List<PostDTO> ranked = new ArrayList<>();
+            for (Long postId : ids.get(board)) {
+                PostDTO post = posts.get(postId);
+                if (post != null) {
+                    ranked.add(post);
+                }
+            }
+            loaded.put(board, List.copyOf(ranked));
+        }
+        return loaded;
+    }
+
+    private void removePost(Long postId) {
+        String member = postId.toString();
+        stringRedisTemplate.opsForZSet().remove(RedisKey.POST_RANK_LIKES, member);
+        stringRedisTemplate.opsForZSet().remove(RedisKey.postRankHotKey(Board.HOT_24H.getCode()), member);
+        stringRedisTemplate.opsForZSet().remove(RedisKey.postRankHotKey(Board.HOT_7D.getCode()), member);
+
+        Map<Board, List<PostDTO>> current = snapshot;
+        Map<Board, List<PostDTO>> updated = new EnumMap<>(Board.class);
+        current.forEach((board, posts) -> updated.put(board,
+                posts.stream().filter(post -> !postId.equals(post.getId())).toList()));
+        snapshot = updated;
+    }
+
+    private static List<String> hourBuckets(long hour) {
+        List<String> keys = new ArrayList<>(HOURS_PER_DAY);
+        for (int i = 0; i < HOURS_PER_DAY; i++) {
+            keys.add(RedisKey.postRankHourKey(hour - i));
+        }
+        return keys;
+    }
+
+    private static List<String> dayBuckets(long day) {
+        List<String> keys = new ArrayList<>(DAYS_PER_WEEK);
+        for (int i = 0; i < DAYS_PER_WEEK; i++) {
+            keys.add(RedisKey.postRankDayKey(day - i));
+        }
+        return keys;
+    }
+
+    private static long currentHour() {
+        return System.currentTimeMillis() / MILLIS_PER_HOUR;
+    }
+
+    private static List<Long> toIds(Object members) {
+        if (!(members instanceof Collection<?> collection)) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(collection.size());
+        collection.forEach(member -> ids.add(Long.valueOf(member.toString())));
+        return ids;
+    }
+}
@@ -11,7 +11,9 @@ import com.myweb.website_core.common.util.SecurityUtils;
 import com.myweb.website_core.common.util.LoggingUtils;
 import com.myweb.website_core.common.exception.DataIntegrityException;
 import com.myweb.website_core.common.enums.AuditOperation;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
 import com.myweb.website_core.domain.business.dto.PostDTO;
+import com.myweb.website_core.domain.business.dto.PostInteractionStatus;
 import com.myweb.website_core.domain.business.entity.Post;
 import com.myweb.website_core.domain.business.dto.CollectResponse;
 import com.myweb.website_core.domain.business.dto.LikeResponse;
@@ -20,10 +22,11 @@ import com.myweb.website_core.infrastructure.persistence.repository.interaction.
 import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -57,6 +60,7 @@ public class PostService {
     private final AuditLogService auditLogService;
     private final SafeQueryService safeQueryService;
     private final QueryPerformanceMonitorService queryPerformanceMonitorService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     //@Async
@@ -89,12 +93,13 @@ public class PostService {
 
             // postMapper.insertPost(post);
             Post savedPost = postRepository.save(post);
+            eventPublisher.publishEvent(ContentChangeEvent.post(ContentChangeEvent.CHANGE_CREATE, savedPost.getId()));
 
             // 清除Redis缓存
             // redisTemplate.delete("posts:all");
 
-            // 发送消息到RabbitMQ
-            // messageProducerService.sendPostCreatedMessage(post);
+            // 发送消息到RabbitMQ，异步推送到粉丝的关注流
+            messageProducerService.sendPostCreatedMessage(savedPost);
             
             // 记录操作日志
             long executionTime = System.currentTimeMillis() - startTime;
@@ -171,6 +176,7 @@ public class PostService {
             
             // post.setImageIds(updatedPost.getImageIds());
             Post savedPost = postRepository.save(post);
+            eventPublisher.publishEvent(ContentChangeEvent.post(ContentChangeEvent.CHANGE_UPDATE, id));
             
             // 记录操作日志
             long executionTime = System.currentTimeMillis() - startTime;
@@ -213,19 +219,13 @@ public class PostService {
     }
 
     // @Async
-    @Transactional
     public CollectResponse collectPost(Long postId, Long userId) {
        return postLikeService.toggleCollect(postId, userId);
     }
 
-    @Async
-    public CompletableFuture<List<Post>> getTopLikedPosts() {
-        // 获赞前20逻辑
-        return CompletableFuture.completedFuture(null);
-    }
-
-    // @Async
-    @CachePut(value = "posts", key = "'posts:all'")
+    /**
+     * 读取全部帖子，仅供完整性监控等后台统计使用；首页列表使用 {@link PostTimelineService}
+     */
     public List<Post> getAllPosts() {
         try {
             return postRepository.findAll();
@@ -299,6 +299,36 @@ public class PostService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 将Post列表转换为PostDTO列表，并批量填充用户的点赞、收藏状态
+     *
+     * @param posts 帖子列表
+     * @param userId 当前用户ID，为空时不填充交互状态
+     */
+    public List<PostDTO> convertToDTOList(List<Post> posts, Long userId) {
+        List<PostDTO> postDTOs = convertToDTOList(posts);
+        if (userId == null || postDTOs.isEmpty()) {
+            return postDTOs;
+        }
+        Map<Long, PostInteractionStatus> statuses = getInteractionStatus(userId,
+                postDTOs.stream().map(PostDTO::getId).toList());
+        for (PostDTO postDTO : postDTOs) {
+            PostInteractionStatus status = statuses.get(postDTO.getId());
+            if (status != null) {
+                postDTO.setLiked(status.isLiked());
+                postDTO.setCollected(status.isCollected());
+            }
+        }
+        return postDTOs;
+    }
+
+    /**
+     * 批量获取用户对一组帖子的点赞、收藏状态
+     */
+    public Map<Long, PostInteractionStatus> getInteractionStatus(Long userId, Collection<Long> postIds) {
+        return postLikeService.getInteractionStatus(userId, postIds);
+    }
+
     /**
      * 通过图片ID列表关联图片到帖子（推荐方式）
      */
@@ -322,6 +352,7 @@ public class PostService {
                     System.err.println("关联图片失败: imageId=" + imageId + ", error=" + e.getMessage());
                 }
             }
+            eventPublisher.publishEvent(ContentChangeEvent.post(ContentChangeEvent.CHANGE_UPDATE, postId));
         } catch (Exception e) {
             System.err.println(
                     "通过ID关联图片到帖子失败: postId=" + postId + ", imageIds=" + imageIds + ", error=" + e.getMessage());
@@ -375,6 +406,7 @@ public class PostService {
             }
 
             System.out.println("关联完成: 成功关联 " + imageUrls.size() + " 张图片到帖子 " + postId);
+            eventPublisher.publishEvent(ContentChangeEvent.post(ContentChangeEvent.CHANGE_UPDATE, postId));
 
         } catch (Exception e) {
             System.err
@@ -1154,6 +1186,7 @@ public class PostService {
 
                 // 删除帖子
                 postRepository.deleteById(id);
+                eventPublisher.publishEvent(ContentChangeEvent.post(ContentChangeEvent.CHANGE_DELETE, id));
 
                 // 记录删除操作的审计日志
                 long executionTime = System.currentTimeMillis() - startTime;
@@ -0,0 +1,280 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
+import com.myweb.website_core.domain.business.dto.PostDTO;
+import com.myweb.website_core.domain.business.dto.PostInteractionStatus;
+import com.myweb.website_core.domain.business.dto.PostTimelineDTO;
+import com.myweb.website_core.domain.business.entity.Post;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.ImageRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 帖子时间线服务
+ *
+ * 首页帖子列表按 (创建时间, ID) 倒序的游标分页，每页只读取 size+1 行并走 (created_at, id) 索引，
+ * 耗时与帖子总数无关：
+ * - 首页（无游标）的前 cached-size 条帖子预先组装好保存在内存中，帖子创建/编辑/删除后合并刷新，
+ *   并定期刷新以同步点赞、评论计数
+ * - 每页的图片ID一次批量查询，作者随帖子一起抓取，不逐个触发懒加载
+ * - 帖子变更通过Redis发布/订阅通知其他节点，其他节点在下次访问时重新加载
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostTimelineService implements MessageListener {
+
+    /**
+     * 首页缓存刷新广播频道
+     */
+    public static final String REFRESH_CHANNEL = "post:timeline:refresh";
+
+    private static final String IMAGE_URL_PREFIX = "/blog/api/images/";
+
+    private static final String CURSOR_SEPARATOR = "_";
+
+    /**
+     * 本节点标识，忽略自己发出的刷新广播
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final PostRepository postRepository;
+    private final ImageRepository imageRepository;
+    private final PostLikeService postLikeService;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.post.timeline.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.post.timeline.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.post.timeline.cached-size:100}")
+    private int cachedSize;
+
+    /**
+     * 预先组装的首页，多取一条用于判断是否有更多；为null时在下次访问时加载
+     */
+    private volatile List<PostDTO> firstPage;
+
+    /**
+     * 是否有待刷新的帖子变更
+     */
+    private final AtomicBoolean postChanged = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(REFRESH_CHANNEL));
+    }
+
+    /**
+     * 获取时间线的一页
+     *
+     * @param cursor 上一页返回的游标，首页为null
+     * @param size 每页帖子数，为空时使用默认值
+     * @param userId 当前用户ID，为空时不填充交互状态
+     * @return 时间线分页
+     * @throws IllegalArgumentException 游标无效时
+     */
+    public PostTimelineDTO getTimeline(String cursor, Integer size, Long userId) {
+        int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize));
+
+        List<PostDTO> rows;
+        if (!StringUtils.hasText(cursor) && pageSize <= cachedSize) {
+            // 首页缓存多取了一条，本页最多 pageSize+1 条可以直接判断是否有更多
+            List<PostDTO> cached = getFirstPage();
+            rows = new ArrayList<>(Math.min(cached.size(), pageSize + 1));
+            for (int i = 0; i < cached.size() && i <= pageSize; i++) {
+                rows.add(cached.get(i).copy());
+            }
+        } else if (!StringUtils.hasText(cursor)) {
+            rows = toDTOs(postRepository.findTimelineFirstPage(PageRequest.of(0, pageSize + 1)));
+        } else {
+            Cursor after = Cursor.decode(cursor);
+            rows = toDTOs(postRepository.findTimelineBefore(after.createdAt(), after.id(), PageRequest.of(0, pageSize + 1)));
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PostDTO> posts = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? Cursor.of(posts.get(posts.size() - 1)).encode() : null;
+
+        fillInteractionStatus(posts, userId);
+        return new PostTimelineDTO(List.copyOf(posts), nextCursor, hasMore);
+    }
+
+    /**
+     * 帖子变更提交后标记首页待刷新，由定时任务合并刷新
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChange(ContentChangeEvent event) {
+        if (ContentChangeEvent.ENTITY_POST.equals(event.getEntityType())) {
+            postChanged.set(true);
+        }
+    }
+
+    /**
+     * 合并刷新本节点首页缓存，并通知其他节点
+     */
+    @Scheduled(fixedDelayString = "${app.post.timeline.refresh-delay-ms:1000}")
+    public void flushPostChanges() {
+        if (!postChanged.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            refreshFirstPage();
+        } catch (Exception e) {
+            firstPage = null;
+            log.warn("刷新首页帖子缓存失败，下次访问时重新加载: {}", e.getMessage());
+        }
+        try {
+            redisTemplate.convertAndSend(REFRESH_CHANNEL, nodeId);
+        } catch (Exception e) {
+            log.warn("广播首页帖子缓存刷新消息失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定期刷新首页缓存，同步点赞、评论等计数
+     */
+    @Scheduled(fixedDelayString = "${app.post.timeline.full-refresh-interval-ms:30000}")
+    public void refreshCounts() {
+        if (firstPage == null) {
+            return;
+        }
+        try {
+            refreshFirstPage();
+        } catch (Exception e) {
+            log.warn("定期刷新首页帖子缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 接收其他节点的刷新广播，清除本地首页缓存
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (nodeId.equals(body)) {
+                return;
+            }
+        } catch (Exception e) {
+            log.debug("解析首页帖子缓存刷新消息失败: {}", e.getMessage());
+        }
+        firstPage = null;
+    }
+
+    /**
+     * 将已排好序的帖子组装为DTO并填充当前用户的交互状态（关注流复用）
+     */
+    List<PostDTO> assemble(List<Post> posts, Long userId) {
+        List<PostDTO> dtos = toDTOs(posts);
+        fillInteractionStatus(dtos, userId);
+        return dtos;
+    }
+
+    // ========== 私有方法 ==========
+
+    private List<PostDTO> getFirstPage() {
+        List<PostDTO> cached = firstPage;
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (this) {
+            cached = firstPage;
+            return cached != null ? cached : refreshFirstPage();
+        }
+    }
+
+    private synchronized List<PostDTO> refreshFirstPage() {
+        List<PostDTO> loaded = List.copyOf(toDTOs(postRepository.findTimelineFirstPage(PageRequest.of(0, cachedSize + 1))));
+        firstPage = loaded;
+        log.debug("首页帖子缓存已刷新，帖子数: {}", loaded.size());
+        return loaded;
+    }
+
+    /**
+     * 转换为DTO，一页的图片ID一次查询
+     */
+    private List<PostDTO> toDTOs(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, List<String>> imageUrls = new HashMap<>();
+        for (ImageRepository.PostImageId image : imageRepository.findImageIdsByPostIds(posts.stream().map(Post::getId).toList())) {
+            imageUrls.computeIfAbsent(image.getPostId(), id -> new ArrayList<>()).add(IMAGE_URL_PREFIX + image.getImageId());
+        }
+
+        List<PostDTO> dtos = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            dtos.add(new PostDTO(post, List.copyOf(imageUrls.getOrDefault(post.getId(), List.of()))));
+        }
+        return dtos;
+    }
+
+    private void fillInteractionStatus(List<PostDTO> posts, Long userId) {
+        if (userId == null || posts.isEmpty()) {
+            return;
+        }
+        Map<Long, PostInteractionStatus> statuses = postLikeService.getInteractionStatus(userId,
+                posts.stream().map(PostDTO::getId).toList());
+        for (PostDTO post : posts) {
+            PostInteractionStatus status = statuses.get(post.getId());
+            if (status != null) {
+                post.setLiked(status.isLiked());
+                post.setCollected(status.isCollected());
+            }
+        }
+    }
+
+    /**
+     * 时间线游标：上一页最后一个帖子的 (创建时间, ID)，编码为URL安全的Base64
+     */
+    record Cursor(LocalDateTime createdAt, Long id) {
+
+        static Cursor of(PostDTO post) {
+            return new Cursor(post.getCreatedAt(), post.getId());
+        }
+
+        String encode() {
+            String raw = createdAt + CURSOR_SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf(CURSOR_SEPARATOR);
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                  Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("无效的游标: " + cursor);
+            }
+        }
+    }
+}
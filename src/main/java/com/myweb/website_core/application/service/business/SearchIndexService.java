@@ -0,0 +1,389 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.common.constant.SearchConstants;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
+import com.myweb.website_core.domain.business.entity.Comment;
+import com.myweb.website_core.domain.business.entity.Post;
+import com.myweb.website_core.domain.business.entity.User;
+import com.myweb.website_core.infrastructure.persistence.repository.comment.CommentRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepository;
+import com.myweb.website_core.infrastructure.search.InvertedIndex;
+import com.myweb.website_core.infrastructure.search.SearchResultCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * 搜索索引服务
+ *
+ * 维护帖子、用户、评论三个内存倒排索引，包括：
+ * - 应用启动后按ID游标分批全量构建索引
+ * - 监听内容变更事件进行增量更新，并通过Redis发布/订阅通知其他节点按ID重新加载
+ * - 为SearchService提供基于BM25的检索
+ *
+ * 索引构建完成之前（冷启动）isReady返回false，SearchService回退到数据库LIKE查询。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexService implements MessageListener {
+
+    /**
+     * 索引变更同步频道，消息格式：节点标识|实体类型|变更类型|实体ID
+     */
+    public static final String SYNC_CHANNEL = "search:index:sync";
+
+    private static final String SYNC_SEPARATOR = "|";
+
+    /**
+     * 本节点标识，忽略自己发出的同步消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final SearchResultCache searchResultCache;
+
+    private final InvertedIndex postIndex = new InvertedIndex(SearchConstants.SEARCH_TYPE_POST);
+    private final InvertedIndex userIndex = new InvertedIndex(SearchConstants.SEARCH_TYPE_USER);
+    private final InvertedIndex commentIndex = new InvertedIndex(SearchConstants.SEARCH_TYPE_COMMENT);
+
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    @Value("${app.search.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.index.rebuild-batch-size:500}")
+    private int rebuildBatchSize;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(SYNC_CHANNEL));
+        }
+    }
+
+    /**
+     * 应用启动后构建索引
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            log.info("搜索索引已禁用，搜索将直接查询数据库");
+            return;
+        }
+        rebuildIndexes();
+    }
+
+    /**
+     * 全量重建索引
+     *
+     * 重建期间索引保持可写，变更事件照常应用；重建完成前搜索回退到数据库。
+     */
+    public void rebuildIndexes() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("搜索索引正在重建中，忽略本次请求");
+            return;
+        }
+        ready.set(false);
+        long startTime = System.currentTimeMillis();
+        try {
+            postIndex.clear();
+            userIndex.clear();
+            commentIndex.clear();
+
+            int posts = rebuild(postIndex, afterId -> postRepository.findBatchAfterId(afterId, batch()),
+                    Post::getId, this::postText, post -> toEpochMilli(post.getCreatedAt()));
+            int users = rebuild(userIndex, afterId -> userRepository.findBatchAfterId(afterId, batch()),
+                    User::getId, this::userText, user -> toEpochMilli(user.getCreatedAt()));
+            int comments = rebuild(commentIndex, afterId -> commentRepository.findBatchAfterId(afterId, batch()),
+                    Comment::getId, Comment::getContent, comment -> toEpochMilli(comment.getCreatedAt()));
+
+            ready.set(true);
+            log.info("搜索索引构建完成: 帖子={}, 用户={}, 评论={}, 词典大小={}, 耗时={}ms",
+                    posts, users, comments,
+                    postIndex.termCount() + userIndex.termCount() + commentIndex.termCount(),
+                    System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("搜索索引构建失败，搜索将继续使用数据库查询", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 处理内容变更事件，增量更新本节点索引并通知其他节点
+     *
+     * 在事务提交后异步执行；没有事务时立即执行。
+     *
+     * @param event 内容变更事件
+     */
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChange(ContentChangeEvent event) {
+        if (!enabled || event == null || event.getEntityId() == null) {
+            return;
+        }
+        apply(event);
+        publish(event);
+    }
+
+    /**
+     * 接收其他节点的索引变更，从数据库重新加载后更新本节点索引
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (body == null) {
+                return;
+            }
+            String[] parts = body.toString().split("\\|", 4);
+            if (parts.length != 4 || nodeId.equals(parts[0])) {
+                return;
+            }
+            ContentChangeEvent event = new ContentChangeEvent(parts[1], parts[2], Long.valueOf(parts[3]), null);
+            apply(event);
+        } catch (Exception e) {
+            log.warn("处理搜索索引同步消息失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 索引是否可用
+     */
+    public boolean isReady() {
+        return enabled && ready.get();
+    }
+
+    /**
+     * 检索帖子
+     *
+     * @param keyword 预处理后的关键词
+     * @param sortBy 排序方式（RELEVANCE按BM25，TIME按创建时间）
+     * @param page 页码（从0开始）
+     * @param size 每页大小
+     * @return 当前页帖子（已抓取作者，按命中顺序排列）
+     */
+    public IndexPage<Post> searchPosts(String keyword, String sortBy, int page, int size) {
+        return load(search(postIndex, keyword, sortBy, page, size),
+                postRepository::findAllWithAuthorByIdIn, Post::getId);
+    }
+
+    /**
+     * 检索用户
+     */
+    public IndexPage<User> searchUsers(String keyword, String sortBy, int page, int size) {
+        return load(search(userIndex, keyword, sortBy, page, size),
+                userRepository::findAllById, User::getId);
+    }
+
+    /**
+     * 检索评论
+     */
+    public IndexPage<Comment> searchComments(String keyword, String sortBy, int page, int size) {
+        return load(search(commentIndex, keyword, sortBy, page, size),
+                commentRepository::findAllWithAuthorAndPostByIdIn, Comment::getId);
+    }
+
+    /**
+     * 判断某种排序方式能否由索引直接完成
+     *
+     * 热度排序依赖频繁变化的点赞数，仍由数据库完成。
+     */
+    public boolean supportsSort(String sortBy) {
+        return !SearchConstants.SORT_BY_POPULARITY.equals(sortBy);
+    }
+
+    /**
+     * 获取索引统计信息
+     */
+    public Map<String, Object> getIndexStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready.get());
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("postDocuments", postIndex.size());
+        stats.put("userDocuments", userIndex.size());
+        stats.put("commentDocuments", commentIndex.size());
+        stats.put("postTerms", postIndex.termCount());
+        stats.put("userTerms", userIndex.termCount());
+        stats.put("commentTerms", commentIndex.termCount());
+        return stats;
+    }
+
+    // ========== 私有方法 ==========
+
+    /**
+     * 将一次变更应用到本节点索引，删除以外的变更按ID从数据库重新加载
+     *
+     * 应用后标记搜索结果缓存失效，使缓存代数在索引更新之后递增。
+     */
+    private void apply(ContentChangeEvent event) {
+        try {
+            long id = event.getEntityId();
+            switch (event.getEntityType()) {
+                case ContentChangeEvent.ENTITY_POST:
+                    if (event.isDelete()) {
+                        postIndex.remove(id);
+                    } else {
+                        postRepository.findById(id).ifPresentOrElse(
+                                post -> postIndex.index(id, postText(post), toEpochMilli(post.getCreatedAt())),
+                                () -> postIndex.remove(id));
+                    }
+                    break;
+                case ContentChangeEvent.ENTITY_COMMENT:
+                    if (event.isDelete()) {
+                        commentIndex.remove(id);
+                    } else {
+                        commentRepository.findById(id).ifPresentOrElse(
+                                comment -> commentIndex.index(id, comment.getContent(), toEpochMilli(comment.getCreatedAt())),
+                                () -> commentIndex.remove(id));
+                    }
+                    break;
+                case ContentChangeEvent.ENTITY_USER:
+                    if (event.isDelete()) {
+                        userIndex.remove(id);
+                    } else {
+                        userRepository.findById(id).ifPresentOrElse(
+                                user -> userIndex.index(id, userText(user), toEpochMilli(user.getCreatedAt())),
+                                () -> userIndex.remove(id));
+                    }
+                    break;
+                default:
+                    log.warn("未知的内容变更实体类型: {}", event.getEntityType());
+            }
+        } catch (Exception e) {
+            log.warn("增量更新搜索索引失败: type={}, id={}, error={}",
+                    event.getEntityType(), event.getEntityId(), e.getMessage());
+        }
+        searchResultCache.markContentChanged();
+    }
+
+    private void publish(ContentChangeEvent event) {
+        try {
+            redisTemplate.convertAndSend(SYNC_CHANNEL, String.join(SYNC_SEPARATOR,
+                    nodeId, event.getEntityType(), event.getChangeType(), event.getEntityId().toString()));
+        } catch (Exception e) {
+            log.warn("广播搜索索引同步消息失败: type={}, id={}, error={}",
+                    event.getEntityType(), event.getEntityId(), e.getMessage());
+        }
+    }
+
+    private InvertedIndex.SearchHits search(InvertedIndex index, String keyword, String sortBy, int page, int size) {
+        boolean byRelevance = !SearchConstants.SORT_BY_TIME.equals(sortBy);
+        return index.search(keyword, byRelevance, page * size, size, SearchConstants.MAX_SEARCH_RESULTS);
+    }
+
+    /**
+     * 按命中顺序批量加载实体，已被删除但索引尚未同步的文档直接跳过
+     */
+    private <T> IndexPage<T> load(InvertedIndex.SearchHits hits, Function<List<Long>, List<T>> loader,
+                                  Function<T, Long> idOf) {
+        if (hits.hits().isEmpty()) {
+            return new IndexPage<>(List.of(), Map.of(), hits.total());
+        }
+        Map<Long, T> entities = new HashMap<>();
+        for (T entity : loader.apply(hits.docIds())) {
+            entities.put(idOf.apply(entity), entity);
+        }
+        List<T> items = new ArrayList<>(hits.hits().size());
+        Map<Long, Double> scores = new HashMap<>();
+        for (InvertedIndex.Hit hit : hits.hits()) {
+            T entity = entities.get(hit.docId());
+            if (entity != null) {
+                items.add(entity);
+                scores.put(hit.docId(), hit.score());
+            }
+        }
+        return new IndexPage<>(items, scores, hits.total());
+    }
+
+    private <T> int rebuild(InvertedIndex index, Function<Long, List<T>> batchLoader,
+                            Function<T, Long> idOf, Function<T, String> textOf, ToLongFunction<T> sortKeyOf) {
+        long afterId = 0L;
+        int count = 0;
+        while (true) {
+            List<T> batch = batchLoader.apply(afterId);
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (T entity : batch) {
+                Long id = idOf.apply(entity);
+                index.index(id, textOf.apply(entity), sortKeyOf.applyAsLong(entity));
+                afterId = id;
+            }
+            count += batch.size();
+            if (batch.size() < rebuildBatchSize) {
+                break;
+            }
+        }
+        log.debug("索引{}构建完成，文档数: {}", index.getName(), count);
+        return count;
+    }
+
+    private PageRequest batch() {
+        return PageRequest.of(0, rebuildBatchSize);
+    }
+
+    private String postText(Post post) {
+        return (post.getTitle() != null ? post.getTitle() : "") + "\n" +
+               (post.getContent() != null ? post.getContent() : "");
+    }
+
+    /**
+     * 用户索引匹配用户名和个人简介；邮箱不进入索引，避免按邮箱片段检索到用户。
+     * 数据库回退查询（findUsersWithSafeSearch）仍匹配用户名和邮箱。
+     */
+    private String userText(User user) {
+        return (user.getUsername() != null ? user.getUsername() : "") + "\n" +
+               (user.getBio() != null ? user.getBio() : "");
+    }
+
+    private long toEpochMilli(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    /**
+     * 索引检索结果页
+     *
+     * @param items 当前页实体
+     * @param scores 实体ID -> BM25评分
+     * @param total 命中总数（不超过最大搜索结果数）
+     */
+    public record IndexPage<T>(List<T> items, Map<Long, Double> scores, long total) {
+
+        public double scoreOf(Long id) {
+            return scores.getOrDefault(id, 0.0);
+        }
+    }
+}
@@ -13,21 +13,35 @@ import com.myweb.website_core.domain.business.vo.CommentSearchVO;
 import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepositoryCustom;
 import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepositoryCustom;
 import com.myweb.website_core.infrastructure.persistence.repository.comment.CommentRepositoryCustom;
+import com.myweb.website_core.infrastructure.redis.RedisKeyManager;
+import com.myweb.website_core.infrastructure.search.SearchResultCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -35,9 +49,11 @@ import java.util.stream.Collectors;
  * 
  * 实现帖子和用户搜索业务逻辑，包括：
  * - 搜索关键词预处理和验证
- * - 搜索结果缓存机制
+ * - 搜索结果两级缓存（本地L1 + Redis L2）
  * - 分页和排序功能
  * - 多类型搜索支持
+ * - 优先使用内存倒排索引检索，索引未就绪时回退到数据库查询
+ * - 综合搜索并行检索各数据源，单个数据源超时返回部分结果
  */
 @Slf4j
 @Service
@@ -48,7 +64,26 @@ public class SearchService {
     private final UserRepositoryCustom userRepository;
     private final CommentRepositoryCustom commentRepository;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final SearchIndexService searchIndexService;
+    private final SearchResultCache searchResultCache;
+    private final RedisKeyManager redisKeyManager;
+    private final ExecutorService searchFanOutExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
     
+    /**
+     * 各数据源的检索耗时直方图，按数据源和结果缓存
+     */
+    private final Map<String, Timer> sourceTimers = new ConcurrentHashMap<>();
+    
+    @Value("${app.search.fan-out.post-timeout-ms:800}")
+    private long postTimeoutMs;
+    
+    @Value("${app.search.fan-out.user-timeout-ms:500}")
+    private long userTimeoutMs;
+    
+    @Value("${app.search.fan-out.comment-timeout-ms:800}")
+    private long commentTimeoutMs;
 
     
     /**
@@ -76,14 +111,29 @@ public class SearchService {
             return cachedResult;
         }
         
-        // 分别搜索帖子、用户和评论
+        // 并行搜索帖子、用户和评论，每个数据源有独立的截止时间
         SearchRequestDTO postRequest = createSubRequest(request, SearchConstants.SEARCH_TYPE_POST);
         SearchRequestDTO userRequest = createSubRequest(request, SearchConstants.SEARCH_TYPE_USER);
         SearchRequestDTO commentRequest = createSubRequest(request, SearchConstants.SEARCH_TYPE_COMMENT);
         
-        SearchResultDTO<PostSearchVO> postResults = searchPosts(postRequest);
-        SearchResultDTO<UserSearchVO> userResults = searchUsers(userRequest);
-        SearchResultDTO<CommentSearchVO> commentResults = searchComments(commentRequest);
+        long startNanos = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        
+        CompletableFuture<SearchResultDTO<PostSearchVO>> postFuture = submitSourceSearch(
+                SearchConstants.SEARCH_TYPE_POST, transactionTemplate, () -> searchPosts(postRequest));
+        CompletableFuture<SearchResultDTO<UserSearchVO>> userFuture = submitSourceSearch(
+                SearchConstants.SEARCH_TYPE_USER, transactionTemplate, () -> searchUsers(userRequest));
+        CompletableFuture<SearchResultDTO<CommentSearchVO>> commentFuture = submitSourceSearch(
+                SearchConstants.SEARCH_TYPE_COMMENT, transactionTemplate, () -> searchComments(commentRequest));
+        
+        List<String> incompleteSources = new ArrayList<>();
+        SearchResultDTO<PostSearchVO> postResults = awaitSourceSearch(SearchConstants.SEARCH_TYPE_POST,
+                postFuture, postRequest, startNanos, postTimeoutMs, incompleteSources);
+        SearchResultDTO<UserSearchVO> userResults = awaitSourceSearch(SearchConstants.SEARCH_TYPE_USER,
+                userFuture, userRequest, startNanos, userTimeoutMs, incompleteSources);
+        SearchResultDTO<CommentSearchVO> commentResults = awaitSourceSearch(SearchConstants.SEARCH_TYPE_COMMENT,
+                commentFuture, commentRequest, startNanos, commentTimeoutMs, incompleteSources);
         
         // 合并结果
         List<Object> allResults = new ArrayList<>();
@@ -100,12 +150,17 @@ public class SearchService {
         result.setKeyword(processedKeyword);
         result.setType(request.getType());
         result.setSortBy(request.getSortBy());
+        result.setPartial(!incompleteSources.isEmpty());
+        result.setIncompleteSources(incompleteSources);
         
-        // 缓存结果
-        cacheSearchResult(cacheKey, result);
+        // 只缓存完整结果，部分结果不缓存，避免缺失的数据源在缓存有效期内一直缺失
+        if (!result.isPartial()) {
+            cacheSearchResult(cacheKey, result);
+        }
         
-        log.info("综合搜索完成，关键词: {}, 帖子数: {}, 用户数: {}, 评论数: {}", 
-                processedKeyword, postResults.getItems().size(), userResults.getItems().size(), commentResults.getItems().size());
+        log.info("综合搜索完成，关键词: {}, 帖子数: {}, 用户数: {}, 评论数: {}, 未完成数据源: {}, 耗时: {}ms", 
+                processedKeyword, postResults.getItems().size(), userResults.getItems().size(), commentResults.getItems().size(),
+                incompleteSources, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
         
         return result;
     }
@@ -136,6 +191,13 @@ public class SearchService {
         }
         
         try {
+            // 索引就绪时直接从倒排索引检索
+            if (searchIndexService.isReady() && searchIndexService.supportsSort(request.getSortBy())) {
+                SearchResultDTO<PostSearchVO> result = searchPostsFromIndex(request, processedKeyword);
+                cacheSearchResult(cacheKey, result);
+                return result;
+            }
+            
             // 使用JPA安全搜索
             String sortField = mapSortByToField(request.getSortBy());
             String sortDirection = getSortDirection(request.getSortBy());
@@ -206,6 +268,13 @@ public class SearchService {
         }
         
         try {
+            // 索引就绪时直接从倒排索引检索
+            if (searchIndexService.isReady() && searchIndexService.supportsSort(request.getSortBy())) {
+                SearchResultDTO<UserSearchVO> result = searchUsersFromIndex(request, processedKeyword);
+                cacheSearchResult(cacheKey, result);
+                return result;
+            }
+            
             // 使用JPA安全搜索
             String sortField = mapSortByToField(request.getSortBy());
             String sortDirection = getSortDirection(request.getSortBy());
@@ -276,6 +345,13 @@ public class SearchService {
         }
         
         try {
+            // 索引就绪时直接从倒排索引检索
+            if (searchIndexService.isReady() && searchIndexService.supportsSort(request.getSortBy())) {
+                SearchResultDTO<CommentSearchVO> result = searchCommentsFromIndex(request, processedKeyword);
+                cacheSearchResult(cacheKey, result);
+                return result;
+            }
+            
             // 使用JPA安全搜索
             String sortField = mapSortByToField(request.getSortBy());
             String sortDirection = getSortDirection(request.getSortBy());
@@ -330,20 +406,16 @@ public class SearchService {
             if (StringUtils.hasText(keyword)) {
                 // 清除特定关键词的缓存
                 String pattern = SearchConstants.SEARCH_CACHE_PREFIX + "*" + keyword + "*";
-                var keys = redisTemplate.keys(pattern);
-                if (keys != null && !keys.isEmpty()) {
-                    redisTemplate.delete(keys);
-                }
+                redisKeyManager.unlinkByPattern(pattern);
                 log.info("清除搜索缓存，关键词: {}", keyword);
             } else {
                 // 清除所有搜索缓存
-                String pattern = SearchConstants.SEARCH_CACHE_PREFIX + "*";
-                var keys = redisTemplate.keys(pattern);
-                if (keys != null && !keys.isEmpty()) {
-                    redisTemplate.delete(keys);
-                }
+                redisKeyManager.unlinkByPattern(SearchConstants.SEARCH_CACHE_PREFIX + "*");
                 log.info("清除所有搜索缓存");
             }
+            
+            // 清除各节点的本地缓存
+            searchResultCache.invalidate(keyword);
         } catch (Exception e) {
             log.error("清除搜索缓存失败，关键词: {}", keyword, e);
         }
@@ -1045,23 +1117,8 @@ public class SearchService {
      * @param cacheKey 缓存键
      * @return 缓存的搜索结果，如果不存在则返回null
      */
-    @SuppressWarnings("unchecked")
     private <T> SearchResultDTO<T> getCachedResult(String cacheKey) {
-        try {
-            Object cached = redisTemplate.opsForValue().get(cacheKey);
-            if (cached instanceof SearchResultDTO) {
-                return (SearchResultDTO<T>) cached;
-            }
-        } catch (Exception e) {
-            log.warn("获取缓存搜索结果失败，缓存键: {}，错误: {}，将删除该缓存", cacheKey, e.getMessage());
-            // 删除有问题的缓存
-            try {
-                redisTemplate.delete(cacheKey);
-            } catch (Exception deleteEx) {
-                log.warn("删除有问题的缓存失败: {}", deleteEx.getMessage());
-            }
-        }
-        return null;
+        return searchResultCache.get(cacheKey);
     }
     
     /**
@@ -1071,14 +1128,180 @@ public class SearchService {
      * @param result 搜索结果
      */
     private void cacheSearchResult(String cacheKey, SearchResultDTO<?> result) {
+        searchResultCache.put(cacheKey, result);
+    }
+    
+    // ========== 索引检索方法 ==========
+    
+    /**
+     * 从倒排索引检索帖子
+     * 
+     * @param request 搜索请求
+     * @param keyword 预处理后的关键词
+     * @return 帖子搜索结果
+     */
+    private SearchResultDTO<PostSearchVO> searchPostsFromIndex(SearchRequestDTO request, String keyword) {
+        SearchIndexService.IndexPage<Post> page = searchIndexService.searchPosts(
+                keyword, request.getSortBy(), request.getPage(), request.getSize());
+        
+        List<PostSearchVO> posts = new ArrayList<>(page.items().size());
+        for (Post post : page.items()) {
+            PostSearchVO vo = convertToPostSearchVO(post);
+            processPostSearchResult(vo);
+            vo.setRelevanceScore(page.scoreOf(post.getId()));
+            posts.add(vo);
+        }
+        
+        log.info("帖子索引搜索完成，关键词: {}, 结果数: {}, 总数: {}", keyword, posts.size(), page.total());
+        return buildIndexResult(request, keyword, posts, page.total());
+    }
+    
+    /**
+     * 从倒排索引检索用户
+     * 
+     * @param request 搜索请求
+     * @param keyword 预处理后的关键词
+     * @return 用户搜索结果
+     */
+    private SearchResultDTO<UserSearchVO> searchUsersFromIndex(SearchRequestDTO request, String keyword) {
+        SearchIndexService.IndexPage<User> page = searchIndexService.searchUsers(
+                keyword, request.getSortBy(), request.getPage(), request.getSize());
+        
+        List<UserSearchVO> users = new ArrayList<>(page.items().size());
+        for (User user : page.items()) {
+            UserSearchVO vo = convertToUserSearchVO(user);
+            processUserSearchResult(vo);
+            vo.setRelevanceScore(page.scoreOf(user.getId()));
+            users.add(vo);
+        }
+        
+        log.info("用户索引搜索完成，关键词: {}, 结果数: {}, 总数: {}", keyword, users.size(), page.total());
+        return buildIndexResult(request, keyword, users, page.total());
+    }
+    
+    /**
+     * 从倒排索引检索评论
+     * 
+     * @param request 搜索请求
+     * @param keyword 预处理后的关键词
+     * @return 评论搜索结果
+     */
+    private SearchResultDTO<CommentSearchVO> searchCommentsFromIndex(SearchRequestDTO request, String keyword) {
+        SearchIndexService.IndexPage<Comment> page = searchIndexService.searchComments(
+                keyword, request.getSortBy(), request.getPage(), request.getSize());
+        
+        List<CommentSearchVO> comments = new ArrayList<>(page.items().size());
+        for (Comment comment : page.items()) {
+            CommentSearchVO vo = convertToCommentSearchVO(comment);
+            processCommentSearchResult(vo);
+            vo.setRelevanceScore(page.scoreOf(comment.getId()));
+            comments.add(vo);
+        }
+        
+        log.info("评论索引搜索完成，关键词: {}, 结果数: {}, 总数: {}", keyword, comments.size(), page.total());
+        return buildIndexResult(request, keyword, comments, page.total());
+    }
+    
+    /**
+     * 构建索引检索结果
+     */
+    private <T> SearchResultDTO<T> buildIndexResult(SearchRequestDTO request, String keyword, List<T> items, long total) {
+        SearchResultDTO<T> result = new SearchResultDTO<>();
+        result.setItems(items);
+        result.setTotal(total);
+        result.setPage(request.getPage());
+        result.setSize(request.getSize());
+        result.setKeyword(keyword);
+        result.setType(request.getType());
+        result.setSortBy(request.getSortBy());
+        return result;
+    }
+    
+    // ========== 并行检索方法 ==========
+    
+    /**
+     * 在并行检索执行器上提交单个数据源的检索
+     * 
+     * 检索在只读事务中执行，保证实体懒加载属性在工作线程中可用；
+     * 无论是否超时，实际耗时都会记录到该数据源的直方图中。
+     * 执行器并发数已满时返回失败的任务，由等待方记为未完成数据源。
+     * 
+     * @param source 数据源类型
+     * @param transactionTemplate 只读事务模板
+     * @param search 检索逻辑
+     * @return 检索结果
+     */
+    private <T> CompletableFuture<SearchResultDTO<T>> submitSourceSearch(String source,
+                                                                         TransactionTemplate transactionTemplate,
+                                                                         Supplier<SearchResultDTO<T>> search) {
         try {
-            redisTemplate.opsForValue().set(cacheKey, result, SearchConstants.CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES);
-            log.debug("缓存搜索结果，缓存键: {}", cacheKey);
-        } catch (Exception e) {
-            log.warn("缓存搜索结果失败，缓存键: {}", cacheKey, e);
+            return CompletableFuture.supplyAsync(() -> {
+                long startNanos = System.nanoTime();
+                String outcome = "success";
+                try {
+                    return transactionTemplate.execute(status -> search.get());
+                } catch (RuntimeException e) {
+                    outcome = "error";
+                    throw e;
+                } finally {
+                    sourceTimer(source, outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                }
+            }, searchFanOutExecutor);
+        } catch (RejectedExecutionException e) {
+            // 并发检索数已满，该数据源直接按未完成处理
+            meterRegistry.counter("search.fanout.rejected", "source", source).increment();
+            return CompletableFuture.failedFuture(e);
         }
     }
     
+    /**
+     * 在数据源截止时间内等待检索结果
+     * 
+     * 超时或失败时返回该数据源的空结果，并记录到未完成数据源列表中；
+     * 超时的检索继续在后台执行，完成后仍会写入该数据源自身的结果缓存。
+     * 
+     * @param source 数据源类型
+     * @param future 检索任务
+     * @param subRequest 子搜索请求
+     * @param startNanos 综合搜索开始时间
+     * @param timeoutMs 该数据源的截止时间（毫秒）
+     * @param incompleteSources 未完成数据源列表
+     * @return 检索结果
+     */
+    private <T> SearchResultDTO<T> awaitSourceSearch(String source, CompletableFuture<SearchResultDTO<T>> future,
+                                                     SearchRequestDTO subRequest, long startNanos, long timeoutMs,
+                                                     List<String> incompleteSources) {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs) - (System.nanoTime() - startNanos);
+        try {
+            SearchResultDTO<T> result = future.get(Math.max(remainingNanos, 0L), TimeUnit.NANOSECONDS);
+            if (result != null) {
+                return result;
+            }
+        } catch (TimeoutException e) {
+            log.warn("综合搜索数据源超时，返回部分结果，数据源: {}, 截止时间: {}ms", source, timeoutMs);
+            meterRegistry.counter("search.fanout.timeouts", "source", source).increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("综合搜索等待被中断，数据源: {}", source);
+        } catch (ExecutionException e) {
+            log.error("综合搜索数据源失败，数据源: {}", source, e.getCause());
+        }
+        incompleteSources.add(source);
+        return SearchResultDTO.empty(subRequest);
+    }
+    
+    /**
+     * 获取数据源检索耗时直方图
+     */
+    private Timer sourceTimer(String source, String outcome) {
+        return sourceTimers.computeIfAbsent(source + ":" + outcome, key -> Timer.builder("search.fanout.latency")
+                .description("综合搜索各数据源检索耗时")
+                .tag("source", source)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+    
     // ========== 实体转换方法 ==========
     
     /**
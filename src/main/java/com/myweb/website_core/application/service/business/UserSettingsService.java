@@ -4,10 +4,12 @@ import com.myweb.website_core.application.service.security.authentication.EmailV
 import com.myweb.website_core.application.service.security.authentication.TOTPManagementService;
 import com.myweb.website_core.common.constant.SecurityConstants;
 import com.myweb.website_core.common.enums.UserRole;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
 import com.myweb.website_core.domain.business.entity.User;
 import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +35,7 @@ public class UserSettingsService {
     private final EmailVerificationService emailVerificationService;
     private final TOTPManagementService totpManagementService;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * 获取用户设置信息
@@ -85,6 +88,7 @@ public class UserSettingsService {
         }
         
         userRepository.save(user);
+        eventPublisher.publishEvent(ContentChangeEvent.user(ContentChangeEvent.CHANGE_UPDATE, userId));
         log.info("用户 {} 更新基本信息成功", user.getUsername());
     }
     
@@ -1,9 +1,8 @@
 package com.myweb.website_core.application.service.file;
 
 import com.myweb.website_core.application.service.security.integeration.FileUploadSecurityService;
+import com.myweb.website_core.application.service.security.integeration.UploadInspectionResult;
 import com.myweb.website_core.application.service.security.integeration.dataManage.DataIntegrityService;
-import com.myweb.website_core.application.service.security.IPS.virusprotect.VirusScanService;
-import com.myweb.website_core.application.service.security.IPS.virusprotect.VirusScanResult;
 import com.myweb.website_core.application.service.security.FileSecurityMonitoringService;
 import com.myweb.website_core.common.util.SecurityUtils;
 import com.myweb.website_core.common.util.LoggingUtils;
@@ -11,10 +10,12 @@ import com.myweb.website_core.common.util.PermissionUtils;
 import com.myweb.website_core.infrastructure.config.properties.FileUploadConfig;
 import com.myweb.website_core.domain.business.entity.Image;
 import com.myweb.website_core.common.exception.FileUploadException;
+import com.myweb.website_core.common.exception.FileValidationException;
 import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -22,12 +23,17 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.HashMap;
@@ -48,25 +54,30 @@ public class FileUploadService {
     
     private static final Logger logger = LoggerFactory.getLogger(FileUploadService.class);
     
+    /**
+     * 计算文件哈希时的读取缓冲区大小
+     */
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    
     private final FileUploadConfig fileUploadConfig;
     private final ImageService imageService;
     private final FileUploadSecurityService fileUploadSecurityService;
     private final DataIntegrityService dataIntegrityService;
-    private final VirusScanService virusScanService;
     private final FileSecurityMonitoringService fileSecurityMonitoringService;
+    private final ImageBlobService imageBlobService;
     
     @Autowired
     public FileUploadService(FileUploadConfig fileUploadConfig, ImageService imageService,
                            FileUploadSecurityService fileUploadSecurityService,
                            DataIntegrityService dataIntegrityService,
-                           VirusScanService virusScanService,
-                           FileSecurityMonitoringService fileSecurityMonitoringService) {
+                           FileSecurityMonitoringService fileSecurityMonitoringService,
+                           ImageBlobService imageBlobService) {
         this.fileUploadConfig = fileUploadConfig;
         this.imageService = imageService;
         this.fileUploadSecurityService = fileUploadSecurityService;
         this.dataIntegrityService = dataIntegrityService;
-        this.virusScanService = virusScanService;
         this.fileSecurityMonitoringService = fileSecurityMonitoringService;
+        this.imageBlobService = imageBlobService;
     }
 
     /**
@@ -76,9 +87,13 @@ public class FileUploadService {
      * - FileUploadSecurityService：文件类型、大小、魔数验证
      * - 恶意代码检查：扫描文件内容中的恶意模式
      * - 病毒扫描：使用VirusScanService进行病毒检测
-     * - 文件哈希计算：使用DataIntegrityService计算并存储文件哈希
+     * - 文件哈希计算：计算并存储文件内容的SHA-256哈希
      * - 完整的审计日志记录
      * 
+     * 上传数据只读取一次：安全验证读取文件时同时计算哈希并写入暂存文件。
+     * 文件按内容哈希存储，内容相同的上传共用一个文件并跳过病毒扫描；
+     * 新内容验证通过后把暂存文件原子移动到内容路径，验证失败时删除暂存文件。
+     * 
      * @param file 上传的文件
      * @param postId 关联的帖子ID（可选）
      * @return 文件访问URL
@@ -94,86 +109,36 @@ public class FileUploadService {
                    username, originalFilename, file != null ? file.getSize() : 0, postId);
         
         try {
-            // ==================== 第1步：基础安全验证 ====================
+            // ==================== 第1步：安全验证并写入暂存文件 ====================
             
             // 获取HTTP请求对象用于安全验证
             HttpServletRequest request = getCurrentRequest();
             
             // 使用FileUploadSecurityService进行全面的文件安全验证
-            // 包括：文件类型验证、大小验证、魔数验证、恶意代码扫描
+            // 包括：文件类型验证、大小验证、魔数验证、恶意代码扫描、哈希计算
+            // 相同内容已存储并扫描过时跳过病毒扫描
             logger.debug("执行文件安全验证: {}", originalFilename);
-            fileUploadSecurityService.validateUploadedFile(file, userId, username, request);
-            logger.debug("文件安全验证通过: {}", originalFilename);
-            
-            // ==================== 第2步：病毒扫描 ====================
-            
-            // 执行病毒扫描
-            logger.debug("开始病毒扫描: {}", originalFilename);
-            CompletableFuture<VirusScanResult> scanFuture = virusScanService.scanFile(file, userId, username);
-            
-            // 等待扫描结果（设置超时时间30秒）
-            VirusScanResult scanResult;
+            Image image;
+            UploadInspectionResult inspection;
+            Path stagedFile = Files.createTempFile(imageBlobService.getStagingDirectory(), ".upload-", ".tmp");
             try {
-                scanResult = scanFuture.get(30, java.util.concurrent.TimeUnit.SECONDS);
-            } catch (java.util.concurrent.TimeoutException e) {
-                logger.warn("病毒扫描超时: user={}, filename={}", username, originalFilename);
-                throw new FileUploadException("文件安全扫描超时，请稍后重试");
-            }
-            
-            // 检查扫描结果
-            if (scanResult.shouldBlockUpload()) {
-                if (scanResult.isVirusFound()) {
-                    logger.warn("检测到病毒文件: user={}, filename={}, virus={}", 
-                               username, originalFilename, scanResult.getVirusName());
-                    throw new FileUploadException(
-                        String.format("检测到恶意文件: %s (威胁级别: %s)", 
-                                     scanResult.getVirusName(), scanResult.getThreatLevel()));
-                } else {
-                    logger.warn("病毒扫描失败: user={}, filename={}, error={}", 
-                               username, originalFilename, scanResult.getErrorMessage());
-                    throw new FileUploadException("文件安全扫描失败: " + scanResult.getErrorMessage());
-                }
+                inspection = fileUploadSecurityService.validateAndStage(
+                    file, userId, username, request, stagedFile, imageBlobService::isScanned);
+                logger.debug("文件安全验证通过: {}, scan={}", originalFilename, inspection.scanSummary());
+                
+                // ==================== 第2步：按内容存储并保存图片信息 ====================
+                
+                // 相同内容已存储时只增加引用计数，否则把暂存文件原子移动到内容路径
+                image = saveUploadedImage(file, stagedFile, inspection, postId);
+                logger.debug("文件保存成功: {}", image.getFilePath());
+            } finally {
+                Files.deleteIfExists(stagedFile);
             }
             
-            logger.debug("病毒扫描通过: user={}, filename={}, duration={}ms", 
-                        username, originalFilename, scanResult.getScanDurationMs());
-            
-            // ==================== 第3步：文件存储 ====================
-            
-            // 创建上传目录
-            String uploadPath = createUploadDirectory();
-            
-            // 生成安全的唯一文件名
-            String fileName = fileUploadSecurityService.generateSecureFileName(originalFilename, userId);
-            
-            // 保存文件到磁盘
-            Path filePath = Paths.get(uploadPath, fileName);
-            Files.copy(file.getInputStream(), filePath);
-            logger.debug("文件保存成功: {}", filePath.toString());
-            
-            // ==================== 第4步：文件哈希计算 ====================
-            
-            // 使用DataIntegrityService计算文件哈希值用于完整性检查
-            logger.debug("计算文件哈希: {}", originalFilename);
-            byte[] fileBytes = file.getBytes();
-            String fileContent = new String(fileBytes, "UTF-8");
-            String fileHash = dataIntegrityService.calculateHash(fileContent);
-            logger.debug("文件哈希计算完成: hash={}", fileHash.substring(0, Math.min(fileHash.length(), 16)) + "...");
-            
-            // ==================== 第5步：数据库存储 ====================
-            
-            // 保存图片信息到数据库（包含文件哈希）
-            Image image = imageService.saveImageWithHash(
-                originalFilename,
-                fileName,
-                filePath.toString(),
-                file.getContentType(),
-                file.getSize(),
-                fileHash,
-                postId
-            );
+            String fileHash = inspection.contentHash();
+            Path filePath = Paths.get(image.getFilePath());
             
-            // ==================== 第6步：文件安全监控 ====================
+            // ==================== 第3步：文件安全监控 ====================
             
             // 获取客户端IP地址
             String sourceIp = getClientIpAddress(request);
@@ -209,7 +174,7 @@ public class FileUploadService {
             // 返回基于ID的访问URL
             String fileUrl = "/blog/api/images/" + image.getId();
             
-            // ==================== 第6步：成功日志记录 ====================
+            // ==================== 第4步：成功日志记录 ====================
             
             long executionTime = System.currentTimeMillis() - startTime;
             String logMessage = LoggingUtils.formatOperationLog(
@@ -217,7 +182,7 @@ public class FileUploadService {
                 String.format("文件名: %s, 大小: %d bytes, 哈希: %s, 病毒扫描: %s", 
                              originalFilename, file.getSize(), 
                              fileHash.substring(0, Math.min(fileHash.length(), 8)),
-                             scanResult.getSummary()), 
+                             inspection.scanSummary()), 
                 executionTime);
             logger.info(logMessage);
             
@@ -226,14 +191,14 @@ public class FileUploadService {
             
             return fileUrl;
             
-        } catch (FileUploadException e) {
-            // 重新抛出文件上传异常
+        } catch (FileValidationException e) {
+            // 验证或病毒扫描拒绝，保留原始提示信息
             long executionTime = System.currentTimeMillis() - startTime;
             String errorLog = LoggingUtils.formatErrorLog(
                 "FILE_UPLOAD_SECURITY_ERROR", e.getMessage(), username, 
                 null, "上传文件: " + originalFilename, null);
             logger.error(errorLog);
-            throw e;
+            throw new FileUploadException(e.getMessage(), e);
             
         } catch (Exception e) {
             // 记录其他系统异常
@@ -246,6 +211,22 @@ public class FileUploadService {
         }
     }
     
+    /**
+     * 保存上传的图片，并发存储相同内容发生唯一约束冲突时重试一次以引用已提交的内容
+     */
+    private Image saveUploadedImage(MultipartFile file, Path stagedFile, UploadInspectionResult inspection,
+                                    Long postId) throws IOException {
+        String extension = FilenameUtils.getExtension(file.getOriginalFilename()).toLowerCase();
+        try {
+            return imageService.saveUploadedImage(file.getOriginalFilename(), file.getContentType(),
+                                                  stagedFile, inspection, extension, postId);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("相同内容正在并发存储，重试引用已存储内容: hash={}", inspection.contentHash());
+            return imageService.saveUploadedImage(file.getOriginalFilename(), file.getContentType(),
+                                                  stagedFile, inspection, extension, postId);
+        }
+    }
+    
     /**
      * 上传单个图片文件（基础版本，仅基本验证）
      * 
@@ -459,13 +440,16 @@ public class FileUploadService {
                 return false;
             }
             
-            // 读取文件内容并计算哈希
-            byte[] fileBytes = Files.readAllBytes(filePath);
-            String fileContent = new String(fileBytes, "UTF-8");
-            String currentHash = dataIntegrityService.calculateHash(fileContent);
+            // 流式计算文件哈希
+            String currentHash = calculateFileHash(filePath);
             
             // 验证完整性
-            boolean isValid = dataIntegrityService.verifyIntegrity(fileContent, storedHash);
+            boolean isValid = MessageDigest.isEqual(
+                currentHash.getBytes(StandardCharsets.UTF_8), storedHash.getBytes(StandardCharsets.UTF_8));
+            if (!isValid) {
+                // 兼容旧版本按UTF-8文本计算的哈希
+                isValid = verifyLegacyFileHash(filePath, storedHash);
+            }
             
             if (!isValid) {
                 logger.warn("文件完整性验证失败: 哈希值不匹配, imageId={}, stored={}, current={}", 
@@ -540,10 +524,8 @@ public class FileUploadService {
                 return false;
             }
             
-            // 读取文件内容并计算新哈希
-            byte[] fileBytes = Files.readAllBytes(filePath);
-            String fileContent = new String(fileBytes, "UTF-8");
-            String newHash = dataIntegrityService.calculateHash(fileContent);
+            // 流式计算新哈希
+            String newHash = calculateFileHash(filePath);
             
             // 更新数据库中的哈希值
             image.setFileHash(newHash);
@@ -569,6 +551,43 @@ public class FileUploadService {
         }
     }
     
+    /**
+     * 流式计算文件内容的SHA-256哈希（Base64编码），与上传时记录的哈希一致
+     * 
+     * @param filePath 文件路径
+     * @return 文件哈希
+     */
+    private String calculateFileHash(Path filePath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持的哈希算法: SHA-256", e);
+        }
+        
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(filePath)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+    
+    /**
+     * 按旧版本方式（文件内容作为UTF-8文本）验证哈希
+     * 
+     * 旧版本上传的文件存储的是这种哈希，仅在新哈希不匹配时使用
+     */
+    private boolean verifyLegacyFileHash(Path filePath, String storedHash) throws IOException {
+        if (Files.size(filePath) > fileUploadConfig.getMaxFileSize()) {
+            return false;
+        }
+        String fileContent = new String(Files.readAllBytes(filePath), StandardCharsets.UTF_8);
+        return dataIntegrityService.verifyIntegrity(fileContent, storedHash);
+    }
+    
     /**
      * 获取当前HTTP请求对象
      * 
@@ -0,0 +1,173 @@
+package com.myweb.website_core.application.service.file;
+
+import com.myweb.website_core.application.service.security.integeration.UploadInspectionResult;
+import com.myweb.website_core.domain.business.entity.ImageBlob;
+import com.myweb.website_core.infrastructure.config.properties.FileUploadConfig;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.ImageBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 图片内容存储服务
+ * <p>
+ * 按内容哈希存储图片文件，内容相同的上传共用一个文件：
+ * - 上传的内容已存在时增加引用计数，不再写入新文件
+ * - 图片记录删除时减少引用计数，降为0时记录失去引用的时间
+ * - 回收任务只扫描失去引用超过宽限期的记录，删除记录后再删除文件
+ * <p>
+ * 文件名包含随机后缀，回收中的旧文件和同一内容新存储的文件不会互相覆盖。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageBlobService {
+    
+    private static final String BLOB_DIR = "blobs";
+    private static final String STAGING_DIR = "staging";
+    
+    private final ImageBlobRepository imageBlobRepository;
+    private final FileUploadConfig fileUploadConfig;
+    
+    /**
+     * 一批回收结果
+     * 
+     * @param lastId 本批最后一条记录的ID，作为下一批的游标
+     * @param scanned 本批扫描的记录数
+     * @param deletedFiles 已删除记录对应的文件，事务提交后由调用方删除
+     */
+    public record OrphanBatch(long lastId, int scanned, List<Path> deletedFiles) {
+    }
+    
+    /**
+     * 获取上传暂存目录
+     * <p>
+     * 暂存目录与内容文件位于同一文件系统，暂存文件可以原子移动到最终位置。
+     */
+    public Path getStagingDirectory() throws IOException {
+        Path stagingDir = Paths.get(fileUploadConfig.getUploadDir(), BLOB_DIR, STAGING_DIR);
+        Files.createDirectories(stagingDir);
+        return stagingDir;
+    }
+    
+    /**
+     * 相同内容是否已存储并经过病毒扫描
+     * 
+     * @param contentHash 内容哈希
+     */
+    @Transactional(readOnly = true)
+    public boolean isScanned(String contentHash) {
+        return imageBlobRepository.findByContentHash(contentHash)
+            .map(blob -> blob.getScannedAt() != null && Files.exists(Paths.get(blob.getFilePath())))
+            .orElse(false);
+    }
+    
+    /**
+     * 引用已存在的相同内容，不存在时把暂存文件存储为新内容
+     * <p>
+     * 调用方的事务回滚时引用计数一并回滚。并发存储相同内容时唯一约束冲突，
+     * 调用方重试即可引用先提交的记录。
+     * 
+     * @param stagedFile 已通过安全验证的暂存文件
+     * @param inspection 安全验证结果
+     * @param contentType 内容类型
+     * @param extension 文件扩展名
+     * @return 引用的内容记录
+     */
+    @Transactional
+    public ImageBlob acquireOrStore(Path stagedFile, UploadInspectionResult inspection,
+                                   String contentType, String extension) throws IOException {
+        String contentHash = inspection.contentHash();
+        
+        Optional<ImageBlob> existing = imageBlobRepository.findByContentHash(contentHash);
+        if (existing.isPresent() && imageBlobRepository.incrementRefCount(existing.get().getId()) == 1) {
+            ImageBlob blob = existing.get();
+            Path blobPath = Paths.get(blob.getFilePath());
+            if (!Files.exists(blobPath)) {
+                // 文件丢失时用本次上传的相同内容恢复
+                log.warn("图片内容文件丢失，使用本次上传恢复: blobId={}, path={}", blob.getId(), blobPath);
+                Files.createDirectories(blobPath.getParent());
+                Files.move(stagedFile, blobPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            if (blob.getScannedAt() == null && inspection.scanned()) {
+                imageBlobRepository.markScanned(blob.getId(), LocalDateTime.now());
+            }
+            log.debug("复用已存储的图片内容: blobId={}", blob.getId());
+            return blob;
+        }
+        
+        // 先插入记录再移动文件：唯一约束冲突时不会留下多余的文件
+        Path blobPath = resolveBlobPath(contentHash, extension);
+        ImageBlob blob = new ImageBlob(contentHash, blobPath.toString(), contentType, inspection.size());
+        blob.setScannedAt(inspection.scanned() ? LocalDateTime.now() : null);
+        blob = imageBlobRepository.saveAndFlush(blob);
+        
+        Files.createDirectories(blobPath.getParent());
+        Files.move(stagedFile, blobPath, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("存储新的图片内容: blobId={}, path={}", blob.getId(), blobPath);
+        return blob;
+    }
+    
+    /**
+     * 释放一个引用，需在删除图片记录的事务中调用
+     * 
+     * @param blob 图片引用的内容，为null时忽略（旧版本独立存储的文件）
+     */
+    @Transactional
+    public void release(ImageBlob blob) {
+        if (blob == null) {
+            return;
+        }
+        if (imageBlobRepository.decrementRefCount(blob.getId(), LocalDateTime.now()) == 0) {
+            log.warn("图片内容引用计数已为0: blobId={}", blob.getId());
+        }
+    }
+    
+    /**
+     * 回收一批失去引用超过宽限期的内容记录
+     * 
+     * @param cutoff 失去引用早于该时间的记录才回收
+     * @param afterId 游标，只处理ID大于它的记录
+     * @param limit 批大小
+     * @return 本批结果，文件在事务提交后删除
+     */
+    @Transactional
+    public OrphanBatch deleteOrphanBatch(LocalDateTime cutoff, long afterId, int limit) {
+        List<ImageBlob> orphans = imageBlobRepository.findOrphansAfterId(cutoff, afterId, PageRequest.of(0, limit));
+        List<Path> deletedFiles = new ArrayList<>();
+        long lastId = afterId;
+        for (ImageBlob orphan : orphans) {
+            lastId = orphan.getId();
+            // 回收期间被重新引用的记录不会删除
+            if (imageBlobRepository.deleteIfUnreferenced(orphan.getId()) == 1) {
+                deletedFiles.add(Paths.get(orphan.getFilePath()));
+            }
+        }
+        return new OrphanBatch(lastId, orphans.size(), deletedFiles);
+    }
+    
+    /**
+     * 内容文件路径：blobs/前两位/次两位/哈希-随机后缀.扩展名
+     */
+    private Path resolveBlobPath(String contentHash, String extension) {
+        String hex = HexFormat.of().formatHex(Base64.getDecoder().decode(contentHash));
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String fileName = hex + "-" + suffix + (extension != null && !extension.isEmpty() ? "." + extension : "");
+        return Paths.get(fileUploadConfig.getUploadDir(), BLOB_DIR, hex.substring(0, 2), hex.substring(2, 4), fileName);
+    }
+}
@@ -3,13 +3,22 @@ package com.myweb.website_core.application.service.file;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * 图片清理服务
  * <p>
- * 定期清理未关联到帖子的图片文件
+ * 定期清理未关联到帖子的图片，并回收失去引用的图片内容文件。
+ * 两者都按ID游标分批处理，每批一个事务，只读取符合条件的记录；
+ * 文件在事务提交后删除。
  */
 @Service
 public class ImageCleanupService {
@@ -17,15 +26,26 @@ public class ImageCleanupService {
     private static final Logger logger = LoggerFactory.getLogger(ImageCleanupService.class);
     
     private final ImageService imageService;
+    private final ImageBlobService imageBlobService;
+    
+    @Value("${app.upload.cleanup.batch-size:200}")
+    private int batchSize = 200;
+    
+    /**
+     * 图片内容失去引用后保留的时间，期间再次上传相同内容可直接复用
+     */
+    @Value("${app.upload.cleanup.blob-grace-hours:24}")
+    private int blobGraceHours = 24;
     
     @Autowired
-    public ImageCleanupService(ImageService imageService) {
+    public ImageCleanupService(ImageService imageService, ImageBlobService imageBlobService) {
         this.imageService = imageService;
+        this.imageBlobService = imageBlobService;
     }
     
     /**
      * 每天凌晨2点执行清理任务
-     * 清理超过24小时未关联的图片
+     * 清理超过24小时未关联的图片，回收失去引用超过宽限期的图片内容
      */
     @Scheduled(cron = "0 0 2 * * ?")
     public void cleanupUnassociatedImages() {
@@ -33,8 +53,12 @@ public class ImageCleanupService {
         
         try {
             // 清理超过24小时未关联的图片
-            imageService.cleanupUnassociatedImages(24);
-            logger.info("图片清理任务完成");
+            int deletedImages = cleanupUnassociatedImages(LocalDateTime.now().minusHours(24));
+            
+            // 回收失去引用的图片内容
+            int deletedBlobs = collectOrphanBlobs(LocalDateTime.now().minusHours(blobGraceHours));
+            
+            logger.info("图片清理任务完成: deletedImages={}, deletedBlobs={}", deletedImages, deletedBlobs);
             
         } catch (Exception e) {
             logger.error("图片清理任务失败", e);
@@ -48,4 +72,40 @@ public class ImageCleanupService {
         logger.info("手动触发图片清理任务...");
         cleanupUnassociatedImages();
     }
-}
\ No newline at end of file
+    
+    private int cleanupUnassociatedImages(LocalDateTime cutoff) {
+        int deleted = 0;
+        long cursor = 0;
+        ImageService.CleanupBatch batch;
+        while ((batch = imageService.deleteUnassociatedImageBatch(cutoff, cursor, batchSize)) != null) {
+            deleteFiles(batch.legacyFiles());
+            deleted += batch.deleted();
+            cursor = batch.lastId();
+        }
+        return deleted;
+    }
+    
+    private int collectOrphanBlobs(LocalDateTime cutoff) {
+        int deleted = 0;
+        long cursor = 0;
+        while (true) {
+            ImageBlobService.OrphanBatch batch = imageBlobService.deleteOrphanBatch(cutoff, cursor, batchSize);
+            deleteFiles(batch.deletedFiles());
+            deleted += batch.deletedFiles().size();
+            if (batch.scanned() < batchSize) {
+                return deleted;
+            }
+            cursor = batch.lastId();
+        }
+    }
+    
+    private void deleteFiles(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.error("删除图片文件失败: {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.myweb.website_core.application.service.file;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.myweb.website_core.domain.business.entity.Image;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * 图片发送服务
+ * <p>
+ * 以存储的文件哈希作为强ETag：
+ * - If-None-Match 命中时返回304，不读取文件，也不做完整性验证
+ * - 支持单个 Range 请求（206 / 416），If-Range 按强比较不匹配时返回完整内容
+ * - 按内容存储的图片内容不会变化，使用 immutable 长期缓存
+ * <p>
+ * 文件内容优先交给容器 sendfile 发送（零拷贝，容器不支持时如TLS连接则不可用），
+ * 否则通过 {@link FileChannel#transferTo} 发送。小文件可进入按字节数限制容量的热点缓存。
+ * 完整性验证结果按文件大小和修改时间缓存，文件未变化时不重复计算哈希。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageDeliveryService {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE_CACHE_CONTROL = "public, max-age=3600";
+
+    private final FileUploadService fileUploadService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.upload.delivery.hot-cache-max-bytes:67108864}")
+    private long hotCacheMaxBytes;
+
+    @Value("${app.upload.delivery.hot-cache-max-file-bytes:1048576}")
+    private long hotCacheMaxFileBytes;
+
+    @Value("${app.upload.delivery.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+
+    /**
+     * 热点图片内容，键为文件路径和版本
+     */
+    private Cache<String, byte[]> hotCache;
+
+    /**
+     * 已通过完整性验证的图片，值为验证时的文件版本
+     */
+    private Cache<Long, String> verifiedFiles;
+
+    /**
+     * 发送结果
+     */
+    public enum Outcome {
+        /** 完整内容 */
+        FULL,
+        /** 部分内容 */
+        PARTIAL,
+        /** 客户端缓存仍有效 */
+        NOT_MODIFIED,
+        /** 请求的范围无法满足 */
+        RANGE_NOT_SATISFIABLE,
+        /** 完整性验证失败，未发送任何内容 */
+        INTEGRITY_FAILED
+    }
+
+    /**
+     * 请求的字节范围（包含两端）
+     */
+    record ByteRange(long start, long end) {
+
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        long length() {
+            return end - start + 1;
+        }
+
+        /**
+         * 解析 Range 请求头，只支持单个范围
+         *
+         * @return 请求的范围；请求头缺失、格式无效或包含多个范围时返回null（发送完整内容）；
+         *         范围超出文件时返回 {@link #UNSATISFIABLE}
+         */
+        static ByteRange parse(String header, long fileLength) {
+            if (header == null || !header.startsWith("bytes=")) {
+                return null;
+            }
+            String spec = header.substring("bytes=".length()).trim();
+            if (spec.isEmpty() || spec.contains(",")) {
+                return null;
+            }
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    // bytes=-N：最后N个字节
+                    if (last.isEmpty()) {
+                        return null;
+                    }
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0 || fileLength == 0) {
+                        return UNSATISFIABLE;
+                    }
+                    return new ByteRange(Math.max(0, fileLength - suffix), fileLength - 1);
+                }
+                long start = Long.parseLong(first);
+                long end = last.isEmpty() ? fileLength - 1 : Math.min(Long.parseLong(last), fileLength - 1);
+                if (start >= fileLength || end < start) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(start, end);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        hotCache = Caffeine.newBuilder()
+            .maximumWeight(hotCacheMaxBytes)
+            .weigher((String key, byte[] content) -> content.length)
+            .recordStats()
+            .build();
+        verifiedFiles = Caffeine.newBuilder()
+            .maximumSize(verifiedCacheSize)
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, hotCache, "image.hot");
+        log.info("图片热点缓存初始化完成，容量: {} bytes, 单文件上限: {} bytes", hotCacheMaxBytes, hotCacheMaxFileBytes);
+    }
+
+    /**
+     * 发送图片
+     * <p>
+     * 返回 {@link Outcome#INTEGRITY_FAILED} 时响应未写入，由调用方决定错误响应。
+     *
+     * @param image 图片信息
+     * @param request HTTP请求
+     * @param response HTTP响应
+     * @return 发送结果
+     * @throws IOException 文件不存在或读取失败
+     */
+    public Outcome serve(Image image, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path filePath = Paths.get(image.getFilePath());
+        if (!Files.exists(filePath)) {
+            throw new IOException("图片文件不存在");
+        }
+        BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        long fileLength = attributes.size();
+        String version = fileLength + "-" + attributes.lastModifiedTime().toMillis();
+        String etag = buildETag(image, version);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                           image.getBlob() != null ? IMMUTABLE_CACHE_CONTROL : REVALIDATE_CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // 客户端缓存仍有效：不读取文件
+        if (matchesIfNoneMatch(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return Outcome.NOT_MODIFIED;
+        }
+
+        if (!isIntact(image, version)) {
+            response.reset();
+            return Outcome.INTEGRITY_FAILED;
+        }
+        response.setHeader("X-Integrity-Status", "VERIFIED");
+
+        ByteRange range = ByteRange.parse(request.getHeader(HttpHeaders.RANGE), fileLength);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && ifRange != null && !matchesIfRange(ifRange, etag)) {
+            // 客户端持有的版本已变化或无法确认，发送完整内容
+            range = null;
+        }
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileLength);
+            return Outcome.RANGE_NOT_SATISFIABLE;
+        }
+
+        if (range == null) {
+            range = new ByteRange(0, fileLength - 1);
+            response.setStatus(HttpServletResponse.SC_OK);
+        } else {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                               "bytes " + range.start() + "-" + range.end() + "/" + fileLength);
+        }
+        response.setContentType(image.getContentType());
+        response.setContentLengthLong(Math.max(0, range.length()));
+
+        if (!"HEAD".equalsIgnoreCase(request.getMethod()) && range.length() > 0) {
+            writeContent(filePath, version, fileLength, range, request, response);
+        }
+        return response.getStatus() == HttpServletResponse.SC_PARTIAL_CONTENT ? Outcome.PARTIAL : Outcome.FULL;
+    }
+
+    /**
+     * 强ETag使用存储的文件哈希；没有哈希的旧图片使用文件版本作为弱ETag
+     */
+    private String buildETag(Image image, String version) {
+        String fileHash = image.getFileHash();
+        if (fileHash != null && !fileHash.isBlank()) {
+            return "\"" + fileHash + "\"";
+        }
+        return "W/\"" + version + "\"";
+    }
+
+    private boolean matchesIfNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            // If-None-Match 使用弱比较
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * If-Range 使用强比较：双方都是强ETag且完全相同时才按 Range 发送部分内容。
+     * 弱ETag不能保证字节相同，日期形式的 If-Range 也无法确认（不发送 Last-Modified），都按不匹配处理
+     */
+    private boolean matchesIfRange(String ifRange, String etag) {
+        return !etag.startsWith("W/") && ifRange.trim().equals(etag);
+    }
+
+    /**
+     * 文件未变化时复用上次的完整性验证结果
+     */
+    private boolean isIntact(Image image, String version) {
+        if (version.equals(verifiedFiles.getIfPresent(image.getId()))) {
+            return true;
+        }
+        boolean intact = fileUploadService.verifyFileIntegrity(image.getId());
+        if (intact) {
+            verifiedFiles.put(image.getId(), version);
+        }
+        return intact;
+    }
+
+    private void writeContent(Path filePath, String version, long fileLength, ByteRange range,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // 热点缓存中的小文件直接从内存发送
+        if (fileLength <= hotCacheMaxFileBytes) {
+            byte[] content = hotCache.get(filePath + "#" + version, key -> readAll(filePath));
+            if (content != null && content.length == fileLength) {
+                response.getOutputStream().write(content, (int) range.start(), (int) range.length());
+                return;
+            }
+        }
+
+        // 容器支持时交给 sendfile 发送
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, filePath.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = range.start();
+            long remaining = range.length();
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+            out.flush();
+        }
+    }
+
+    private static byte[] readAll(Path filePath) {
+        try {
+            return Files.readAllBytes(filePath);
+        } catch (IOException e) {
+            log.warn("读取图片文件失败，不放入热点缓存: path={}, error={}", filePath, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.myweb.website_core.application.service.file;
 
+import com.myweb.website_core.application.service.security.integeration.UploadInspectionResult;
 import com.myweb.website_core.infrastructure.config.properties.FileUploadConfig;
 import com.myweb.website_core.domain.business.entity.Image;
+import com.myweb.website_core.domain.business.entity.ImageBlob;
 import com.myweb.website_core.domain.business.entity.Post;
 import com.myweb.website_core.infrastructure.persistence.repository.interaction.ImageRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
@@ -9,13 +11,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +31,7 @@ import java.util.Optional;
  * - 保存图片信息到数据库
  * - 根据ID获取图片
  * - 获取图片文件资源
+ * - 内容相同的图片共用一个文件，删除图片时释放引用
  */
 @Slf4j
 @Service
@@ -34,6 +40,17 @@ public class ImageService {
     private final ImageRepository imageRepository;
     private final FileUploadConfig fileUploadConfig;
     private final PostRepository postRepository;
+    private final ImageBlobService imageBlobService;
+    
+    /**
+     * 一批未关联图片的清理结果
+     * 
+     * @param lastId 本批最后一条记录的ID，作为下一批的游标
+     * @param deleted 本批删除的图片数
+     * @param legacyFiles 旧版本独立存储的文件，事务提交后由调用方删除
+     */
+    public record CleanupBatch(long lastId, int deleted, List<Path> legacyFiles) {
+    }
     
     /**
      * 保存图片信息到数据库
@@ -80,7 +97,41 @@ public class ImageService {
         
         return imageRepository.save(image);
     }
-
+    
+    /**
+     * 保存上传的图片：引用已存储的相同内容，或把暂存文件存储为新内容
+     * 
+     * @param originalFilename 原始文件名
+     * @param contentType 内容类型
+     * @param stagedFile 已通过安全验证的暂存文件
+     * @param inspection 安全验证结果
+     * @param extension 文件扩展名
+     * @param postId 关联的帖子ID（可选）
+     * @return 保存的图片信息
+     */
+    @Transactional
+    public Image saveUploadedImage(String originalFilename, String contentType, Path stagedFile,
+                                   UploadInspectionResult inspection, String extension, Long postId)
+            throws IOException {
+        ImageBlob blob = imageBlobService.acquireOrStore(stagedFile, inspection, contentType, extension);
+        Path blobPath = Paths.get(blob.getFilePath());
+        
+        Image image = new Image(originalFilename, blobPath.getFileName().toString(), blob.getFilePath(),
+                                contentType, inspection.size(), inspection.contentHash());
+        image.setBlob(blob);
+        
+        if (postId != null) {
+            Optional<Post> postOpt = postRepository.findById(postId);
+            if (postOpt.isPresent()) {
+                image.setPost(postOpt.get());
+                log.info("图片关联到帖子: postId={}", postId);
+            } else {
+                log.warn("指定的帖子不存在: postId={}", postId);
+            }
+        }
+        
+        return imageRepository.save(image);
+    }
     
     /**
      * 根据ID获取图片信息
@@ -177,35 +228,39 @@ public class ImageService {
     }
     
     /**
-     * 清理超过指定时间的未关联图片
+     * 清理一批上传早于指定时间的未关联图片
+     * <p>
+     * 引用共享内容的图片只释放引用，内容文件由回收任务在宽限期后删除。
+     * 
+     * @param cutoff 上传早于该时间的图片才清理
+     * @param afterId 游标，只处理ID大于它的图片
+     * @param limit 批大小
+     * @return 本批结果，为null表示没有更多图片
      */
-    public void cleanupUnassociatedImages(int hoursOld) {
-        List<Image> unassociatedImages = imageRepository.findByPostIsNull();
-        LocalDateTime cutoffTime = LocalDateTime.now().minusHours(hoursOld);
+    @Transactional
+    public CleanupBatch deleteUnassociatedImageBatch(LocalDateTime cutoff, long afterId, int limit) {
+        List<Image> images = imageRepository.findUnassociatedBefore(cutoff, afterId, PageRequest.of(0, limit));
+        if (images.isEmpty()) {
+            return null;
+        }
         
-        for (Image image : unassociatedImages) {
-            if (image.getUploadTime().isBefore(cutoffTime)) {
-                try {
-                    // 删除文件
-                    Path filePath = Paths.get(image.getFilePath());
-                    if (Files.exists(filePath)) {
-                        Files.delete(filePath);
-                    }
-                    
-                    // 删除数据库记录
-                    imageRepository.delete(image);
-                    log.info("清理未关联图片: {}", image.getId());
-                    
-                } catch (Exception e) {
-                    log.error("清理图片失败: {}", image.getId(), e);
-                }
+        List<Path> legacyFiles = new ArrayList<>();
+        for (Image image : images) {
+            if (image.getBlob() != null) {
+                imageBlobService.release(image.getBlob());
+            } else {
+                legacyFiles.add(Paths.get(image.getFilePath()));
             }
         }
+        imageRepository.deleteAllInBatch(images);
+        
+        return new CleanupBatch(images.get(images.size() - 1).getId(), images.size(), legacyFiles);
     }
     
     /**
      * 删除图片
      */
+    @Transactional
     public boolean deleteImage(Long id) {
         try {
             Optional<Image> imageOpt = imageRepository.findById(id);
@@ -214,11 +269,16 @@ public class ImageService {
             }
             
             Image image = imageOpt.get();
-            Path filePath = Paths.get(image.getFilePath());
             
-            // 删除文件
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
+            if (image.getBlob() != null) {
+                // 共享内容只释放引用，文件由回收任务删除
+                imageBlobService.release(image.getBlob());
+            } else {
+                // 删除文件
+                Path filePath = Paths.get(image.getFilePath());
+                if (Files.exists(filePath)) {
+                    Files.delete(filePath);
+                }
             }
             
             // 删除数据库记录
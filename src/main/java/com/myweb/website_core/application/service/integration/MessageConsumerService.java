@@ -1,5 +1,6 @@
 package com.myweb.website_core.application.service.integration;
 
+import com.myweb.website_core.application.service.business.FollowFeedService;
 import com.myweb.website_core.domain.business.entity.Post;
 import com.myweb.website_core.domain.business.entity.PostCollect;
 import com.myweb.website_core.domain.business.entity.PostLike;
@@ -10,11 +11,14 @@ import com.myweb.website_core.domain.security.dto.SecurityEventRequest;
 import com.myweb.website_core.domain.security.entity.AuditLog;
 import com.myweb.website_core.domain.security.entity.SecurityEvent;
 import com.myweb.website_core.infrastructure.config.RabbitMQConfig;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.InteractionBatchRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.InteractionBatchRepository.UserPostPair;
 import com.myweb.website_core.infrastructure.persistence.repository.interaction.PostCollectRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.interaction.PostLikeRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.interaction.UserFollowRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.audit.AuditLogBatchRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.audit.AuditLogRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.audit.SecurityEventRepository;
 import lombok.RequiredArgsConstructor;
@@ -24,7 +28,12 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -41,11 +50,15 @@ public class MessageConsumerService {
     private final UserFollowRepository userFollowRepository;
     private final AuditLogRepository auditLogRepository;
     private final SecurityEventRepository securityEventRepository;
+    private final InteractionBatchRepository interactionBatchRepository;
+    private final AuditLogBatchRepository auditLogBatchRepository;
+    private final FollowFeedService followFeedService;
 
     /**
-     * 处理帖子点赞消息
+     * 处理帖子点赞消息（逐条消费模式，批量消费关闭时启用）
      */
-    @RabbitListener(queues = RabbitMQConfig.INTERACTION_LIKE_QUEUE)
+    @RabbitListener(queues = RabbitMQConfig.INTERACTION_LIKE_QUEUE,
+            autoStartup = "#{!${app.interaction.batch.enabled:true}}")
     public void handlePostLike(Map<String, Object> message) {
         try {
             log.info("处理帖子点赞消息: {}", message);
@@ -68,9 +81,8 @@ public class MessageConsumerService {
                 postLikeRepository.deleteByUserIdAndPostId(userId, postId);
 
             }
-            post.setLikeCount(postLikeRepository.countByPostId(postId));
+            // 帖子点赞数由Redis计数对账写回，这里只更新用户点赞数
             user.setLikedCount(postLikeRepository.countByUserId(userId));
-            postRepository.save(post);
             userRepository.save(user);
 
             log.info("用户 {} 点赞了帖子 {}", userId, postId);
@@ -79,7 +91,12 @@ public class MessageConsumerService {
             log.error("处理帖子点赞消息失败", e);
         }
     }
-    @RabbitListener(queues = RabbitMQConfig.INTERACTION_BOOKMARK_QUEUE)
+
+    /**
+     * 处理帖子收藏消息（逐条消费模式，批量消费关闭时启用）
+     */
+    @RabbitListener(queues = RabbitMQConfig.INTERACTION_BOOKMARK_QUEUE,
+            autoStartup = "#{!${app.interaction.batch.enabled:true}}")
     public void handlePostCollect(Map<String,Object> message){
         try {
             log.info("处理帖子收藏消息: {}", message);
@@ -97,14 +114,12 @@ public class MessageConsumerService {
             if(type){
                 // 添加收藏
                 postCollectRepository.save(new PostCollect(user, post));
-                // 更新点赞数
             }else{
-                // 取消点赞
+                // 取消收藏
                 postCollectRepository.deleteByUserIdAndPostId(userId, postId);
 
             }
-            post.setCollectCount(postCollectRepository.countByPostId(postId));
-            postRepository.save(post);
+            // 帖子收藏数由Redis计数对账写回
 
             log.info("用户 {} 收藏了帖子 {}", userId, postId);
 
@@ -113,6 +128,66 @@ public class MessageConsumerService {
         }
     }
 
+    /**
+     * 批量处理帖子点赞消息
+     * 
+     * 同一批次内对同一(用户, 帖子)的多次切换只保留最终状态，
+     * 关系记录通过JDBC批处理插入/删除，用户点赞数按实际变更行数增量更新。
+     * 帖子点赞数只由Redis计数对账写回（PostInteractionCounterService），这里不再更新，
+     * 否则对账之后才消费的消息会被重复计数。
+     */
+    @RabbitListener(queues = RabbitMQConfig.INTERACTION_LIKE_QUEUE,
+            containerFactory = RabbitMQConfig.INTERACTION_BATCH_CONTAINER_FACTORY,
+            autoStartup = "${app.interaction.batch.enabled:true}")
+    @Transactional
+    public void handlePostLikeBatch(List<Map<String, Object>> messages) {
+        try {
+            Map<UserPostPair, Boolean> states = coalesceInteractions(messages);
+            if (states.isEmpty()) {
+                return;
+            }
+
+            InteractionDeltas deltas = applyInteractions(InteractionBatchRepository.TABLE_POST_LIKES, states);
+            if (deltas.exact()) {
+                interactionBatchRepository.incrementUserLikedCounts(deltas.userDeltas());
+            } else {
+                interactionBatchRepository.recountUserLikedCounts(deltas.userDeltas().keySet());
+            }
+
+            log.info("批量处理帖子点赞消息完成: 消息数={}, 合并后={}", messages.size(), states.size());
+
+        } catch (Exception e) {
+            log.error("批量处理帖子点赞消息失败: 消息数={}", messages.size(), e);
+            throw e; // 事务回滚，整批消息进入死信队列
+        }
+    }
+
+    /**
+     * 批量处理帖子收藏消息
+     * 
+     * 处理方式同批量点赞，只写入关系记录；帖子收藏数由Redis计数对账写回。
+     */
+    @RabbitListener(queues = RabbitMQConfig.INTERACTION_BOOKMARK_QUEUE,
+            containerFactory = RabbitMQConfig.INTERACTION_BATCH_CONTAINER_FACTORY,
+            autoStartup = "${app.interaction.batch.enabled:true}")
+    @Transactional
+    public void handlePostCollectBatch(List<Map<String, Object>> messages) {
+        try {
+            Map<UserPostPair, Boolean> states = coalesceInteractions(messages);
+            if (states.isEmpty()) {
+                return;
+            }
+
+            applyInteractions(InteractionBatchRepository.TABLE_POST_COLLECT, states);
+
+            log.info("批量处理帖子收藏消息完成: 消息数={}, 合并后={}", messages.size(), states.size());
+
+        } catch (Exception e) {
+            log.error("批量处理帖子收藏消息失败: 消息数={}", messages.size(), e);
+            throw e;
+        }
+    }
+
     /**
      * 处理用户关注消息
      */
@@ -143,11 +218,31 @@ public class MessageConsumerService {
             }
             user.setFollowCount(userFollowRepository.countByFollowerId(userId));
             targetUser.setFollowerCount(userFollowRepository.countByFollowingId(targetUserId));
+
+            // 被关注者最近的帖子并入或移出关注流
+            followFeedService.onFollowChanged(userId, targetUserId, isFollowed);
         } catch (Exception e) {
             log.error("处理用户关注消息失败", e);
         }
     }
 
+    /**
+     * 处理帖子创建消息，将新帖子推送到粉丝的关注流
+     */
+    @RabbitListener(queues = RabbitMQConfig.POST_CREATED_QUEUE)
+    public void handlePostCreated(Map<String, Object> message) {
+        try {
+            log.debug("处理帖子创建消息: {}", message);
+
+            long postId = Long.parseLong(message.get("postId").toString());
+            long authorId = Long.parseLong(message.get("authorId").toString());
+
+            followFeedService.fanOut(postId, authorId);
+        } catch (Exception e) {
+            log.error("处理帖子创建消息失败", e);
+        }
+    }
+
     /**
      * 处理邮件通知消息
      */
@@ -201,9 +296,10 @@ public class MessageConsumerService {
     // ==================== 安全审计消息消费者 ====================
 
     /**
-     * 处理安全审计消息
+     * 处理安全审计消息（逐条消费模式，批量消费关闭时启用）
      */
-    @RabbitListener(queues = RabbitMQConfig.SECURITY_AUDIT_QUEUE)
+    @RabbitListener(queues = RabbitMQConfig.SECURITY_AUDIT_QUEUE,
+            autoStartup = "#{!${app.audit.ingest.batch.enabled:true}}")
     @Transactional
     public void handleSecurityAudit(AuditLogRequest request) {
         try {
@@ -227,9 +323,10 @@ public class MessageConsumerService {
     }
 
     /**
-     * 处理用户认证审计消息
+     * 处理用户认证审计消息（逐条消费模式，批量消费关闭时启用）
      */
-    @RabbitListener(queues = RabbitMQConfig.USER_AUTH_QUEUE)
+    @RabbitListener(queues = RabbitMQConfig.USER_AUTH_QUEUE,
+            autoStartup = "#{!${app.audit.ingest.batch.enabled:true}}")
     @Transactional
     public void handleUserAuthAudit(AuditLogRequest request) {
         try {
@@ -258,9 +355,10 @@ public class MessageConsumerService {
     }
 
     /**
-     * 处理文件上传审计消息
+     * 处理文件上传审计消息（逐条消费模式，批量消费关闭时启用）
      */
-    @RabbitListener(queues = RabbitMQConfig.FILE_UPLOAD_AUDIT_QUEUE)
+    @RabbitListener(queues = RabbitMQConfig.FILE_UPLOAD_AUDIT_QUEUE,
+            autoStartup = "#{!${app.audit.ingest.batch.enabled:true}}")
     @Transactional
     public void handleFileUploadAudit(AuditLogRequest request) {
         try {
@@ -284,9 +382,10 @@ public class MessageConsumerService {
     }
 
     /**
-     * 处理搜索审计消息
+     * 处理搜索审计消息（逐条消费模式，批量消费关闭时启用）
      */
-    @RabbitListener(queues = RabbitMQConfig.SEARCH_AUDIT_QUEUE)
+    @RabbitListener(queues = RabbitMQConfig.SEARCH_AUDIT_QUEUE,
+            autoStartup = "#{!${app.audit.ingest.batch.enabled:true}}")
     @Transactional
     public void handleSearchAudit(AuditLogRequest request) {
         try {
@@ -306,9 +405,10 @@ public class MessageConsumerService {
     }
 
     /**
-     * 处理访问控制审计消息
+     * 处理访问控制审计消息（逐条消费模式，批量消费关闭时启用）
      */
-    @RabbitListener(queues = RabbitMQConfig.ACCESS_CONTROL_QUEUE)
+    @RabbitListener(queues = RabbitMQConfig.ACCESS_CONTROL_QUEUE,
+            autoStartup = "#{!${app.audit.ingest.batch.enabled:true}}")
     @Transactional
     public void handleAccessControlAudit(AuditLogRequest request) {
         try {
@@ -331,6 +431,123 @@ public class MessageConsumerService {
         }
     }
 
+    // ==================== 审计消息批量消费 ====================
+
+    /**
+     * 批量处理安全审计消息
+     * 
+     * 整批审计日志一次写入（COPY/JDBC批处理），审计统计按批合并后更新Redis。
+     */
+    @RabbitListener(queues = RabbitMQConfig.SECURITY_AUDIT_QUEUE,
+            containerFactory = RabbitMQConfig.AUDIT_BATCH_CONTAINER_FACTORY,
+            autoStartup = "${app.audit.ingest.batch.enabled:true}")
+    @Transactional
+    public void handleSecurityAuditBatch(List<AuditLogRequest> requests) {
+        try {
+            List<AuditLogRequest> saved = saveAuditLogBatch(requests);
+            updateAuditStatistics(saved);
+            log.debug("批量保存安全审计日志完成: 消息数={}, 写入={}", requests.size(), saved.size());
+
+        } catch (Exception e) {
+            log.error("批量处理安全审计消息失败: 消息数={}", requests.size(), e);
+            throw e; // 事务回滚，整批消息进入死信队列
+        }
+    }
+
+    /**
+     * 批量处理用户认证审计消息
+     */
+    @RabbitListener(queues = RabbitMQConfig.USER_AUTH_QUEUE,
+            containerFactory = RabbitMQConfig.AUDIT_BATCH_CONTAINER_FACTORY,
+            autoStartup = "${app.audit.ingest.batch.enabled:true}")
+    @Transactional
+    public void handleUserAuthAuditBatch(List<AuditLogRequest> requests) {
+        try {
+            List<AuditLogRequest> saved = saveAuditLogBatch(requests);
+            for (AuditLogRequest request : saved) {
+                // 特殊处理登录失败事件
+                if (request.getOperation() == com.myweb.website_core.common.enums.AuditOperation.USER_LOGIN_FAILURE) {
+                    handleLoginFailureEventFromRequest(request);
+                }
+                // 特殊处理账户锁定事件
+                if (request.getOperation() == com.myweb.website_core.common.enums.AuditOperation.ACCOUNT_LOCKED) {
+                    handleAccountLockedEventFromRequest(request);
+                }
+            }
+            log.debug("批量保存用户认证审计日志完成: 消息数={}, 写入={}", requests.size(), saved.size());
+
+        } catch (Exception e) {
+            log.error("批量处理用户认证审计消息失败: 消息数={}", requests.size(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * 批量处理文件上传审计消息
+     */
+    @RabbitListener(queues = RabbitMQConfig.FILE_UPLOAD_AUDIT_QUEUE,
+            containerFactory = RabbitMQConfig.AUDIT_BATCH_CONTAINER_FACTORY,
+            autoStartup = "${app.audit.ingest.batch.enabled:true}")
+    @Transactional
+    public void handleFileUploadAuditBatch(List<AuditLogRequest> requests) {
+        try {
+            List<AuditLogRequest> saved = saveAuditLogBatch(requests);
+            for (AuditLogRequest request : saved) {
+                // 如果上传失败，可能需要创建安全事件
+                if ("FAILURE".equals(request.getResult())) {
+                    createSecurityEventFromRequest(request);
+                }
+            }
+            log.debug("批量保存文件上传审计日志完成: 消息数={}, 写入={}", requests.size(), saved.size());
+
+        } catch (Exception e) {
+            log.error("批量处理文件上传审计消息失败: 消息数={}", requests.size(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * 批量处理搜索审计消息
+     */
+    @RabbitListener(queues = RabbitMQConfig.SEARCH_AUDIT_QUEUE,
+            containerFactory = RabbitMQConfig.AUDIT_BATCH_CONTAINER_FACTORY,
+            autoStartup = "${app.audit.ingest.batch.enabled:true}")
+    @Transactional
+    public void handleSearchAuditBatch(List<AuditLogRequest> requests) {
+        try {
+            List<AuditLogRequest> saved = saveAuditLogBatch(requests);
+            updateSearchStatistics(saved);
+
+        } catch (Exception e) {
+            log.error("批量处理搜索审计消息失败: 消息数={}", requests.size(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * 批量处理访问控制审计消息
+     */
+    @RabbitListener(queues = RabbitMQConfig.ACCESS_CONTROL_QUEUE,
+            containerFactory = RabbitMQConfig.AUDIT_BATCH_CONTAINER_FACTORY,
+            autoStartup = "${app.audit.ingest.batch.enabled:true}")
+    @Transactional
+    public void handleAccessControlAuditBatch(List<AuditLogRequest> requests) {
+        try {
+            List<AuditLogRequest> saved = saveAuditLogBatch(requests);
+            for (AuditLogRequest request : saved) {
+                // 如果访问被拒绝，创建安全事件
+                if ("DENIED".equals(request.getResult())) {
+                    createSecurityEventFromRequest(request);
+                }
+            }
+            log.debug("批量保存访问控制审计日志完成: 消息数={}, 写入={}", requests.size(), saved.size());
+
+        } catch (Exception e) {
+            log.error("批量处理访问控制审计消息失败: 消息数={}", requests.size(), e);
+            throw e;
+        }
+    }
+
     /**
      * 处理安全事件消息
      */
@@ -349,6 +566,82 @@ public class MessageConsumerService {
 
     // ==================== 私有辅助方法 ====================
 
+    /**
+     * 合并一批交互消息，按消息顺序保留每个(用户, 帖子)的最终状态
+     */
+    private Map<UserPostPair, Boolean> coalesceInteractions(List<Map<String, Object>> messages) {
+        Map<UserPostPair, Boolean> states = new LinkedHashMap<>();
+        for (Map<String, Object> message : messages) {
+            try {
+                long postId = Long.parseLong(message.get("postId").toString());
+                long userId = Long.parseLong(message.get("userId").toString());
+                boolean type = Boolean.parseBoolean(message.get("type").toString());
+                states.put(new UserPostPair(userId, postId), type);
+            } catch (Exception e) {
+                log.warn("跳过无效的交互消息: {}", message);
+            }
+        }
+        return states;
+    }
+
+    /**
+     * 批量写入关系记录并统计每个用户的计数增量
+     */
+    private InteractionDeltas applyInteractions(String table, Map<UserPostPair, Boolean> states) {
+        List<UserPostPair> inserts = new ArrayList<>();
+        List<UserPostPair> deletes = new ArrayList<>();
+        states.forEach((pair, added) -> (added ? inserts : deletes).add(pair));
+
+        Map<Long, Integer> userDeltas = new HashMap<>();
+        boolean exact = true;
+        if (!inserts.isEmpty()) {
+            exact &= accumulateDeltas(inserts, interactionBatchRepository.batchInsert(table, inserts), 1, userDeltas);
+        }
+        if (!deletes.isEmpty()) {
+            exact &= accumulateDeltas(deletes, interactionBatchRepository.batchDelete(table, deletes), -1, userDeltas);
+        }
+        return new InteractionDeltas(userDeltas, exact);
+    }
+
+    /**
+     * 按批处理返回的影响行数累加增量，驱动未返回行数时返回false
+     */
+    private boolean accumulateDeltas(List<UserPostPair> pairs, int[] counts, int sign, Map<Long, Integer> userDeltas) {
+        boolean exact = true;
+        for (int i = 0; i < pairs.size(); i++) {
+            UserPostPair pair = pairs.get(i);
+            int count = i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO;
+            if (count == Statement.SUCCESS_NO_INFO) {
+                exact = false;
+                // 仍记录涉及的用户，供重新统计使用
+                userDeltas.merge(pair.userId(), 0, Integer::sum);
+            } else if (count > 0) {
+                userDeltas.merge(pair.userId(), sign, Integer::sum);
+            }
+        }
+        return exact;
+    }
+
+    /**
+     * 一次写入一批审计日志，缺少操作类型或结果的消息无法入库，跳过
+     *
+     * @return 已写入的审计请求
+     */
+    private List<AuditLogRequest> saveAuditLogBatch(List<AuditLogRequest> requests) {
+        List<AuditLogRequest> valid = new ArrayList<>(requests.size());
+        List<AuditLog> auditLogs = new ArrayList<>(requests.size());
+        for (AuditLogRequest request : requests) {
+            if (request == null || request.getOperation() == null || request.getResult() == null) {
+                log.warn("跳过无效的审计消息: {}", request);
+                continue;
+            }
+            valid.add(request);
+            auditLogs.add(createAuditLogFromRequest(request));
+        }
+        auditLogBatchRepository.insertAll(auditLogs);
+        return valid;
+    }
+
     /**
      * 从AuditLogRequest创建审计日志实体
      */
@@ -453,6 +746,28 @@ public class MessageConsumerService {
         }
     }
 
+    /**
+     * 按批更新审计统计信息，同一计数键合并为一次自增
+     */
+    private void updateAuditStatistics(List<AuditLogRequest> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        try {
+            String dateKey = "audit_stats:" + LocalDateTime.now().toLocalDate();
+            Map<String, Long> increments = new HashMap<>();
+            for (AuditLogRequest request : requests) {
+                increments.merge(dateKey + ":" + request.getOperation().getCode(), 1L, Long::sum);
+                increments.merge(dateKey + ":" + request.getResult(), 1L, Long::sum);
+                increments.merge(dateKey + ":type:" + "AUDIT_LOG", 1L, Long::sum);
+            }
+            increments.forEach((key, delta) -> redisTemplate.opsForValue().increment(key, delta));
+            redisTemplate.expire(dateKey, 30, TimeUnit.DAYS);
+        } catch (Exception e) {
+            log.error("更新审计统计失败: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * 处理登录失败事件（AuditLogRequest版本）
      */
@@ -514,4 +829,34 @@ public class MessageConsumerService {
             log.error("更新搜索统计失败: {}", e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 按批更新搜索统计信息
+     */
+    private void updateSearchStatistics(List<AuditLogRequest> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        try {
+            String dateKey = "search_stats:" + LocalDateTime.now().toLocalDate();
+            Map<String, Long> increments = new HashMap<>();
+            for (AuditLogRequest request : requests) {
+                increments.merge(dateKey + ":user:" + request.getUserId(), 1L, Long::sum);
+            }
+            redisTemplate.opsForValue().increment(dateKey + ":total", requests.size());
+            increments.forEach((key, delta) -> redisTemplate.opsForValue().increment(key, delta));
+            redisTemplate.expire(dateKey, 30, TimeUnit.DAYS);
+        } catch (Exception e) {
+            log.error("更新搜索统计失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 一批交互消息产生的计数增量
+     *
+     * @param userDeltas 用户ID -> 点赞数增量（帖子计数由Redis对账写回，不在此统计）
+     * @param exact 增量是否精确（驱动未返回影响行数时需要重新统计）
+     */
+    private record InteractionDeltas(Map<Long, Integer> userDeltas, boolean exact) {
+    }
+}
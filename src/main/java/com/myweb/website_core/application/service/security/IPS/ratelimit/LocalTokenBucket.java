@@ -0,0 +1,174 @@
+package com.myweb.website_core.application.service.security.IPS.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 本地令牌桶
+ *
+ * 令牌来自向Redis预留的配额：桶内有未过期的令牌时通过CAS扣减，不加锁也不访问Redis；
+ * 令牌耗尽或过期时由一个线程向Redis预留下一块配额，其余线程等待该次预留的结果。
+ * Redis拒绝预留后在一段时间内直接拒绝，避免超限流量持续打到Redis。
+ *
+ * 预留而未用完的令牌在租约过期后归还Redis；下一次预留的数量按上一租约实际用掉的数量收缩，
+ * 租约在过期前耗尽时恢复为完整的预留数量，因此稀疏的请求不会长期占用窗口中的配额。
+ */
+final class LocalTokenBucket {
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    /**
+     * 当前租约，没有未归还的租约时为null，只在持有锁时读写
+     */
+    private Lease lease;
+
+    /**
+     * 归还当前租约的方式，随租约一起记录
+     */
+    private ObjIntConsumer<Lease> leaseRelease;
+
+    /**
+     * 下一次预留的数量，0表示使用完整的预留数量
+     */
+    private int nextLeaseSize;
+
+    /**
+     * 当前令牌的过期时间，写入令牌后再写入，读取时先读
+     */
+    private volatile long expiresAt;
+
+    /**
+     * 在此时间之前直接拒绝
+     */
+    private volatile long deniedUntil;
+
+    /**
+     * 最近一次访问时间，用于清理空闲的桶
+     */
+    private volatile long lastAccess;
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param now 当前时间（毫秒）
+     * @param leaseTtlMillis 预留配额的有效期
+     * @param denyCacheMillis 预留被拒绝后本地拒绝的时长
+     * @param maxLeaseSize 完整的预留数量
+     * @param reserve 向Redis预留指定数量的配额，返回的租约中预留数为0表示拒绝
+     * @param release 向Redis归还租约中未使用的令牌
+     * @return 是否获取成功
+     */
+    boolean tryAcquire(long now, long leaseTtlMillis, long denyCacheMillis, int maxLeaseSize,
+                       IntFunction<Lease> reserve, ObjIntConsumer<Lease> release) {
+        lastAccess = now;
+        if (tryTake(now)) {
+            return true;
+        }
+        if (now < deniedUntil) {
+            return false;
+        }
+
+        synchronized (this) {
+            // 等待期间其他线程可能已完成预留
+            if (tryTake(now)) {
+                return true;
+            }
+            if (now < deniedUntil) {
+                return false;
+            }
+            if (now < expiresAt) {
+                // 租约在过期前耗尽，说明请求速率足以用完完整的预留
+                lease = null;
+                leaseRelease = null;
+                nextLeaseSize = 0;
+            } else {
+                releaseUnused();
+            }
+            int requested = nextLeaseSize > 0 ? Math.min(nextLeaseSize, maxLeaseSize) : maxLeaseSize;
+            Lease granted = reserve.apply(requested);
+            if (granted.granted() <= 0) {
+                tokens.set(0);
+                deniedUntil = now + denyCacheMillis;
+                return false;
+            }
+            lease = granted;
+            leaseRelease = release;
+            tokens.set(granted.granted() - 1L);
+            expiresAt = now + leaseTtlMillis;
+            return true;
+        }
+    }
+
+    /**
+     * 租约已过期时归还未使用的令牌
+     */
+    void releaseIfExpired(long now) {
+        if (now < expiresAt) {
+            return;
+        }
+        synchronized (this) {
+            if (now >= expiresAt) {
+                releaseUnused();
+            }
+        }
+    }
+
+    /**
+     * 桶是否空闲超过指定时长
+     */
+    boolean isIdle(long now, long idleMillis) {
+        return now - lastAccess > idleMillis && now >= expiresAt && now >= deniedUntil;
+    }
+
+    /**
+     * 当前剩余令牌数（已过期的令牌不计入）
+     */
+    long availableTokens(long now) {
+        return now < expiresAt ? tokens.get() : 0;
+    }
+
+    /**
+     * 归还当前租约中未使用的令牌，并按已使用的数量确定下一次预留的数量，需持有锁
+     */
+    private void releaseUnused() {
+        Lease expired = lease;
+        if (expired == null) {
+            return;
+        }
+        ObjIntConsumer<Lease> release = leaseRelease;
+        lease = null;
+        leaseRelease = null;
+        // 过期后tryTake不再扣减，清零与并发的扣减之间只有一方成功
+        int unused = (int) tokens.getAndSet(0);
+        nextLeaseSize = Math.max(1, expired.granted() - unused);
+        if (unused > 0) {
+            release.accept(expired, unused);
+        }
+    }
+
+    private boolean tryTake(long now) {
+        if (now >= expiresAt) {
+            return false;
+        }
+        long current;
+        do {
+            current = tokens.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - 1));
+        return true;
+    }
+
+    /**
+     * 向Redis预留的一块配额
+     *
+     * @param granted 实际预留的数量
+     * @param reference 归还时定位预留记录的标识，{@link #NOT_HELD}表示Redis中没有对应的记录
+     */
+    record Lease(int granted, long reference) {
+
+        static final long NOT_HELD = -1L;
+    }
+}
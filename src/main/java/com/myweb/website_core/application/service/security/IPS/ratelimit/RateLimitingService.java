@@ -7,19 +7,28 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 访问频率限制服务
  * 基于Redis实现滑动窗口算法的访问频率控制
  * 支持基于IP和用户的双重限制策略
  * 
+ * Redis计数支持两种算法：滑动窗口日志（ZSET，精确）和滑动窗口计数（每个键O(1)内存）。
+ * 启用本地令牌桶时，节点按块向Redis预留配额，大部分请求在本地完成判断；
+ * 租约过期时未使用的配额归还Redis，不会一直占用窗口。
+ * 
  * @author MyWeb Security Team
  * @version 1.0
  * @since 2025-01-01
@@ -37,13 +46,17 @@ public class RateLimitingService {
     
     /**
      * Lua脚本实现原子性的滑动窗口计数
-     * 使用ZSET存储时间戳，实现精确的滑动窗口
+     * 使用ZSET存储时间戳，实现精确的滑动窗口；一次调用可预留多个配额
+     * 
+     * ARGV: 窗口秒数, 限制数, 当前毫秒, 预留数, 成员前缀
+     * 返回: {预留后计数, 限制数, 实际预留数}
      */
     private static final String SLIDING_WINDOW_SCRIPT = 
         "local key = KEYS[1] " +
         "local window = tonumber(ARGV[1]) " +
         "local limit = tonumber(ARGV[2]) " +
         "local now = tonumber(ARGV[3]) " +
+        "local requested = tonumber(ARGV[4]) " +
         "local clearBefore = now - window * 1000 " +
         
         // 清理过期的记录
@@ -51,21 +64,119 @@ public class RateLimitingService {
         
         // 获取当前窗口内的请求数
         "local current = redis.call('ZCARD', key) " +
+        "local granted = math.min(requested, limit - current) " +
         
         // 如果超过限制，返回当前计数
-        "if current >= limit then " +
+        "if granted <= 0 then " +
         "  return {current, limit, 0} " +
         "end " +
         
-        // 添加当前请求
-        "redis.call('ZADD', key, now, now) " +
+        // 添加预留的请求，成员带前缀避免同一毫秒内的请求互相覆盖
+        "for i = 1, granted do " +
+        "  redis.call('ZADD', key, now, ARGV[5] .. ':' .. i) " +
+        "end " +
         "redis.call('EXPIRE', key, window + 1) " +
         
         // 返回更新后的计数
-        "local newCurrent = redis.call('ZCARD', key) " +
-        "return {newCurrent, limit, 1}";
+        "return {current + granted, limit, granted}";
+    
+    /**
+     * Lua脚本实现滑动窗口计数算法
+     * 每个键只保存当前窗口起点、当前窗口计数和上一窗口计数，
+     * 按上一窗口在滑动窗口中的剩余比例加权估算请求数
+     * 
+     * ARGV: 窗口秒数, 限制数, 当前毫秒, 预留数（0表示只查询，不写入状态也不延长过期时间）
+     * 返回: {预留后计数, 限制数, 实际预留数}
+     */
+    private static final String SLIDING_WINDOW_COUNTER_SCRIPT =
+        "local key = KEYS[1] " +
+        "local window = tonumber(ARGV[1]) * 1000 " +
+        "local limit = tonumber(ARGV[2]) " +
+        "local now = tonumber(ARGV[3]) " +
+        "local requested = tonumber(ARGV[4]) " +
+        "local start = now - (now % window) " +
+        "local state = redis.call('HMGET', key, 'start', 'current', 'previous') " +
+        "local lastStart = tonumber(state[1]) " +
+        "local current = tonumber(state[2]) or 0 " +
+        "local previous = tonumber(state[3]) or 0 " +
+        
+        // 进入新窗口时滚动计数，中间空了整个窗口则上一窗口计数清零
+        "if lastStart ~= start then " +
+        "  if lastStart == start - window then previous = current else previous = 0 end " +
+        "  current = 0 " +
+        "end " +
+        "local estimated = math.floor(previous * (window - (now - start)) / window) + current " +
+        
+        // 只查询时在任何写操作之前返回
+        "if requested <= 0 then " +
+        "  return {estimated, limit, 0} " +
+        "end " +
+        "local granted = math.max(0, math.min(requested, limit - estimated)) " +
+        "current = current + granted " +
+        "redis.call('HSET', key, 'start', start, 'current', current, 'previous', previous) " +
+        "redis.call('PEXPIRE', key, window * 2) " +
+        "return {estimated + granted, limit, granted}";
+    
+    /**
+     * Lua脚本归还滑动窗口日志中预留而未使用的配额
+     * 同一次预留的成员分数相同，移除编号最大的若干个即可
+     * 
+     * ARGV: 成员前缀, 起始编号, 结束编号
+     */
+    private static final String SLIDING_WINDOW_RELEASE_SCRIPT =
+        "local key = KEYS[1] " +
+        "for i = tonumber(ARGV[2]), tonumber(ARGV[3]) do " +
+        "  redis.call('ZREM', key, ARGV[1] .. ':' .. i) " +
+        "end " +
+        "return 0";
+    
+    /**
+     * Lua脚本归还滑动窗口计数中预留而未使用的配额
+     * 预留时的窗口仍是当前窗口时扣减当前计数，已滚动为上一窗口时扣减上一窗口计数，更早的无需归还
+     * 
+     * ARGV: 窗口秒数, 预留时的窗口起点, 归还数量
+     */
+    private static final String SLIDING_WINDOW_COUNTER_RELEASE_SCRIPT =
+        "local key = KEYS[1] " +
+        "local window = tonumber(ARGV[1]) * 1000 " +
+        "local leaseStart = tonumber(ARGV[2]) " +
+        "local unused = tonumber(ARGV[3]) " +
+        "local state = redis.call('HMGET', key, 'start', 'current', 'previous') " +
+        "local start = tonumber(state[1]) " +
+        "if start == leaseStart then " +
+        "  redis.call('HSET', key, 'current', math.max(0, (tonumber(state[2]) or 0) - unused)) " +
+        "elseif start == leaseStart + window then " +
+        "  redis.call('HSET', key, 'previous', math.max(0, (tonumber(state[3]) or 0) - unused)) " +
+        "end " +
+        "return 0";
+    
+    /**
+     * 本地令牌桶空闲多久后清理（毫秒）
+     */
+    private static final long LOCAL_BUCKET_IDLE_MILLIS = 60_000L;
+    
+    /**
+     * 检查过期租约并归还未使用配额的间隔（毫秒）
+     */
+    private static final long LEASE_RELEASE_INTERVAL_MILLIS = 1000L;
     
     private final DefaultRedisScript<Object> slidingWindowScript;
+    
+    private final DefaultRedisScript<Object> slidingWindowCounterScript;
+    
+    private final DefaultRedisScript<Long> slidingWindowReleaseScript;
+    
+    private final DefaultRedisScript<Long> slidingWindowCounterReleaseScript;
+    
+    /**
+     * 本地令牌桶，键与Redis限流键相同
+     */
+    private final Map<String, LocalTokenBucket> localBuckets = new ConcurrentHashMap<>();
+    
+    /**
+     * ZSET成员前缀，节点内递增、节点间随机起点
+     */
+    private final AtomicLong memberSequence = new AtomicLong(ThreadLocalRandom.current().nextLong(1L << 48) << 12);
 
     @Autowired
     public RateLimitingService(RedisTemplate<String, Object> redisTemplate, RateLimitProperties rateLimitProperties, AuditLogService auditLogService) {
@@ -75,6 +186,11 @@ public class RateLimitingService {
         this.slidingWindowScript = new DefaultRedisScript<>();
         this.slidingWindowScript.setScriptText(SLIDING_WINDOW_SCRIPT);
         this.slidingWindowScript.setResultType(Object.class);
+        this.slidingWindowCounterScript = new DefaultRedisScript<>();
+        this.slidingWindowCounterScript.setScriptText(SLIDING_WINDOW_COUNTER_SCRIPT);
+        this.slidingWindowCounterScript.setResultType(Object.class);
+        this.slidingWindowReleaseScript = new DefaultRedisScript<>(SLIDING_WINDOW_RELEASE_SCRIPT, Long.class);
+        this.slidingWindowCounterReleaseScript = new DefaultRedisScript<>(SLIDING_WINDOW_COUNTER_RELEASE_SCRIPT, Long.class);
     }
     
     /**
@@ -140,18 +256,61 @@ public class RateLimitingService {
     
     /**
      * 执行频率限制检查
+     * 
+     * 启用本地令牌桶时优先消耗本地令牌，耗尽后按块向Redis预留，过期时归还未使用的部分；
+     * 否则每次请求访问Redis
      */
     private boolean checkLimit(String key, RateLimitProperties.EndpointLimit limit) {
+        RateLimitProperties.Local local = rateLimitProperties.getLocal();
+        if (local == null || !local.isEnabled()) {
+            return reserve(key, limit, 1).granted() > 0;
+        }
+        
+        LocalTokenBucket bucket = localBuckets.get(key);
+        if (bucket == null) {
+            // 键数量到达上限（如大量伪造IP）时不再创建本地桶，直接访问Redis
+            if (localBuckets.size() >= local.getMaximumKeys()) {
+                return reserve(key, limit, 1).granted() > 0;
+            }
+            bucket = localBuckets.computeIfAbsent(key, k -> new LocalTokenBucket());
+        }
+        
+        int leaseSize = local.leaseSize(limit.getMaxRequests());
+        long leaseTtl = Math.min(local.getLeaseTtlMillis(), limit.getWindowSizeSeconds() * 1000L);
+        return bucket.tryAcquire(System.currentTimeMillis(), leaseTtl, local.getDenyCacheMillis(), leaseSize,
+                requested -> reserve(key, limit, requested),
+                (lease, unused) -> release(key, limit, lease, unused));
+    }
+    
+    /**
+     * 在Redis中预留配额
+     * 
+     * @param requested 预留数量
+     * @return 预留的租约，预留数为0表示已超限
+     */
+    private LocalTokenBucket.Lease reserve(String key, RateLimitProperties.EndpointLimit limit, int requested) {
         long now = System.currentTimeMillis();
+        boolean counter = rateLimitProperties.isSlidingWindowCounter();
+        long windowMillis = limit.getWindowSizeSeconds() * 1000L;
+        long memberPrefix = counter ? 0L : memberSequence.incrementAndGet();
         
         try {
-            Object result = redisTemplate.execute(
-                slidingWindowScript,
-                Collections.singletonList(key),
-                limit.getWindowSizeSeconds(),
-                limit.getMaxRequests(),
-                now
-            );
+            Object result = counter
+                ? redisTemplate.execute(
+                    slidingWindowCounterScript,
+                    Collections.singletonList(key),
+                    limit.getWindowSizeSeconds(),
+                    limit.getMaxRequests(),
+                    now,
+                    requested)
+                : redisTemplate.execute(
+                    slidingWindowScript,
+                    Collections.singletonList(key),
+                    limit.getWindowSizeSeconds(),
+                    limit.getMaxRequests(),
+                    now,
+                    requested,
+                    memberPrefix);
             
             if (result instanceof java.util.List) {
                 @SuppressWarnings("unchecked")
@@ -160,25 +319,79 @@ public class RateLimitingService {
                 if (resultList.size() >= 3) {
                     long currentCount = ((Number) resultList.get(0)).longValue();
                     long maxRequests = ((Number) resultList.get(1)).longValue();
-                    long allowed = ((Number) resultList.get(2)).longValue();
+                    long granted = ((Number) resultList.get(2)).longValue();
                     
                     // 检查是否需要告警
                     if (rateLimitProperties.shouldAlert((int) currentCount, (int) maxRequests)) {
                         sendRateLimitAlert(key, currentCount, maxRequests);
                     }
                     
-                    return allowed == 1;
+                    // 计数算法以预留时的窗口起点定位归还位置，日志算法以成员前缀定位
+                    return new LocalTokenBucket.Lease((int) granted, counter ? now - now % windowMillis : memberPrefix);
                 }
             }
             
-            return true;
+            return new LocalTokenBucket.Lease(requested, LocalTokenBucket.Lease.NOT_HELD);
             
         } catch (Exception e) {
             log.error("Redis频率限制检查失败: key={}", key, e);
-            return true; // 异常时允许访问
+            return new LocalTokenBucket.Lease(requested, LocalTokenBucket.Lease.NOT_HELD); // 异常时允许访问
+        }
+    }
+    
+    /**
+     * 归还租约中未使用的配额
+     * 
+     * 归还失败只记录日志，未归还的配额在窗口滑过后自然失效
+     */
+    private void release(String key, RateLimitProperties.EndpointLimit limit, LocalTokenBucket.Lease lease, int unused) {
+        if (lease.reference() == LocalTokenBucket.Lease.NOT_HELD) {
+            return;
+        }
+        try {
+            if (rateLimitProperties.isSlidingWindowCounter()) {
+                redisTemplate.execute(
+                    slidingWindowCounterReleaseScript,
+                    Collections.singletonList(key),
+                    limit.getWindowSizeSeconds(),
+                    lease.reference(),
+                    unused);
+            } else {
+                redisTemplate.execute(
+                    slidingWindowReleaseScript,
+                    Collections.singletonList(key),
+                    lease.reference(),
+                    lease.granted() - unused + 1,
+                    lease.granted());
+            }
+        } catch (Exception e) {
+            log.warn("归还预留配额失败: key={}, unused={}, error={}", key, unused, e.getMessage());
         }
     }
     
+    /**
+     * 归还已过期租约中未使用的配额
+     * 
+     * 请求再次到达时也会先归还，定时任务覆盖之后不再有请求的键
+     */
+    @Scheduled(fixedDelay = LEASE_RELEASE_INTERVAL_MILLIS)
+    public void releaseExpiredLeases() {
+        if (localBuckets.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        localBuckets.values().forEach(bucket -> bucket.releaseIfExpired(now));
+    }
+    
+    /**
+     * 清理空闲的本地令牌桶
+     */
+    @Scheduled(fixedDelay = LOCAL_BUCKET_IDLE_MILLIS)
+    public void evictIdleLocalBuckets() {
+        long now = System.currentTimeMillis();
+        localBuckets.values().removeIf(bucket -> bucket.isIdle(now, LOCAL_BUCKET_IDLE_MILLIS));
+    }
+    
     /**
      * 构建IP限制的Redis键
      */
@@ -324,13 +537,13 @@ public class RateLimitingService {
             
             // 获取IP限制状态
             String ipKey = buildIpLimitKey(clientIp, uri);
-            long ipCount = getCurrentCount(ipKey);
+            long ipCount = getCurrentCount(ipKey, limit);
             
             // 获取用户限制状态（如果适用）
             long userCount = 0;
             if (username != null && !"IP".equals(limit.getLimitType())) {
                 String userKey = buildUserLimitKey(username, uri);
-                userCount = getCurrentCount(userKey);
+                userCount = getCurrentCount(userKey, limit);
             }
             
             boolean allowed = ipCount < limit.getMaxRequests() && 
@@ -347,8 +560,22 @@ public class RateLimitingService {
     /**
      * 获取当前计数
      */
-    private long getCurrentCount(String key) {
+    private long getCurrentCount(String key, RateLimitProperties.EndpointLimit limit) {
         try {
+            if (rateLimitProperties.isSlidingWindowCounter()) {
+                // 预留数为0时脚本只读取窗口计数并返回估算值，不修改限流状态
+                Object result = redisTemplate.execute(
+                    slidingWindowCounterScript,
+                    Collections.singletonList(key),
+                    limit.getWindowSizeSeconds(),
+                    limit.getMaxRequests(),
+                    System.currentTimeMillis(),
+                    0);
+                if (result instanceof java.util.List<?> resultList && !resultList.isEmpty()) {
+                    return ((Number) resultList.get(0)).longValue();
+                }
+                return 0;
+            }
             Long count = redisTemplate.opsForZSet().zCard(key);
             return count != null ? count : 0;
         } catch (Exception e) {
@@ -368,10 +595,12 @@ public class RateLimitingService {
         try {
             String ipKey = buildIpLimitKey(clientIp, uri);
             redisTemplate.delete(ipKey);
+            localBuckets.remove(ipKey);
             
             if (username != null) {
                 String userKey = buildUserLimitKey(username, uri);
                 redisTemplate.delete(userKey);
+                localBuckets.remove(userKey);
             }
             
             log.info("清除访问频率限制: clientIp={}, uri={}, username={}", clientIp, uri, username);
@@ -0,0 +1,171 @@
+package com.myweb.website_core.application.service.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图
+ * <p>
+ * 按HDR直方图的对数-线性方式分桶：每个2的幂区间再等分为32个子桶，
+ * 记录值（微秒）的相对误差不超过1/32（约3%），最大可记录约1小时，超出的值计入最后一个桶。
+ * <p>
+ * 桶计数使用LongAdder，高并发写入时不在同一个缓存行上竞争；记录路径只有一次位运算和一次累加，不分配对象。
+ * 内部维护当前窗口和上一个完整窗口两组桶，{@link #rotate()} 只切换一个volatile下标，不加锁；
+ * 切换瞬间仍在写旧窗口的少量样本会落入上一个窗口，对分位数的影响可以忽略。
+ */
+public final class LatencyHistogram {
+
+    /**
+     * 每个2的幂区间的子桶位数
+     */
+    static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 最大可记录值（微秒），约1小时
+     */
+    static final long MAX_TRACKABLE_MICROS = (1L << 32) - 1;
+
+    static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_MICROS) + 1;
+
+    private final LongAdder[][] windows = {newBuckets(), newBuckets()};
+
+    private volatile int active;
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordNanos(long nanos) {
+        recordMicros(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * 记录一次耗时
+     *
+     * @param micros 耗时（微秒）
+     */
+    public void recordMicros(long micros) {
+        windows[active][bucketIndex(micros)].increment();
+    }
+
+    /**
+     * 切换窗口：清空上一个窗口后作为新的当前窗口，原当前窗口成为上一个完整窗口
+     */
+    public void rotate() {
+        int next = active ^ 1;
+        for (LongAdder bucket : windows[next]) {
+            bucket.reset();
+        }
+        active = next;
+    }
+
+    /**
+     * 清空两个窗口
+     */
+    public void reset() {
+        for (LongAdder[] window : windows) {
+            for (LongAdder bucket : window) {
+                bucket.reset();
+            }
+        }
+    }
+
+    /**
+     * 计算分位数
+     * <p>
+     * 优先使用上一个完整窗口；服务刚启动、上一个窗口还没有样本时使用当前窗口。
+     *
+     * @param quantile 分位点（0~1，如0.99）
+     * @return 分位数对应桶的上界（微秒），没有样本时返回0
+     */
+    public long valueAtQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("分位点必须在0到1之间: " + quantile);
+        }
+        int current = active;
+        long[] counts = snapshot(windows[current ^ 1]);
+        long total = sum(counts);
+        if (total == 0) {
+            counts = snapshot(windows[current]);
+            total = sum(counts);
+            if (total == 0) {
+                return 0;
+            }
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return highestEquivalentValue(counts.length - 1);
+    }
+
+    /**
+     * 上一个完整窗口的样本数
+     *
+     * @return 样本数
+     */
+    public long previousWindowCount() {
+        return sum(snapshot(windows[active ^ 1]));
+    }
+
+    /**
+     * 当前窗口的样本数
+     *
+     * @return 样本数
+     */
+    public long currentWindowCount() {
+        return sum(snapshot(windows[active]));
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return micros < 0 ? 0 : (int) micros;
+        }
+        if (micros > MAX_TRACKABLE_MICROS) {
+            micros = MAX_TRACKABLE_MICROS;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        int mantissa = (int) (micros >>> exponent);
+        return (exponent << SUB_BUCKET_BITS) + mantissa;
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = (index >>> SUB_BUCKET_BITS) - 1;
+        long mantissa = SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1));
+        return ((mantissa + 1) << exponent) - 1;
+    }
+
+    private static long[] snapshot(LongAdder[] buckets) {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static LongAdder[] newBuckets() {
+        LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        return buckets;
+    }
+}
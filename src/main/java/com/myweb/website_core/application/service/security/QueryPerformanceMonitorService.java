@@ -1,15 +1,21 @@
 package com.myweb.website_core.application.service.security;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StopWatch;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 查询性能监控服务
@@ -19,6 +25,11 @@ import java.util.concurrent.atomic.AtomicReference;
  * 2. 慢查询检测和告警
  * 3. 查询性能趋势分析
  * 4. 查询缓存命中率统计
+ * 5. 按查询类型的延迟分位数（p50/p95/p99/p999），通过Micrometer导出到actuator
+ * <p>
+ * 计数使用LongAdder，延迟分布使用 {@link LatencyHistogram}；热点路径请使用
+ * {@link #recordQueryExecutionNanos}，整个记录过程不分配对象、不加锁。
+ * 分位数按 app.query-monitor.window-ms 定期切换的时间窗口统计，反映最近一个窗口内的尾延迟。
  * <p>
  * 符合需求：5.7 - 查询性能监控
  * 
@@ -28,18 +39,25 @@ import java.util.concurrent.atomic.AtomicReference;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class QueryPerformanceMonitorService {
+public class QueryPerformanceMonitorService implements MeterBinder {
     
     // 慢查询阈值（毫秒）
     private static final long SLOW_QUERY_THRESHOLD = 1000L;
     
+    private static final long SLOW_QUERY_THRESHOLD_MICROS = TimeUnit.MILLISECONDS.toMicros(SLOW_QUERY_THRESHOLD);
+    
+    // 导出的分位点
+    private static final double[] EXPORTED_QUANTILES = {0.5, 0.95, 0.99, 0.999};
+    
     // 性能统计数据
     private final Map<String, QueryStatistics> queryStats = new ConcurrentHashMap<>();
     
-    // 全局统计
-    private final AtomicLong totalQueries = new AtomicLong(0);
-    private final AtomicLong totalSlowQueries = new AtomicLong(0);
-    private final AtomicLong totalExecutionTime = new AtomicLong(0);
+    // 全局统计（执行时间以微秒累计）
+    private final LongAdder totalQueries = new LongAdder();
+    private final LongAdder totalSlowQueries = new LongAdder();
+    private final LongAdder totalExecutionMicros = new LongAdder();
+    
+    private volatile MeterRegistry meterRegistry;
     
     /**
      * 开始监控查询执行
@@ -61,26 +79,98 @@ public class QueryPerformanceMonitorService {
      * @param success 是否成功
      */
     public void recordQueryExecution(String queryType, long executionTime, int resultCount, boolean success) {
+        recordMicros(queryType, TimeUnit.MILLISECONDS.toMicros(executionTime), resultCount, success);
+    }
+    
+    /**
+     * 记录查询执行结果（纳秒精度，不分配对象）
+     * <p>
+     * 调用方在查询前后各取一次 {@link System#nanoTime()}，把差值传入即可。
+     * 
+     * @param queryType 查询类型
+     * @param elapsedNanos 执行时间（纳秒）
+     * @param resultCount 结果数量
+     * @param success 是否成功
+     */
+    public void recordQueryExecutionNanos(String queryType, long elapsedNanos, int resultCount, boolean success) {
+        recordMicros(queryType, TimeUnit.NANOSECONDS.toMicros(elapsedNanos), resultCount, success);
+    }
+    
+    private void recordMicros(String queryType, long executionMicros, int resultCount, boolean success) {
         // 更新全局统计
-        totalQueries.incrementAndGet();
-        totalExecutionTime.addAndGet(executionTime);
+        totalQueries.increment();
+        totalExecutionMicros.add(executionMicros);
         
         // 检查是否为慢查询
-        if (executionTime > SLOW_QUERY_THRESHOLD) {
-            totalSlowQueries.incrementAndGet();
+        if (executionMicros > SLOW_QUERY_THRESHOLD_MICROS) {
+            totalSlowQueries.increment();
             log.warn("检测到慢查询: type={}, executionTime={}ms, resultCount={}", 
-                    queryType, executionTime, resultCount);
+                    queryType, TimeUnit.MICROSECONDS.toMillis(executionMicros), resultCount);
         }
         
-        // 更新查询类型统计
-        queryStats.computeIfAbsent(queryType, k -> new QueryStatistics(k))
-                 .recordExecution(executionTime, resultCount, success);
+        // 更新查询类型统计（已存在时只做一次无锁的get）
+        QueryStatistics stats = queryStats.get(queryType);
+        if (stats == null) {
+            stats = createStatistics(queryType);
+        }
+        stats.recordExecutionMicros(executionMicros, resultCount, success);
         
         // 记录性能日志
         if (log.isDebugEnabled()) {
             log.debug("查询执行完成: type={}, executionTime={}ms, resultCount={}, success={}", 
-                     queryType, executionTime, resultCount, success);
+                     queryType, TimeUnit.MICROSECONDS.toMillis(executionMicros), resultCount, success);
+        }
+    }
+    
+    private QueryStatistics createStatistics(String queryType) {
+        QueryStatistics stats = queryStats.computeIfAbsent(queryType, QueryStatistics::new);
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            registerMeters(registry, queryType);
+        }
+        return stats;
+    }
+    
+    /**
+     * 切换各查询类型的分位数统计窗口
+     */
+    @Scheduled(fixedDelayString = "${app.query-monitor.window-ms:60000}")
+    public void rotateWindows() {
+        queryStats.values().forEach(QueryStatistics::rotateWindow);
+    }
+    
+    /**
+     * 注册到Micrometer：每个查询类型导出 query.execution.latency{type, quantile}（毫秒）
+     * 和 query.execution.window.count{type}（上一个窗口的查询数）
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        queryStats.keySet().forEach(queryType -> registerMeters(registry, queryType));
+    }
+    
+    private void registerMeters(MeterRegistry registry, String queryType) {
+        // 按名称取当前统计对象，重置统计后仪表仍然有效
+        for (double quantile : EXPORTED_QUANTILES) {
+            Gauge.builder("query.execution.latency", this, service -> service.quantileMillis(queryType, quantile))
+                 .tag("type", queryType)
+                 .tag("quantile", String.valueOf(quantile))
+                 .baseUnit("milliseconds")
+                 .description("查询执行时间分位数（最近一个统计窗口）")
+                 .register(registry);
         }
+        Gauge.builder("query.execution.window.count", this, service -> {
+                 QueryStatistics stats = service.queryStats.get(queryType);
+                 return stats == null ? 0 : stats.histogram.previousWindowCount();
+             })
+             .tag("type", queryType)
+             .description("上一个统计窗口内的查询数")
+             .register(registry);
+    }
+    
+    private double quantileMillis(String queryType, double quantile) {
+        QueryStatistics stats = queryStats.get(queryType);
+        return stats == null ? Double.NaN : stats.getPercentile(quantile);
     }
     
     /**
@@ -99,11 +189,12 @@ public class QueryPerformanceMonitorService {
      * @return 全局统计信息
      */
     public GlobalStatistics getGlobalStatistics() {
-        long totalCount = totalQueries.get();
-        long totalTime = totalExecutionTime.get();
-        long slowCount = totalSlowQueries.get();
+        long totalCount = totalQueries.sum();
+        long totalMicros = totalExecutionMicros.sum();
+        long slowCount = totalSlowQueries.sum();
+        long totalTime = TimeUnit.MICROSECONDS.toMillis(totalMicros);
         
-        double avgExecutionTime = totalCount > 0 ? (double) totalTime / totalCount : 0.0;
+        double avgExecutionTime = totalCount > 0 ? totalMicros / 1000.0 / totalCount : 0.0;
         double slowQueryRate = totalCount > 0 ? (double) slowCount / totalCount * 100 : 0.0;
         
         return new GlobalStatistics(totalCount, slowCount, totalTime, avgExecutionTime, slowQueryRate);
@@ -123,9 +214,9 @@ public class QueryPerformanceMonitorService {
      */
     public void resetStatistics() {
         queryStats.clear();
-        totalQueries.set(0);
-        totalSlowQueries.set(0);
-        totalExecutionTime.set(0);
+        totalQueries.reset();
+        totalSlowQueries.reset();
+        totalExecutionMicros.reset();
         log.info("查询性能统计数据已重置");
     }
     
@@ -167,19 +258,20 @@ public class QueryPerformanceMonitorService {
     
     /**
      * 查询性能监控器
+     * <p>
+     * 只记录开始时的纳秒时钟和墙钟毫秒，开始时间在读取时才转换为LocalDateTime。
      */
     public class QueryPerformanceMonitor {
         private final String queryType;
         private final String queryDescription;
-        private final StopWatch stopWatch;
-        private final LocalDateTime startTime;
+        private final long startNanos;
+        private final long startMillis;
         
         public QueryPerformanceMonitor(String queryType, String queryDescription) {
             this.queryType = queryType;
             this.queryDescription = queryDescription;
-            this.stopWatch = new StopWatch("Query-" + queryType);
-            this.startTime = LocalDateTime.now();
-            this.stopWatch.start();
+            this.startMillis = System.currentTimeMillis();
+            this.startNanos = System.nanoTime();
         }
         
         /**
@@ -189,14 +281,14 @@ public class QueryPerformanceMonitorService {
          * @param success 是否成功
          */
         public void finish(int resultCount, boolean success) {
-            stopWatch.stop();
-            long executionTime = stopWatch.getTotalTimeMillis();
+            long elapsedNanos = System.nanoTime() - startNanos;
             
-            recordQueryExecution(queryType, executionTime, resultCount, success);
+            recordQueryExecutionNanos(queryType, elapsedNanos, resultCount, success);
             
             if (log.isDebugEnabled()) {
                 log.debug("查询监控完成: type={}, description={}, executionTime={}ms, resultCount={}, success={}", 
-                         queryType, queryDescription, executionTime, resultCount, success);
+                         queryType, queryDescription, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), 
+                         resultCount, success);
             }
         }
         
@@ -215,31 +307,36 @@ public class QueryPerformanceMonitorService {
          * @param exception 异常信息
          */
         public void finishWithError(Exception exception) {
-            stopWatch.stop();
-            long executionTime = stopWatch.getTotalTimeMillis();
+            long elapsedNanos = System.nanoTime() - startNanos;
             
-            recordQueryExecution(queryType, executionTime, 0, false);
+            recordQueryExecutionNanos(queryType, elapsedNanos, 0, false);
             
             log.error("查询执行失败: type={}, description={}, executionTime={}ms, error={}", 
-                     queryType, queryDescription, executionTime, exception.getMessage());
+                     queryType, queryDescription, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), 
+                     exception.getMessage());
         }
         
         public String getQueryType() { return queryType; }
         public String getQueryDescription() { return queryDescription; }
-        public LocalDateTime getStartTime() { return startTime; }
+        public LocalDateTime getStartTime() {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(startMillis), ZoneId.systemDefault());
+        }
     }
     
     /**
      * 查询统计信息
+     * <p>
+     * 执行时间内部以微秒累计，对外仍以毫秒返回。
      */
     public static class QueryStatistics {
         private final String queryType;
-        private final AtomicLong totalExecutions = new AtomicLong(0);
-        private final AtomicLong totalExecutionTime = new AtomicLong(0);
-        private final AtomicLong successfulExecutions = new AtomicLong(0);
-        private final AtomicLong totalResultCount = new AtomicLong(0);
-        private final AtomicReference<Long> minExecutionTime = new AtomicReference<>(Long.MAX_VALUE);
-        private final AtomicReference<Long> maxExecutionTime = new AtomicReference<>(0L);
+        private final LongAdder totalExecutions = new LongAdder();
+        private final LongAdder totalExecutionMicros = new LongAdder();
+        private final LongAdder successfulExecutions = new LongAdder();
+        private final LongAdder totalResultCount = new LongAdder();
+        private final AtomicLong minExecutionMicros = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong maxExecutionMicros = new AtomicLong(0);
+        private final LatencyHistogram histogram = new LatencyHistogram();
         private final LocalDateTime createdAt;
         
         public QueryStatistics(String queryType) {
@@ -248,47 +345,74 @@ public class QueryPerformanceMonitorService {
         }
         
         public void recordExecution(long executionTime, int resultCount, boolean success) {
-            totalExecutions.incrementAndGet();
-            totalExecutionTime.addAndGet(executionTime);
-            totalResultCount.addAndGet(resultCount);
+            recordExecutionMicros(TimeUnit.MILLISECONDS.toMicros(executionTime), resultCount, success);
+        }
+        
+        void recordExecutionMicros(long executionMicros, int resultCount, boolean success) {
+            totalExecutions.increment();
+            totalExecutionMicros.add(executionMicros);
+            totalResultCount.add(resultCount);
             
             if (success) {
-                successfulExecutions.incrementAndGet();
+                successfulExecutions.increment();
             }
             
-            // 更新最小执行时间
-            minExecutionTime.updateAndGet(current -> Math.min(current, executionTime));
+            // 先读后写：只有出现新的最小/最大值时才需要CAS
+            if (executionMicros < minExecutionMicros.get()) {
+                minExecutionMicros.accumulateAndGet(executionMicros, Math::min);
+            }
+            if (executionMicros > maxExecutionMicros.get()) {
+                maxExecutionMicros.accumulateAndGet(executionMicros, Math::max);
+            }
             
-            // 更新最大执行时间
-            maxExecutionTime.updateAndGet(current -> Math.max(current, executionTime));
+            histogram.recordMicros(executionMicros);
+        }
+        
+        void rotateWindow() {
+            histogram.rotate();
         }
         
         public String getQueryType() { return queryType; }
-        public long getTotalExecutions() { return totalExecutions.get(); }
-        public long getTotalExecutionTime() { return totalExecutionTime.get(); }
-        public long getSuccessfulExecutions() { return successfulExecutions.get(); }
-        public long getTotalResultCount() { return totalResultCount.get(); }
+        public long getTotalExecutions() { return totalExecutions.sum(); }
+        public long getTotalExecutionTime() { return TimeUnit.MICROSECONDS.toMillis(totalExecutionMicros.sum()); }
+        public long getSuccessfulExecutions() { return successfulExecutions.sum(); }
+        public long getTotalResultCount() { return totalResultCount.sum(); }
         public long getMinExecutionTime() { 
-            long min = minExecutionTime.get();
-            return min == Long.MAX_VALUE ? 0 : min;
+            long min = minExecutionMicros.get();
+            return min == Long.MAX_VALUE ? 0 : TimeUnit.MICROSECONDS.toMillis(min);
         }
-        public long getMaxExecutionTime() { return maxExecutionTime.get(); }
+        public long getMaxExecutionTime() { return TimeUnit.MICROSECONDS.toMillis(maxExecutionMicros.get()); }
         public LocalDateTime getCreatedAt() { return createdAt; }
         
         public double getAvgExecutionTime() {
-            long total = totalExecutions.get();
-            return total > 0 ? (double) totalExecutionTime.get() / total : 0.0;
+            long total = totalExecutions.sum();
+            return total > 0 ? totalExecutionMicros.sum() / 1000.0 / total : 0.0;
         }
         
         public double getSuccessRate() {
-            long total = totalExecutions.get();
-            return total > 0 ? (double) successfulExecutions.get() / total * 100 : 0.0;
+            long total = totalExecutions.sum();
+            return total > 0 ? (double) successfulExecutions.sum() / total * 100 : 0.0;
         }
         
         public double getAvgResultCount() {
-            long total = totalExecutions.get();
-            return total > 0 ? (double) totalResultCount.get() / total : 0.0;
+            long total = totalExecutions.sum();
+            return total > 0 ? (double) totalResultCount.sum() / total : 0.0;
         }
+        
+        /**
+         * 最近一个统计窗口内的执行时间分位数
+         * 
+         * @param quantile 分位点（0~1）
+         * @return 执行时间（毫秒），没有样本时返回0
+         */
+        public double getPercentile(double quantile) {
+            return histogram.valueAtQuantile(quantile) / 1000.0;
+        }
+        
+        public double getP50() { return getPercentile(0.5); }
+        public double getP95() { return getPercentile(0.95); }
+        public double getP99() { return getPercentile(0.99); }
+        public double getP999() { return getPercentile(0.999); }
     }
     
     /**
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.myweb.website_core.application.service.integration.MessageProducerService;
 import com.myweb.website_core.application.service.security.authentication.AuthenticationService;
 import com.myweb.website_core.common.enums.AuditOperation;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
 import com.myweb.website_core.domain.business.dto.UserDataExportDTO;
 import com.myweb.website_core.domain.business.dto.UserDataUpdateDTO;
 import com.myweb.website_core.domain.business.entity.User;
@@ -11,6 +12,7 @@ import com.myweb.website_core.domain.security.dto.AuditLogRequest;
 import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -48,6 +50,7 @@ public class UserDataManagementService {
     private final AuthenticationService authenticationService;
     private final MessageProducerService messageProducerService;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ==================== 数据查看功能 ====================
 
@@ -305,6 +308,7 @@ public class UserDataManagementService {
                 
                 // 保存更新
                 User updatedUser = userRepository.save(user);
+                eventPublisher.publishEvent(ContentChangeEvent.user(ContentChangeEvent.CHANGE_UPDATE, userId));
                 
                 // 记录修改后的数据
                 String afterData = buildChangeLogData(updatedUser);
@@ -376,6 +380,7 @@ public class UserDataManagementService {
                 
                 // 执行物理删除
                 userRepository.delete(user);
+                eventPublisher.publishEvent(ContentChangeEvent.user(ContentChangeEvent.CHANGE_DELETE, userId));
                 
                 // 记录审计日志
                 sendAuditMessage(
@@ -0,0 +1,440 @@
+package com.myweb.website_core.application.service.security.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 审计事件本地日志（只追加，内存映射）
+ * <p>
+ * 审计事件先追加到内存映射的分段文件，再由后台线程读取转发到消息队列。
+ * 每个分段文件创建时预分配固定大小并整体映射，追加只是内存拷贝，不做系统调用。
+ * <p>
+ * 记录格式：[长度 int][CRC32 int][路由键长度 byte][路由键][消息体]，长度为0表示分段已写部分的末尾，
+ * 长度为 {@link #END_OF_SEGMENT} 表示写入方已切换到下一个分段。
+ * 读取位置保存在检查点文件中，重启后从检查点继续读取；最后一个分段从头扫描到第一条无效记录，
+ * 进程崩溃时写了一半的记录被丢弃。
+ * <p>
+ * 写入线程安全；读取（{@link #read}、{@link #commit}）只允许一个线程调用。
+ * 打开时对目录中的锁文件加排他锁，同一目录只能被一个进程（一个实例）使用，锁被占用时打开失败。
+ */
+@Slf4j
+final class AuditEventJournal implements AutoCloseable {
+
+    static final int END_OF_SEGMENT = -1;
+
+    private static final int HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String LOCK_FILE = "lock";
+
+    /**
+     * 读取到的一条记录
+     *
+     * @param routingKey 路由键
+     * @param payload 消息体
+     * @param next 这条记录之后的读取位置
+     */
+    record Entry(String routingKey, byte[] payload, Position next) {
+    }
+
+    /**
+     * 读取位置
+     */
+    record Position(long segment, int offset) {
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+
+    /**
+     * 未删除的分段，键为分段序号
+     */
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+
+    private final FileChannel lockChannel;
+    private final FileChannel checkpointChannel;
+
+    /**
+     * 已切换出去、还没有刷盘的分段
+     */
+    private final List<MappedByteBuffer> unforcedSegments = new ArrayList<>();
+
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private volatile long publishedSegment;
+    private volatile int publishedOffset;
+
+    private volatile Position readPosition;
+
+    /**
+     * 打开日志目录，恢复读写位置
+     *
+     * @param directory 日志目录
+     * @param segmentBytes 单个分段文件大小
+     * @param maxBytes 所有分段的总大小上限，超过后拒绝写入
+     * @throws IOException 目录已被其他进程使用或无法打开时抛出
+     */
+    AuditEventJournal(Path directory, int segmentBytes, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = (int) Math.max(2, maxBytes / segmentBytes);
+        Files.createDirectories(directory);
+
+        this.lockChannel = lockDirectory(directory);
+        try {
+            this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            checkpointChannel.close();
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 恢复读写位置
+     */
+    private void recover() throws IOException {
+        Position checkpoint = loadCheckpoint();
+
+        for (long id : listSegments()) {
+            if (checkpoint != null && id < checkpoint.segment()) {
+                // 已读完但未来得及删除的分段
+                Files.deleteIfExists(segmentPath(id));
+                continue;
+            }
+            segments.put(id, map(id));
+        }
+
+        if (segments.isEmpty()) {
+            long first = checkpoint != null ? checkpoint.segment() : 0;
+            segments.put(first, map(first));
+        }
+        writeSegment = segments.lastKey();
+        writeBuffer = segments.get(writeSegment);
+        int writeOffset = recoverWriteOffset(writeBuffer);
+        publishedSegment = writeSegment;
+        publishedOffset = writeOffset;
+
+        long firstSegment = segments.firstKey();
+        if (checkpoint == null || checkpoint.segment() < firstSegment) {
+            readPosition = new Position(firstSegment, 0);
+        } else {
+            readPosition = checkpoint;
+        }
+        if (readPosition.segment() == writeSegment && readPosition.offset() > writeOffset) {
+            // 检查点之后的记录在崩溃中丢失，从有效末尾继续
+            readPosition = new Position(writeSegment, writeOffset);
+        }
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @return 日志已满或记录超过分段大小时返回false
+     */
+    synchronized boolean append(String routingKey, byte[] payload) throws IOException {
+        byte[] key = routingKey.getBytes(StandardCharsets.UTF_8);
+        int bodyLength = 1 + key.length + payload.length;
+        int recordLength = HEADER_SIZE + bodyLength;
+        if (key.length > 255 || recordLength + 4 > segmentBytes) {
+            return false;
+        }
+
+        int offset = publishedOffset;
+        if (offset + recordLength + 4 > segmentBytes) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            long next = writeSegment + 1;
+            MappedByteBuffer nextBuffer = map(next);
+            writeBuffer.putInt(offset, END_OF_SEGMENT);
+            // 切换出去的分段由下一次刷盘一并写入磁盘
+            unforcedSegments.add(writeBuffer);
+            segments.put(next, nextBuffer);
+            writeSegment = next;
+            writeBuffer = nextBuffer;
+            offset = 0;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(key.length);
+        crc.update(key);
+        crc.update(payload);
+
+        ByteBuffer target = writeBuffer.duplicate();
+        target.position(offset + 4);
+        target.putInt((int) crc.getValue());
+        target.put((byte) key.length);
+        target.put(key);
+        target.put(payload);
+        // 长度最后写入，读取方看到非0长度时记录已完整
+        writeBuffer.putInt(offset, bodyLength);
+
+        publishedSegment = writeSegment;
+        publishedOffset = offset + recordLength;
+        return true;
+    }
+
+    /**
+     * 从当前读取位置读取最多 maxEntries 条记录，不移动读取位置
+     */
+    List<Entry> read(int maxEntries) {
+        List<Entry> entries = new ArrayList<>();
+        Position position = readPosition;
+        while (entries.size() < maxEntries) {
+            long limitSegment = publishedSegment;
+            int limitOffset = publishedOffset;
+            MappedByteBuffer buffer = segmentBuffer(position.segment());
+            if (buffer == null) {
+                break;
+            }
+            boolean active = position.segment() == limitSegment;
+            if (active && position.offset() >= limitOffset) {
+                break;
+            }
+            int length = position.offset() + 4 <= segmentBytes ? buffer.getInt(position.offset()) : END_OF_SEGMENT;
+            if (length <= 0) {
+                if (active) {
+                    break;
+                }
+                // 结束标记；写入方切换分段前崩溃时旧分段没有结束标记，以长度0结尾
+                if (length != END_OF_SEGMENT && length != 0) {
+                    log.error("审计日志记录长度无效，跳过所在分段剩余部分: segment={}, offset={}",
+                              position.segment(), position.offset());
+                }
+                position = new Position(position.segment() + 1, 0);
+                continue;
+            }
+            Entry entry = decode(buffer, position, length);
+            if (entry == null) {
+                log.error("审计日志记录校验失败，跳过所在分段剩余部分: segment={}, offset={}",
+                          position.segment(), position.offset());
+                if (position.segment() >= limitSegment) {
+                    break;
+                }
+                position = new Position(position.segment() + 1, 0);
+                continue;
+            }
+            entries.add(entry);
+            position = entry.next();
+        }
+        return entries;
+    }
+
+    /**
+     * 记录已转发，推进读取位置并保存检查点，删除已读完的分段
+     */
+    void commit(Position position) throws IOException {
+        saveCheckpoint(position);
+        readPosition = position;
+        List<Long> consumed = new ArrayList<>();
+        synchronized (this) {
+            for (Long id : segments.headMap(position.segment()).keySet()) {
+                consumed.add(id);
+            }
+            consumed.forEach(segments::remove);
+        }
+        for (Long id : consumed) {
+            Files.deleteIfExists(segmentPath(id));
+        }
+    }
+
+    /**
+     * 把已写入的数据刷到磁盘（操作系统崩溃时也不丢失），包括上次刷盘后切换出去的分段
+     */
+    void force() {
+        List<MappedByteBuffer> buffers;
+        synchronized (this) {
+            buffers = new ArrayList<>(unforcedSegments);
+            unforcedSegments.clear();
+            buffers.add(writeBuffer);
+        }
+        for (MappedByteBuffer buffer : buffers) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * 未转发的字节数（近似值）
+     */
+    long backlogBytes() {
+        long segmentSpan = publishedSegment - readPosition.segment();
+        return segmentSpan * segmentBytes + publishedOffset - readPosition.offset();
+    }
+
+    /**
+     * 当前分段数
+     */
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            force();
+            checkpointChannel.close();
+        } finally {
+            // 关闭通道同时释放目录锁
+            lockChannel.close();
+        }
+    }
+
+    // ==================== 内部实现 ====================
+
+    /**
+     * 对目录中的锁文件加排他锁，锁随返回的通道关闭而释放
+     */
+    private static FileChannel lockDirectory(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // 同一进程内已打开
+            lock = null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("审计日志目录已被其他实例使用: " + directory);
+        }
+        return channel;
+    }
+
+    private synchronized MappedByteBuffer segmentBuffer(long id) {
+        return segments.get(id);
+    }
+
+    private Entry decode(MappedByteBuffer buffer, Position position, int length) {
+        int start = position.offset() + HEADER_SIZE;
+        if (length < 1 || start + length > segmentBytes) {
+            return null;
+        }
+        int expectedCrc = buffer.getInt(position.offset() + 4);
+        byte[] body = new byte[length];
+        buffer.get(start, body);
+
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != expectedCrc) {
+            return null;
+        }
+        int keyLength = body[0] & 0xFF;
+        if (1 + keyLength > length) {
+            return null;
+        }
+        String routingKey = new String(body, 1, keyLength, StandardCharsets.UTF_8);
+        byte[] payload = new byte[length - 1 - keyLength];
+        System.arraycopy(body, 1 + keyLength, payload, 0, payload.length);
+        return new Entry(routingKey, payload, new Position(position.segment(), start + length));
+    }
+
+    /**
+     * 从分段开头扫描到第一条无效记录，返回写入位置
+     */
+    private int recoverWriteOffset(MappedByteBuffer buffer) {
+        int offset = 0;
+        while (offset + 4 <= segmentBytes) {
+            int length = buffer.getInt(offset);
+            if (length <= 0) {
+                break;
+            }
+            if (decode(buffer, new Position(0, offset), length) == null) {
+                log.warn("审计日志末尾存在不完整的记录，已丢弃: offset={}", offset);
+                break;
+            }
+            offset += HEADER_SIZE + length;
+        }
+        // 清除不完整记录的长度，之后的追加从这里开始
+        if (offset + 4 <= segmentBytes) {
+            buffer.putInt(offset, 0);
+        }
+        return offset;
+    }
+
+    private MappedByteBuffer map(long id) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                 .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                 .forEach(name -> {
+                     try {
+                         ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                                               name.length() - SEGMENT_SUFFIX.length())));
+                     } catch (NumberFormatException ignored) {
+                         // 非分段文件
+                     }
+                 });
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private Position loadCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        if (checkpointChannel.read(buffer, 0) < 16) {
+            return null;
+        }
+        buffer.flip();
+        long segment = buffer.getLong();
+        int offset = buffer.getInt();
+        int check = buffer.getInt();
+        if (check != checkpointHash(segment, offset)) {
+            log.warn("审计日志检查点损坏，从最早的分段开始转发");
+            return null;
+        }
+        return new Position(segment, offset);
+    }
+
+    private void saveCheckpoint(Position position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(position.segment());
+        buffer.putInt(position.offset());
+        buffer.putInt(checkpointHash(position.segment(), position.offset()));
+        buffer.flip();
+        checkpointChannel.write(buffer, 0);
+    }
+
+    private static int checkpointHash(long segment, int offset) {
+        return Long.hashCode(segment) * 31 + offset ^ 0x5A5A5A5A;
+    }
+}
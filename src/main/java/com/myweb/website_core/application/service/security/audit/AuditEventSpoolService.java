@@ -0,0 +1,250 @@
+package com.myweb.website_core.application.service.security.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myweb.website_core.domain.security.dto.AuditLogRequest;
+import com.myweb.website_core.infrastructure.config.RabbitMQConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 审计事件本地缓冲服务
+ * <p>
+ * 请求线程只把审计事件序列化后追加到本地内存映射日志（{@link AuditEventJournal}），不等待消息队列；
+ * 后台转发线程按批读取日志发送到安全交换机，等待发布确认后推进检查点。消息队列变慢或不可用时
+ * 事件积压在本地日志中，转发线程按指数退避重试；应用重启后从检查点继续转发。
+ * <p>
+ * 转发为至少一次语义：确认之后、检查点保存之前崩溃时，重启后这一批会重复发送。
+ * 本地日志已满或无法打开（包括目录已被其他实例锁定）时 {@link #offer} 返回false，由调用方直接发送。
+ * 本地日志默认位于数据目录（app.data-dir）下，需要使用重启后仍保留的持久化目录，不能放在临时目录。
+ */
+@Slf4j
+@Service
+public class AuditEventSpoolService {
+
+    private static final String TYPE_ID_HEADER = "__TypeId__";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper auditObjectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.audit.spool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.audit.spool.path:${app.data-dir:/var/lib/myweb}/audit-spool}")
+    private String spoolPath;
+
+    @Value("${app.audit.spool.segment-bytes:16777216}")
+    private int segmentBytes;
+
+    @Value("${app.audit.spool.max-bytes:1073741824}")
+    private long maxBytes;
+
+    @Value("${app.audit.spool.drain-batch-size:500}")
+    private int drainBatchSize;
+
+    @Value("${app.audit.spool.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${app.audit.spool.idle-wait-ms:50}")
+    private long idleWaitMs;
+
+    @Value("${app.audit.spool.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    @Value("${app.audit.spool.force-interval-ms:1000}")
+    private long forceIntervalMs;
+
+    private AuditEventJournal journal;
+    private Thread drainer;
+    private volatile boolean running;
+
+    private Counter spooledCounter;
+    private Counter rejectedCounter;
+    private Counter forwardedCounter;
+    private Counter forwardFailureCounter;
+
+    @Autowired
+    public AuditEventSpoolService(RabbitTemplate rabbitTemplate,
+                                  @Qualifier("auditObjectMapper") ObjectMapper auditObjectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.auditObjectMapper = auditObjectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        spooledCounter = meterRegistry.counter("audit.spool.appended");
+        rejectedCounter = meterRegistry.counter("audit.spool.rejected");
+        forwardedCounter = meterRegistry.counter("audit.spool.forwarded");
+        forwardFailureCounter = meterRegistry.counter("audit.spool.forward.failures");
+        if (!enabled) {
+            log.info("审计事件本地缓冲未启用，审计消息直接发送");
+            return;
+        }
+
+        try {
+            journal = new AuditEventJournal(Paths.get(spoolPath), segmentBytes, maxBytes);
+        } catch (IOException | RuntimeException e) {
+            log.error("打开审计事件本地日志失败，审计消息直接发送: path={}", spoolPath, e);
+            return;
+        }
+        Gauge.builder("audit.spool.backlog.bytes", journal, AuditEventJournal::backlogBytes)
+             .register(meterRegistry);
+
+        running = true;
+        drainer = new Thread(this::drainLoop, "audit-spool-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+        log.info("审计事件本地缓冲已启动: path={}, 待转发: {} bytes", spoolPath, journal.backlogBytes());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (drainer != null) {
+            LockSupport.unpark(drainer);
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("关闭审计事件本地日志失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 把审计事件写入本地日志，由后台线程转发到安全交换机
+     *
+     * @param routingKey 安全交换机上的路由键
+     * @param request 审计日志请求
+     * @return 写入成功返回true；未启用、日志已满或序列化失败时返回false
+     */
+    public boolean offer(String routingKey, AuditLogRequest request) {
+        AuditEventJournal current = journal;
+        if (current == null) {
+            return false;
+        }
+        try {
+            byte[] payload = auditObjectMapper.writeValueAsBytes(request);
+            if (!current.append(routingKey, payload)) {
+                rejectedCounter.increment();
+                log.warn("审计事件本地日志已满，改为直接发送: routingKey={}", routingKey);
+                return false;
+            }
+            spooledCounter.increment();
+            LockSupport.unpark(drainer);
+            return true;
+        } catch (Exception e) {
+            rejectedCounter.increment();
+            log.error("写入审计事件本地日志失败: routingKey={}, error={}", routingKey, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 转发循环：每批等待发布确认后推进检查点，发送失败时指数退避，不跳过任何记录
+     */
+    private void drainLoop() {
+        long backoffMs = 0;
+        long lastForce = System.currentTimeMillis();
+        while (running || hasBacklog()) {
+            // 定期把追加的数据刷到磁盘，请求线程不做刷盘
+            if (System.currentTimeMillis() - lastForce >= forceIntervalMs) {
+                journal.force();
+                lastForce = System.currentTimeMillis();
+            }
+
+            List<AuditEventJournal.Entry> entries = journal.read(drainBatchSize);
+            if (entries.isEmpty()) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(idleWaitMs));
+                continue;
+            }
+
+            try {
+                publish(entries);
+                journal.commit(entries.get(entries.size() - 1).next());
+                forwardedCounter.increment(entries.size());
+                backoffMs = 0;
+            } catch (Exception e) {
+                forwardFailureCounter.increment();
+                backoffMs = backoffMs == 0 ? 100 : Math.min(backoffMs * 2, maxBackoffMs);
+                log.warn("转发审计事件失败，{}ms后重试: 待转发 {} bytes, error={}",
+                         backoffMs, journal.backlogBytes(), e.getMessage());
+                if (!running) {
+                    // 关闭时不再等待，剩余记录下次启动后转发
+                    break;
+                }
+                backoff(backoffMs);
+            }
+        }
+    }
+
+    /**
+     * 退避期间新写入的事件唤醒转发线程时继续等待，避免消息队列不可用时反复重试
+     */
+    private void backoff(long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long remaining;
+        while (running && (remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private boolean hasBacklog() {
+        return journal.backlogBytes() > 0;
+    }
+
+    private void publish(List<AuditEventJournal.Entry> entries) {
+        boolean confirms = rabbitTemplate.getConnectionFactory().isSimplePublisherConfirms();
+        rabbitTemplate.invoke(operations -> {
+            for (AuditEventJournal.Entry entry : entries) {
+                operations.send(RabbitMQConfig.SECURITY_EXCHANGE, entry.routingKey(), toMessage(entry.payload()));
+            }
+            if (confirms) {
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 消息体已是JSON，直接发送，与 Jackson2JsonMessageConverter 生成的消息属性一致
+     */
+    private static Message toMessage(byte[] payload) {
+        return MessageBuilder.withBody(payload)
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding("UTF-8")
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .setHeader(TYPE_ID_HEADER, AuditLogRequest.class.getName())
+                .build();
+    }
+}
@@ -0,0 +1,182 @@
+package com.myweb.website_core.application.service.security.audit;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.myweb.website_core.domain.security.dto.AuditLogQuery;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 审计日志异步导出任务服务
+ * <p>
+ * 大批量导出在后台线程中以游标方式写入本地文件，完成后通过任务ID下载。
+ * 任务状态只保存在当前实例内存中，导出文件超过保留时间后由定时任务删除。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditExportJobService {
+
+    private final AuditLogService auditLogService;
+
+    /**
+     * 任务ID -> 导出任务
+     */
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.audit.export.path:${java.io.tmpdir}/myweb/audit-exports}")
+    private String exportPath;
+
+    @Value("${app.audit.export.retention-hours:24}")
+    private int retentionHours;
+
+    /**
+     * 导出任务状态
+     */
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    /**
+     * 导出任务
+     */
+    @Getter
+    public static class ExportJob {
+
+        private final String id;
+        private final String format;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+
+        @JsonIgnore
+        private final Path file;
+
+        private volatile Status status = Status.RUNNING;
+        private volatile long rows;
+        private volatile LocalDateTime completedAt;
+        private volatile String errorMessage;
+
+        public ExportJob(String id, String format, Path file) {
+            this.id = id;
+            this.format = format;
+            this.file = file;
+        }
+
+        /**
+         * 下载文件名
+         */
+        public String getFilename() {
+            return "audit_logs_" + id + fileExtension(format);
+        }
+    }
+
+    /**
+     * 提交异步导出任务
+     *
+     * @param query 查询条件
+     * @param format 导出格式 (CSV/EXCEL)
+     * @return 导出任务
+     */
+    public ExportJob submit(AuditLogQuery query, String format) throws IOException {
+        Path directory = Paths.get(exportPath);
+        Files.createDirectories(directory);
+
+        String id = UUID.randomUUID().toString();
+        ExportJob job = new ExportJob(id, format, directory.resolve(id + fileExtension(format)));
+        jobs.put(id, job);
+
+        CompletableFuture<Long> result;
+        try {
+            result = auditLogService.exportLogsToFile(query, format, job.getFile());
+        } catch (RuntimeException e) {
+            // 线程池已满等提交失败
+            jobs.remove(id);
+            throw e;
+        }
+        result.whenComplete((rows, error) -> {
+            job.completedAt = LocalDateTime.now();
+            if (error != null) {
+                job.errorMessage = error.getMessage();
+                job.status = Status.FAILED;
+                deleteQuietly(job.getFile());
+            } else {
+                job.rows = rows;
+                job.status = Status.COMPLETED;
+                log.info("审计日志异步导出完成: jobId={}, format={}, rows={}", id, format, rows);
+            }
+        });
+        log.info("提交审计日志异步导出任务: jobId={}, format={}, query={}", id, format, query);
+        return job;
+    }
+
+    /**
+     * 查询导出任务
+     */
+    public Optional<ExportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * 删除超过保留时间的导出任务和文件，包括重启前遗留的文件
+     */
+    @Scheduled(fixedDelayString = "${app.audit.export.cleanup-interval-ms:3600000}")
+    public void cleanupExpiredExports() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        jobs.values().removeIf(job -> {
+            if (job.getStatus() == Status.RUNNING || job.getCreatedAt().isAfter(cutoff)) {
+                return false;
+            }
+            deleteQuietly(job.getFile());
+            return true;
+        });
+
+        Path directory = Paths.get(exportPath);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Instant fileCutoff = Instant.now().minus(Duration.ofHours(retentionHours));
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> isExpired(file, fileCutoff))
+                 .filter(file -> jobs.values().stream().noneMatch(job -> job.getFile().equals(file)))
+                 .forEach(AuditExportJobService::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("清理审计日志导出文件失败: path={}, error={}", exportPath, e.getMessage());
+        }
+    }
+
+    private static String fileExtension(String format) {
+        return "EXCEL".equalsIgnoreCase(format) ? ".xlsx" : ".csv";
+    }
+
+    private static boolean isExpired(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除审计日志导出文件失败: file={}, error={}", file, e.getMessage());
+        }
+    }
+}
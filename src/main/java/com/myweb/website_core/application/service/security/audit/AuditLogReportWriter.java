@@ -0,0 +1,188 @@
+package com.myweb.website_core.application.service.security.audit;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 审计日志报表写入器
+ * <p>
+ * 逐行写入导出数据，不在内存中保留已写入的行：CSV直接写入输出流；
+ * Excel使用POI的流式工作簿（SXSSF），内存中只保留最近 {@link #EXCEL_ROW_WINDOW} 行，
+ * 其余行刷到临时文件，{@link #close()} 时写出完整文件并删除临时文件。
+ * <p>
+ * 写入器不关闭传入的输出流。
+ */
+abstract class AuditLogReportWriter implements AutoCloseable {
+
+    /**
+     * Excel内存中保留的行数
+     */
+    static final int EXCEL_ROW_WINDOW = 100;
+
+    /**
+     * 单个工作表最多的数据行数（xlsx上限1048576行，含标题行）
+     */
+    static final int EXCEL_MAX_DATA_ROWS = 1_048_575;
+
+    /**
+     * 按导出格式创建写入器，不是EXCEL时按CSV处理
+     *
+     * @param format 导出格式 (CSV/EXCEL)
+     * @param headers 标题行
+     * @param outputStream 输出流
+     */
+    static AuditLogReportWriter create(String format, List<String> headers, OutputStream outputStream) throws IOException {
+        AuditLogReportWriter writer = "EXCEL".equalsIgnoreCase(format)
+                ? new ExcelWriter(headers, outputStream)
+                : new CsvWriter(headers, outputStream);
+        writer.writeHeader();
+        return writer;
+    }
+
+    protected final List<String> headers;
+
+    protected AuditLogReportWriter(List<String> headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * 写入一行数据，值的顺序与标题一致
+     */
+    abstract void writeRow(List<String> values) throws IOException;
+
+    protected abstract void writeHeader() throws IOException;
+
+    /**
+     * 写出剩余内容
+     */
+    @Override
+    public abstract void close() throws IOException;
+
+    /**
+     * CSV写入器
+     */
+    private static final class CsvWriter extends AuditLogReportWriter {
+
+        private final Writer writer;
+
+        CsvWriter(List<String> headers, OutputStream outputStream) {
+            super(headers);
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        protected void writeHeader() throws IOException {
+            writeLine(headers);
+        }
+
+        @Override
+        void writeRow(List<String> values) throws IOException {
+            writeLine(values);
+        }
+
+        private void writeLine(List<String> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values.get(i)));
+            }
+            writer.write('\n');
+        }
+
+        /**
+         * 处理CSV中的特殊字符
+         */
+        private static String escape(String value) {
+            if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+                return "\"" + value.replace("\"", "\"\"") + "\"";
+            }
+            return value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Excel写入器（SXSSF）
+     */
+    private static final class ExcelWriter extends AuditLogReportWriter {
+
+        private static final String SHEET_NAME = "审计日志";
+
+        /**
+         * 固定列宽（字符数）；流式写入时已写出的行不可再读取，不能自动调整列宽
+         */
+        private static final int COLUMN_WIDTH_CHARS = 20;
+
+        private final OutputStream outputStream;
+        private final SXSSFWorkbook workbook;
+        private final CellStyle headerStyle;
+
+        private Sheet sheet;
+        private int sheetCount;
+        private int rowIndex;
+
+        ExcelWriter(List<String> headers, OutputStream outputStream) {
+            super(headers);
+            this.outputStream = outputStream;
+            this.workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+            // 临时文件压缩，百万行导出时减少磁盘占用
+            this.workbook.setCompressTempFiles(true);
+            this.headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+        }
+
+        @Override
+        protected void writeHeader() {
+            sheetCount++;
+            sheet = workbook.createSheet(sheetCount == 1 ? SHEET_NAME : SHEET_NAME + sheetCount);
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < headers.size(); i++) {
+                headerRow.createCell(i).setCellValue(headers.get(i));
+                headerRow.getCell(i).setCellStyle(headerStyle);
+                sheet.setColumnWidth(i, COLUMN_WIDTH_CHARS * 256);
+            }
+            rowIndex = 1;
+        }
+
+        @Override
+        void writeRow(List<String> values) {
+            if (rowIndex > EXCEL_MAX_DATA_ROWS) {
+                // 超过单个工作表行数上限时续写到新的工作表
+                writeHeader();
+            }
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.size(); i++) {
+                row.createCell(i).setCellValue(values.get(i));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                workbook.write(outputStream);
+                outputStream.flush();
+            } finally {
+                workbook.dispose();
+                workbook.close();
+            }
+        }
+    }
+}
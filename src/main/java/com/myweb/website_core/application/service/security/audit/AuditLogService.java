@@ -7,11 +7,11 @@ import com.myweb.website_core.domain.security.dto.AuditLogQuery;
 import com.myweb.website_core.domain.security.dto.AuditLogRequest;
 import com.myweb.website_core.domain.security.entity.AuditLog;
 import com.myweb.website_core.infrastructure.persistence.mapper.AuditLogMapperService;
+import com.myweb.website_core.infrastructure.persistence.repository.audit.AuditLogExportRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.audit.AuditLogPartitionRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.audit.AuditLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -24,16 +24,23 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.criteria.Predicate;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * 审计日志服务
@@ -58,11 +65,21 @@ public class AuditLogService {
     private final AuditLogMapperService auditLogMapperService;
     private final ObjectMapper objectMapper;
     private final AuditMessageService auditMessageService;
+    private final AuditLogPartitionRepository auditLogPartitionRepository;
+    private final AuditLogExportRepository auditLogExportRepository;
     
     // 审计日志保留天数配置
     @Value("${app.audit.retention-days:90}")
     private int retentionDays;
     
+    // 失败和错误日志保留天数配置，0表示永久保留（默认），只有显式配置时才删除
+    @Value("${app.audit.failure-retention-days:0}")
+    private int failureRetentionDays;
+    
+    // 提前创建的月分区数
+    @Value("${app.audit.partition.months-ahead:3}")
+    private int partitionMonthsAhead;
+    
     // 批量处理大小配置
     @Value("${app.audit.batch-size:1000}")
     private int batchSize;
@@ -70,6 +87,18 @@ public class AuditLogService {
     // 导出记录数限制配置
     @Value("${app.audit.export-limit:10000}")
     private int exportLimit;
+    
+    // 流式导出记录数限制
+    @Value("${app.audit.export.stream-limit:1000000}")
+    private int streamExportLimit;
+    
+    // 异步导出记录数限制
+    @Value("${app.audit.export.async-limit:10000000}")
+    private int asyncExportLimit;
+    
+    // 流式导出每次从数据库取回的行数
+    @Value("${app.audit.export.fetch-size:1000}")
+    private int exportFetchSize;
 
     /**
      * 异步记录审计日志
@@ -162,11 +191,9 @@ public class AuditLogService {
             List<AuditLog> logs = findLogsForExport(query);
             
             // 根据格式生成文件
-            if ("EXCEL".equalsIgnoreCase(format)) {
-                return generateExcelReport(logs, query);
-            } else {
-                return generateCsvReport(logs, query);
-            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            writeReport(logs.iterator(), query, format, outputStream);
+            return outputStream.toByteArray();
             
         } catch (Exception e) {
             log.error("导出审计日志失败: query={}, format={}", query, format, e);
@@ -174,6 +201,70 @@ public class AuditLogService {
         }
     }
     
+    /**
+     * 流式导出审计日志 - 以游标方式逐行读取并直接写入输出流
+     * <p>
+     * 不在内存中组装结果，导出行数受 app.audit.export.stream-limit 限制；
+     * 更大的导出通过 {@link AuditExportJobService} 异步生成文件。
+     * 
+     * @param query 查询条件
+     * @param format 导出格式 (CSV/EXCEL)
+     * @param outputStream 输出流，不会被关闭
+     * @return 导出的行数
+     */
+    @Transactional(readOnly = true)
+    public long exportLogs(AuditLogQuery query, String format, OutputStream outputStream) throws IOException {
+        return streamLogs(query, format, outputStream, streamExportLimit);
+    }
+    
+    /**
+     * 异步导出审计日志到文件，行数受 app.audit.export.async-limit 限制
+     * 
+     * @param query 查询条件
+     * @param format 导出格式 (CSV/EXCEL)
+     * @param file 目标文件
+     * @return 导出的行数
+     */
+    @Async
+    @Transactional(readOnly = true)
+    public CompletableFuture<Long> exportLogsToFile(AuditLogQuery query, String format, Path file) {
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file))) {
+            return CompletableFuture.completedFuture(streamLogs(query, format, outputStream, asyncExportLimit));
+        } catch (Exception e) {
+            log.error("异步导出审计日志失败: query={}, format={}, file={}", query, format, file, e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * 通过数据库游标逐行写入报表，调用方需处于只读事务中
+     */
+    private long streamLogs(AuditLogQuery query, String format, OutputStream outputStream,
+                            int maxRows) throws IOException {
+        int limit = maxRows;
+        Specification<AuditLog> specification = null;
+        Sort sort = Sort.by(Sort.Direction.DESC, "timestamp");
+        if (query != null) {
+            query.setExportMode(true);
+            if (query.getSize() != null && query.getSize() > 0) {
+                limit = Math.min(query.getSize(), maxRows);
+            }
+            if (!query.isEmpty()) {
+                specification = buildSpecification(query);
+                sort = Sort.by(Sort.Direction.valueOf(query.getEffectiveSortDirection().toUpperCase()),
+                               query.getEffectiveSortBy());
+            }
+        }
+        
+        long startTime = System.currentTimeMillis();
+        try (Stream<AuditLog> logs = auditLogExportRepository.stream(specification, sort, limit, exportFetchSize)) {
+            long rows = writeReport(logs.iterator(), query, format, outputStream);
+            log.info("审计日志流式导出完成: format={}, rows={}, 耗时={}ms",
+                    format, rows, System.currentTimeMillis() - startTime);
+            return rows;
+        }
+    }
+    
     /**
      * 导出审计日志 - 默认CSV格式
      * 
@@ -227,6 +318,10 @@ public class AuditLogService {
     /**
      * 自动清理过期审计日志
      * 每天凌晨3点执行，清理超过保留期的审计日志
+     * <p>
+     * audit_logs 已按月分区时：先补齐未来的月分区，成功日志子分区整体超过保留期时删除。
+     * 失败和错误日志默认永久保留，只有配置了 failure-retention-days 时才删除超过该期限的整个月分区。
+     * 未分区时逐批删除过期的成功日志。
      */
     @Scheduled(cron = "0 0 3 * * ?")
     @Transactional
@@ -236,27 +331,18 @@ public class AuditLogService {
             
             log.info("开始清理{}天前的审计日志，截止时间: {}", retentionDays, cutoffTime);
             
-            // 分批删除，避免长时间锁表
-            int totalDeleted = 0;
-            int batchDeleted;
-            
-            do {
-                // 只删除成功的操作日志，保留失败和错误日志更长时间
-                batchDeleted = auditLogRepository.deleteSuccessLogsByTimestampBefore(cutoffTime);
-                totalDeleted += batchDeleted;
-                
-                if (batchDeleted > 0) {
-                    log.debug("本批次删除了{}条审计日志", batchDeleted);
-                    // 短暂休眠，减少数据库压力
-                    Thread.sleep(100);
-                }
-            } while (batchDeleted > 0);
+            String details;
+            if (auditLogPartitionRepository.isPartitioned()) {
+                details = dropExpiredPartitions(cutoffTime);
+            } else {
+                details = "删除了" + deleteExpiredSuccessLogs(cutoffTime) + "条过期日志";
+            }
             
-            log.info("审计日志清理完成，共删除{}条记录", totalDeleted);
+            log.info("审计日志清理完成，{}", details);
             
             // 记录清理操作的审计日志
             logSystemOperation(AuditOperation.CACHE_CLEANUP, 
-                "审计日志自动清理", "删除了" + totalDeleted + "条过期日志");
+                "审计日志自动清理", details);
             
         } catch (Exception e) {
             log.error("清理过期审计日志失败", e);
@@ -266,6 +352,67 @@ public class AuditLogService {
         }
     }
     
+    /**
+     * 补齐当前月份起的月分区，写入不会落到默认分区
+     */
+    public void ensureAuditLogPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= partitionMonthsAhead; i++) {
+            auditLogPartitionRepository.createMonthlyPartition(current.plusMonths(i));
+        }
+    }
+    
+    /**
+     * 按分区删除过期日志：月分区的结束时间不晚于截止时间时，分区内的日志已全部过期
+     */
+    private String dropExpiredPartitions(LocalDateTime cutoffTime) {
+        ensureAuditLogPartitions();
+        
+        // 未配置失败日志保留期时不删除失败和错误日志
+        LocalDateTime failureCutoffTime = failureRetentionDays > 0
+                ? LocalDateTime.now().minusDays(Math.max(failureRetentionDays, retentionDays))
+                : null;
+        int droppedMonths = 0;
+        int droppedSuccess = 0;
+        for (YearMonth month : auditLogPartitionRepository.findMonthlyPartitions()) {
+            LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+            if (failureCutoffTime != null && !monthEnd.isAfter(failureCutoffTime)) {
+                auditLogPartitionRepository.dropMonthlyPartition(month);
+                droppedMonths++;
+                log.debug("删除审计日志月分区: {}", AuditLogPartitionRepository.partitionName(month));
+            } else if (!monthEnd.isAfter(cutoffTime)) {
+                // 只删除成功日志，保留失败和错误日志更长时间
+                if (auditLogPartitionRepository.dropSuccessPartition(month)) {
+                    droppedSuccess++;
+                    log.debug("删除审计日志成功日志子分区: {}", AuditLogPartitionRepository.partitionName(month));
+                }
+            }
+        }
+        return "删除了" + droppedSuccess + "个成功日志分区和" + droppedMonths + "个月分区";
+    }
+    
+    /**
+     * 未分区时逐批删除过期的成功日志
+     */
+    private int deleteExpiredSuccessLogs(LocalDateTime cutoffTime) throws InterruptedException {
+        // 分批删除，避免长时间锁表
+        int totalDeleted = 0;
+        int batchDeleted;
+        
+        do {
+            // 只删除成功的操作日志，保留失败和错误日志更长时间
+            batchDeleted = auditLogRepository.deleteSuccessLogsByTimestampBefore(cutoffTime);
+            totalDeleted += batchDeleted;
+            
+            if (batchDeleted > 0) {
+                log.debug("本批次删除了{}条审计日志", batchDeleted);
+                // 短暂休眠，减少数据库压力
+                Thread.sleep(100);
+            }
+        } while (batchDeleted > 0);
+        return totalDeleted;
+    }
+    
     /**
      * 手动清理指定时间之前的审计日志
      * 
@@ -508,98 +655,33 @@ public class AuditLogService {
     }
     
     /**
-     * 生成CSV报告
+     * 按导出字段逐行写入报表
      * 
-     * @param logs 审计日志列表
+     * @param logs 审计日志
      * @param query 查询条件（用于确定导出字段）
-     * @return CSV格式的字节数组
+     * @param format 导出格式 (CSV/EXCEL)
+     * @param outputStream 输出流
+     * @return 写入的行数
      */
-    private byte[] generateCsvReport(List<AuditLog> logs, AuditLogQuery query) {
-        StringBuilder csv = new StringBuilder();
-        
-        // 确定导出字段
+    private long writeReport(Iterator<AuditLog> logs, AuditLogQuery query, String format,
+                             OutputStream outputStream) throws IOException {
         List<String> fields = getExportFields(query);
-        
-        // CSV头部
-        csv.append(String.join(",", getFieldHeaders(fields))).append("\n");
-        
-        // CSV数据
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        long rows = 0;
         
-        for (AuditLog log : logs) {
-            List<String> values = new ArrayList<>();
-            
-            for (String field : fields) {
-                String value = getFieldValue(log, field, formatter);
-                // 处理CSV中的特殊字符
-                if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-                    value = "\"" + value.replace("\"", "\"\"") + "\"";
+        try (AuditLogReportWriter writer = AuditLogReportWriter.create(format, getFieldHeaders(fields), outputStream)) {
+            List<String> values = new ArrayList<>(fields.size());
+            while (logs.hasNext()) {
+                AuditLog log = logs.next();
+                values.clear();
+                for (String field : fields) {
+                    values.add(getFieldValue(log, field, formatter));
                 }
-                values.add(value);
+                writer.writeRow(values);
+                rows++;
             }
-            
-            csv.append(String.join(",", values)).append("\n");
-        }
-        
-        return csv.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
-    }
-    
-    /**
-     * 生成Excel报告
-     * 
-     * @param logs 审计日志列表
-     * @param query 查询条件（用于确定导出字段）
-     * @return Excel格式的字节数组
-     */
-    private byte[] generateExcelReport(List<AuditLog> logs, AuditLogQuery query) {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            
-            Sheet sheet = workbook.createSheet("审计日志");
-            
-            // 确定导出字段
-            List<String> fields = getExportFields(query);
-            List<String> headers = getFieldHeaders(fields);
-            
-            // 创建标题行
-            Row headerRow = sheet.createRow(0);
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            
-            for (int i = 0; i < headers.size(); i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers.get(i));
-                cell.setCellStyle(headerStyle);
-            }
-            
-            // 创建数据行
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            
-            for (int i = 0; i < logs.size(); i++) {
-                Row row = sheet.createRow(i + 1);
-                AuditLog log = logs.get(i);
-                
-                for (int j = 0; j < fields.size(); j++) {
-                    Cell cell = row.createCell(j);
-                    String value = getFieldValue(log, fields.get(j), formatter);
-                    cell.setCellValue(value);
-                }
-            }
-            
-            // 自动调整列宽
-            for (int i = 0; i < headers.size(); i++) {
-                sheet.autoSizeColumn(i);
-            }
-            
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
-            
-        } catch (IOException e) {
-            log.error("生成Excel报告失败", e);
-            throw new RuntimeException("生成Excel报告失败", e);
         }
+        return rows;
     }
     
     /**
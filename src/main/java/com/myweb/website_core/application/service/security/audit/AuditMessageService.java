@@ -4,6 +4,7 @@ import com.myweb.website_core.application.service.integration.MessageProducerSer
 import com.myweb.website_core.common.enums.AuditOperation;
 import com.myweb.website_core.domain.security.dto.AuditLogRequest;
 import com.myweb.website_core.domain.security.dto.SecurityEventRequest;
+import com.myweb.website_core.infrastructure.config.RabbitMQConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,6 +17,9 @@ import java.util.concurrent.CompletableFuture;
  * 完全基于RabbitMQ消息队列的审计日志处理
  * 根据AuditOperation判断发送到不同的消息队列
  * 自动识别安全事件并发送到安全事件队列
+ * <p>
+ * 审计日志先写入本地缓冲（{@link AuditEventSpoolService}）再由后台线程转发，
+ * 请求线程不等待消息队列；本地缓冲不可用时直接发送
  * 
  * @author MyWeb Security Team
  * @version 1.0
@@ -27,12 +31,17 @@ import java.util.concurrent.CompletableFuture;
 public class AuditMessageService {
     
     private final MessageProducerService messageProducerService;
+    private final AuditEventSpoolService auditEventSpoolService;
     
     /**
      * 记录审计日志
      * 基于RabbitMQ消息队列，送普通审计日志
      */
     public CompletableFuture<Void> logOperation(AuditLogRequest request) {
+        // 写入本地缓冲后立即返回，由后台线程转发
+        if (auditEventSpoolService.offer(resolveRoutingKey(request), request)) {
+            return CompletableFuture.completedFuture(null);
+        }
         return CompletableFuture.runAsync(() -> {
             try {
                 // 直接发送审计日志消息，不处理安全事件
@@ -83,6 +92,22 @@ public class AuditMessageService {
         }
     }
     
+    /**
+     * 审计日志在安全交换机上的路由键，与 {@link #sendAuditLogMessage} 的队列选择一致
+     */
+    private String resolveRoutingKey(AuditLogRequest request) {
+        AuditOperation operation = request.getOperation();
+        return switch (determineMessageType(operation)) {
+            case "USER_AUTH" -> RabbitMQConfig.USER_AUTH_ROUTING_KEY;
+            case "FILE_OPERATION" -> operation == AuditOperation.FILE_UPLOAD || operation == AuditOperation.AVATAR_UPLOAD
+                    ? RabbitMQConfig.FILE_UPLOAD_AUDIT_ROUTING_KEY
+                    : RabbitMQConfig.SECURITY_AUDIT_ROUTING_KEY;
+            case "SEARCH" -> RabbitMQConfig.SEARCH_AUDIT_ROUTING_KEY;
+            case "ACCESS_CONTROL" -> RabbitMQConfig.ACCESS_CONTROL_ROUTING_KEY;
+            default -> RabbitMQConfig.SECURITY_AUDIT_ROUTING_KEY;
+        };
+    }
+    
     /**
      * 根据AuditOperation确定消息类型
      */
@@ -0,0 +1,211 @@
+package com.myweb.website_core.application.service.security.authentication.JWT;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JWT认证主体本地缓存
+ * <p>
+ * 以令牌ID为键缓存已通过黑名单检查并加载完成的用户主体，命中时认证请求不访问Redis和数据库。
+ * 缓存项在令牌过期时失效，同时不超过配置的最长缓存时间，使角色、锁定状态等变化在有限时间内生效。
+ * <p>
+ * 撤销令牌时通过Redis发布/订阅通知所有节点清除对应缓存项：
+ * 消息"t:令牌ID"清除单个令牌，"u:用户ID"清除该用户的全部令牌，"*"清除全部。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtPrincipalCache implements MessageListener {
+
+    /**
+     * 撤销广播频道
+     */
+    public static final String INVALIDATION_CHANNEL = "jwt:principal:invalidate";
+
+    private static final String TOKEN_PREFIX = "t:";
+    private static final String USER_PREFIX = "u:";
+    private static final String INVALIDATE_ALL = "*";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.principal-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${app.jwt.principal-cache.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    private Cache<String, CachedPrincipal> cache;
+
+    /**
+     * 失效次数，用于发现加载期间发生的撤销
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 缓存的认证主体
+     *
+     * @param userId 用户ID
+     * @param principal 用户主体
+     * @param expiresAt 令牌过期时间
+     */
+    private record CachedPrincipal(Long userId, UserDetails principal, Instant expiresAt) {
+    }
+
+    @PostConstruct
+    public void init() {
+        Duration maxAge = Duration.ofSeconds(Math.max(1, maxAgeSeconds));
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, CachedPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedPrincipal value, long currentTime) {
+                        Duration untilExpiry = Duration.between(Instant.now(), value.expiresAt());
+                        if (untilExpiry.isNegative()) {
+                            return 0;
+                        }
+                        return (untilExpiry.compareTo(maxAge) < 0 ? untilExpiry : maxAge).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedPrincipal value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedPrincipal value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.principal");
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+        log.info("JWT认证主体缓存初始化完成，容量: {}, 最长缓存时间: {}s", maximumSize, maxAge.toSeconds());
+    }
+
+    /**
+     * 获取令牌对应的认证主体
+     *
+     * @param token 已验证的令牌
+     * @return 认证主体，未缓存时返回null
+     */
+    public UserDetails get(VerifiedToken token) {
+        CachedPrincipal cached = cache.getIfPresent(token.tokenId());
+        return cached != null ? cached.principal() : null;
+    }
+
+    /**
+     * 当前失效计数，加载主体前获取，写入缓存时传入
+     */
+    public long currentGeneration() {
+        return invalidations.get();
+    }
+
+    /**
+     * 缓存认证主体
+     * <p>
+     * 如果从 generation 获取之后发生过失效，说明加载期间可能有撤销，不保留本次写入
+     *
+     * @param token 已验证的令牌
+     * @param principal 用户主体
+     * @param generation 加载前的失效计数
+     */
+    public void put(VerifiedToken token, UserDetails principal, long generation) {
+        if (token.expiresAt() == null) {
+            return;
+        }
+        cache.put(token.tokenId(), new CachedPrincipal(token.userId(), principal, token.expiresAt()));
+        if (invalidations.get() != generation) {
+            cache.invalidate(token.tokenId());
+        }
+    }
+
+    /**
+     * 清除单个令牌，并通知其他节点
+     *
+     * @param tokenId 令牌ID
+     */
+    public void invalidateToken(String tokenId) {
+        String message = TOKEN_PREFIX + tokenId;
+        invalidateLocal(message);
+        publish(message);
+    }
+
+    /**
+     * 清除用户的全部令牌，并通知其他节点
+     *
+     * @param userId 用户ID
+     */
+    public void invalidateUser(Long userId) {
+        String message = USER_PREFIX + userId;
+        invalidateLocal(message);
+        publish(message);
+    }
+
+    /**
+     * 接收其他节点（包括本节点）的撤销广播
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            invalidateLocal(body != null ? body.toString() : INVALIDATE_ALL);
+        } catch (Exception e) {
+            log.warn("处理JWT主体缓存失效消息失败，清除全部本地缓存: {}", e.getMessage());
+            invalidateLocal(INVALIDATE_ALL);
+        }
+    }
+
+    /**
+     * 缓存项数量
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // ========== 私有方法 ==========
+
+    private void invalidateLocal(String message) {
+        invalidations.incrementAndGet();
+        if (message.startsWith(TOKEN_PREFIX)) {
+            cache.invalidate(message.substring(TOKEN_PREFIX.length()));
+        } else if (message.startsWith(USER_PREFIX)) {
+            String userId = message.substring(USER_PREFIX.length());
+            cache.asMap().values().removeIf(cached -> String.valueOf(cached.userId()).equals(userId));
+        } else {
+            cache.invalidateAll();
+        }
+        log.debug("清除JWT认证主体缓存: {}", message);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            log.warn("广播JWT主体缓存失效消息失败: {}", e.getMessage());
+        }
+    }
+}
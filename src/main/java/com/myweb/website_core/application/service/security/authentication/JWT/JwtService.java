@@ -12,6 +12,7 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * JWT令牌服务
@@ -55,13 +56,35 @@ public class JwtService {
     @Value("${app.jwt.issuer:MyWeb}")
     private String issuer;
     
+    /**
+     * 签名密钥和解析器在首次使用时创建，之后复用（JwtParser线程安全）
+     */
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+    
     /**
      * 获取签名密钥
      * 
      * @return 签名密钥
      */
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+            signingKey = key;
+        }
+        return key;
+    }
+    
+    private JwtParser getParser() {
+        JwtParser jwtParser = parser;
+        if (jwtParser == null) {
+            jwtParser = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build();
+            parser = jwtParser;
+        }
+        return jwtParser;
     }
     
     /**
@@ -106,6 +129,7 @@ public class JwtService {
             
             String token = Jwts.builder()
                     .claims(claims)
+                    .id(UUID.randomUUID().toString())
                     .subject(user.getUsername())
                     .issuer(issuer)
                     .issuedAt(now)
@@ -129,15 +153,24 @@ public class JwtService {
      * @return 令牌是否有效
      */
     public boolean validateToken(String token) {
+        return parseToken(token) != null;
+    }
+    
+    /**
+     * 解析并验证JWT令牌
+     * <p>
+     * 签名和过期时间只校验一次，需要多个声明时应使用本方法，
+     * 而不是分别调用 getUsernameFromToken、getUserIdFromToken 等方法
+     * 
+     * @param token JWT令牌
+     * @return 验证通过的令牌声明，令牌无效时返回null
+     */
+    public VerifiedToken parseToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return VerifiedToken.from(token, getClaimsFromToken(token));
         } catch (JwtException | IllegalArgumentException e) {
             log.debug("JWT令牌验证失败: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
     
@@ -266,11 +299,9 @@ public class JwtService {
      * @return Claims对象
      */
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return getParser()
+                .parseSignedClaims(token)
+                .getPayload();
     }
     
     /**
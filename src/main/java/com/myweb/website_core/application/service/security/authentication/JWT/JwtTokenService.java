@@ -32,6 +32,7 @@ public class JwtTokenService {
     
     final JwtService jwtService;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final JwtPrincipalCache principalCache;
     
     /**
      * 生成完整的令牌对
@@ -128,6 +129,9 @@ public class JwtTokenService {
             // 删除用户活跃令牌记录
             redisTemplate.delete(userTokenKey);
             
+            // 通知各节点清除该用户缓存的认证主体
+            principalCache.invalidateUser(userId);
+            
             log.info("撤销用户 {} 的所有令牌成功", userId);
             
         } catch (Exception e) {
@@ -145,11 +149,14 @@ public class JwtTokenService {
         try {
             blacklistToken(token);
             
-            // 如果是访问令牌，也需要从用户活跃令牌中移除
-            if (jwtService.isAccessToken(token)) {
-                Long userId = jwtService.getUserIdFromToken(token);
-                if (userId != null) {
-                    removeUserActiveToken(userId, token);
+            VerifiedToken verifiedToken = jwtService.parseToken(token);
+            if (verifiedToken != null) {
+                // 通知各节点清除该令牌缓存的认证主体
+                principalCache.invalidateToken(verifiedToken.tokenId());
+                
+                // 如果是访问令牌，也需要从用户活跃令牌中移除
+                if (verifiedToken.isAccessToken() && verifiedToken.userId() != null) {
+                    removeUserActiveToken(verifiedToken.userId(), token);
                 }
             }
             
@@ -270,8 +277,11 @@ public class JwtTokenService {
     
     /**
      * 检查令牌是否在黑名单中
+     * 
+     * @param token JWT令牌
+     * @return 是否已被撤销
      */
-    private boolean isTokenBlacklisted(String token) {
+    public boolean isTokenBlacklisted(String token) {
         try {
             String key = RedisKey.getBlacklistedToken(token);
             return Boolean.TRUE.equals(redisTemplate.hasKey(key));
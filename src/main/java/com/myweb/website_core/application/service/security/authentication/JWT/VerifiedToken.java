@@ -0,0 +1,71 @@
+package com.myweb.website_core.application.service.security.authentication.JWT;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+
+/**
+ * 已验证签名的JWT令牌声明
+ * <p>
+ * 由 {@link JwtService#parseToken(String)} 一次解析得到，后续读取用户信息不再重复验签。
+ *
+ * @param tokenId 令牌ID（jti），早期签发的令牌没有jti时取令牌的SHA-256摘要
+ * @param userId 用户ID
+ * @param username 用户名
+ * @param role 用户角色
+ * @param tokenType 令牌类型（access/refresh）
+ * @param issuedAt 签发时间
+ * @param expiresAt 过期时间
+ */
+public record VerifiedToken(String tokenId,
+                            Long userId,
+                            String username,
+                            String role,
+                            String tokenType,
+                            Instant issuedAt,
+                            Instant expiresAt) {
+
+    /**
+     * 是否为访问令牌
+     */
+    public boolean isAccessToken() {
+        return "access".equals(tokenType);
+    }
+
+    /**
+     * 是否为刷新令牌
+     */
+    public boolean isRefreshToken() {
+        return "refresh".equals(tokenType);
+    }
+
+    static VerifiedToken from(String token, Claims claims) {
+        String tokenId = claims.getId();
+        return new VerifiedToken(
+                tokenId != null && !tokenId.isEmpty() ? tokenId : digest(token),
+                claims.get("userId", Long.class),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("tokenType", String.class),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()));
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
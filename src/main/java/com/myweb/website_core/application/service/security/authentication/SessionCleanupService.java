@@ -5,6 +5,7 @@ import com.myweb.website_core.common.enums.AuditOperation;
 import com.myweb.website_core.common.util.RedisKey;
 import com.myweb.website_core.domain.security.dto.AuditLogRequest;
 import com.myweb.website_core.domain.security.dto.SessionInfo;
+import com.myweb.website_core.infrastructure.redis.RedisKeyManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -15,7 +16,6 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 会话清理服务
@@ -27,6 +27,9 @@ import java.util.concurrent.TimeUnit;
  * - 定时清理过期会话
  * - 会话清理的审计记录
  * <p>
+ * 不使用 KEYS 命令：按用户清理时读取确定的键名和用户键索引，全局清理使用 SCAN 游标，
+ * 删除统一使用批量 UNLINK；过期数据交给键自身的TTL，定时任务只修剪活跃会话集合。
+ * <p>
  * 符合GB/T 22239-2019二级等保要求的剩余信息保护机制（9.1, 9.2, 9.4）
  * 
  * @author MyWeb Security Team
@@ -41,6 +44,7 @@ public class SessionCleanupService {
     private final RedisTemplate<String, Object> redisTemplate;
     private final AuditMessageService auditLogService;
     private final SessionManagementService sessionManagementService;
+    private final RedisKeyManager redisKeyManager;
     
     /**
      * 会话超时时间（分钟）
@@ -60,6 +64,14 @@ public class SessionCleanupService {
     // 使用统一的Redis键管理
     private static final String CSRF_TOKEN_PREFIX = "csrf:token:";
     private static final String TEMP_DATA_PREFIX = "temp:";
+    private static final String AUTH_PREFIX = "auth:";
+    
+    /**
+     * 用户临时数据的键前缀
+     */
+    private static final String[] USER_TEMP_PREFIXES = {
+        TEMP_DATA_PREFIX, "upload:temp:", "verification:", "captcha:", "rate_limit:"
+    };
     
     /**
      * 会话清理统计信息
@@ -125,20 +137,8 @@ public class SessionCleanupService {
                 clearSpecificSession(sessionId, statistics);
             }
             
-            // 2. 清理用户的所有会话
-            clearUserSessions(userId, statistics);
-            
-            // 3. 清理用户认证令牌
-            clearUserAuthTokens(userId, statistics);
-            
-            // 4. 清理用户CSRF令牌
-            clearUserCsrfTokens(userId, statistics);
-            
-            // 5. 清理用户临时数据
-            clearUserTempData(userId, statistics);
-            
-            // 6. 清理用户缓存数据
-            clearUserCacheData(userId, statistics);
+            // 2. 清理用户的会话、认证令牌、CSRF令牌、临时数据和缓存数据
+            clearUserKeys(userId, statistics);
             
             // 记录审计日志
             auditLogService.logOperation(
@@ -363,8 +363,8 @@ public class SessionCleanupService {
             cleanupUserCacheData(userId);
             cleanupUserTemporaryData(userId);
             
-            // 3. 清理用户相关的Redis键
-            cleanupUserRelatedKeys(userId);
+            // 3. 清理用户键索引中登记的键
+            cleanupUserIndexedKeys(userId);
             
             log.info("用户所有会话清理完成: userId={}, cleanedCount={}", userId, cleanedCount);
             return CompletableFuture.completedFuture(cleanedCount);
@@ -405,18 +405,9 @@ public class SessionCleanupService {
             
             CleanupStatistics statistics = new CleanupStatistics();
             
-            // 清理过期的会话数据
+            // 认证令牌、CSRF令牌和临时数据由Redis TTL自动过期，这里只修剪活跃会话集合
             clearExpiredSessions(statistics);
             
-            // 清理过期的认证令牌
-            clearExpiredAuthTokens(statistics);
-            
-            // 清理过期的CSRF令牌
-            clearExpiredCsrfTokens(statistics);
-            
-            // 清理过期的临时数据
-            clearExpiredTempData(statistics);
-            
             if (statistics.getTotalCleared() > 0) {
                 // 记录审计日志
                 auditLogService.logOperation(
@@ -457,66 +448,6 @@ public class SessionCleanupService {
         }
     }
     
-    /**
-     * 清理过期认证令牌
-     */
-    private void clearExpiredAuthTokens(CleanupStatistics statistics) {
-        try {
-            Set<String> authTokenKeys = redisTemplate.keys(RedisKey.AUTH_TOKEN_PREFIX + "*");
-            if (authTokenKeys != null) {
-                for (String key : authTokenKeys) {
-                    Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
-                    if (ttl != null && ttl <= 0) {
-                        redisTemplate.delete(key);
-                        statistics.incrementClearedAuthTokens();
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.warn("清理过期认证令牌失败", e);
-        }
-    }
-    
-    /**
-     * 清理过期CSRF令牌
-     */
-    private void clearExpiredCsrfTokens(CleanupStatistics statistics) {
-        try {
-            Set<String> csrfTokenKeys = redisTemplate.keys(CSRF_TOKEN_PREFIX + "*");
-            if (csrfTokenKeys != null) {
-                for (String key : csrfTokenKeys) {
-                    Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
-                    if (ttl != null && ttl <= 0) {
-                        redisTemplate.delete(key);
-                        statistics.incrementClearedCsrfTokens();
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.warn("清理过期CSRF令牌失败", e);
-        }
-    }
-    
-    /**
-     * 清理过期临时数据
-     */
-    private void clearExpiredTempData(CleanupStatistics statistics) {
-        try {
-            Set<String> tempKeys = redisTemplate.keys(TEMP_DATA_PREFIX + "*");
-            if (tempKeys != null) {
-                for (String key : tempKeys) {
-                    Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
-                    if (ttl != null && ttl <= 0) {
-                        redisTemplate.delete(key);
-                        statistics.incrementClearedTempData();
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.warn("清理过期临时数据失败", e);
-        }
-    }
-    
     /**
      * 清理会话相关数据
      * 
@@ -565,12 +496,7 @@ public class SessionCleanupService {
                     "user:stats:" + userId
             );
             
-            for (String key : userCacheKeys) {
-                redisTemplate.delete(key);
-            }
-            
-            // 清理用户相关的点赞和收藏缓存
-            cleanupUserInteractionCache(userId);
+            redisKeyManager.unlink(userCacheKeys);
             
             log.debug("用户缓存数据清理完成: userId={}", userId);
             
@@ -587,21 +513,13 @@ public class SessionCleanupService {
      */
     private void cleanupUserTemporaryData(Long userId) {
         try {
-            // 清理用户临时文件上传记录
-            String tempUploadKey = "temp:upload:" + userId;
-            redisTemplate.delete(tempUploadKey);
-            
-            // 清理用户搜索历史
-            String searchHistoryKey = "search:history:" + userId;
-            redisTemplate.delete(searchHistoryKey);
-            
-            // 清理用户操作锁
-            String operationLockKey = "operation:lock:" + userId;
-            redisTemplate.delete(operationLockKey);
-            
-            // 清理用户验证码
-            String verificationKey = "verification:" + userId;
-            redisTemplate.delete(verificationKey);
+            // 临时文件上传记录、搜索历史、操作锁、验证码
+            redisKeyManager.unlink(List.of(
+                    "temp:upload:" + userId,
+                    "search:history:" + userId,
+                    "operation:lock:" + userId,
+                    "verification:" + userId
+            ));
             
             log.debug("用户临时数据清理完成: userId={}", userId);
             
@@ -612,50 +530,17 @@ public class SessionCleanupService {
     }
     
     /**
-     * 清理用户交互缓存（点赞、收藏等）
-     * 
-     * @param userId 用户ID
-     */
-    private void cleanupUserInteractionCache(Long userId) {
-        try {
-            // 获取用户相关的点赞和收藏键
-            Set<String> keys = redisTemplate.keys("user:like:" + userId + ":*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
-            
-            keys = redisTemplate.keys("user:collect:" + userId + ":*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
-            
-            log.debug("用户交互缓存清理完成: userId={}", userId);
-            
-        } catch (Exception e) {
-            log.error("清理用户交互缓存失败: userId={}", userId, e);
-        }
-    }
-    
-    /**
-     * 清理用户相关的所有Redis键
+     * 清理用户键索引中登记的键及索引本身
      * 
      * @param userId 用户ID
      */
-    private void cleanupUserRelatedKeys(Long userId) {
+    private void cleanupUserIndexedKeys(Long userId) {
         try {
-            // 查找所有包含用户ID的键
-            Set<String> userKeys = redisTemplate.keys("*:" + userId + ":*");
-            if (userKeys != null && !userKeys.isEmpty()) {
-                redisTemplate.delete(userKeys);
-            }
+            Set<String> keys = new LinkedHashSet<>(redisKeyManager.getUserKeys(userId));
+            keys.add(RedisKey.userKeyIndexKey(userId));
+            long removed = redisKeyManager.unlink(keys);
             
-            // 查找以用户ID结尾的键
-            Set<String> userEndKeys = redisTemplate.keys("*:" + userId);
-            if (userEndKeys != null && !userEndKeys.isEmpty()) {
-                redisTemplate.delete(userEndKeys);
-            }
-            
-            log.debug("用户相关Redis键清理完成: userId={}", userId);
+            log.debug("用户相关Redis键清理完成: userId={}, count={}", userId, removed);
             
         } catch (Exception e) {
             log.error("清理用户相关Redis键失败: userId={}", userId, e);
@@ -688,44 +573,42 @@ public class SessionCleanupService {
     
     /**
      * 清理孤立的会话键
+     * <p>
+     * SCAN 遍历会话键，每批用一次 SMISMEMBER 检查对应会话是否仍在活跃会话集合中
      * 
      * @return 清理的键数量
      */
     private int cleanupOrphanedSessionKeys() {
         try {
-            int cleanedCount = 0;
+            long[] cleanedCount = {0};
             
-            // 查找所有会话相关的键
-            Set<String> sessionKeys = redisTemplate.keys(RedisKey.SESSION_PREFIX + "*");
-            if (sessionKeys != null) {
-                for (String key : sessionKeys) {
-                    // 检查键是否还在活跃会话集合中
-                    String sessionId = key.substring(RedisKey.SESSION_PREFIX.length());
-                    Boolean isMember = redisTemplate.opsForSet().isMember(RedisKey.ACTIVE_SESSIONS_SET, sessionId);
-                    
-                    if (Boolean.FALSE.equals(isMember)) {
-                        // 这是一个孤立的会话键，删除它
-                        redisTemplate.delete(key);
-                        cleanedCount++;
+            redisKeyManager.scan(RedisKey.SESSION_PREFIX + "*", keys -> {
+                Map<String, String> sessionIdByKey = new LinkedHashMap<>();
+                for (String key : keys) {
+                    String sessionId = sessionIdOf(key);
+                    if (sessionId != null) {
+                        sessionIdByKey.put(key, sessionId);
                     }
                 }
-            }
-            
-            // 清理孤立的会话活动键
-            Set<String> activityKeys = redisTemplate.keys(RedisKey.SESSION_ACTIVITY_PREFIX + "*");
-            if (activityKeys != null) {
-                for (String key : activityKeys) {
-                    String sessionId = key.substring(RedisKey.SESSION_ACTIVITY_PREFIX.length());
-                    Boolean isMember = redisTemplate.opsForSet().isMember(RedisKey.ACTIVE_SESSIONS_SET, sessionId);
-                    
-                    if (Boolean.FALSE.equals(isMember)) {
-                        redisTemplate.delete(key);
-                        cleanedCount++;
-                    }
+                if (sessionIdByKey.isEmpty()) {
+                    return;
                 }
-            }
+                
+                Map<Object, Boolean> membership = redisTemplate.opsForSet()
+                        .isMember(RedisKey.ACTIVE_SESSIONS_SET, sessionIdByKey.values().toArray());
+                if (membership == null) {
+                    return;
+                }
+                List<String> orphaned = new ArrayList<>();
+                sessionIdByKey.forEach((key, sessionId) -> {
+                    if (Boolean.FALSE.equals(membership.get(sessionId))) {
+                        orphaned.add(key);
+                    }
+                });
+                cleanedCount[0] += redisKeyManager.unlink(orphaned);
+            });
             
-            return cleanedCount;
+            return (int) cleanedCount[0];
             
         } catch (Exception e) {
             log.error("清理孤立会话键失败", e);
@@ -733,6 +616,21 @@ public class SessionCleanupService {
         }
     }
     
+    /**
+     * 从会话键或会话活动键中取出会话ID，其他会话模块的键（统计、锁等）返回null
+     */
+    private static String sessionIdOf(String key) {
+        String sessionId;
+        if (key.startsWith(RedisKey.SESSION_ACTIVITY_PREFIX)) {
+            sessionId = key.substring(RedisKey.SESSION_ACTIVITY_PREFIX.length());
+        } else if (key.startsWith(RedisKey.SESSION_PREFIX)) {
+            sessionId = key.substring(RedisKey.SESSION_PREFIX.length());
+        } else {
+            return null;
+        }
+        return sessionId.isEmpty() || sessionId.contains(":") ? null : sessionId;
+    }
+    
     /**
      * 安全获取会话信息
      * 
@@ -832,124 +730,70 @@ public class SessionCleanupService {
     }
     
     /**
-     * 清理用户的所有会话
+     * 清理用户的会话、认证令牌、CSRF令牌、临时数据和缓存数据
+     * <p>
+     * 要删除的键来自确定的键名和用户键索引，按类别分批UNLINK，不扫描整个键空间
      */
-    private void clearUserSessions(Long userId, CleanupStatistics statistics) {
+    private void clearUserKeys(Long userId, CleanupStatistics statistics) {
         try {
-            // 清理用户会话映射
-            Set<String> userSessionKeys = redisTemplate.keys(RedisKey.USER_SESSION_PREFIX + userId + ":*");
-            if (userSessionKeys != null && !userSessionKeys.isEmpty()) {
-                redisTemplate.delete(userSessionKeys);
-                statistics.setClearedSessions(statistics.getClearedSessions() + userSessionKeys.size());
-            }
+            List<String> sessionKeys = new ArrayList<>();
+            List<String> authTokenKeys = new ArrayList<>();
+            List<String> csrfTokenKeys = new ArrayList<>();
+            List<String> tempKeys = new ArrayList<>();
+            List<String> cacheKeys = new ArrayList<>(List.of(
+                "user:profile:" + userId,
+                "user:permissions:" + userId,
+                "user:roles:" + userId,
+                "user:followers:" + userId,
+                "user:following:" + userId
+            ));
             
-            // 清理Spring Session会话
-            Set<String> sessionKeys = redisTemplate.keys(RedisKey.SESSION_PREFIX + "*");
-            if (sessionKeys != null) {
-                for (String key : sessionKeys) {
-                    Object sessionData = redisTemplate.opsForValue().get(key);
-                    if (sessionData != null && sessionData.toString().contains(userId.toString())) {
-                        redisTemplate.delete(key);
-                        statistics.incrementClearedSessions();
-                    }
+            // 用户当前会话
+            String activeSessionKey = RedisKey.userActiveSessionKey(userId);
+            Object activeSessionId = redisTemplate.opsForValue().get(activeSessionKey);
+            if (activeSessionId instanceof String sessionId) {
+                sessionKeys.add(RedisKey.sessionKey(sessionId));
+                sessionKeys.add(RedisKey.sessionActivityKey(sessionId));
+                redisTemplate.opsForSet().remove(RedisKey.ACTIVE_SESSIONS_SET, sessionId);
+            }
+            sessionKeys.add(activeSessionKey);
+            sessionKeys.add(RedisKey.userSessionKey(userId));
+            
+            // 用户键索引中登记的键
+            for (String key : redisKeyManager.getUserKeys(userId)) {
+                if (key.startsWith(RedisKey.SESSION_PREFIX) || key.startsWith(RedisKey.USER_SESSION_PREFIX)) {
+                    sessionKeys.add(key);
+                } else if (key.startsWith(AUTH_PREFIX)) {
+                    authTokenKeys.add(key);
+                } else if (key.startsWith(CSRF_TOKEN_PREFIX)) {
+                    csrfTokenKeys.add(key);
+                } else if (isUserTempKey(key)) {
+                    tempKeys.add(key);
+                } else {
+                    cacheKeys.add(key);
                 }
             }
             
-        } catch (Exception e) {
-            log.warn("清理用户会话失败 - 用户ID: {}", userId, e);
-        }
-    }
-    
-    /**
-     * 清理用户认证令牌
-     */
-    private void clearUserAuthTokens(Long userId, CleanupStatistics statistics) {
-        try {
-            Set<String> authTokenKeys = redisTemplate.keys(RedisKey.AUTH_TOKEN_PREFIX + userId + ":*");
-            if (authTokenKeys != null && !authTokenKeys.isEmpty()) {
-                redisTemplate.delete(authTokenKeys);
-                statistics.setClearedAuthTokens(authTokenKeys.size());
-            }
+            statistics.setClearedSessions(statistics.getClearedSessions() + (int) redisKeyManager.unlink(sessionKeys));
+            statistics.setClearedAuthTokens(statistics.getClearedAuthTokens() + (int) redisKeyManager.unlink(authTokenKeys));
+            statistics.setClearedCsrfTokens(statistics.getClearedCsrfTokens() + (int) redisKeyManager.unlink(csrfTokenKeys));
+            statistics.setClearedTempData(statistics.getClearedTempData() + (int) redisKeyManager.unlink(tempKeys));
+            statistics.setClearedUserCache(statistics.getClearedUserCache() + (int) redisKeyManager.unlink(cacheKeys));
             
-            // 清理JWT令牌黑名单相关的键
-            Set<String> jwtKeys = redisTemplate.keys("jwt:blacklist:" + userId + ":*");
-            if (jwtKeys != null && !jwtKeys.isEmpty()) {
-                redisTemplate.delete(jwtKeys);
-                statistics.setClearedAuthTokens(statistics.getClearedAuthTokens() + jwtKeys.size());
-            }
+            redisKeyManager.removeUserKeyIndex(userId);
             
         } catch (Exception e) {
-            log.warn("清理用户认证令牌失败 - 用户ID: {}", userId, e);
+            log.warn("清理用户键失败 - 用户ID: {}", userId, e);
         }
     }
     
-    /**
-     * 清理用户CSRF令牌
-     */
-    private void clearUserCsrfTokens(Long userId, CleanupStatistics statistics) {
-        try {
-            Set<String> csrfTokenKeys = redisTemplate.keys(CSRF_TOKEN_PREFIX + userId + ":*");
-            if (csrfTokenKeys != null && !csrfTokenKeys.isEmpty()) {
-                redisTemplate.delete(csrfTokenKeys);
-                statistics.setClearedCsrfTokens(csrfTokenKeys.size());
+    private static boolean isUserTempKey(String key) {
+        for (String prefix : USER_TEMP_PREFIXES) {
+            if (key.startsWith(prefix)) {
+                return true;
             }
-        } catch (Exception e) {
-            log.warn("清理用户CSRF令牌失败 - 用户ID: {}", userId, e);
-        }
-    }
-    
-    /**
-     * 清理用户临时数据
-     */
-    private void clearUserTempData(Long userId, CleanupStatistics statistics) {
-        try {
-            String[] tempPatterns = {
-                TEMP_DATA_PREFIX + "user:" + userId + ":*",
-                "upload:temp:" + userId + ":*",
-                "verification:" + userId + ":*",
-                "captcha:" + userId + ":*",
-                "rate_limit:" + userId + ":*"
-            };
-            
-            for (String pattern : tempPatterns) {
-                Set<String> keys = redisTemplate.keys(pattern);
-                if (keys != null && !keys.isEmpty()) {
-                    redisTemplate.delete(keys);
-                    statistics.setClearedTempData(statistics.getClearedTempData() + keys.size());
-                }
-            }
-        } catch (Exception e) {
-            log.warn("清理用户临时数据失败 - 用户ID: {}", userId, e);
-        }
-    }
-    
-    /**
-     * 清理用户缓存数据
-     */
-    private void clearUserCacheData(Long userId, CleanupStatistics statistics) {
-        try {
-            String[] cachePatterns = {
-                "user:profile:" + userId,
-                "user:permissions:" + userId,
-                "user:roles:" + userId,
-                "user:posts:" + userId + ":*",
-                "user:comments:" + userId + ":*",
-                "user:likes:" + userId + ":*",
-                "user:collects:" + userId + ":*",
-                "user:followers:" + userId,
-                "user:following:" + userId
-            };
-            
-            for (String pattern : cachePatterns) {
-                Set<String> keys = redisTemplate.keys(pattern);
-                if (keys != null && !keys.isEmpty()) {
-                    redisTemplate.delete(keys);
-                    statistics.setClearedUserCache(statistics.getClearedUserCache() + keys.size());
-                }
-            }
-        } catch (Exception e) {
-            log.warn("清理用户缓存数据失败 - 用户ID: {}", userId, e);
         }
+        return false;
     }
     
     /**
@@ -966,11 +810,7 @@ public class SessionCleanupService {
             CleanupStatistics statistics = new CleanupStatistics();
             
             // 清理用户的所有会话数据
-            clearUserSessions(userId, statistics);
-            clearUserAuthTokens(userId, statistics);
-            clearUserCsrfTokens(userId, statistics);
-            clearUserTempData(userId, statistics);
-            clearUserCacheData(userId, statistics);
+            clearUserKeys(userId, statistics);
             
             // 记录审计日志
             auditLogService.logOperation(
@@ -1041,11 +881,8 @@ public class SessionCleanupService {
             };
             
             for (String pattern : tempPatterns) {
-                Set<String> keys = redisTemplate.keys(pattern);
-                if (keys != null && !keys.isEmpty()) {
-                    redisTemplate.delete(keys);
-                    statistics.setClearedTempData(statistics.getClearedTempData() + keys.size());
-                }
+                long removed = redisKeyManager.unlinkByPattern(pattern);
+                statistics.setClearedTempData(statistics.getClearedTempData() + (int) removed);
             }
         } catch (Exception e) {
             log.warn("清理所有临时数据失败", e);
@@ -1054,21 +891,13 @@ public class SessionCleanupService {
     
     /**
      * 清理过期会话
+     * <p>
+     * 会话键由Redis TTL自动删除，这里只从活跃会话集合中移除会话键已不存在的成员
      */
     private void clearExpiredSessions(CleanupStatistics statistics) {
         try {
-            // Redis的TTL机制会自动清理过期的会话
-            // 这里主要是清理一些可能遗留的会话数据
-            Set<String> sessionKeys = redisTemplate.keys(RedisKey.SESSION_PREFIX + "*");
-            if (sessionKeys != null) {
-                for (String key : sessionKeys) {
-                    Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
-                    if (ttl != null && ttl <= 0) {
-                        redisTemplate.delete(key);
-                        statistics.incrementClearedSessions();
-                    }
-                }
-            }
+            long removed = redisKeyManager.pruneSetMembers(RedisKey.ACTIVE_SESSIONS_SET, RedisKey::sessionKey);
+            statistics.setClearedSessions(statistics.getClearedSessions() + (int) removed);
         } catch (Exception e) {
             log.warn("清理过期会话失败", e);
         }
@@ -1084,20 +913,17 @@ public class SessionCleanupService {
             Map<String, Object> statistics = new HashMap<>();
             
             // 统计活跃会话数
-            Set<String> sessionKeys = redisTemplate.keys(RedisKey.SESSION_PREFIX + "*");
-            statistics.put("activeSessions", sessionKeys != null ? sessionKeys.size() : 0);
+            Long activeSessions = redisTemplate.opsForSet().size(RedisKey.ACTIVE_SESSIONS_SET);
+            statistics.put("activeSessions", activeSessions != null ? activeSessions.intValue() : 0);
             
             // 统计认证令牌数
-            Set<String> authTokenKeys = redisTemplate.keys(RedisKey.AUTH_TOKEN_PREFIX + "*");
-            statistics.put("authTokens", authTokenKeys != null ? authTokenKeys.size() : 0);
+            statistics.put("authTokens", (int) redisKeyManager.countByPattern(RedisKey.AUTH_TOKEN_PREFIX + "*"));
             
             // 统计CSRF令牌数
-            Set<String> csrfTokenKeys = redisTemplate.keys(CSRF_TOKEN_PREFIX + "*");
-            statistics.put("csrfTokens", csrfTokenKeys != null ? csrfTokenKeys.size() : 0);
+            statistics.put("csrfTokens", (int) redisKeyManager.countByPattern(CSRF_TOKEN_PREFIX + "*"));
             
             // 统计临时数据数
-            Set<String> tempKeys = redisTemplate.keys(TEMP_DATA_PREFIX + "*");
-            statistics.put("tempData", tempKeys != null ? tempKeys.size() : 0);
+            statistics.put("tempData", (int) redisKeyManager.countByPattern(TEMP_DATA_PREFIX + "*"));
             
             statistics.put("timestamp", LocalDateTime.now());
             
@@ -6,6 +6,7 @@ import com.myweb.website_core.domain.security.dto.SessionInfo;
 import com.myweb.website_core.domain.security.dto.SessionStatistics;
 import com.myweb.website_core.domain.business.entity.User;
 import com.myweb.website_core.application.service.security.audit.AuditLogService;
+import com.myweb.website_core.infrastructure.redis.RedisKeyManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -44,6 +45,7 @@ public class SessionManagementService {
     private final RedisTemplate<String, Object> redisTemplate;
     private final JwtService jwtService;
     private final AuditLogService auditLogService;
+    private final RedisKeyManager redisKeyManager;
     
     /**
      * 会话超时时间（分钟）
@@ -116,6 +118,9 @@ public class SessionManagementService {
             
             // 记录会话活动
             recordSessionActivity(sessionId, "SESSION_CREATED", ipAddress);
+            
+            // 登记到用户键索引，用户退出时无需扫描即可定位会话键
+            redisKeyManager.registerUserKeys(user.getId(), sessionKey, RedisKey.sessionActivityKey(sessionId));
 
 
             return CompletableFuture.completedFuture(sessionInfo);
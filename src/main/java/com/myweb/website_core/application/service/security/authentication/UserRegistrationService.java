@@ -7,11 +7,13 @@ import com.myweb.website_core.common.exception.RateLimitExceededException;
 import com.myweb.website_core.common.exception.security.ValidationException;
 import com.myweb.website_core.common.util.RedisKey;
 import com.myweb.website_core.domain.business.dto.UserRegistrationDTO;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
 import com.myweb.website_core.domain.business.dto.UserRegistrationResult;
 import com.myweb.website_core.domain.business.entity.User;
 import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -49,6 +51,7 @@ public class UserRegistrationService {
     private final EmailVerificationService emailVerificationService;
     private final EmailService emailService;
     private final RedisTemplate<String, String> redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     
     // 使用统一的Redis键管理 - 已在RedisKey中定义
     
@@ -89,6 +92,7 @@ public class UserRegistrationService {
             // 6. 保存用户到数据库
             User savedUser = userRepository.save(user);
             log.info("用户保存成功: userId={}, username={}", savedUser.getId(), savedUser.getUsername());
+            eventPublisher.publishEvent(ContentChangeEvent.user(ContentChangeEvent.CHANGE_CREATE, savedUser.getId()));
             
             // 7. 发送欢迎邮件（异步）
             sendWelcomeEmailAsync(savedUser);
@@ -9,11 +9,11 @@ import com.myweb.website_core.domain.business.entity.User;
 import com.myweb.website_core.infrastructure.persistence.repository.comment.CommentRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepository;
+import com.myweb.website_core.infrastructure.redis.RedisKeyManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
@@ -44,8 +44,8 @@ public class AuthorizationService {
     private final UserRepository userRepository;
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
-    private final RedisTemplate<String, Object> redisTemplate;
     private final AuditLogService auditLogService;
+    private final RedisKeyManager redisKeyManager;
     
     // 缓存键前缀
     private static final String USER_PERMISSIONS_CACHE_KEY = "user:permissions:";
@@ -621,16 +621,15 @@ public class AuthorizationService {
     }
     
     /**
-     * 根据模式清除Redis缓存
+     * 根据模式清除Redis缓存（SCAN + UNLINK，不阻塞Redis）
      * 
      * @param pattern 缓存键模式
      */
     private void clearCacheByPattern(String pattern) {
         try {
-            Set<String> keys = redisTemplate.keys(pattern);
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-                log.debug("清除缓存键: count={}, pattern={}", keys.size(), pattern);
+            long count = redisKeyManager.unlinkByPattern(pattern);
+            if (count > 0) {
+                log.debug("清除缓存键: count={}, pattern={}", count, pattern);
             }
         } catch (Exception e) {
             log.warn("清除缓存失败: pattern={}, error={}", pattern, e.getMessage());
@@ -0,0 +1,174 @@
+package com.myweb.website_core.application.service.security.integeration;
+
+import com.myweb.website_core.application.service.security.integeration.FileIntegrityService.FileIntegrityRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文件哈希清单
+ * <p>
+ * 所有文件的哈希记录保存在一个只追加的清单文件中，每行一条记录：
+ * 哈希值、文件大小、修改时间、记录时间、文件路径，以制表符分隔，路径放在最后以容纳任意字符。
+ * 同一路径后写入的记录覆盖先前的记录，只有哈希、大小或修改时间变化的记录才会追加。
+ * 失效行数超过有效记录数时重写清单（先写临时文件再原子替换）。
+ */
+@Slf4j
+final class FileHashManifest {
+
+    /**
+     * 清单文件名
+     */
+    static final String FILE_NAME = "manifest.tsv";
+
+    private static final int FIELD_COUNT = 5;
+
+    /**
+     * 记录数较少时不压缩
+     */
+    private static final int MIN_COMPACT_LINES = 1024;
+
+    private final Path manifestFile;
+
+    /**
+     * 清单中每个路径最后写入的记录
+     */
+    private final Map<String, FileIntegrityRecord> written = new HashMap<>();
+
+    /**
+     * 清单文件当前行数
+     */
+    private long lineCount;
+
+    FileHashManifest(Path storageDirectory) {
+        this.manifestFile = storageDirectory.resolve(FILE_NAME);
+    }
+
+    /**
+     * 逐行读取清单，返回每个路径的最新记录
+     */
+    synchronized Map<String, FileIntegrityRecord> load() throws IOException {
+        written.clear();
+        lineCount = 0;
+        if (!Files.exists(manifestFile)) {
+            return new HashMap<>();
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineCount++;
+                FileIntegrityRecord record = parse(line);
+                if (record != null) {
+                    written.put(record.getFilePath(), record);
+                }
+            }
+        }
+        return new HashMap<>(written);
+    }
+
+    /**
+     * 追加有变化的记录
+     *
+     * @param records 待写入的记录
+     * @return 实际追加的记录数
+     */
+    synchronized int append(Collection<FileIntegrityRecord> records) throws IOException {
+        List<FileIntegrityRecord> changed = new ArrayList<>();
+        for (FileIntegrityRecord record : records) {
+            if (record.getFilePath().indexOf('\n') >= 0 || record.getFilePath().indexOf('\r') >= 0) {
+                log.warn("文件路径包含换行符，跳过哈希记录: {}", record.getFilePath());
+                continue;
+            }
+            FileIntegrityRecord previous = written.get(record.getFilePath());
+            if (previous == null || !previous.sameContentAs(record)) {
+                changed.add(record);
+            }
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        Files.createDirectories(manifestFile.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(manifestFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (FileIntegrityRecord record : changed) {
+                writer.write(format(record));
+                writer.newLine();
+            }
+        }
+        for (FileIntegrityRecord record : changed) {
+            written.put(record.getFilePath(), record);
+        }
+        lineCount += changed.size();
+
+        if (lineCount > MIN_COMPACT_LINES && lineCount > 2L * written.size()) {
+            compact();
+        }
+        return changed.size();
+    }
+
+    /**
+     * 清单中的有效记录数
+     */
+    synchronized int size() {
+        return written.size();
+    }
+
+    /**
+     * 只保留每个路径的最新记录重写清单
+     */
+    private void compact() throws IOException {
+        Path tempFile = manifestFile.resolveSibling(FILE_NAME + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (FileIntegrityRecord record : written.values()) {
+                writer.write(format(record));
+                writer.newLine();
+            }
+        }
+        Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("文件哈希清单已压缩: {} 行 -> {} 行", lineCount, written.size());
+        lineCount = written.size();
+    }
+
+    private static String format(FileIntegrityRecord record) {
+        return record.getHashValue() + '\t' +
+                record.getSize() + '\t' +
+                record.getLastModified() + '\t' +
+                record.getRecordTime() + '\t' +
+                record.getFilePath();
+    }
+
+    private static FileIntegrityRecord parse(String line) {
+        String[] fields = line.split("\t", FIELD_COUNT);
+        if (fields.length < FIELD_COUNT) {
+            // 写入中断留下的不完整行
+            return null;
+        }
+        try {
+            return new FileIntegrityRecord(
+                    fields[4],
+                    fields[0],
+                    Long.parseLong(fields[1]),
+                    Instant.parse(fields[2]),
+                    LocalDateTime.parse(fields[3]));
+        } catch (RuntimeException e) {
+            log.warn("忽略无法解析的哈希清单记录: {}", line);
+            return null;
+        }
+    }
+}
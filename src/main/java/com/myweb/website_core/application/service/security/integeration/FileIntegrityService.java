@@ -5,6 +5,7 @@ import com.myweb.website_core.application.service.security.integeration.dataMana
 import com.myweb.website_core.common.enums.AuditOperation;
 import com.myweb.website_core.common.exception.FileIntegrityException;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,14 +16,26 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * 文件完整性服务
@@ -50,6 +63,20 @@ public class FileIntegrityService {
     // 关键文件哈希值存储
     private final Map<String, FileIntegrityRecord> fileIntegrityMap = new ConcurrentHashMap<>();
     
+    // 哈希读取缓冲区，每个线程复用一个直接缓冲区，文件内容不进入堆
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> HASH_BUFFER =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(HASH_BUFFER_SIZE));
+    
+    // 哈希清单（只追加）
+    private volatile FileHashManifest hashManifest;
+    
+    // 目录并行哈希线程池
+    private volatile ExecutorService hashExecutor;
+    
+    // 上次完整重新计算哈希的时间
+    private volatile long lastFullRehashMillis;
+    
     // 配置参数
     @Value("${app.file-integrity.enabled:true}")
     private boolean integrityCheckEnabled;
@@ -66,6 +93,18 @@ public class FileIntegrityService {
     @Value("${app.file-integrity.alert-enabled:true}")
     private boolean alertEnabled;
     
+    // 大小和修改时间均未变化的文件跳过哈希计算
+    @Value("${app.file-integrity.fast-path-enabled:true}")
+    private boolean fastPathEnabled;
+    
+    // 启用快速路径时，每隔多少小时仍完整重新计算一次所有文件的哈希
+    @Value("${app.file-integrity.full-rehash-interval-hours:24}")
+    private long fullRehashIntervalHours;
+    
+    // 目录并行哈希的线程数，0表示CPU核数
+    @Value("${app.file-integrity.hash-parallelism:0}")
+    private int hashParallelism;
+    
     // 关键文件列表
     private static final Set<String> CRITICAL_FILES = Set.of(
         "application.yml",
@@ -94,12 +133,30 @@ public class FileIntegrityService {
         try {
             // 创建必要的目录
             createDirectories();
+            hashExecutor = createHashExecutor();
             log.info("文件完整性服务初始化完成");
         } catch (Exception e) {
             log.error("文件完整性服务初始化失败", e);
         }
     }
     
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService executor = hashExecutor;
+        hashExecutor = null;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
     /**
      * 系统启动时执行完整性检查
      */
@@ -192,12 +249,17 @@ public class FileIntegrityService {
     public List<FileIntegrityResult> checkCriticalFilesIntegrity() {
         List<FileIntegrityResult> results = new ArrayList<>();
         
+        // 定期完整重新计算，防止保留了大小和修改时间的篡改长期不被发现
+        long startMillis = System.currentTimeMillis();
+        boolean allowFastPath = fastPathEnabled && fullRehashIntervalHours > 0
+            && startMillis - lastFullRehashMillis < TimeUnit.HOURS.toMillis(fullRehashIntervalHours);
+        
         try {
             // 检查关键文件
             for (String fileName : CRITICAL_FILES) {
                 Path filePath = findCriticalFile(fileName);
                 if (filePath != null && Files.exists(filePath)) {
-                    FileIntegrityResult result = checkFileIntegrity(filePath);
+                    FileIntegrityResult result = checkFileIntegrity(filePath, allowFastPath);
                     results.add(result);
                 } else {
                     // 文件不存在
@@ -218,10 +280,14 @@ public class FileIntegrityService {
             for (String dirPath : CRITICAL_DIRECTORIES) {
                 Path directory = Paths.get(dirPath);
                 if (Files.exists(directory) && Files.isDirectory(directory)) {
-                    results.addAll(checkDirectoryIntegrity(directory));
+                    results.addAll(checkDirectoryIntegrity(directory, allowFastPath));
                 }
             }
             
+            if (!allowFastPath) {
+                lastFullRehashMillis = startMillis;
+            }
+            
         } catch (Exception e) {
             log.error("检查关键文件完整性失败", e);
             throw new FileIntegrityException("检查关键文件完整性失败", e);
@@ -234,6 +300,15 @@ public class FileIntegrityService {
      * 检查单个文件完整性
      */
     public FileIntegrityResult checkFileIntegrity(Path filePath) {
+        return checkFileIntegrity(filePath, fastPathEnabled);
+    }
+    
+    /**
+     * 检查单个文件完整性
+     * 
+     * @param allowFastPath 大小和修改时间与记录一致时是否直接沿用记录的哈希值
+     */
+    private FileIntegrityResult checkFileIntegrity(Path filePath, boolean allowFastPath) {
         try {
             if (!Files.exists(filePath)) {
                 return FileIntegrityResult.builder()
@@ -245,12 +320,18 @@ public class FileIntegrityService {
                     .build();
             }
             
-            // 计算当前文件哈希值
-            String currentHash = calculateFileHash(filePath);
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            long size = attributes.size();
+            Instant lastModified = attributes.lastModifiedTime().toInstant();
             
             // 获取存储的哈希值
             FileIntegrityRecord storedRecord = fileIntegrityMap.get(filePath.toString());
             
+            // 计算当前文件哈希值，大小和修改时间未变化时跳过
+            String currentHash = allowFastPath && storedRecord != null && storedRecord.matches(size, lastModified)
+                ? storedRecord.getHashValue()
+                : calculateFileHash(filePath);
+            
             boolean isValid = true;
             String errorMessage = null;
             
@@ -267,7 +348,8 @@ public class FileIntegrityService {
                 storedRecord = new FileIntegrityRecord(
                     filePath.toString(),
                     currentHash,
-                    Files.getLastModifiedTime(filePath).toInstant(),
+                    size,
+                    lastModified,
                     LocalDateTime.now()
                 );
                 fileIntegrityMap.put(filePath.toString(), storedRecord);
@@ -280,7 +362,8 @@ public class FileIntegrityService {
                 .isValid(isValid)
                 .currentHash(currentHash)
                 .expectedHash(storedRecord.getHashValue())
-                .lastModified(Files.getLastModifiedTime(filePath).toInstant())
+                .fileSize(size)
+                .lastModified(lastModified)
                 .errorMessage(errorMessage)
                 .checkTime(LocalDateTime.now())
                 .build();
@@ -299,38 +382,65 @@ public class FileIntegrityService {
     
     /**
      * 检查目录下文件的完整性
+     * 
+     * 遍历目录的同时把文件提交到哈希线程池并行检查，结果按遍历顺序返回
      */
-    private List<FileIntegrityResult> checkDirectoryIntegrity(Path directory) {
-        List<FileIntegrityResult> results = new ArrayList<>();
+    private List<FileIntegrityResult> checkDirectoryIntegrity(Path directory, boolean allowFastPath) {
+        List<CompletableFuture<FileIntegrityResult>> pending = new ArrayList<>();
         
-        try {
-            Files.walk(directory, 2) // 最多遍历2层
-                .filter(Files::isRegularFile)
-                .filter(path -> isConfigurationFile(path))
-                .forEach(path -> {
-                    try {
-                        FileIntegrityResult result = checkFileIntegrity(path);
-                        results.add(result);
-                    } catch (Exception e) {
-                        log.error("检查目录文件完整性失败: {}", path, e);
-                    }
-                });
+        try (Stream<Path> paths = Files.walk(directory, 2)) { // 最多遍历2层
+            paths.filter(Files::isRegularFile)
+                .filter(this::isConfigurationFile)
+                .forEach(path -> pending.add(submitFileCheck(path, allowFastPath)));
                 
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             log.error("遍历目录失败: {}", directory, e);
         }
         
+        List<FileIntegrityResult> results = new ArrayList<>(pending.size());
+        for (CompletableFuture<FileIntegrityResult> future : pending) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                log.error("检查目录文件完整性失败: {}", directory, e.getCause());
+            }
+        }
+        
         return results;
     }
     
+    /**
+     * 提交单个文件的检查，线程池不可用时在当前线程执行
+     */
+    private CompletableFuture<FileIntegrityResult> submitFileCheck(Path path, boolean allowFastPath) {
+        ExecutorService executor = hashExecutor;
+        if (executor != null) {
+            try {
+                return CompletableFuture.supplyAsync(() -> checkFileIntegrity(path, allowFastPath), executor);
+            } catch (RejectedExecutionException e) {
+                log.debug("哈希线程池不可用，在当前线程检查: {}", path);
+            }
+        }
+        return CompletableFuture.completedFuture(checkFileIntegrity(path, allowFastPath));
+    }
+    
     /**
      * 计算文件哈希值
+     * 
+     * 通过文件通道分块读入线程复用的直接缓冲区，内存占用与文件大小无关
      */
     private String calculateFileHash(Path filePath) throws IOException, NoSuchAlgorithmException {
-        byte[] fileBytes = Files.readAllBytes(filePath);
         MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] hashBytes = digest.digest(fileBytes);
-        return Base64.getEncoder().encodeToString(hashBytes);
+        ByteBuffer buffer = HASH_BUFFER.get();
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return Base64.getEncoder().encodeToString(digest.digest());
     }
     
     /**
@@ -506,10 +616,12 @@ public class FileIntegrityService {
                 
                 // 计算并存储备份文件哈希值
                 String backupHash = calculateFileHash(backupFile);
+                BasicFileAttributes attributes = Files.readAttributes(backupFile, BasicFileAttributes.class);
                 FileIntegrityRecord backupRecord = new FileIntegrityRecord(
                     backupFile.toString(),
                     backupHash,
-                    Files.getLastModifiedTime(backupFile).toInstant(),
+                    attributes.size(),
+                    attributes.lastModifiedTime().toInstant(),
                     LocalDateTime.now()
                 );
                 fileIntegrityMap.put(backupFile.toString(), backupRecord);
@@ -584,32 +696,38 @@ public class FileIntegrityService {
     
     /**
      * 更新文件哈希值
+     * 
+     * 只有哈希、大小或修改时间变化的记录才追加到清单
      */
     private void updateFileHashes(List<FileIntegrityResult> results) {
+        List<FileIntegrityRecord> records = new ArrayList<>();
         for (FileIntegrityResult result : results) {
             if (result.isExists() && result.isValid()) {
-                try {
-                    Path filePath = Paths.get(result.getFilePath());
-                    FileIntegrityRecord record = new FileIntegrityRecord(
-                        result.getFilePath(),
-                        result.getCurrentHash(),
-                        result.getLastModified(),
-                        LocalDateTime.now()
-                    );
-                    fileIntegrityMap.put(result.getFilePath(), record);
-                    
-                    // 持久化哈希值
-                    saveHashToFile(record);
-                    
-                } catch (Exception e) {
-                    log.error("更新文件哈希值失败: {}", result.getFilePath(), e);
-                }
+                FileIntegrityRecord record = new FileIntegrityRecord(
+                    result.getFilePath(),
+                    result.getCurrentHash(),
+                    result.getFileSize(),
+                    result.getLastModified(),
+                    LocalDateTime.now()
+                );
+                fileIntegrityMap.put(result.getFilePath(), record);
+                records.add(record);
             }
         }
+        
+        // 持久化哈希值
+        try {
+            int appended = getHashManifest().append(records);
+            log.debug("哈希清单追加了 {} 条记录", appended);
+        } catch (Exception e) {
+            log.error("更新文件哈希清单失败", e);
+        }
     }
     
     /**
      * 加载已存储的哈希值
+     * 
+     * 读取哈希清单，并把旧版本的逐文件 .hash 记录迁移到清单中
      */
     private void loadStoredHashes() {
         try {
@@ -618,10 +736,8 @@ public class FileIntegrityService {
                 return;
             }
             
-            Files.walk(hashDir)
-                .filter(Files::isRegularFile)
-                .filter(path -> path.toString().endsWith(".hash"))
-                .forEach(this::loadHashFromFile);
+            fileIntegrityMap.putAll(getHashManifest().load());
+            migrateLegacyHashFiles(hashDir);
                 
             log.info("加载了 {} 个文件哈希记录", fileIntegrityMap.size());
             
@@ -631,54 +747,82 @@ public class FileIntegrityService {
     }
     
     /**
-     * 从文件加载哈希值
+     * 迁移旧版本的逐文件哈希记录
+     */
+    private void migrateLegacyHashFiles(Path hashDir) throws IOException {
+        List<Path> legacyFiles;
+        try (Stream<Path> paths = Files.walk(hashDir)) {
+            legacyFiles = paths.filter(Files::isRegularFile)
+                .filter(path -> path.toString().endsWith(".hash"))
+                .toList();
+        }
+        if (legacyFiles.isEmpty()) {
+            return;
+        }
+        
+        List<FileIntegrityRecord> records = new ArrayList<>();
+        for (Path legacyFile : legacyFiles) {
+            FileIntegrityRecord record = loadHashFromFile(legacyFile);
+            if (record != null && fileIntegrityMap.putIfAbsent(record.getFilePath(), record) == null) {
+                records.add(record);
+            }
+        }
+        getHashManifest().append(records);
+        for (Path legacyFile : legacyFiles) {
+            Files.deleteIfExists(legacyFile);
+        }
+        log.info("已将 {} 个旧版哈希文件迁移到哈希清单", legacyFiles.size());
+    }
+    
+    /**
+     * 从旧版哈希文件加载哈希值
      */
-    private void loadHashFromFile(Path hashFile) {
+    private FileIntegrityRecord loadHashFromFile(Path hashFile) {
         try {
             List<String> lines = Files.readAllLines(hashFile, StandardCharsets.UTF_8);
             if (lines.size() >= 4) {
-                String filePath = lines.get(0);
-                String hashValue = lines.get(1);
-                String lastModified = lines.get(2);
-                String recordTime = lines.get(3);
-                
-                FileIntegrityRecord record = new FileIntegrityRecord(
-                    filePath,
-                    hashValue,
-                    java.time.Instant.parse(lastModified),
-                    LocalDateTime.parse(recordTime)
+                // 旧版记录没有文件大小，首次检查时总会重新计算哈希
+                return new FileIntegrityRecord(
+                    lines.get(0),
+                    lines.get(1),
+                    Instant.parse(lines.get(2)),
+                    LocalDateTime.parse(lines.get(3))
                 );
-                
-                fileIntegrityMap.put(filePath, record);
             }
         } catch (Exception e) {
             log.error("加载哈希文件失败: {}", hashFile, e);
         }
+        return null;
     }
     
     /**
-     * 保存哈希值到文件
+     * 获取哈希清单
      */
-    private void saveHashToFile(FileIntegrityRecord record) {
-        try {
-            Path hashDir = Paths.get(hashStoragePath);
-            Files.createDirectories(hashDir);
-            
-            String fileName = record.getFilePath().replaceAll("[/\\\\:]", "_") + ".hash";
-            Path hashFile = hashDir.resolve(fileName);
-            
-            List<String> lines = Arrays.asList(
-                record.getFilePath(),
-                record.getHashValue(),
-                record.getLastModified().toString(),
-                record.getRecordTime().toString()
-            );
-            
-            Files.write(hashFile, lines, StandardCharsets.UTF_8);
-            
-        } catch (Exception e) {
-            log.error("保存哈希文件失败: {}", record.getFilePath(), e);
+    private FileHashManifest getHashManifest() {
+        FileHashManifest manifest = hashManifest;
+        if (manifest == null) {
+            synchronized (this) {
+                manifest = hashManifest;
+                if (manifest == null) {
+                    manifest = new FileHashManifest(Paths.get(hashStoragePath));
+                    hashManifest = manifest;
+                }
+            }
         }
+        return manifest;
+    }
+    
+    /**
+     * 创建目录并行哈希线程池
+     */
+    private ExecutorService createHashExecutor() {
+        int threads = hashParallelism > 0 ? hashParallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "FileIntegrityHash-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     
     /**
@@ -711,7 +855,11 @@ public class FileIntegrityService {
             Path filePath = Paths.get(record.getFilePath());
             if (Files.exists(filePath)) {
                 try {
-                    String currentHash = calculateFileHash(filePath);
+                    BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+                    String currentHash = fastPathEnabled
+                        && record.matches(attributes.size(), attributes.lastModifiedTime().toInstant())
+                        ? record.getHashValue()
+                        : calculateFileHash(filePath);
                     if (record.getHashValue().equals(currentHash)) {
                         validFiles++;
                     } else {
@@ -758,20 +906,43 @@ public class FileIntegrityService {
     public static class FileIntegrityRecord {
         private final String filePath;
         private final String hashValue;
+        private final long size;
         private final java.time.Instant lastModified;
         private final LocalDateTime recordTime;
         
         public FileIntegrityRecord(String filePath, String hashValue, 
                                  java.time.Instant lastModified, LocalDateTime recordTime) {
+            this(filePath, hashValue, -1, lastModified, recordTime);
+        }
+        
+        public FileIntegrityRecord(String filePath, String hashValue, long size,
+                                 java.time.Instant lastModified, LocalDateTime recordTime) {
             this.filePath = filePath;
             this.hashValue = hashValue;
+            this.size = size;
             this.lastModified = lastModified;
             this.recordTime = recordTime;
         }
         
+        /**
+         * 文件大小和修改时间是否与记录一致（未知大小的记录视为不一致）
+         */
+        public boolean matches(long currentSize, java.time.Instant currentLastModified) {
+            return size >= 0 && size == currentSize && Objects.equals(lastModified, currentLastModified);
+        }
+        
+        /**
+         * 与另一条记录的哈希、大小和修改时间是否相同
+         */
+        public boolean sameContentAs(FileIntegrityRecord other) {
+            return hashValue.equals(other.hashValue) && size == other.size
+                && Objects.equals(lastModified, other.lastModified);
+        }
+        
         // Getters
         public String getFilePath() { return filePath; }
         public String getHashValue() { return hashValue; }
+        public long getSize() { return size; }
         public java.time.Instant getLastModified() { return lastModified; }
         public LocalDateTime getRecordTime() { return recordTime; }
     }
@@ -785,6 +956,7 @@ public class FileIntegrityService {
         private boolean isValid;
         private String currentHash;
         private String expectedHash;
+        private long fileSize = -1;
         private java.time.Instant lastModified;
         private String errorMessage;
         private LocalDateTime checkTime;
@@ -821,6 +993,11 @@ public class FileIntegrityService {
                 return this;
             }
             
+            public Builder fileSize(long fileSize) {
+                result.fileSize = fileSize;
+                return this;
+            }
+            
             public Builder lastModified(java.time.Instant lastModified) {
                 result.lastModified = lastModified;
                 return this;
@@ -857,6 +1034,9 @@ public class FileIntegrityService {
         public String getExpectedHash() { return expectedHash; }
         public void setExpectedHash(String expectedHash) { this.expectedHash = expectedHash; }
         
+        public long getFileSize() { return fileSize; }
+        public void setFileSize(long fileSize) { this.fileSize = fileSize; }
+        
         public java.time.Instant getLastModified() { return lastModified; }
         public void setLastModified(java.time.Instant lastModified) { this.lastModified = lastModified; }
         
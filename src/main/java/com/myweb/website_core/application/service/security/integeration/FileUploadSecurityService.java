@@ -16,13 +16,20 @@ import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 /**
@@ -31,6 +38,7 @@ import java.util.regex.Pattern;
  * 提供文件上传的安全验证功能：
  * - 文件类型、大小、魔数验证
  * - 恶意代码扫描
+ * - 文件内容只读取一次：同一次读取同时用于哈希计算、内容检查、病毒扫描和写入存储
  * - 安全的文件存储路径和命名策略
  * - 审计日志记录
  * <p>
@@ -67,59 +75,11 @@ public class FileUploadSecurityService {
         "image/bmp", "image/svg+xml"
     );
     
-    /**
-     * 文件魔数映射表
-     */
-    private static final Map<String, List<String>> MAGIC_NUMBERS = Map.of(
-        "jpg", List.of("FFD8FF"),
-        "jpeg", List.of("FFD8FF"),
-        "png", List.of("89504E47"),
-        "gif", List.of("47494638", "47494639"),
-        "webp", List.of("52494646"),
-        "bmp", List.of("424D"),
-        "svg", List.of("3C3F786D6C", "3C737667")
-    );
-    
     /**
      * 最大文件大小（5MB）
      */
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
     
-    /**
-     * 恶意代码检测模式
-     */
-    private static final List<Pattern> MALICIOUS_PATTERNS = Arrays.asList(
-        // 脚本标签
-        Pattern.compile("<script[^>]*>.*?</script>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL),
-        Pattern.compile("javascript:", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("vbscript:", Pattern.CASE_INSENSITIVE),
-        
-        // 事件处理器
-        Pattern.compile("on\\w+\\s*=", Pattern.CASE_INSENSITIVE),
-        
-        // PHP代码
-        Pattern.compile("<\\?php", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("<\\?=", Pattern.CASE_INSENSITIVE),
-        
-        // JSP代码
-        Pattern.compile("<%", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("<jsp:", Pattern.CASE_INSENSITIVE),
-        
-        // Shell脚本
-        Pattern.compile("#!/bin/", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("#!/usr/bin/", Pattern.CASE_INSENSITIVE),
-        
-        // 可执行文件头
-        Pattern.compile("MZ", Pattern.CASE_INSENSITIVE), // Windows PE
-        Pattern.compile("\\x7fELF", Pattern.CASE_INSENSITIVE), // Linux ELF
-        
-        // 危险函数调用
-        Pattern.compile("eval\\s*\\(", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("exec\\s*\\(", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("system\\s*\\(", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("shell_exec\\s*\\(", Pattern.CASE_INSENSITIVE)
-    );
-    
     /**
      * 禁止的文件名模式
      */
@@ -145,6 +105,68 @@ public class FileUploadSecurityService {
     @Auditable(operation = AuditOperation.FILE_UPLOAD, resourceType = "FILE")
     public void validateUploadedFile(MultipartFile file, Long userId, String username, 
                                    HttpServletRequest request) throws FileValidationException {
+        validateUploadedFile(file, userId, username, request, null);
+    }
+    
+    /**
+     * 验证上传文件的安全性，并把文件内容写入指定输出
+     * <p>
+     * 文件内容只读取一次：病毒扫描引擎读取数据时，同一份数据同时计算哈希、进行内容检查并写入输出。
+     * 验证失败时输出中可能已有部分数据，由调用方丢弃。
+     * 
+     * @param file 上传的文件
+     * @param userId 用户ID
+     * @param username 用户名
+     * @param request HTTP请求对象
+     * @param sink 文件内容的写入目标（如临时文件），为null时不写入
+     * @return 检查结果，包含文件内容哈希
+     * @throws FileValidationException 验证失败时抛出异常
+     */
+    @Auditable(operation = AuditOperation.FILE_UPLOAD, resourceType = "FILE")
+    public UploadInspectionResult validateUploadedFile(MultipartFile file, Long userId, String username,
+                                                       HttpServletRequest request, OutputStream sink)
+            throws FileValidationException {
+        return validate(file, userId, username, request, () -> inspectContent(file, userId, username, sink));
+    }
+    
+    /**
+     * 验证上传文件的安全性，并把文件内容暂存到指定文件
+     * <p>
+     * 上传数据只读取一次，写入暂存文件的同时计算哈希、进行内容检查。
+     * 相同内容已扫描过时跳过病毒扫描，否则从暂存文件读取内容进行扫描。
+     * 
+     * @param file 上传的文件
+     * @param userId 用户ID
+     * @param username 用户名
+     * @param request HTTP请求对象
+     * @param stagedFile 暂存文件，验证失败时由调用方删除
+     * @param alreadyScanned 按内容哈希判断相同内容是否已扫描过
+     * @return 检查结果，包含文件内容哈希
+     * @throws FileValidationException 验证失败时抛出异常
+     */
+    @Auditable(operation = AuditOperation.FILE_UPLOAD, resourceType = "FILE")
+    public UploadInspectionResult validateAndStage(MultipartFile file, Long userId, String username,
+                                                   HttpServletRequest request, Path stagedFile,
+                                                   Predicate<String> alreadyScanned)
+            throws FileValidationException {
+        return validate(file, userId, username, request,
+                () -> inspectAndStage(file, userId, username, stagedFile, alreadyScanned));
+    }
+    
+    /**
+     * 内容检查步骤
+     */
+    @FunctionalInterface
+    private interface ContentInspection {
+        UploadInspectionResult inspect() throws FileValidationException;
+    }
+    
+    /**
+     * 执行元数据验证和内容检查，并记录审计日志
+     */
+    private UploadInspectionResult validate(MultipartFile file, Long userId, String username,
+                                            HttpServletRequest request, ContentInspection contentInspection)
+            throws FileValidationException {
         
         long startTime = System.currentTimeMillis();
         String clientIp = getClientIpAddress(request);
@@ -164,21 +186,16 @@ public class FileUploadSecurityService {
             // 3. 文件类型验证
             validateFileType(file);
             
-            // 4. 文件魔数验证
-            validateFileMagicNumber(file);
-            
-            // 5. 恶意代码扫描
-            scanForMaliciousContent(file);
+            // 4. 单次读取文件内容：魔数验证、恶意代码扫描、病毒扫描
+            UploadInspectionResult result = contentInspection.inspect();
             
-            // 6. 病毒扫描
-            performVirusScan(file, userId, username);
-            
-            // 7. 记录成功的审计日志
+            // 5. 记录成功的审计日志
             recordAuditLog(userId, username, originalFilename, file, clientIp, userAgent, 
                           "SUCCESS", null, System.currentTimeMillis() - startTime);
             
             log.info("文件安全验证通过: user={}, filename={}, size={}", 
                     username, originalFilename, file.getSize());
+            return result;
             
         } catch (FileValidationException e) {
             // 记录失败的审计日志
@@ -321,268 +338,84 @@ public class FileUploadSecurityService {
     }
     
     /**
-     * 验证文件魔数
+     * 单次读取文件内容并完成内容检查和病毒扫描
+     * <p>
+     * 病毒扫描引擎通过分流输入流读取数据，扫描结束后补读剩余数据；
+     * 全部数据经过后再执行内容检查，最后处理扫描结果。
      */
-    private void validateFileMagicNumber(MultipartFile file) throws FileValidationException {
-        try {
-            byte[] fileBytes = file.getBytes();
-            if (fileBytes.length < 4) {
-                throw new FileValidationException("文件内容过短，无法验证文件类型");
-            }
-            
-            String filename = file.getOriginalFilename();
-            String extension = getFileExtension(filename).toLowerCase();
-            
-            List<String> expectedMagicNumbers = MAGIC_NUMBERS.get(extension);
-            if (expectedMagicNumbers == null) {
-                throw new FileValidationException("不支持的文件扩展名: " + extension);
-            }
-            
-            // 获取文件头部字节
-            String actualMagic = bytesToHex(Arrays.copyOf(fileBytes, Math.min(fileBytes.length, 12)));
-            
-            // 检查是否匹配任何一个预期的魔数
-            boolean magicMatches = expectedMagicNumbers.stream()
-                .anyMatch(expected -> actualMagic.toUpperCase().startsWith(expected.toUpperCase()));
-            
-            if (!magicMatches) {
-                throw new FileValidationException(
-                    String.format("文件内容与扩展名不匹配，扩展名: %s，文件头: %s", 
-                                 extension, actualMagic.substring(0, Math.min(actualMagic.length(), 16))));
-            }
-            
+    private UploadInspectionResult inspectContent(MultipartFile file, Long userId, String username,
+                                                  OutputStream sink) throws FileValidationException {
+        String filename = file.getOriginalFilename();
+        UploadContentInspector inspector = new UploadContentInspector(filename);
+        MessageDigest digest = newSha256Digest();
+        
+        VirusScanResult scanResult;
+        try (InputStream source = file.getInputStream();
+             UploadTeeInputStream content = new UploadTeeInputStream(source, digest, inspector, sink, MAX_FILE_SIZE)) {
+            scanResult = scanContent(content, filename, userId, username);
+            content.drain();
         } catch (IOException e) {
             throw new FileValidationException("读取文件内容失败: " + e.getMessage(), e);
         }
-    }
-    
-    /**
-     * 扫描恶意代码
-     */
-    private void scanForMaliciousContent(MultipartFile file) throws FileValidationException {
-        try {
-            byte[] fileBytes = file.getBytes();
-            
-            // 1. 二进制内容检查
-            scanBinaryContent(fileBytes);
-            
-            // 2. 文本内容检查（对于可能包含文本的文件）
-            scanTextContent(fileBytes);
-            
-            // 3. 文件结构检查
-            validateFileStructure(fileBytes, file.getOriginalFilename());
-            
-        } catch (IOException e) {
-            throw new FileValidationException("扫描文件内容失败: " + e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * 扫描二进制内容
-     */
-    private void scanBinaryContent(byte[] fileBytes) throws FileValidationException {
-        // 检查是否包含可执行文件特征
-        String hexContent = bytesToHex(fileBytes);
-        
-        // 检查PE文件头 (Windows可执行文件)
-        if (hexContent.startsWith("4D5A")) { // MZ header
-            throw new FileValidationException("检测到可执行文件特征，禁止上传");
-        }
         
-        // 检查ELF文件头 (Linux可执行文件)
-        if (hexContent.startsWith("7F454C46")) { // ELF header
-            throw new FileValidationException("检测到可执行文件特征，禁止上传");
-        }
+        inspector.finish();
+        handleVirusScanResult(file, scanResult, username);
         
-        // 检查其他可疑的二进制模式
-        if (containsSuspiciousBinaryPatterns(fileBytes)) {
-            throw new FileValidationException("检测到可疑的二进制内容");
-        }
+        return new UploadInspectionResult(
+            Base64.getEncoder().encodeToString(digest.digest()),
+            inspector.length(),
+            inspector.detectedType(),
+            scanResult
+        );
     }
     
     /**
-     * 扫描文本内容
+     * 单次读取文件内容写入暂存文件并完成内容检查，相同内容未扫描过时从暂存文件扫描
      */
-    private void scanTextContent(byte[] fileBytes) throws FileValidationException {
-        try {
-            // 尝试将文件内容解析为文本
-            String content = new String(fileBytes, StandardCharsets.UTF_8);
-            String lowerContent = content.toLowerCase();
-            
-            // 检查恶意代码模式
-            for (Pattern pattern : MALICIOUS_PATTERNS) {
-                if (pattern.matcher(content).find()) {
-                    throw new FileValidationException("检测到潜在的恶意代码: " + pattern.pattern());
-                }
-            }
-            
-            // 检查可疑的字符串
-            String[] suspiciousStrings = {
-                "eval(", "exec(", "system(", "shell_exec(", "passthru(",
-                "file_get_contents(", "file_put_contents(", "fopen(", "fwrite(",
-                "include(", "require(", "include_once(", "require_once(",
-                "base64_decode(", "gzinflate(", "str_rot13(",
-                "create_function(", "call_user_func(", "preg_replace("
-            };
-            
-            for (String suspicious : suspiciousStrings) {
-                if (lowerContent.contains(suspicious.toLowerCase())) {
-                    throw new FileValidationException("检测到可疑的函数调用: " + suspicious);
-                }
-            }
-            
-        } catch (Exception e) {
-            // 如果不是文本文件，忽略文本扫描错误
-            log.debug("文本内容扫描跳过（可能是二进制文件）: {}", e.getMessage());
-        }
-    }
-    
-    /**
-     * 验证文件结构
-     */
-    private void validateFileStructure(byte[] fileBytes, String filename) throws FileValidationException {
-        String extension = getFileExtension(filename).toLowerCase();
-
-        switch (extension) {
-            case "jpg", "jpeg" -> validateJpegStructure(fileBytes);
-            case "png" -> validatePngStructure(fileBytes);
-            case "gif" -> validateGifStructure(fileBytes);
-            case "svg" -> validateSvgStructure(fileBytes);
-            default ->
-                // 对于其他格式，进行基本的结构检查
-                    validateBasicStructure(fileBytes);
-        }
-    }
-    
-    // ==================== 文件结构验证方法 ====================
-    
-    /**
-     * 验证JPEG文件结构
-     */
-    private void validateJpegStructure(byte[] fileBytes) throws FileValidationException {
-        if (fileBytes.length < 10) {
-            throw new FileValidationException("JPEG文件结构不完整");
+    private UploadInspectionResult inspectAndStage(MultipartFile file, Long userId, String username,
+                                                   Path stagedFile, Predicate<String> alreadyScanned)
+            throws FileValidationException {
+        String filename = file.getOriginalFilename();
+        UploadContentInspector inspector = new UploadContentInspector(filename);
+        MessageDigest digest = newSha256Digest();
+        
+        try (InputStream source = file.getInputStream();
+             OutputStream sink = Files.newOutputStream(stagedFile);
+             UploadTeeInputStream content = new UploadTeeInputStream(source, digest, inspector, sink, MAX_FILE_SIZE)) {
+            content.drain();
+        } catch (IOException e) {
+            throw new FileValidationException("读取文件内容失败: " + e.getMessage(), e);
         }
         
-        // 检查JPEG文件头和尾
-        if (!(fileBytes[0] == (byte) 0xFF && fileBytes[1] == (byte) 0xD8)) {
-            throw new FileValidationException("无效的JPEG文件头");
-        }
+        inspector.finish();
+        String contentHash = Base64.getEncoder().encodeToString(digest.digest());
         
-        // 检查JPEG文件尾
-        int len = fileBytes.length;
-        if (!(fileBytes[len - 2] == (byte) 0xFF && fileBytes[len - 1] == (byte) 0xD9)) {
-            log.warn("JPEG文件可能缺少正确的文件尾标记");
-        }
-    }
-    
-    /**
-     * 验证PNG文件结构
-     */
-    private void validatePngStructure(byte[] fileBytes) throws FileValidationException {
-        if (fileBytes.length < 8) {
-            throw new FileValidationException("PNG文件结构不完整");
+        if (alreadyScanned.test(contentHash)) {
+            log.debug("相同内容已扫描过，跳过病毒扫描: user={}, filename={}", username, filename);
+            return new UploadInspectionResult(contentHash, inspector.length(), inspector.detectedType(), null, true);
         }
         
-        // 检查PNG文件签名
-        byte[] pngSignature = {(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A};
-        for (int i = 0; i < 8; i++) {
-            if (fileBytes[i] != pngSignature[i]) {
-                throw new FileValidationException("无效的PNG文件签名");
-            }
-        }
-    }
-    
-    /**
-     * 验证GIF文件结构
-     */
-    private void validateGifStructure(byte[] fileBytes) throws FileValidationException {
-        if (fileBytes.length < 6) {
-            throw new FileValidationException("GIF文件结构不完整");
+        VirusScanResult scanResult;
+        try (InputStream staged = Files.newInputStream(stagedFile)) {
+            scanResult = scanContent(staged, filename, userId, username);
+        } catch (IOException e) {
+            throw new FileValidationException("读取文件内容失败: " + e.getMessage(), e);
         }
+        handleVirusScanResult(file, scanResult, username);
         
-        // 检查GIF文件头
-        String header = new String(fileBytes, 0, 6, StandardCharsets.US_ASCII);
-        if (!header.equals("GIF87a") && !header.equals("GIF89a")) {
-            throw new FileValidationException("无效的GIF文件头: " + header);
-        }
+        return new UploadInspectionResult(contentHash, inspector.length(), inspector.detectedType(), scanResult);
     }
     
-    /**
-     * 验证SVG文件结构
-     */
-    private void validateSvgStructure(byte[] fileBytes) throws FileValidationException {
+    private static MessageDigest newSha256Digest() throws FileValidationException {
         try {
-            String content = new String(fileBytes, StandardCharsets.UTF_8);
-            
-            // SVG必须包含<svg>标签
-            if (!content.contains("<svg")) {
-                throw new FileValidationException("SVG文件必须包含<svg>标签");
-            }
-            
-            // 检查是否包含危险的SVG元素
-            String[] dangerousElements = {
-                "<script", "<object", "<embed", "<iframe", "<link", "<meta",
-                "<foreignObject", "javascript:", "data:text/html"
-            };
-            
-            String lowerContent = content.toLowerCase();
-            for (String dangerous : dangerousElements) {
-                if (lowerContent.contains(dangerous.toLowerCase())) {
-                    throw new FileValidationException("SVG文件包含危险元素: " + dangerous);
-                }
-            }
-            
-        } catch (Exception e) {
-            throw new FileValidationException("SVG文件结构验证失败: " + e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * 验证基本文件结构
-     */
-    private void validateBasicStructure(byte[] fileBytes) throws FileValidationException {
-        // 检查文件是否过小
-        if (fileBytes.length < 10) {
-            throw new FileValidationException("文件内容过小，可能不是有效的图片文件");
-        }
-        
-        // 检查是否包含过多的空字节
-        int nullByteCount = 0;
-        for (byte b : fileBytes) {
-            if (b == 0) {
-                nullByteCount++;
-            }
-        }
-        
-        // 如果空字节超过50%，可能是可疑文件
-        if (nullByteCount > fileBytes.length * 0.5) {
-            throw new FileValidationException("文件包含过多空字节，可能是可疑文件");
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new FileValidationException("不支持的哈希算法: SHA-256", e);
         }
     }
     
     // ==================== 辅助方法 ====================
     
-    /**
-     * 检查是否包含可疑的二进制模式
-     */
-    private boolean containsSuspiciousBinaryPatterns(byte[] fileBytes) {
-        // 检查是否包含大量重复的字节模式（可能是填充攻击）
-        Map<Byte, Integer> byteFrequency = new HashMap<>();
-        for (byte b : fileBytes) {
-            byteFrequency.put(b, byteFrequency.getOrDefault(b, 0) + 1);
-        }
-        
-        // 如果某个字节出现频率超过80%，可能是可疑的
-        for (int count : byteFrequency.values()) {
-            if (count > fileBytes.length * 0.8) {
-                return true;
-            }
-        }
-        
-        return false;
-    }
-    
     /**
      * 获取文件扩展名
      */
@@ -639,14 +472,16 @@ public class FileUploadSecurityService {
     }
     
     /**
-     * 执行病毒扫描
+     * 通过输入流执行病毒扫描
+     * 
+     * @return 扫描结果，扫描引擎不可用或扫描异常时返回null
      */
-    private void performVirusScan(MultipartFile file, Long userId, String username) throws FileValidationException {
+    private VirusScanResult scanContent(InputStream content, String filename, Long userId, String username)
+            throws FileValidationException {
         try {
             // 检查病毒扫描服务是否可用
             if (!virusScanService.isAvailable()) {
-                log.warn("病毒扫描服务不可用，跳过扫描: user={}, filename={}", 
-                        username, file.getOriginalFilename());
+                log.warn("病毒扫描服务不可用，跳过扫描: user={}, filename={}", username, filename);
                 
                 // 发送引擎不可用告警
                 alertService.sendEngineUnavailableAlert(
@@ -656,61 +491,71 @@ public class FileUploadSecurityService {
                 
                 // 根据配置决定是否允许上传
                 // 这里采用保守策略：扫描服务不可用时仍允许上传，但记录警告
-                return;
+                return null;
             }
             
-            // 执行异步病毒扫描
-            CompletableFuture<VirusScanResult> scanFuture = virusScanService.scanFile(file, userId, username);
+            // 执行异步病毒扫描，扫描引擎读取的数据同时经过哈希、内容检查和写入
+            CompletableFuture<VirusScanResult> scanFuture =
+                virusScanService.scanInputStream(content, filename, userId, username);
             
             // 等待扫描结果（设置超时时间）
-            VirusScanResult scanResult;
             try {
-                scanResult = scanFuture.get(30, java.util.concurrent.TimeUnit.SECONDS);
-            } catch (java.util.concurrent.TimeoutException e) {
-                log.warn("病毒扫描超时: user={}, filename={}", username, file.getOriginalFilename());
+                return scanFuture.get(30, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                scanFuture.cancel(true);
+                log.warn("病毒扫描超时: user={}, filename={}", username, filename);
                 throw new FileValidationException("文件安全扫描超时，请稍后重试");
             }
             
-            // 处理扫描结果
-            if (scanResult.shouldBlockUpload()) {
-                // 发现病毒或扫描失败，阻止上传
-                if (scanResult.isVirusFound()) {
-                    log.warn("检测到病毒文件: user={}, filename={}, virus={}", 
-                            username, file.getOriginalFilename(), scanResult.getVirusName());
-                    
-                    // 隔离可疑文件
-                    if (scanResult.isRequiresQuarantine()) {
-                        quarantineService.quarantineFile(file, scanResult);
-                    }
-                    
-                    // 发送安全告警
-                    if (scanResult.isRequiresAlert()) {
-                        alertService.sendVirusAlert(scanResult);
-                    }
-                    
-                    throw new FileValidationException(
-                        String.format("检测到恶意文件: %s (威胁级别: %s)", 
-                                     scanResult.getVirusName(), scanResult.getThreatLevel()));
-                } else {
-                    // 扫描失败
-                    throw new FileValidationException("文件安全扫描失败: " + scanResult.getErrorMessage());
-                }
-            }
-            
-            log.debug("病毒扫描通过: user={}, filename={}, duration={}ms", 
-                     username, file.getOriginalFilename(), scanResult.getScanDurationMs());
-            
         } catch (FileValidationException e) {
             // 重新抛出文件验证异常
             throw e;
         } catch (Exception e) {
             log.error("病毒扫描异常: user={}, filename={}, error={}", 
-                     username, file.getOriginalFilename(), e.getMessage(), e);
+                     username, filename, e.getMessage(), e);
             
             // 根据配置决定是否在扫描异常时阻止上传
             // 这里采用保守策略：扫描异常时仍允许上传，但记录错误
             log.warn("病毒扫描异常，允许上传但建议人工审查: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 处理病毒扫描结果
+     */
+    private void handleVirusScanResult(MultipartFile file, VirusScanResult scanResult, String username)
+            throws FileValidationException {
+        if (scanResult == null) {
+            return;
         }
+        
+        if (scanResult.shouldBlockUpload()) {
+            // 发现病毒或扫描失败，阻止上传
+            if (scanResult.isVirusFound()) {
+                log.warn("检测到病毒文件: user={}, filename={}, virus={}", 
+                        username, file.getOriginalFilename(), scanResult.getVirusName());
+                
+                // 隔离可疑文件
+                if (scanResult.isRequiresQuarantine()) {
+                    quarantineService.quarantineFile(file, scanResult);
+                }
+                
+                // 发送安全告警
+                if (scanResult.isRequiresAlert()) {
+                    alertService.sendVirusAlert(scanResult);
+                }
+                
+                throw new FileValidationException(
+                    String.format("检测到恶意文件: %s (威胁级别: %s)", 
+                                 scanResult.getVirusName(), scanResult.getThreatLevel()));
+            }
+            // 扫描失败
+            throw new FileValidationException("文件安全扫描失败: " + scanResult.getErrorMessage());
+        }
+        
+        log.debug("病毒扫描通过: user={}, filename={}, duration={}ms", 
+                 username, file.getOriginalFilename(), scanResult.getScanDurationMs());
     }
     
     /**
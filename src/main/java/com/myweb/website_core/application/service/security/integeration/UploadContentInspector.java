@@ -0,0 +1,344 @@
+package com.myweb.website_core.application.service.security.integeration;
+
+import com.myweb.website_core.common.exception.FileValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.Tika;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 上传文件内容流式检查
+ * <p>
+ * 随上传数据逐块更新，只保留文件头部、末尾两个字节、字节频率和SVG关键字匹配状态，
+ * 内存占用与文件大小无关。数据读完后调用 {@link #finish()} 依次执行：
+ * 魔数验证、可执行文件特征与字节分布检查、文件结构验证、基于文件头的类型识别（Tika）。
+ * <p>
+ * 非线程安全，每次上传使用一个实例。
+ */
+@Slf4j
+final class UploadContentInspector {
+
+    /**
+     * 保留的文件头部长度，用于魔数验证和类型识别
+     */
+    static final int HEAD_SIZE = 8 * 1024;
+
+    private static final Tika TIKA = new Tika();
+
+    /**
+     * 文件魔数映射表
+     */
+    private static final Map<String, List<String>> MAGIC_NUMBERS = Map.of(
+        "jpg", List.of("FFD8FF"),
+        "jpeg", List.of("FFD8FF"),
+        "png", List.of("89504E47"),
+        "gif", List.of("47494638", "47494639"),
+        "webp", List.of("52494646"),
+        "bmp", List.of("424D"),
+        "svg", List.of("3C3F786D6C", "3C737667")
+    );
+
+    /**
+     * SVG中禁止出现的元素（按ASCII忽略大小写匹配）
+     */
+    private static final String[] SVG_DANGEROUS_ELEMENTS = {
+        "<script", "<object", "<embed", "<iframe", "<link", "<meta",
+        "<foreignObject", "javascript:", "data:text/html"
+    };
+
+    private static final String SVG_TAG = "<svg";
+
+    /**
+     * 文件头识别为XML或文本时也接受为SVG
+     */
+    private static final Set<String> SVG_DETECTED_TYPES = Set.of(
+        "image/svg+xml", "application/xml", "text/plain"
+    );
+
+    private final String filename;
+    private final String extension;
+
+    private final byte[] head = new byte[HEAD_SIZE];
+    private int headLength;
+    private final long[] byteCounts = new long[256];
+    private long length;
+    private int secondLastByte = -1;
+    private int lastByte = -1;
+
+    /**
+     * SVG关键字匹配：needles[0] 为 &lt;svg，其余为危险元素
+     */
+    private final byte[][] needles;
+    private final boolean[] found;
+    private final byte[] carry;
+    private int carryLength;
+
+    private String detectedType;
+
+    UploadContentInspector(String filename) {
+        this.filename = filename;
+        this.extension = getFileExtension(filename);
+        if ("svg".equals(extension)) {
+            needles = new byte[SVG_DANGEROUS_ELEMENTS.length + 1][];
+            needles[0] = lowerAscii(SVG_TAG);
+            int maxLength = needles[0].length;
+            for (int i = 0; i < SVG_DANGEROUS_ELEMENTS.length; i++) {
+                needles[i + 1] = lowerAscii(SVG_DANGEROUS_ELEMENTS[i]);
+                maxLength = Math.max(maxLength, needles[i + 1].length);
+            }
+            found = new boolean[needles.length];
+            carry = new byte[maxLength - 1];
+        } else {
+            needles = null;
+            found = null;
+            carry = null;
+        }
+    }
+
+    /**
+     * 处理一块数据
+     */
+    void update(byte[] buffer, int offset, int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (headLength < HEAD_SIZE) {
+            int copy = Math.min(count, HEAD_SIZE - headLength);
+            System.arraycopy(buffer, offset, head, headLength, copy);
+            headLength += copy;
+        }
+        for (int i = offset; i < offset + count; i++) {
+            byteCounts[buffer[i] & 0xFF]++;
+        }
+        if (count >= 2) {
+            secondLastByte = buffer[offset + count - 2] & 0xFF;
+        } else {
+            secondLastByte = lastByte;
+        }
+        lastByte = buffer[offset + count - 1] & 0xFF;
+        length += count;
+
+        if (needles != null) {
+            matchSvgKeywords(buffer, offset, count);
+        }
+    }
+
+    /**
+     * 已处理的字节数
+     */
+    long length() {
+        return length;
+    }
+
+    /**
+     * 基于文件头识别的MIME类型，{@link #finish()} 之后有效
+     */
+    String detectedType() {
+        return detectedType;
+    }
+
+    /**
+     * 数据读取完毕后执行全部内容检查
+     *
+     * @throws FileValidationException 检查未通过时抛出
+     */
+    void finish() throws FileValidationException {
+        validateMagicNumber();
+        validateBinaryContent();
+        validateStructure();
+        validateDetectedType();
+    }
+
+    // ==================== 检查实现 ====================
+
+    private void validateMagicNumber() throws FileValidationException {
+        if (length < 4) {
+            throw new FileValidationException("文件内容过短，无法验证文件类型");
+        }
+
+        List<String> expectedMagicNumbers = MAGIC_NUMBERS.get(extension);
+        if (expectedMagicNumbers == null) {
+            throw new FileValidationException("不支持的文件扩展名: " + extension);
+        }
+
+        // 获取文件头部字节
+        String actualMagic = bytesToHex(head, Math.min(headLength, 12));
+        boolean magicMatches = expectedMagicNumbers.stream().anyMatch(actualMagic::startsWith);
+        if (!magicMatches) {
+            throw new FileValidationException(
+                String.format("文件内容与扩展名不匹配，扩展名: %s，文件头: %s",
+                             extension, actualMagic.substring(0, Math.min(actualMagic.length(), 16))));
+        }
+    }
+
+    private void validateBinaryContent() throws FileValidationException {
+        String headHex = bytesToHex(head, Math.min(headLength, 4));
+
+        // 检查PE文件头 (Windows可执行文件) 和ELF文件头 (Linux可执行文件)
+        if (headHex.startsWith("4D5A") || headHex.startsWith("7F454C46")) {
+            throw new FileValidationException("检测到可执行文件特征，禁止上传");
+        }
+
+        // 如果某个字节出现频率超过80%，可能是填充攻击
+        for (long count : byteCounts) {
+            if (count > length * 0.8) {
+                throw new FileValidationException("检测到可疑的二进制内容");
+            }
+        }
+    }
+
+    private void validateStructure() throws FileValidationException {
+        switch (extension) {
+            case "jpg", "jpeg" -> validateJpegStructure();
+            case "png" -> validatePngStructure();
+            case "gif" -> validateGifStructure();
+            case "svg" -> validateSvgStructure();
+            default -> validateBasicStructure();
+        }
+    }
+
+    private void validateJpegStructure() throws FileValidationException {
+        if (length < 10) {
+            throw new FileValidationException("JPEG文件结构不完整");
+        }
+        if (!(head[0] == (byte) 0xFF && head[1] == (byte) 0xD8)) {
+            throw new FileValidationException("无效的JPEG文件头");
+        }
+        if (!(secondLastByte == 0xFF && lastByte == 0xD9)) {
+            log.warn("JPEG文件可能缺少正确的文件尾标记");
+        }
+    }
+
+    private void validatePngStructure() throws FileValidationException {
+        if (length < 8) {
+            throw new FileValidationException("PNG文件结构不完整");
+        }
+        byte[] pngSignature = {(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A};
+        for (int i = 0; i < pngSignature.length; i++) {
+            if (head[i] != pngSignature[i]) {
+                throw new FileValidationException("无效的PNG文件签名");
+            }
+        }
+    }
+
+    private void validateGifStructure() throws FileValidationException {
+        if (length < 6) {
+            throw new FileValidationException("GIF文件结构不完整");
+        }
+        String header = new String(head, 0, 6, StandardCharsets.US_ASCII);
+        if (!header.equals("GIF87a") && !header.equals("GIF89a")) {
+            throw new FileValidationException("无效的GIF文件头: " + header);
+        }
+    }
+
+    private void validateSvgStructure() throws FileValidationException {
+        if (!found[0]) {
+            throw new FileValidationException("SVG文件结构验证失败: SVG文件必须包含<svg>标签");
+        }
+        for (int i = 0; i < SVG_DANGEROUS_ELEMENTS.length; i++) {
+            if (found[i + 1]) {
+                throw new FileValidationException(
+                    "SVG文件结构验证失败: SVG文件包含危险元素: " + SVG_DANGEROUS_ELEMENTS[i]);
+            }
+        }
+    }
+
+    private void validateBasicStructure() throws FileValidationException {
+        if (length < 10) {
+            throw new FileValidationException("文件内容过小，可能不是有效的图片文件");
+        }
+        // 如果空字节超过50%，可能是可疑文件
+        if (byteCounts[0] > length * 0.5) {
+            throw new FileValidationException("文件包含过多空字节，可能是可疑文件");
+        }
+    }
+
+    /**
+     * 按文件头识别实际类型，须与扩展名对应的图片类型一致
+     */
+    private void validateDetectedType() throws FileValidationException {
+        detectedType = TIKA.detect(Arrays.copyOf(head, headLength));
+        boolean matches = switch (extension) {
+            case "jpg", "jpeg" -> "image/jpeg".equals(detectedType);
+            case "png" -> "image/png".equals(detectedType);
+            case "gif" -> "image/gif".equals(detectedType);
+            case "webp" -> "image/webp".equals(detectedType);
+            case "bmp" -> "image/bmp".equals(detectedType) || "image/x-ms-bmp".equals(detectedType);
+            case "svg" -> SVG_DETECTED_TYPES.contains(detectedType);
+            default -> false;
+        };
+        if (!matches) {
+            throw new FileValidationException(
+                String.format("文件实际类型与扩展名不匹配，扩展名: %s，识别类型: %s", extension, detectedType));
+        }
+        log.debug("文件类型识别: filename={}, detected={}", filename, detectedType);
+    }
+
+    // ==================== SVG关键字流式匹配 ====================
+
+    /**
+     * 在上一块末尾保留 (最长关键字长度 - 1) 个字节，跨块的关键字也能匹配
+     */
+    private void matchSvgKeywords(byte[] buffer, int offset, int count) {
+        byte[] window = new byte[carryLength + count];
+        System.arraycopy(carry, 0, window, 0, carryLength);
+        for (int i = 0; i < count; i++) {
+            window[carryLength + i] = toLowerAscii(buffer[offset + i]);
+        }
+
+        for (int n = 0; n < needles.length; n++) {
+            if (!found[n] && indexOf(window, needles[n]) >= 0) {
+                found[n] = true;
+            }
+        }
+
+        carryLength = Math.min(carry.length, window.length);
+        System.arraycopy(window, window.length - carryLength, carry, 0, carryLength);
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = 0; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static byte toLowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
+    }
+
+    private static byte[] lowerAscii(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = toLowerAscii(bytes[i]);
+        }
+        return bytes;
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private static String getFileExtension(String filename) {
+        if (filename == null || !filename.contains(".")) {
+            return "";
+        }
+        return filename.substring(filename.lastIndexOf(".") + 1).toLowerCase();
+    }
+
+    private static String bytesToHex(byte[] bytes, int count) {
+        StringBuilder result = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            result.append(String.format("%02X", bytes[i]));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,40 @@
+package com.myweb.website_core.application.service.security.integeration;
+
+import com.myweb.website_core.application.service.security.IPS.virusprotect.VirusScanResult;
+
+/**
+ * 上传文件检查结果
+ *
+ * @param contentHash 文件内容的SHA-256哈希（Base64）
+ * @param size 实际读取的字节数
+ * @param detectedType 按文件头识别的MIME类型
+ * @param scanResult 病毒扫描结果，扫描引擎不可用、扫描异常或复用已有扫描时为null
+ * @param scanReused 相同内容已扫描过，本次跳过病毒扫描
+ */
+public record UploadInspectionResult(String contentHash,
+                                     long size,
+                                     String detectedType,
+                                     VirusScanResult scanResult,
+                                     boolean scanReused) {
+
+    public UploadInspectionResult(String contentHash, long size, String detectedType, VirusScanResult scanResult) {
+        this(contentHash, size, detectedType, scanResult, false);
+    }
+
+    /**
+     * 内容是否经过病毒扫描（本次扫描或复用已有扫描）
+     */
+    public boolean scanned() {
+        return scanReused || scanResult != null;
+    }
+
+    /**
+     * 病毒扫描摘要
+     */
+    public String scanSummary() {
+        if (scanReused) {
+            return "相同内容已扫描";
+        }
+        return scanResult != null ? scanResult.getSummary() : "未扫描";
+    }
+}
@@ -0,0 +1,121 @@
+package com.myweb.website_core.application.service.security.integeration;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+
+/**
+ * 上传数据分流输入流
+ * <p>
+ * 读取方（病毒扫描引擎的 INSTREAM 上传）每读到一块数据，同时更新哈希、交给内容检查，
+ * 并写入目标输出（临时文件）。读取方没有读完的部分由 {@link #drain()} 补读，
+ * 保证每个字节只从上传数据中读取一次。
+ * <p>
+ * 病毒扫描在异步线程中读取，超时后由调用线程关闭流，因此读取和关闭互斥。
+ */
+final class UploadTeeInputStream extends FilterInputStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MessageDigest digest;
+    private final UploadContentInspector inspector;
+    private final OutputStream sink;
+    private final long maxBytes;
+
+    private long count;
+    private boolean closed;
+
+    UploadTeeInputStream(InputStream source, MessageDigest digest, UploadContentInspector inspector,
+                         OutputStream sink, long maxBytes) {
+        super(source);
+        this.digest = digest;
+        this.inspector = inspector;
+        this.sink = sink;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] buffer, int offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("上传数据流已关闭");
+        }
+        int n = in.read(buffer, offset, length);
+        if (n > 0) {
+            count += n;
+            if (count > maxBytes) {
+                throw new IOException("文件大小超过限制: " + maxBytes + " bytes");
+            }
+            digest.update(buffer, offset, n);
+            inspector.update(buffer, offset, n);
+            if (sink != null) {
+                sink.write(buffer, offset, n);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 跳过的数据同样需要经过哈希、检查和写入
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(n, 1))];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * 读完剩余数据
+     */
+    void drain() throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (read(buffer, 0, buffer.length) != -1) {
+            // 数据在 read 中处理
+        }
+    }
+
+    /**
+     * 已读取的字节数
+     */
+    synchronized long count() {
+        return count;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.myweb.website_core.application.service.security.integeration.dataManage;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 分块备份归档格式
+ * <p>
+ * 导出数据按固定大小切块，每块独立压缩（raw DEFLATE）并用AES-GCM加密成一帧，
+ * 因此压缩和加密可以按块并行，恢复时也可以只解码目标区间所在的帧。
+ * <pre>
+ * 文件头（28字节）: 魔数"MWBK" | 版本(1) | 标志(1) | 保留(2) | 块大小(4) | 盐(16)
+ * 帧: 长度(4) | 负载（压缩、加密后的块）
+ * 索引: 每帧在文件中的偏移(8) × 帧数
+ * 文件尾（24字节）: 索引偏移(8) | 帧数(4) | 原始数据总长度(8) | 魔数"MWBX"
+ * </pre>
+ * 每个归档用文件头中的随机盐经HKDF-SHA256从配置的密钥派生独立的子密钥，
+ * 因此GCM的随机数直接取帧序号也不会在不同归档之间重复。
+ * 附加认证数据为"文件头 + 帧序号 + 是否最后一帧"，帧被替换、重排或截断都会导致认证失败。
+ */
+public final class BackupArchive {
+
+    static final byte[] HEADER_MAGIC = "MWBK".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] FOOTER_MAGIC = "MWBX".getBytes(StandardCharsets.US_ASCII);
+    static final byte VERSION = 2;
+    static final int HEADER_LENGTH = 28;
+    static final int SALT_LENGTH = 16;
+    static final int FOOTER_LENGTH = 24;
+
+    static final int FLAG_COMPRESSED = 1;
+    static final int FLAG_ENCRYPTED = 1 << 1;
+
+    /**
+     * 默认块大小
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    private static final String AES_ALGORITHM = "AES";
+    private static final String AES_GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int GCM_TAG_BITS = 128;
+    private static final int GCM_NONCE_LENGTH = 12;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final byte[] SUBKEY_INFO = "MWBK frame key".getBytes(StandardCharsets.US_ASCII);
+
+    private BackupArchive() {
+    }
+
+    /**
+     * 判断数据是否以归档文件头开始
+     */
+    public static boolean isArchive(byte[] head) {
+        if (head.length < HEADER_MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER_MAGIC.length; i++) {
+            if (head[i] != HEADER_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 由配置的密钥字符串得到AES-256密钥
+     * <p>
+     * Base64编码的32字节密钥直接使用，否则取字符串的SHA-256摘要
+     */
+    public static SecretKey deriveKey(String keyString) throws GeneralSecurityException {
+        try {
+            byte[] keyBytes = Base64.getDecoder().decode(keyString);
+            if (keyBytes.length == 32) {
+                return new SecretKeySpec(keyBytes, AES_ALGORITHM);
+            }
+        } catch (IllegalArgumentException e) {
+            // 不是有效的Base64，按普通字符串处理
+        }
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return new SecretKeySpec(digest.digest(keyString.getBytes(StandardCharsets.UTF_8)), AES_ALGORITHM);
+    }
+
+    static byte[] header(int flags, int chunkSize, byte[] salt) {
+        return ByteBuffer.allocate(HEADER_LENGTH)
+                .put(HEADER_MAGIC)
+                .put(VERSION)
+                .put((byte) flags)
+                .putShort((short) 0)
+                .putInt(chunkSize)
+                .put(salt)
+                .array();
+    }
+
+    /**
+     * 用文件头中的盐从配置的密钥派生本归档的帧加密密钥（HKDF-SHA256，RFC 5869）
+     */
+    static SecretKey archiveKey(SecretKey key, byte[] header) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        // 提取：PRK = HMAC(盐, 密钥)
+        mac.init(new SecretKeySpec(header, HEADER_LENGTH - SALT_LENGTH, SALT_LENGTH, HMAC_ALGORITHM));
+        byte[] prk = mac.doFinal(key.getEncoded());
+        // 扩展：只需要一个输出块，T(1) = HMAC(PRK, info | 0x01)
+        mac.init(new SecretKeySpec(prk, HMAC_ALGORITHM));
+        mac.update(SUBKEY_INFO);
+        mac.update((byte) 1);
+        return new SecretKeySpec(mac.doFinal(), AES_ALGORITHM);
+    }
+
+    static byte[] compress(byte[] block, int length, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(block, 0, length);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, length / 2));
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] decompress(byte[] data, int maxLength) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            // 多留一个字节，用于发现超过块大小的数据
+            byte[] result = new byte[maxLength + 1];
+            int length = 0;
+            while (!inflater.finished()) {
+                int n = inflater.inflate(result, length, result.length - length);
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("压缩块不完整");
+                }
+                length += n;
+                if (length > maxLength) {
+                    throw new DataFormatException("解压后的块超过块大小");
+                }
+            }
+            return Arrays.copyOf(result, length);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * @param archiveKey 由{@link #archiveKey}派生的本归档密钥
+     */
+    static Cipher frameCipher(int mode, SecretKey archiveKey, byte[] header, long frameIndex, boolean last)
+            throws GeneralSecurityException {
+        // 子密钥每个归档独立，随机数取帧序号即可，前4字节固定为0
+        byte[] nonce = ByteBuffer.allocate(GCM_NONCE_LENGTH)
+                .position(GCM_NONCE_LENGTH - 8)
+                .putLong(frameIndex)
+                .array();
+        Cipher cipher = Cipher.getInstance(AES_GCM_TRANSFORMATION);
+        cipher.init(mode, archiveKey, new GCMParameterSpec(GCM_TAG_BITS, nonce));
+        cipher.updateAAD(header);
+        cipher.updateAAD(ByteBuffer.allocate(9).putLong(frameIndex).put((byte) (last ? 1 : 0)).array());
+        return cipher;
+    }
+}
@@ -0,0 +1,170 @@
+package com.myweb.website_core.application.service.security.integeration.dataManage;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+/**
+ * 分块备份归档读取器
+ * <p>
+ * 打开时只读取文件头、文件尾和帧索引；按原始数据的偏移读取时只解码覆盖该区间的帧，
+ * 可用于从大备份中定位并恢复部分内容。每一帧都经过GCM认证，篡改的帧会被拒绝。
+ *
+ * @see BackupArchive
+ */
+public final class BackupArchiveReader implements Closeable {
+
+    private final FileChannel channel;
+    private final SecretKey archiveKey;
+    private final byte[] header;
+    private final boolean compressed;
+    private final boolean encrypted;
+    private final int chunkSize;
+    private final long[] frameOffsets;
+    private final long plainSize;
+
+    /**
+     * @param archive 归档文件
+     * @param key 解密密钥，未加密的归档可以为null
+     */
+    public BackupArchiveReader(Path archive, SecretKey key) throws IOException {
+        this.channel = FileChannel.open(archive, StandardOpenOption.READ);
+        try {
+            ByteBuffer headerBuffer = readFully(0, BackupArchive.HEADER_LENGTH);
+            this.header = headerBuffer.array();
+            if (!BackupArchive.isArchive(header) || header[4] != BackupArchive.VERSION) {
+                throw new IOException("不是有效的备份归档: " + archive);
+            }
+            int flags = header[5];
+            this.compressed = (flags & BackupArchive.FLAG_COMPRESSED) != 0;
+            this.encrypted = (flags & BackupArchive.FLAG_ENCRYPTED) != 0;
+            this.chunkSize = headerBuffer.getInt(8);
+            if (encrypted && key == null) {
+                throw new IOException("备份归档已加密，缺少解密密钥");
+            }
+            this.archiveKey = encrypted ? BackupArchive.archiveKey(key, header) : null;
+
+            long size = channel.size();
+            ByteBuffer footer = readFully(size - BackupArchive.FOOTER_LENGTH, BackupArchive.FOOTER_LENGTH);
+            long indexOffset = footer.getLong();
+            int frameCount = footer.getInt();
+            this.plainSize = footer.getLong();
+            byte[] magic = new byte[4];
+            footer.get(magic);
+            if (!Arrays.equals(magic, BackupArchive.FOOTER_MAGIC) || frameCount <= 0
+                    || indexOffset + 8L * frameCount != size - BackupArchive.FOOTER_LENGTH) {
+                throw new IOException("备份归档不完整或已损坏: " + archive);
+            }
+
+            ByteBuffer index = readFully(indexOffset, 8 * frameCount);
+            this.frameOffsets = new long[frameCount];
+            for (int i = 0; i < frameCount; i++) {
+                frameOffsets[i] = index.getLong();
+            }
+        } catch (GeneralSecurityException e) {
+            channel.close();
+            throw new IOException("备份归档密钥派生失败: " + archive, e);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 原始数据总长度
+     */
+    public long getPlainSize() {
+        return plainSize;
+    }
+
+    /**
+     * 帧数
+     */
+    public int getFrameCount() {
+        return frameOffsets.length;
+    }
+
+    /**
+     * 按顺序解码全部数据
+     */
+    public void copyTo(OutputStream out) throws IOException {
+        for (int i = 0; i < frameOffsets.length; i++) {
+            out.write(readFrame(i));
+        }
+    }
+
+    /**
+     * 解码原始数据中的一段，只读取覆盖该区间的帧
+     *
+     * @param offset 原始数据中的起始偏移
+     * @param length 长度，超出数据末尾的部分被忽略
+     * @param out 输出
+     */
+    public void copyRange(long offset, long length, OutputStream out) throws IOException {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("偏移和长度不能为负数");
+        }
+        long end = Math.min(plainSize, offset + length);
+        long position = offset;
+        while (position < end) {
+            int frame = (int) (position / chunkSize);
+            long frameStart = (long) frame * chunkSize;
+            byte[] data = readFrame(frame);
+            int from = (int) (position - frameStart);
+            int to = (int) Math.min(data.length, end - frameStart);
+            if (to <= from) {
+                throw new IOException("备份数据帧长度与索引不一致: " + frame);
+            }
+            out.write(data, from, to - from);
+            position = frameStart + to;
+        }
+    }
+
+    /**
+     * 读取并解码一帧
+     */
+    byte[] readFrame(int frameIndex) throws IOException {
+        long offset = frameOffsets[frameIndex];
+        int length = readFully(offset, 4).getInt();
+        byte[] payload = readFully(offset + 4, length).array();
+        try {
+            if (encrypted) {
+                boolean last = frameIndex == frameOffsets.length - 1;
+                Cipher cipher = BackupArchive.frameCipher(Cipher.DECRYPT_MODE, archiveKey, header, frameIndex, last);
+                payload = cipher.doFinal(payload);
+            }
+            return compressed ? BackupArchive.decompress(payload, chunkSize) : payload;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("备份数据帧认证失败: " + frameIndex, e);
+        } catch (DataFormatException e) {
+            throw new IOException("备份数据帧解压失败: " + frameIndex, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        if (position < 0 || length < 0 || position + length > channel.size()) {
+            throw new IOException("备份归档不完整或已损坏");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("备份归档意外结束");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,209 @@
+package com.myweb.website_core.application.service.security.integeration.dataManage;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 分块备份归档写入器
+ * <p>
+ * 从输入流按块读取数据，在线程池中并行压缩、加密，再按顺序写出帧，
+ * 同时计算输出文件的SHA-256，整个过程只写一次输出文件。
+ * 处理中的块数有上限，内存占用约为 块大小 × 上限，与数据总量无关。
+ *
+ * @see BackupArchive
+ */
+public final class BackupArchiveWriter {
+
+    private final int chunkSize;
+    private final int compressionLevel;
+    private final SecretKey key;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+
+    private long plainBytes;
+    private long archiveBytes;
+    private String checksum;
+
+    /**
+     * @param chunkSize 块大小
+     * @param compressionLevel 压缩级别（1-9），小于0表示不压缩
+     * @param key 加密密钥，为null表示不加密
+     * @param executor 压缩、加密线程池
+     * @param maxInFlight 同时处理的最大块数
+     */
+    public BackupArchiveWriter(int chunkSize, int compressionLevel, SecretKey key,
+                               ExecutorService executor, int maxInFlight) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("块大小必须大于0");
+        }
+        this.chunkSize = chunkSize;
+        this.compressionLevel = compressionLevel;
+        this.key = key;
+        this.executor = executor;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * 将输入流写为归档
+     *
+     * @param in 原始数据
+     * @param target 归档输出，调用方负责关闭
+     */
+    public void write(InputStream in, OutputStream target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        DataOutputStream out = new DataOutputStream(new DigestOutputStream(target, digest));
+
+        int flags = (compressionLevel >= 0 ? BackupArchive.FLAG_COMPRESSED : 0)
+                | (key != null ? BackupArchive.FLAG_ENCRYPTED : 0);
+        byte[] salt = new byte[BackupArchive.SALT_LENGTH];
+        new SecureRandom().nextBytes(salt);
+        byte[] header = BackupArchive.header(flags, chunkSize, salt);
+        SecretKey archiveKey;
+        try {
+            archiveKey = key != null ? BackupArchive.archiveKey(key, header) : null;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        out.write(header);
+
+        LongList frameOffsets = new LongList();
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        long position = header.length;
+        long frameIndex = 0;
+        try {
+            byte[] current = readBlock(in);
+            while (true) {
+                // 读到不满一块时即为最后一块；满块时需要预读一块才能判断
+                byte[] next = current.length < chunkSize ? null : readBlock(in);
+                boolean last = next == null || next.length == 0;
+
+                byte[] block = current;
+                long index = frameIndex++;
+                plainBytes += block.length;
+                inFlight.add(executor.submit(() -> encodeFrame(block, archiveKey, header, index, last)));
+
+                while (inFlight.size() >= maxInFlight || (last && !inFlight.isEmpty())) {
+                    byte[] frame = await(inFlight.poll());
+                    frameOffsets.add(position);
+                    out.writeInt(frame.length);
+                    out.write(frame);
+                    position += 4L + frame.length;
+                }
+                if (last) {
+                    break;
+                }
+                current = next;
+            }
+        } finally {
+            for (Future<byte[]> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+
+        long indexOffset = position;
+        for (int i = 0; i < frameOffsets.size(); i++) {
+            out.writeLong(frameOffsets.get(i));
+        }
+        position += 8L * frameOffsets.size();
+        out.writeLong(indexOffset);
+        out.writeInt(frameOffsets.size());
+        out.writeLong(plainBytes);
+        out.write(BackupArchive.FOOTER_MAGIC);
+        out.flush();
+
+        archiveBytes = position + BackupArchive.FOOTER_LENGTH;
+        checksum = HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 原始数据长度
+     */
+    public long getPlainBytes() {
+        return plainBytes;
+    }
+
+    /**
+     * 归档文件长度
+     */
+    public long getArchiveBytes() {
+        return archiveBytes;
+    }
+
+    /**
+     * 归档文件的SHA-256（十六进制）
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+
+    private byte[] encodeFrame(byte[] block, SecretKey archiveKey, byte[] header, long index, boolean last)
+            throws GeneralSecurityException {
+        byte[] payload = compressionLevel >= 0
+                ? BackupArchive.compress(block, block.length, compressionLevel)
+                : block;
+        if (archiveKey == null) {
+            return payload;
+        }
+        Cipher cipher = BackupArchive.frameCipher(Cipher.ENCRYPT_MODE, archiveKey, header, index, last);
+        return cipher.doFinal(payload);
+    }
+
+    private byte[] readBlock(InputStream in) throws IOException {
+        return in.readNBytes(chunkSize);
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("备份归档写入被中断", e);
+        } catch (ExecutionException e) {
+            throw new IOException("备份数据块处理失败", e.getCause());
+        }
+    }
+
+    /**
+     * 帧偏移列表，避免为每帧装箱
+     */
+    private static final class LongList {
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
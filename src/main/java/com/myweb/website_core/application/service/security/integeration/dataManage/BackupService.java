@@ -11,21 +11,20 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * 自动备份服务
@@ -53,10 +52,11 @@ public class BackupService {
     private final EmailService emailService;
     
     private static final String BACKUP_FILE_EXTENSION = ".backup";
+    private static final String COMPRESSED_EXTENSION = ".gz";
     private static final String ENCRYPTED_EXTENSION = ".enc";
     private static final String HASH_EXTENSION = ".hash";
+    private static final String PART_EXTENSION = ".part";
     private static final String AES_ALGORITHM = "AES";
-    private static final String AES_TRANSFORMATION = "AES/ECB/PKCS5Padding";
     private static final DateTimeFormatter BACKUP_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
     
     /**
@@ -200,33 +200,15 @@ public class BackupService {
             Path backupDir = createBackupDirectory();
             
             // 生成备份文件路径
-            String backupFileName = backupId + BACKUP_FILE_EXTENSION;
-            Path backupFilePath = backupDir.resolve(backupFileName);
+            String backupFileName = backupId + BACKUP_FILE_EXTENSION + archiveExtension();
+            Path finalPath = backupDir.resolve(backupFileName);
             
-            // 执行数据库备份
-            boolean dbBackupSuccess = performDatabaseBackup(backupFilePath, backupType);
-            if (!dbBackupSuccess) {
-                throw new RuntimeException("数据库备份失败");
-            }
-            
-            // 压缩备份文件
-            Path compressedPath = compressBackupFile(backupFilePath);
-            
-            // 加密备份文件
-            Path finalPath = encryptBackupFile(compressedPath);
-            
-            // 计算文件校验和
-            String checksum = calculateFileChecksum(finalPath);
+            // 导出、压缩、加密和计算校验和在一次流式处理中完成
+            String checksum = writeBackupArchive(backupType, finalPath);
             
             // 保存校验和文件
             saveChecksumFile(finalPath, checksum);
             
-            // 删除临时文件
-            Files.deleteIfExists(backupFilePath);
-            if (!finalPath.equals(compressedPath)) {
-                Files.deleteIfExists(compressedPath);
-            }
-            
             LocalDateTime endTime = LocalDateTime.now();
             long fileSize = Files.size(finalPath);
             
@@ -518,150 +500,172 @@ public class BackupService {
     }
     
     /**
-     * 执行数据库备份
+     * 数据库导出流
      */
-    protected boolean performDatabaseBackup(Path backupFilePath, BackupType backupType) {
-        try {
-            log.info("开始执行数据库备份: type={}, file={}", backupType, backupFilePath);
-            
-            // 构建pg_dump命令
-            ProcessBuilder processBuilder = new ProcessBuilder();
-            processBuilder.command(
-                "pg_dump",
-                "-h", "localhost",
-                "-p", "5432",
-                "-U", "postgres",
-                "-d", "postgres",
-                "-f", backupFilePath.toString(),
-                "--verbose",
-                "--no-password"
-            );
-            
-            // 设置环境变量
-            processBuilder.environment().put("PGPASSWORD", "123456");
-            
-            // 设置工作目录
-            processBuilder.directory(new java.io.File(System.getProperty("user.home")));
-            
-            // 重定向错误输出
-            processBuilder.redirectErrorStream(true);
-            
-            // 启动进程
-            Process process = processBuilder.start();
-            
-            // 读取输出
-            try (java.io.BufferedReader reader = new java.io.BufferedReader(
-                    new java.io.InputStreamReader(process.getInputStream()))) {
+    protected interface DatabaseDump extends Closeable {
+        
+        /**
+         * 导出数据
+         */
+        InputStream getInputStream();
+        
+        /**
+         * 数据读取完毕后确认导出成功，失败时抛出异常
+         */
+        void awaitSuccess() throws IOException, InterruptedException;
+        
+        /**
+         * 由已有数据构造导出流
+         */
+        static DatabaseDump of(InputStream inputStream) {
+            return new DatabaseDump() {
+                @Override
+                public InputStream getInputStream() {
+                    return inputStream;
+                }
+                
+                @Override
+                public void awaitSuccess() {
+                }
+                
+                @Override
+                public void close() throws IOException {
+                    inputStream.close();
+                }
+            };
+        }
+    }
+    
+    /**
+     * 启动数据库导出
+     * 
+     * pg_dump输出到标准输出，由调用方直接读取，不落地中间文件
+     */
+    protected DatabaseDump openDatabaseDump(BackupType backupType) throws IOException {
+        log.info("开始执行数据库备份: type={}", backupType);
+        
+        // 构建pg_dump命令
+        ProcessBuilder processBuilder = new ProcessBuilder();
+        processBuilder.command(
+            "pg_dump",
+            "-h", "localhost",
+            "-p", "5432",
+            "-U", "postgres",
+            "-d", "postgres",
+            "--verbose",
+            "--no-password"
+        );
+        
+        // 设置环境变量
+        processBuilder.environment().put("PGPASSWORD", "123456");
+        
+        // 设置工作目录
+        processBuilder.directory(new java.io.File(System.getProperty("user.home")));
+        
+        // 启动进程
+        Process process = processBuilder.start();
+        
+        // 错误输出单独读取，避免缓冲区写满阻塞导出
+        Thread.ofVirtual().name("pg_dump-stderr").start(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream()))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
                     log.debug("pg_dump output: {}", line);
                 }
+            } catch (IOException e) {
+                log.debug("读取pg_dump输出结束: {}", e.getMessage());
             }
-            
-            // 等待进程完成，设置超时
-            boolean finished = process.waitFor(
-                backupProperties.getSchedule().getTimeoutMinutes(), 
-                java.util.concurrent.TimeUnit.MINUTES
-            );
-            
-            if (!finished) {
-                log.error("数据库备份超时，强制终止进程");
-                process.destroyForcibly();
-                return false;
+        });
+        
+        return new DatabaseDump() {
+            @Override
+            public InputStream getInputStream() {
+                return process.getInputStream();
             }
             
-            int exitCode = process.exitValue();
-            
-            if (exitCode == 0) {
-                // 验证备份文件是否创建成功且不为空
-                if (Files.exists(backupFilePath) && Files.size(backupFilePath) > 0) {
-                    log.info("数据库备份成功: file={}, size={} bytes", 
-                            backupFilePath, Files.size(backupFilePath));
-                    return true;
-                } else {
-                    log.error("数据库备份文件为空或不存在: {}", backupFilePath);
-                    return false;
+            @Override
+            public void awaitSuccess() throws IOException, InterruptedException {
+                // 等待进程完成，设置超时
+                boolean finished = process.waitFor(
+                    backupProperties.getSchedule().getTimeoutMinutes(),
+                    java.util.concurrent.TimeUnit.MINUTES
+                );
+                if (!finished) {
+                    throw new IOException("数据库备份超时");
+                }
+                int exitCode = process.exitValue();
+                if (exitCode != 0) {
+                    throw new IOException("数据库备份失败，退出码: " + exitCode);
                 }
-            } else {
-                log.error("数据库备份失败，退出码: {}", exitCode);
-                return false;
             }
             
-        } catch (Exception e) {
-            log.error("执行数据库备份异常: file={}", backupFilePath, e);
-            return false;
-        }
-    }
-    
-    /**
-     * 压缩备份文件
-     */
-    private Path compressBackupFile(Path backupFilePath) throws IOException {
-        Path compressedPath = Paths.get(backupFilePath.toString() + ".gz");
-        
-        try (FileInputStream fis = new FileInputStream(backupFilePath.toFile());
-             FileOutputStream fos = new FileOutputStream(compressedPath.toFile());
-             GZIPOutputStream gzos = new GZIPOutputStream(fos)) {
-            
-            byte[] buffer = new byte[8192];
-            int length;
-            while ((length = fis.read(buffer)) > 0) {
-                gzos.write(buffer, 0, length);
+            @Override
+            public void close() {
+                if (process.isAlive()) {
+                    log.error("数据库备份未正常结束，强制终止进程");
+                    process.destroyForcibly();
+                }
             }
-        }
-        
-        log.info("备份文件压缩完成: {} -> {}", backupFilePath, compressedPath);
-        return compressedPath;
+        };
     }
     
     /**
-     * 加密备份文件
+     * 写入备份归档
+     * 
+     * 导出数据按块并行压缩、加密后写入临时文件，写入的同时计算校验和，
+     * 导出确认成功后再改名为正式文件
+     * 
+     * @return 归档文件的SHA-256校验和
      */
-    private Path encryptBackupFile(Path backupFilePath) throws Exception {
-        if (!backupProperties.getEncryption().isEnabled()) {
+    private String writeBackupArchive(BackupType backupType, Path finalPath) throws Exception {
+        BackupProperties.Compression compression = getCompressionConfig();
+        int chunkSize = compression.getChunkSizeKb() > 0
+            ? compression.getChunkSizeKb() * 1024 : BackupArchive.DEFAULT_CHUNK_SIZE;
+        int threads = compression.getThreads() > 0
+            ? compression.getThreads() : Runtime.getRuntime().availableProcessors();
+        int level = compression.isEnabled() ? Math.max(1, Math.min(9, compression.getLevel())) : -1;
+        SecretKey secretKey = backupProperties.getEncryption().isEnabled() ? getOrGenerateEncryptionKey() : null;
+        if (secretKey == null) {
             log.info("备份加密已禁用，跳过加密步骤");
-            return backupFilePath;
         }
         
-        Path encryptedPath = Paths.get(backupFilePath.toString() + ENCRYPTED_EXTENSION);
-        
-        // 生成或获取加密密钥
-        SecretKey secretKey = getOrGenerateEncryptionKey();
-        
-        // 使用AES-GCM模式进行加密
-        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-        
-        // 生成随机IV
-        byte[] iv = new byte[12]; // GCM推荐使用12字节IV
-        new SecureRandom().nextBytes(iv);
-        javax.crypto.spec.GCMParameterSpec gcmSpec = new javax.crypto.spec.GCMParameterSpec(128, iv);
-        
-        cipher.init(Cipher.ENCRYPT_MODE, secretKey, gcmSpec);
+        Path partPath = finalPath.resolveSibling(finalPath.getFileName() + PART_EXTENSION);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        BackupArchiveWriter writer = new BackupArchiveWriter(chunkSize, level, secretKey, executor, threads * 2);
+        try (DatabaseDump dump = openDatabaseDump(backupType);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(partPath), 256 * 1024)) {
+            writer.write(dump.getInputStream(), out);
+            dump.awaitSuccess();
+        } catch (Exception e) {
+            Files.deleteIfExists(partPath);
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
         
-        try (FileInputStream fis = new FileInputStream(backupFilePath.toFile());
-             FileOutputStream fos = new FileOutputStream(encryptedPath.toFile())) {
-            
-            // 首先写入IV
-            fos.write(iv);
-            
-            byte[] buffer = new byte[8192];
-            int length;
-            while ((length = fis.read(buffer)) > 0) {
-                byte[] encrypted = cipher.update(buffer, 0, length);
-                if (encrypted != null) {
-                    fos.write(encrypted);
-                }
-            }
-            
-            // 写入最终的加密数据和认证标签
-            byte[] finalBytes = cipher.doFinal();
-            if (finalBytes != null) {
-                fos.write(finalBytes);
-            }
+        if (writer.getPlainBytes() == 0) {
+            Files.deleteIfExists(partPath);
+            throw new IOException("数据库备份数据为空");
         }
+        Files.move(partPath, finalPath, StandardCopyOption.ATOMIC_MOVE);
         
-        log.info("备份文件加密完成: {} -> {}, 算法: AES-GCM", backupFilePath, encryptedPath);
-        return encryptedPath;
+        log.info("数据库备份写入完成: file={}, 原始大小: {} bytes, 归档大小: {} bytes, 压缩: {}, 加密: {}",
+                finalPath, writer.getPlainBytes(), writer.getArchiveBytes(), level >= 0, secretKey != null);
+        return writer.getChecksum();
+    }
+    
+    /**
+     * 备份文件扩展名，沿用压缩、加密的命名约定
+     */
+    private String archiveExtension() {
+        return (getCompressionConfig().isEnabled() ? COMPRESSED_EXTENSION : "")
+            + (backupProperties.getEncryption().isEnabled() ? ENCRYPTED_EXTENSION : "");
+    }
+    
+    private BackupProperties.Compression getCompressionConfig() {
+        BackupProperties.Compression compression = backupProperties.getCompression();
+        return compression != null ? compression : new BackupProperties.Compression();
     }
     
     /**
@@ -678,22 +682,8 @@ public class BackupService {
             
             log.warn("未配置备份加密密钥，已生成新密钥。建议在配置文件中设置固定密钥以确保备份文件的可恢复性。");
             return newKey;
-        } else {
-            try {
-                // 尝试将配置的密钥作为Base64解码
-                byte[] keyBytes = Base64.getDecoder().decode(keyString);
-                if (keyBytes.length == 32) { // 256位 = 32字节
-                    return new SecretKeySpec(keyBytes, AES_ALGORITHM);
-                }
-            } catch (IllegalArgumentException e) {
-                // 如果不是有效的Base64，则使用字符串直接生成密钥
-            }
-            
-            // 使用配置的字符串生成固定长度的密钥
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] keyBytes = digest.digest(keyString.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            return new SecretKeySpec(keyBytes, AES_ALGORITHM);
         }
+        return BackupArchive.deriveKey(keyString);
     }
     
     /**
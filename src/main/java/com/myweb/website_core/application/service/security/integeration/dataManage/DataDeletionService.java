@@ -1,9 +1,12 @@
 package com.myweb.website_core.application.service.security.integeration.dataManage;
 
+import com.myweb.website_core.application.service.file.ImageBlobService;
 import com.myweb.website_core.application.service.security.audit.AuditMessageService;
 import com.myweb.website_core.application.service.security.confirm.ConfirmationService;
 import com.myweb.website_core.common.enums.AuditOperation;
+import com.myweb.website_core.common.util.RedisKey;
 import com.myweb.website_core.common.exception.security.ValidationException;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
 import com.myweb.website_core.domain.business.entity.*;
 import com.myweb.website_core.domain.security.dto.AuditLogRequest;
 import com.myweb.website_core.infrastructure.persistence.repository.comment.CommentRepository;
@@ -12,13 +15,16 @@ import com.myweb.website_core.infrastructure.persistence.repository.interaction.
 import com.myweb.website_core.infrastructure.persistence.repository.interaction.PostLikeRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepository;
+import com.myweb.website_core.infrastructure.redis.RedisKeyManager;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -50,9 +56,12 @@ public class DataDeletionService {
     private final PostLikeRepository postLikeRepository;
     private final PostCollectRepository postCollectRepository;
     private final ImageRepository imageRepository;
+    private final ImageBlobService imageBlobService;
     private final AuditMessageService auditLogService;
     private final ConfirmationService confirmationService;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisKeyManager redisKeyManager;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * 删除结果信息
@@ -176,6 +185,7 @@ public class DataDeletionService {
             // 6. 删除用户记录
             userRepository.delete(user);
             statistics.incrementDeletedUsers();
+            eventPublisher.publishEvent(ContentChangeEvent.user(ContentChangeEvent.CHANGE_DELETE, userId));
             
             // 记录审计日志
             auditLogService.logOperation(
@@ -400,6 +410,7 @@ public class DataDeletionService {
         List<Image> postImages = imageRepository.findByPostId(postId);
         for (Image image : postImages) {
             imageRepository.delete(image);
+            imageBlobService.release(image.getBlob());
             statistics.incrementDeletedImages();
         }
         
@@ -409,6 +420,7 @@ public class DataDeletionService {
         // 6. 删除帖子记录
         postRepository.delete(post);
         statistics.incrementDeletedPosts();
+        eventPublisher.publishEvent(ContentChangeEvent.post(ContentChangeEvent.CHANGE_DELETE, postId));
         
         // 7. 更新作者的帖子计数（如果需要）
         if (updateCounters && post.getAuthor() != null) {
@@ -438,6 +450,8 @@ public class DataDeletionService {
         // 3. 删除评论记录
         commentRepository.delete(comment);
         statistics.incrementDeletedComments();
+        eventPublisher.publishEvent(ContentChangeEvent.comment(ContentChangeEvent.CHANGE_DELETE, commentId,
+                comment.getPost() != null ? comment.getPost().getId() : null));
         
         // 4. 更新帖子的评论计数（如果需要）
         if (updateCounters && comment.getPost() != null) {
@@ -451,23 +465,16 @@ public class DataDeletionService {
     
     /**
      * 清理用户相关的缓存数据
+     * <p>
+     * 会话键从用户键索引和用户当前会话中取得，不再遍历全部会话；
+     * 键名中ID之后还有后缀或ID位于中间的键通过 SCAN+UNLINK 清理
      */
     private void clearUserCacheData(Long userId, DeletionStatistics statistics) {
         try {
-            // 清理用户会话缓存
-            Set<String> sessionKeys = redisTemplate.keys("spring:session:sessions:*");
-            if (sessionKeys != null) {
-                for (String key : sessionKeys) {
-                    Object sessionData = redisTemplate.opsForValue().get(key);
-                    if (sessionData != null && sessionData.toString().contains(userId.toString())) {
-                        redisTemplate.delete(key);
-                        statistics.incrementClearedCacheKeys();
-                    }
-                }
-            }
+            Set<String> keys = collectUserSessionKeys(userId);
             
             // 清理用户相关的业务缓存
-            String[] userCachePatterns = {
+            String[] userCacheKeys = {
                 "user:profile:" + userId,
                 "user:posts:" + userId,
                 "user:comments:" + userId,
@@ -478,34 +485,39 @@ public class DataDeletionService {
                 "user:permissions:" + userId,
                 "user:roles:" + userId
             };
+            keys.addAll(List.of(userCacheKeys));
             
-            for (String pattern : userCachePatterns) {
-                Set<String> keys = redisTemplate.keys(pattern + "*");
-                if (keys != null && !keys.isEmpty()) {
-                    redisTemplate.delete(keys);
-                    statistics.setClearedCacheKeys(statistics.getClearedCacheKeys() + keys.size());
-                }
-            }
+            long cleared = redisKeyManager.unlink(keys);
+            redisKeyManager.removeUserKeyIndex(userId);
             
-            // 清理认证相关缓存
-            Set<String> authKeys = redisTemplate.keys("auth:*:" + userId);
-            if (authKeys != null && !authKeys.isEmpty()) {
-                redisTemplate.delete(authKeys);
-                statistics.setClearedCacheKeys(statistics.getClearedCacheKeys() + authKeys.size());
-            }
+            // 业务缓存的子键、认证相关缓存和验证码缓存
+            cleared += redisKeyManager.unlinkByPattern("user:*:" + userId + ":*");
+            cleared += redisKeyManager.unlinkByPattern("auth:*:" + userId);
+            cleared += redisKeyManager.unlinkByPattern("verification:*:" + userId);
             
-            // 清理验证码缓存
-            Set<String> verificationKeys = redisTemplate.keys("verification:*:" + userId);
-            if (verificationKeys != null && !verificationKeys.isEmpty()) {
-                redisTemplate.delete(verificationKeys);
-                statistics.setClearedCacheKeys(statistics.getClearedCacheKeys() + verificationKeys.size());
-            }
+            statistics.setClearedCacheKeys(statistics.getClearedCacheKeys() + (int) cleared);
             
         } catch (Exception e) {
             log.warn("清理用户缓存数据时出现异常 - 用户ID: {}", userId, e);
         }
     }
     
+    /**
+     * 收集用户的会话键：用户键索引中登记的键、用户当前会话及其活动记录
+     */
+    private Set<String> collectUserSessionKeys(Long userId) {
+        Set<String> keys = new LinkedHashSet<>(redisKeyManager.getUserKeys(userId));
+        String activeSessionKey = RedisKey.userActiveSessionKey(userId);
+        Object activeSessionId = redisTemplate.opsForValue().get(activeSessionKey);
+        if (activeSessionId instanceof String sessionId) {
+            keys.add(RedisKey.sessionKey(sessionId));
+            keys.add(RedisKey.sessionActivityKey(sessionId));
+        }
+        keys.add(activeSessionKey);
+        keys.add(RedisKey.userSessionKey(userId));
+        return keys;
+    }
+    
     /**
      * 清理帖子相关的缓存数据
      */
@@ -521,11 +533,8 @@ public class DataDeletionService {
             };
             
             for (String pattern : postCachePatterns) {
-                Set<String> keys = redisTemplate.keys(pattern + "*");
-                if (keys != null && !keys.isEmpty()) {
-                    redisTemplate.delete(keys);
-                    statistics.setClearedCacheKeys(statistics.getClearedCacheKeys() + keys.size());
-                }
+                long cleared = redisKeyManager.unlinkByPattern(pattern + "*");
+                statistics.setClearedCacheKeys(statistics.getClearedCacheKeys() + (int) cleared);
             }
             
         } catch (Exception e) {
@@ -545,11 +554,8 @@ public class DataDeletionService {
             };
             
             for (String pattern : commentCachePatterns) {
-                Set<String> keys = redisTemplate.keys(pattern + "*");
-                if (keys != null && !keys.isEmpty()) {
-                    redisTemplate.delete(keys);
-                    statistics.setClearedCacheKeys(statistics.getClearedCacheKeys() + keys.size());
-                }
+                long cleared = redisKeyManager.unlinkByPattern(pattern + "*");
+                statistics.setClearedCacheKeys(statistics.getClearedCacheKeys() + (int) cleared);
             }
             
         } catch (Exception e) {
@@ -606,37 +612,21 @@ public class DataDeletionService {
         try {
             log.info("清理用户会话数据 - 用户ID: {}, 会话ID: {}", userId, sessionId);
             
-            // 清理指定会话
+            // 指定会话及用户的所有会话，均按确定的键名和用户键索引定位，不遍历键空间
+            Set<String> keys = collectUserSessionKeys(userId);
             if (sessionId != null) {
-                String sessionKey = "spring:session:sessions:" + sessionId;
-                redisTemplate.delete(sessionKey);
-            }
-            
-            // 清理用户的所有会话
-            Set<String> userSessionKeys = redisTemplate.keys("spring:session:sessions:*");
-            if (userSessionKeys != null) {
-                for (String key : userSessionKeys) {
-                    Object sessionData = redisTemplate.opsForValue().get(key);
-                    if (sessionData != null && sessionData.toString().contains(userId.toString())) {
-                        redisTemplate.delete(key);
-                    }
-                }
+                keys.add(RedisKey.sessionKey(sessionId));
+                keys.add(RedisKey.sessionActivityKey(sessionId));
             }
             
             // 清理用户临时缓存
-            String[] tempCachePatterns = {
-                "temp:user:" + userId,
-                "session:user:" + userId,
-                "auth:token:" + userId,
-                "csrf:token:" + userId
-            };
+            keys.add("temp:user:" + userId);
+            keys.add("session:user:" + userId);
+            keys.add("auth:token:" + userId);
+            keys.add("csrf:token:" + userId);
             
-            for (String pattern : tempCachePatterns) {
-                Set<String> keys = redisTemplate.keys(pattern + "*");
-                if (keys != null && !keys.isEmpty()) {
-                    redisTemplate.delete(keys);
-                }
-            }
+            redisKeyManager.unlink(keys);
+            redisKeyManager.removeUserKeyIndex(userId);
             
             // 记录审计日志
             auditLogService.logOperation(
@@ -672,13 +662,9 @@ public class DataDeletionService {
                 "session:temp:*"
             };
             
-            int clearedCount = 0;
+            long clearedCount = 0;
             for (String pattern : tempPatterns) {
-                Set<String> keys = redisTemplate.keys(pattern);
-                if (keys != null && !keys.isEmpty()) {
-                    redisTemplate.delete(keys);
-                    clearedCount += keys.size();
-                }
+                clearedCount += redisKeyManager.unlinkByPattern(pattern);
             }
             
             // 记录审计日志
@@ -224,13 +224,15 @@ public class DataIntegrityService {
                     .build();
             }
             
-            boolean isValid = verifyIntegrity(content, storedHash);
+            // 只计算一次哈希，结果同时用于比较和报告
+            String actualHash = calculateHash(content);
+            boolean isValid = hashEquals(actualHash, storedHash);
             
             IntegrityCheckResult result = IntegrityCheckResult.builder()
                 .entityType("POST")
                 .entityId(postId)
                 .isValid(isValid)
-                .actualHash(calculateHash(content))
+                .actualHash(actualHash)
                 .expectedHash(storedHash)
                 .checkTime(LocalDateTime.now())
                 .build();
@@ -281,13 +283,15 @@ public class DataIntegrityService {
                     .build();
             }
             
-            boolean isValid = verifyIntegrity(content, storedHash);
+            // 只计算一次哈希，结果同时用于比较和报告
+            String actualHash = calculateHash(content);
+            boolean isValid = hashEquals(actualHash, storedHash);
             
             IntegrityCheckResult result = IntegrityCheckResult.builder()
                 .entityType("COMMENT")
                 .entityId(commentId)
                 .isValid(isValid)
-                .actualHash(calculateHash(content))
+                .actualHash(actualHash)
                 .expectedHash(storedHash)
                 .checkTime(LocalDateTime.now())
                 .build();
@@ -318,6 +322,16 @@ public class DataIntegrityService {
         }
     }
     
+    /**
+     * 常量时间比较哈希值
+     */
+    private static boolean hashEquals(String actualHash, String expectedHash) {
+        return MessageDigest.isEqual(
+            actualHash.getBytes(StandardCharsets.UTF_8),
+            expectedHash.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+    
     // ==================== 定时完整性检查 ====================
     
     /**
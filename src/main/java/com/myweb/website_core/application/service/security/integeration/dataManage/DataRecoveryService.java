@@ -11,7 +11,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
-import javax.crypto.spec.SecretKeySpec;
+import javax.crypto.CipherInputStream;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -47,8 +49,9 @@ public class DataRecoveryService {
     
     private static final String ENCRYPTED_EXTENSION = ".enc";
     private static final String HASH_EXTENSION = ".hash";
-    private static final String AES_ALGORITHM = "AES";
-    private static final String AES_TRANSFORMATION = "AES/ECB/PKCS5Padding";
+    private static final String SQL_EXTENSION = ".sql";
+    private static final String AES_GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int LEGACY_GCM_IV_LENGTH = 12;
     
     /**
      * 恢复类型枚举
@@ -131,11 +134,8 @@ public class DataRecoveryService {
                 throw new ValidationException("备份文件完整性验证失败");
             }
             
-            // 解密备份文件
-            Path decryptedPath = decryptBackupFile(Paths.get(backupFilePath));
-            
-            // 解压备份文件
-            Path decompressedPath = decompressBackupFile(decryptedPath);
+            // 解密、解压备份文件
+            Path decompressedPath = extractBackupFile(Paths.get(backupFilePath));
             
             // 执行数据库恢复
             boolean dbRestoreSuccess = performDatabaseRestore(decompressedPath, RecoveryType.FULL);
@@ -144,7 +144,6 @@ public class DataRecoveryService {
             }
             
             // 清理临时文件
-            Files.deleteIfExists(decryptedPath);
             Files.deleteIfExists(decompressedPath);
             
             LocalDateTime endTime = LocalDateTime.now();
@@ -295,11 +294,8 @@ public class DataRecoveryService {
                 throw new ValidationException("备份文件完整性验证失败");
             }
             
-            // 解密备份文件
-            Path decryptedPath = decryptBackupFile(Paths.get(backupFilePath));
-            
-            // 解压备份文件
-            Path decompressedPath = decompressBackupFile(decryptedPath);
+            // 解密、解压备份文件
+            Path decompressedPath = extractBackupFile(Paths.get(backupFilePath));
             
             // 执行选择性数据库恢复
             boolean dbRestoreSuccess = performSelectiveDatabaseRestore(decompressedPath, tablesToRestore);
@@ -308,7 +304,6 @@ public class DataRecoveryService {
             }
             
             // 清理临时文件
-            Files.deleteIfExists(decryptedPath);
             Files.deleteIfExists(decompressedPath);
             
             LocalDateTime endTime = LocalDateTime.now();
@@ -431,58 +426,77 @@ public class DataRecoveryService {
     }
     
     /**
-     * 解密备份文件
+     * 解码备份数据中的一段
+     * 
+     * 只解密、解压覆盖该区间的数据块，用于从大备份中提取部分内容
+     * 
+     * @param backupFilePath 备份文件路径
+     * @param offset 导出数据中的起始偏移
+     * @param length 长度
+     * @param out 输出
      */
-    private Path decryptBackupFile(Path encryptedPath) throws Exception {
-        Path decryptedPath = Paths.get(encryptedPath.toString().replace(ENCRYPTED_EXTENSION, ".decrypted"));
-        
-        // 获取解密密钥
-        SecretKeySpec secretKey = getDecryptionKey();
-        
-        Cipher cipher = Cipher.getInstance(AES_TRANSFORMATION);
-        cipher.init(Cipher.DECRYPT_MODE, secretKey);
+    public void extractBackupRange(String backupFilePath, long offset, long length, OutputStream out) throws Exception {
+        Path backupPath = Paths.get(backupFilePath);
+        if (!isBackupArchive(backupPath)) {
+            throw new ValidationException("备份文件不支持按区间读取: " + backupFilePath);
+        }
+        try (BackupArchiveReader reader = new BackupArchiveReader(backupPath, getDecryptionKey())) {
+            reader.copyRange(offset, length, out);
+        }
+    }
+    
+    /**
+     * 解密、解压备份文件，一次读取直接得到SQL文件
+     */
+    private Path extractBackupFile(Path backupPath) throws Exception {
+        Path sqlPath = backupPath.resolveSibling(backupPath.getFileName() + SQL_EXTENSION);
         
-        try (FileInputStream fis = new FileInputStream(encryptedPath.toFile());
-             FileOutputStream fos = new FileOutputStream(decryptedPath.toFile())) {
-            
-            byte[] buffer = new byte[8192];
-            int length;
-            while ((length = fis.read(buffer)) > 0) {
-                byte[] decrypted = cipher.update(buffer, 0, length);
-                if (decrypted != null) {
-                    fos.write(decrypted);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(sqlPath), 256 * 1024)) {
+            if (isBackupArchive(backupPath)) {
+                try (BackupArchiveReader reader = new BackupArchiveReader(backupPath, getDecryptionKey())) {
+                    reader.copyTo(out);
+                }
+            } else {
+                try (InputStream in = openLegacyBackup(backupPath)) {
+                    in.transferTo(out);
                 }
             }
-            
-            byte[] finalBytes = cipher.doFinal();
-            if (finalBytes != null) {
-                fos.write(finalBytes);
-            }
+        } catch (Exception e) {
+            Files.deleteIfExists(sqlPath);
+            throw e;
         }
         
-        log.info("备份文件解密完成: {} -> {}", encryptedPath, decryptedPath);
-        return decryptedPath;
+        log.info("备份文件解码完成: {} -> {}", backupPath, sqlPath);
+        return sqlPath;
+    }
+    
+    private boolean isBackupArchive(Path backupPath) throws IOException {
+        try (InputStream in = Files.newInputStream(backupPath)) {
+            return BackupArchive.isArchive(in.readNBytes(4));
+        }
     }
     
     /**
-     * 解压备份文件
+     * 打开旧格式备份（整体gzip压缩，再以"IV + AES-GCM密文"加密）
      */
-    private Path decompressBackupFile(Path compressedPath) throws IOException {
-        Path decompressedPath = Paths.get(compressedPath.toString().replace(".decrypted", ".sql"));
-        
-        try (FileInputStream fis = new FileInputStream(compressedPath.toFile());
-             GZIPInputStream gzis = new GZIPInputStream(fis);
-             FileOutputStream fos = new FileOutputStream(decompressedPath.toFile())) {
-            
-            byte[] buffer = new byte[8192];
-            int length;
-            while ((length = gzis.read(buffer)) > 0) {
-                fos.write(buffer, 0, length);
+    private InputStream openLegacyBackup(Path backupPath) throws Exception {
+        String fileName = backupPath.getFileName().toString();
+        InputStream in = new BufferedInputStream(Files.newInputStream(backupPath));
+        try {
+            if (fileName.endsWith(ENCRYPTED_EXTENSION)) {
+                byte[] iv = in.readNBytes(LEGACY_GCM_IV_LENGTH);
+                Cipher cipher = Cipher.getInstance(AES_GCM_TRANSFORMATION);
+                cipher.init(Cipher.DECRYPT_MODE, getDecryptionKey(), new GCMParameterSpec(128, iv));
+                in = new CipherInputStream(in, cipher);
             }
+            if (fileName.contains(".gz")) {
+                in = new GZIPInputStream(in, 64 * 1024);
+            }
+            return in;
+        } catch (Exception e) {
+            in.close();
+            throw e;
         }
-        
-        log.info("备份文件解压完成: {} -> {}", compressedPath, decompressedPath);
-        return decompressedPath;
     }
     
     /**
@@ -588,11 +602,10 @@ public class DataRecoveryService {
     /**
      * 获取解密密钥
      */
-    private SecretKeySpec getDecryptionKey() {
+    private SecretKey getDecryptionKey() throws Exception {
         // 这里应该从安全的密钥管理系统获取密钥
         String keyString = backupProperties.getEncryptionKey();
-        byte[] keyBytes = Base64.getDecoder().decode(keyString);
-        return new SecretKeySpec(keyBytes, AES_ALGORITHM);
+        return keyString == null || keyString.isEmpty() ? null : BackupArchive.deriveKey(keyString);
     }
     
     /**
@@ -0,0 +1,225 @@
+package com.myweb.website_core.application.task;
+
+import com.myweb.website_core.domain.security.dto.ContentIntegrityRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 分块完整性扫描
+ * <p>
+ * 按主键游标（keyset）分批读取校验字段，每批提交到有界线程池并行校验。读取最多领先校验
+ * parallelism 批，内存中同时存在的数据不超过 (parallelism + 1) 批，与表大小无关。
+ * <p>
+ * 每批按顺序完成后把游标写入Redis检查点，扫描中断（重启、异常）后下次从检查点继续。
+ * 整次扫描完成时把本次开始时间记为水位；增量扫描只校验水位之后保存过（重新计算过哈希）的行。
+ */
+@Slf4j
+final class ChunkedIntegrityScanner {
+
+    private static final String FIELD_CURSOR = "cursor";
+    private static final String FIELD_RUN_STARTED_AT = "runStartedAt";
+    private static final String FIELD_WATERMARK = "watermark";
+
+    /**
+     * 分批读取
+     */
+    @FunctionalInterface
+    interface ChunkLoader {
+        /**
+         * @param afterId 游标，只读取ID大于它的行
+         * @param since 水位，为null时读取全部行
+         * @param limit 批大小
+         */
+        List<ContentIntegrityRow> load(long afterId, LocalDateTime since, int limit);
+    }
+
+    /**
+     * 单行校验
+     */
+    @FunctionalInterface
+    interface RowVerifier {
+        /**
+         * @return 发现的问题数
+         */
+        int verify(ContentIntegrityRow row);
+    }
+
+    /**
+     * 扫描结果
+     *
+     * @param checked 校验的行数
+     * @param issues 发现的问题数
+     * @param resumedFrom 从检查点恢复时的游标，新扫描为0
+     */
+    record ScanResult(long checked, int issues, long resumedFrom) {
+    }
+
+    private record PendingChunk(long lastId, int size, Future<Integer> issues) {
+    }
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String checkpointKey;
+    private final ChunkLoader loader;
+    private final RowVerifier verifier;
+    private final int chunkSize;
+    private final int parallelism;
+
+    ChunkedIntegrityScanner(RedisTemplate<String, Object> redisTemplate, String checkpointKey,
+                            ChunkLoader loader, RowVerifier verifier, int chunkSize, int parallelism) {
+        this.redisTemplate = redisTemplate;
+        this.checkpointKey = checkpointKey;
+        this.loader = loader;
+        this.verifier = verifier;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * 执行扫描
+     *
+     * @param executor 校验线程池
+     * @param incremental 是否只校验水位之后保存过的行
+     */
+    ScanResult scan(ExecutorService executor, boolean incremental) {
+        Map<Object, Object> checkpoint = loadCheckpoint();
+        Long cursor = toLong(checkpoint.get(FIELD_CURSOR));
+        Long runStartedAt = toLong(checkpoint.get(FIELD_RUN_STARTED_AT));
+        Long watermark = toLong(checkpoint.get(FIELD_WATERMARK));
+
+        long resumedFrom = 0;
+        if (cursor != null && runStartedAt != null) {
+            resumedFrom = cursor;
+            log.info("从检查点继续完整性扫描: key={}, cursor={}", checkpointKey, cursor);
+        } else {
+            cursor = 0L;
+            runStartedAt = System.currentTimeMillis();
+            saveProgress(cursor, runStartedAt);
+        }
+        LocalDateTime since = incremental && watermark != null ? toDateTime(watermark) : null;
+
+        long checked = 0;
+        int issues = 0;
+        Deque<PendingChunk> pending = new ArrayDeque<>();
+        try {
+            while (true) {
+                List<ContentIntegrityRow> rows = loader.load(cursor, since, chunkSize);
+                if (rows == null || rows.isEmpty()) {
+                    break;
+                }
+                cursor = rows.get(rows.size() - 1).id();
+                pending.addLast(new PendingChunk(cursor, rows.size(), executor.submit(() -> verifyChunk(rows))));
+
+                // 读取最多领先 parallelism 批，最早的一批完成后推进检查点
+                while (pending.size() > parallelism) {
+                    PendingChunk chunk = pending.removeFirst();
+                    issues += await(chunk);
+                    checked += chunk.size();
+                    saveProgress(chunk.lastId(), runStartedAt);
+                }
+                if (rows.size() < chunkSize) {
+                    break;
+                }
+            }
+            while (!pending.isEmpty()) {
+                PendingChunk chunk = pending.removeFirst();
+                issues += await(chunk);
+                checked += chunk.size();
+                saveProgress(chunk.lastId(), runStartedAt);
+            }
+        } finally {
+            pending.forEach(chunk -> chunk.issues().cancel(true));
+        }
+
+        complete(runStartedAt);
+        return new ScanResult(checked, issues, resumedFrom);
+    }
+
+    private int verifyChunk(List<ContentIntegrityRow> rows) {
+        int issues = 0;
+        for (ContentIntegrityRow row : rows) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            issues += verifier.verify(row);
+        }
+        return issues;
+    }
+
+    private static int await(PendingChunk chunk) {
+        try {
+            return chunk.issues().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("完整性扫描被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("完整性校验失败: lastId=" + chunk.lastId(), e.getCause());
+        }
+    }
+
+    // ========== 检查点 ==========
+
+    private Map<Object, Object> loadCheckpoint() {
+        try {
+            Map<Object, Object> entries = hashOps().entries(checkpointKey);
+            return entries != null ? entries : Map.of();
+        } catch (Exception e) {
+            log.warn("读取完整性检查点失败，从头开始扫描: key={}, error={}", checkpointKey, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private void saveProgress(long cursor, long runStartedAt) {
+        try {
+            Map<String, Object> progress = new HashMap<>();
+            progress.put(FIELD_CURSOR, cursor);
+            progress.put(FIELD_RUN_STARTED_AT, runStartedAt);
+            hashOps().putAll(checkpointKey, progress);
+        } catch (Exception e) {
+            log.warn("保存完整性检查点失败: key={}, error={}", checkpointKey, e.getMessage());
+        }
+    }
+
+    private void complete(long runStartedAt) {
+        try {
+            hashOps().delete(checkpointKey, FIELD_CURSOR, FIELD_RUN_STARTED_AT);
+            hashOps().put(checkpointKey, FIELD_WATERMARK, runStartedAt);
+        } catch (Exception e) {
+            log.warn("更新完整性检查水位失败: key={}, error={}", checkpointKey, e.getMessage());
+        }
+    }
+
+    private HashOperations<String, Object, Object> hashOps() {
+        return redisTemplate.opsForHash();
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value != null) {
+            try {
+                return Long.parseLong(value.toString());
+            } catch (NumberFormatException ignored) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -3,13 +3,15 @@ package com.myweb.website_core.application.task;
 import com.myweb.website_core.application.service.security.integeration.dataManage.DataIntegrityService;
 import com.myweb.website_core.common.enums.AuditOperation;
 import com.myweb.website_core.application.service.security.audit.AuditLogService;
-import com.myweb.website_core.domain.business.entity.Post;
-import com.myweb.website_core.domain.business.entity.Comment;
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.domain.security.dto.ContentIntegrityRow;
 import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.comment.CommentRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -18,7 +20,8 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * 数据完整性检查定时任务
@@ -32,6 +35,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  * - 添加完整性问题的告警机制
  * - 创建完整性检查报告
  * - 实现完整性修复建议功能
+ * <p>
+ * 检查按主键游标分块流式读取内容和哈希字段，在有界线程池中并行校验，并在Redis中记录进度：
+ * 每日检查只校验上次完成检查之后保存过的数据，每周深度检查和每月统计校验全部数据；
+ * 中断的检查下次从检查点继续。统计数据量使用 COUNT 查询。
  * 
  * @author MyWeb Security Team
  * @version 1.0
@@ -45,6 +52,14 @@ public class DataIntegrityTask {
     private final AuditLogService auditLogService;
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    
+    /**
+     * 检查模式，对应各自独立的检查点
+     */
+    private static final String MODE_INCREMENTAL = "incremental";
+    private static final String MODE_FULL = "full";
+    private static final String MODE_DEEP = "deep";
     
     @Value("${app.security.data-integrity.alert-threshold:10}")
     private int alertThreshold;
@@ -52,15 +67,23 @@ public class DataIntegrityTask {
     @Value("${app.security.data-integrity.batch-size:100}")
     private int batchSize;
     
+    /**
+     * 并行校验的线程数
+     */
+    @Value("${app.security.data-integrity.parallelism:2}")
+    private int parallelism;
+    
     @Autowired
     public DataIntegrityTask(DataIntegrityService dataIntegrityService,
                            AuditLogService auditLogService,
                            PostRepository postRepository,
-                           CommentRepository commentRepository) {
+                           CommentRepository commentRepository,
+                           RedisTemplate<String, Object> redisTemplate) {
         this.dataIntegrityService = dataIntegrityService;
         this.auditLogService = auditLogService;
         this.postRepository = postRepository;
         this.commentRepository = commentRepository;
+        this.redisTemplate = redisTemplate;
     }
     
     // ==================== 定时任务方法 ====================
@@ -203,6 +226,7 @@ public class DataIntegrityTask {
     
     /**
      * 执行完整的数据完整性检查
+     * 只校验上次完成检查之后保存过的帖子和评论
      * 
      * @return 检查报告
      */
@@ -212,23 +236,7 @@ public class DataIntegrityTask {
             try {
                 log.info("开始执行完整数据完整性检查");
                 
-                IntegrityCheckReport report = new IntegrityCheckReport();
-                report.setCheckTime(LocalDateTime.now());
-                
-                // 检查所有帖子
-                CompletableFuture<Integer> postCheckFuture = checkAllPostsIntegrityActual();
-                
-                // 检查所有评论
-                CompletableFuture<Integer> commentCheckFuture = checkAllCommentsIntegrityActual();
-                
-                // 等待检查完成
-                CompletableFuture.allOf(postCheckFuture, commentCheckFuture).join();
-                
-                report.setPostIssues(postCheckFuture.join());
-                report.setCommentIssues(commentCheckFuture.join());
-                report.setPostsChecked(postRepository.findAll().size());
-                report.setCommentsChecked(commentRepository.findAll().size());
-                report.setTotalIssues(report.getPostIssues() + report.getCommentIssues());
+                IntegrityCheckReport report = runIntegrityCheck(MODE_INCREMENTAL, true, false);
                 
                 log.info("完整数据完整性检查完成: {}", report);
                 return report;
@@ -252,24 +260,7 @@ public class DataIntegrityTask {
             try {
                 log.info("开始执行深度数据完整性检查");
                 
-                IntegrityCheckReport report = new IntegrityCheckReport();
-                report.setCheckTime(LocalDateTime.now());
-                report.setDeepCheck(true);
-                
-                // 深度检查所有帖子（包括历史数据）
-                CompletableFuture<Integer> postCheckFuture = checkAllPostsIntegrityDeep();
-                
-                // 深度检查所有评论（包括历史数据）
-                CompletableFuture<Integer> commentCheckFuture = checkAllCommentsIntegrityDeep();
-                
-                // 等待检查完成
-                CompletableFuture.allOf(postCheckFuture, commentCheckFuture).join();
-                
-                report.setPostIssues(postCheckFuture.join());
-                report.setCommentIssues(commentCheckFuture.join());
-                report.setPostsChecked(postRepository.findAll().size());
-                report.setCommentsChecked(commentRepository.findAll().size());
-                report.setTotalIssues(report.getPostIssues() + report.getCommentIssues());
+                IntegrityCheckReport report = runIntegrityCheck(MODE_DEEP, false, true);
                 
                 log.info("深度数据完整性检查完成: {}", report);
                 return report;
@@ -283,238 +274,175 @@ public class DataIntegrityTask {
     
     /**
      * 实际检查所有帖子的完整性
+     * 只校验上次完成检查之后保存过的帖子
      * 
      * @return 发现问题的帖子数量
      */
     @Async
     public CompletableFuture<Integer> checkAllPostsIntegrityActual() {
-        return CompletableFuture.supplyAsync(() -> {
-            log.info("开始检查所有帖子的完整性");
-            AtomicInteger issueCount = new AtomicInteger(0);
-            
-            try {
-                List<Post> allPosts = postRepository.findAll();
-                log.info("找到{}个帖子需要检查", allPosts.size());
-                
-                // 分批处理以避免内存问题
-                for (int i = 0; i < allPosts.size(); i += batchSize) {
-                    int endIndex = Math.min(i + batchSize, allPosts.size());
-                    List<Post> batch = allPosts.subList(i, endIndex);
-                    
-                    for (Post post : batch) {
-                        try {
-                            DataIntegrityService.IntegrityCheckResult result = 
-                                dataIntegrityService.checkPostIntegrity(
-                                    post.getId(), post.getContent(), post.getContentHash());
-                            
-                            if (!result.isValid()) {
-                                issueCount.incrementAndGet();
-                                log.warn("发现帖子完整性问题: postId={}, error={}", 
-                                    post.getId(), result.getErrorMessage());
-                                
-                                // 记录具体的完整性问题
-                                auditLogService.logSecurityEvent(
-                                    AuditOperation.INTEGRITY_CHECK,
-                                    "SYSTEM",
-                                    String.format("帖子完整性问题: ID=%d, 错误=%s", 
-                                        post.getId(), result.getErrorMessage())
-                                );
-                            }
-                        } catch (Exception e) {
-                            log.error("检查帖子完整性时发生异常: postId={}", post.getId(), e);
-                            issueCount.incrementAndGet();
-                        }
-                    }
-                    
-                    // 记录批次进度
-                    log.debug("已检查帖子批次: {}/{}", endIndex, allPosts.size());
-                }
-                
-                log.info("帖子完整性检查完成，发现{}个问题", issueCount.get());
-                return issueCount.get();
-                
-            } catch (Exception e) {
-                log.error("检查所有帖子完整性失败", e);
-                throw new RuntimeException("帖子完整性检查失败", e);
-            }
-        });
+        return CompletableFuture.supplyAsync(() -> scanPosts(MODE_INCREMENTAL, true, false).issues());
     }
     
     /**
      * 实际检查所有评论的完整性
+     * 只校验上次完成检查之后保存过的评论
      * 
      * @return 发现问题的评论数量
      */
     @Async
     public CompletableFuture<Integer> checkAllCommentsIntegrityActual() {
-        return CompletableFuture.supplyAsync(() -> {
-            log.info("开始检查所有评论的完整性");
-            AtomicInteger issueCount = new AtomicInteger(0);
-            
-            try {
-                List<Comment> allComments = commentRepository.findAll();
-                log.info("找到{}个评论需要检查", allComments.size());
-                
-                // 分批处理以避免内存问题
-                for (int i = 0; i < allComments.size(); i += batchSize) {
-                    int endIndex = Math.min(i + batchSize, allComments.size());
-                    List<Comment> batch = allComments.subList(i, endIndex);
-                    
-                    for (Comment comment : batch) {
-                        try {
-                            DataIntegrityService.IntegrityCheckResult result = 
-                                dataIntegrityService.checkCommentIntegrity(
-                                    comment.getId(), comment.getContent(), comment.getContentHash());
-                            
-                            if (!result.isValid()) {
-                                issueCount.incrementAndGet();
-                                log.warn("发现评论完整性问题: commentId={}, error={}", 
-                                    comment.getId(), result.getErrorMessage());
-                                
-                                // 记录具体的完整性问题
-                                auditLogService.logSecurityEvent(
-                                    AuditOperation.INTEGRITY_CHECK,
-                                    "SYSTEM",
-                                    String.format("评论完整性问题: ID=%d, 错误=%s", 
-                                        comment.getId(), result.getErrorMessage())
-                                );
-                            }
-                        } catch (Exception e) {
-                            log.error("检查评论完整性时发生异常: commentId={}", comment.getId(), e);
-                            issueCount.incrementAndGet();
-                        }
-                    }
-                    
-                    // 记录批次进度
-                    log.debug("已检查评论批次: {}/{}", endIndex, allComments.size());
-                }
-                
-                log.info("评论完整性检查完成，发现{}个问题", issueCount.get());
-                return issueCount.get();
-                
-            } catch (Exception e) {
-                log.error("检查所有评论完整性失败", e);
-                throw new RuntimeException("评论完整性检查失败", e);
-            }
-        });
+        return CompletableFuture.supplyAsync(() -> scanComments(MODE_INCREMENTAL, true, false).issues());
     }
     
     /**
      * 深度检查所有帖子的完整性
-     * 包括检查哈希计算时间、内容变更历史等
+     * 包括检查哈希计算时间等
      * 
      * @return 发现问题的帖子数量
      */
     @Async
     public CompletableFuture<Integer> checkAllPostsIntegrityDeep() {
-        return CompletableFuture.supplyAsync(() -> {
-            log.info("开始深度检查所有帖子的完整性");
-            AtomicInteger issueCount = new AtomicInteger(0);
-            
-            try {
-                List<Post> allPosts = postRepository.findAll();
-                log.info("找到{}个帖子需要深度检查", allPosts.size());
-                
-                for (Post post : allPosts) {
-                    try {
-                        // 基础完整性检查
-                        DataIntegrityService.IntegrityCheckResult result = 
-                            dataIntegrityService.checkPostIntegrity(
-                                post.getId(), post.getContent(), post.getContentHash());
-                        
-                        if (!result.isValid()) {
-                            issueCount.incrementAndGet();
-                        }
-                        
-                        // 深度检查：检查哈希是否需要重新计算
-                        if (post.needsHashRecalculation()) {
-                            log.warn("帖子需要重新计算哈希: postId={}", post.getId());
-                            auditLogService.logSecurityEvent(
-                                AuditOperation.INTEGRITY_CHECK,
-                                "SYSTEM",
-                                String.format("帖子需要重新计算哈希: ID=%d", post.getId())
-                            );
-                        }
-                        
-                        // 深度检查：验证内容完整性
-                        if (!post.verifyContentIntegrity()) {
-                            issueCount.incrementAndGet();
-                            log.warn("帖子内容完整性验证失败: postId={}", post.getId());
-                        }
-                        
-                    } catch (Exception e) {
-                        log.error("深度检查帖子完整性时发生异常: postId={}", post.getId(), e);
-                        issueCount.incrementAndGet();
-                    }
-                }
-                
-                log.info("帖子深度完整性检查完成，发现{}个问题", issueCount.get());
-                return issueCount.get();
-                
-            } catch (Exception e) {
-                log.error("深度检查所有帖子完整性失败", e);
-                throw new RuntimeException("帖子深度完整性检查失败", e);
-            }
-        });
+        return CompletableFuture.supplyAsync(() -> scanPosts(MODE_DEEP, false, true).issues());
     }
     
     /**
      * 深度检查所有评论的完整性
-     * 包括检查哈希计算时间、内容变更历史等
+     * 包括检查哈希计算时间等
      * 
      * @return 发现问题的评论数量
      */
     @Async
     public CompletableFuture<Integer> checkAllCommentsIntegrityDeep() {
-        return CompletableFuture.supplyAsync(() -> {
-            log.info("开始深度检查所有评论的完整性");
-            AtomicInteger issueCount = new AtomicInteger(0);
-            
-            try {
-                List<Comment> allComments = commentRepository.findAll();
-                log.info("找到{}个评论需要深度检查", allComments.size());
-                
-                for (Comment comment : allComments) {
-                    try {
-                        // 基础完整性检查
-                        DataIntegrityService.IntegrityCheckResult result = 
-                            dataIntegrityService.checkCommentIntegrity(
-                                comment.getId(), comment.getContent(), comment.getContentHash());
-                        
-                        if (!result.isValid()) {
-                            issueCount.incrementAndGet();
-                        }
-                        
-                        // 深度检查：检查哈希是否需要重新计算
-                        if (comment.needsHashRecalculation()) {
-                            log.warn("评论需要重新计算哈希: commentId={}", comment.getId());
-                            auditLogService.logSecurityEvent(
-                                AuditOperation.INTEGRITY_CHECK,
-                                "SYSTEM",
-                                String.format("评论需要重新计算哈希: ID=%d", comment.getId())
-                            );
-                        }
-                        
-                        // 深度检查：验证内容完整性
-                        if (!comment.verifyContentIntegrity()) {
-                            issueCount.incrementAndGet();
-                            log.warn("评论内容完整性验证失败: commentId={}", comment.getId());
-                        }
-                        
-                    } catch (Exception e) {
-                        log.error("深度检查评论完整性时发生异常: commentId={}", comment.getId(), e);
-                        issueCount.incrementAndGet();
-                    }
-                }
-                
-                log.info("评论深度完整性检查完成，发现{}个问题", issueCount.get());
-                return issueCount.get();
-                
-            } catch (Exception e) {
-                log.error("深度检查所有评论完整性失败", e);
-                throw new RuntimeException("评论深度完整性检查失败", e);
-            }
-        });
+        return CompletableFuture.supplyAsync(() -> scanComments(MODE_DEEP, false, true).issues());
+    }
+    
+    // ==================== 分块扫描方法 ====================
+    
+    /**
+     * 并行扫描帖子和评论并生成报告
+     * 
+     * @param mode 检查模式
+     * @param incremental 是否只校验上次完成检查之后保存过的数据
+     * @param deep 是否深度检查
+     * @return 检查报告
+     */
+    private IntegrityCheckReport runIntegrityCheck(String mode, boolean incremental, boolean deep) {
+        IntegrityCheckReport report = new IntegrityCheckReport();
+        report.setCheckTime(LocalDateTime.now());
+        report.setDeepCheck(deep);
+        
+        CompletableFuture<ChunkedIntegrityScanner.ScanResult> postScan =
+            CompletableFuture.supplyAsync(() -> scanPosts(mode, incremental, deep));
+        CompletableFuture<ChunkedIntegrityScanner.ScanResult> commentScan =
+            CompletableFuture.supplyAsync(() -> scanComments(mode, incremental, deep));
+        
+        ChunkedIntegrityScanner.ScanResult posts = postScan.join();
+        ChunkedIntegrityScanner.ScanResult comments = commentScan.join();
+        
+        report.setPostIssues(posts.issues());
+        report.setCommentIssues(comments.issues());
+        report.setPostsChecked(toInt(posts.checked()));
+        report.setCommentsChecked(toInt(comments.checked()));
+        report.setTotalIssues(report.getPostIssues() + report.getCommentIssues());
+        return report;
+    }
+    
+    private ChunkedIntegrityScanner.ScanResult scanPosts(String mode, boolean incremental, boolean deep) {
+        log.info("开始检查帖子的完整性: mode={}", mode);
+        ChunkedIntegrityScanner.ScanResult result = scan("post", mode, incremental,
+            (afterId, since, limit) -> since == null
+                ? postRepository.findIntegrityRowsAfterId(afterId, PageRequest.of(0, limit))
+                : postRepository.findIntegrityRowsModifiedSince(afterId, since, PageRequest.of(0, limit)),
+            row -> verifyPost(row, deep));
+        log.info("帖子完整性检查完成，检查{}个，发现{}个问题", result.checked(), result.issues());
+        return result;
+    }
+    
+    private ChunkedIntegrityScanner.ScanResult scanComments(String mode, boolean incremental, boolean deep) {
+        log.info("开始检查评论的完整性: mode={}", mode);
+        ChunkedIntegrityScanner.ScanResult result = scan("comment", mode, incremental,
+            (afterId, since, limit) -> since == null
+                ? commentRepository.findIntegrityRowsAfterId(afterId, PageRequest.of(0, limit))
+                : commentRepository.findIntegrityRowsModifiedSince(afterId, since, PageRequest.of(0, limit)),
+            row -> verifyComment(row, deep));
+        log.info("评论完整性检查完成，检查{}个，发现{}个问题", result.checked(), result.issues());
+        return result;
+    }
+    
+    /**
+     * 使用本次检查独占的有界线程池执行分块扫描
+     */
+    private ChunkedIntegrityScanner.ScanResult scan(String entityType, String mode, boolean incremental,
+                                                    ChunkedIntegrityScanner.ChunkLoader loader,
+                                                    ChunkedIntegrityScanner.RowVerifier verifier) {
+        int threads = Math.max(1, parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+            Thread.ofPlatform().name("integrity-" + entityType + "-", 0).daemon(true).factory());
+        try {
+            return new ChunkedIntegrityScanner(redisTemplate,
+                RedisKey.integrityCheckpointKey(entityType, mode),
+                loader, verifier, batchSize, threads).scan(executor, incremental);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private int verifyPost(ContentIntegrityRow row, boolean deep) {
+        try {
+            DataIntegrityService.IntegrityCheckResult result =
+                dataIntegrityService.checkPostIntegrity(row.id(), row.content(), row.contentHash());
+            return reportRow("帖子", row, result, deep);
+        } catch (Exception e) {
+            log.error("检查帖子完整性时发生异常: postId={}", row.id(), e);
+            return 1;
+        }
+    }
+    
+    private int verifyComment(ContentIntegrityRow row, boolean deep) {
+        try {
+            DataIntegrityService.IntegrityCheckResult result =
+                dataIntegrityService.checkCommentIntegrity(row.id(), row.content(), row.contentHash());
+            return reportRow("评论", row, result, deep);
+        } catch (Exception e) {
+            log.error("检查评论完整性时发生异常: commentId={}", row.id(), e);
+            return 1;
+        }
+    }
+    
+    /**
+     * 记录单行检查结果
+     * 
+     * @return 发现的问题数
+     */
+    private int reportRow(String entityName, ContentIntegrityRow row,
+                          DataIntegrityService.IntegrityCheckResult result, boolean deep) {
+        int issues = 0;
+        if (!result.isValid()) {
+            issues++;
+            log.warn("发现{}完整性问题: id={}, error={}", entityName, row.id(), result.getErrorMessage());
+            
+            // 记录具体的完整性问题
+            auditLogService.logSecurityEvent(
+                AuditOperation.INTEGRITY_CHECK,
+                "SYSTEM",
+                String.format("%s完整性问题: ID=%d, 错误=%s", entityName, row.id(), result.getErrorMessage())
+            );
+        }
+        
+        // 深度检查：检查哈希是否需要重新计算
+        if (deep && row.needsHashRecalculation()) {
+            log.warn("{}需要重新计算哈希: id={}", entityName, row.id());
+            auditLogService.logSecurityEvent(
+                AuditOperation.INTEGRITY_CHECK,
+                "SYSTEM",
+                String.format("%s需要重新计算哈希: ID=%d", entityName, row.id())
+            );
+        }
+        return issues;
+    }
+    
+    private static int toInt(long value) {
+        return (int) Math.min(Integer.MAX_VALUE, value);
     }
     
     // ==================== 告警和报告方法 ====================
@@ -610,12 +538,12 @@ public class DataIntegrityTask {
                 report.setReportTime(LocalDateTime.now());
                 
                 // 统计当前数据量
-                int totalPosts = postRepository.findAll().size();
-                int totalComments = commentRepository.findAll().size();
+                int totalPosts = toInt(postRepository.count());
+                int totalComments = toInt(commentRepository.count());
                 int totalChecked = totalPosts + totalComments;
                 
-                // 执行一次完整性检查来获取当前问题数量
-                IntegrityCheckReport currentCheck = performCompleteIntegrityCheck().get();
+                // 执行一次全量完整性检查来获取当前问题数量
+                IntegrityCheckReport currentCheck = runIntegrityCheck(MODE_FULL, false, false);
                 int issuesFound = currentCheck.getTotalIssues();
                 
                 // 计算完整性率
@@ -10,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -122,18 +123,8 @@ public class DTOConverter {
      */
 
     public static CommentDTO convertToDTO(Comment comment) {
-        CommentDTO dto = new CommentDTO();
-        dto.setId(comment.getId());
-        dto.setContent(comment.getContent());
-        dto.setCreatedAt(comment.getCreatedAt());
-
-        CommentDTO.AuthorInfo authorInfo = new CommentDTO.AuthorInfo();
-        authorInfo.setId(comment.getAuthor().getId());
-        authorInfo.setUsername(comment.getAuthor().getUsername());
-        authorInfo.setAvatarUrl(comment.getAuthor().getAvatarUrl());
-        dto.setAuthor(authorInfo);
+        CommentDTO dto = convertToFlatDTO(comment);
 
-        // 设置回复
         // 设置回复
         if (comment.getReplies() != null && !comment.getReplies().isEmpty()) {
             List<CommentDTO> replies = comment.getReplies().stream()
@@ -142,7 +133,52 @@ public class DTOConverter {
             dto.setReplies(replies);
         }
 
+        return dto;
+    }
+
+    /**
+     * 将帖子的全部评论组装为评论树
+     * <p>
+     * 按父评论ID在内存中挂接回复，不访问 replies 关联，避免逐层懒加载。
+     * 输入需已抓取作者，并按创建时间排序；父评论不在列表中的回复作为顶级评论返回。
+     *
+     * @param comments 帖子的全部评论（含回复）
+     * @return 顶级评论列表
+     */
+    public static List<CommentDTO> buildCommentTree(List<Comment> comments) {
+        Map<Long, CommentDTO> byId = new HashMap<>(comments.size() * 2);
+        for (Comment comment : comments) {
+            byId.put(comment.getId(), convertToFlatDTO(comment));
+        }
+
+        List<CommentDTO> roots = new ArrayList<>();
+        for (Comment comment : comments) {
+            CommentDTO dto = byId.get(comment.getId());
+            // 父评论为代理对象时读取ID不会触发加载
+            CommentDTO parent = comment.getParent() != null ? byId.get(comment.getParent().getId()) : null;
+            if (parent == null) {
+                roots.add(dto);
+                continue;
+            }
+            if (parent.getReplies() == null) {
+                parent.setReplies(new ArrayList<>());
+            }
+            parent.getReplies().add(dto);
+        }
+        return roots;
+    }
+
+    private static CommentDTO convertToFlatDTO(Comment comment) {
+        CommentDTO dto = new CommentDTO();
+        dto.setId(comment.getId());
+        dto.setContent(comment.getContent());
+        dto.setCreatedAt(comment.getCreatedAt());
 
+        CommentDTO.AuthorInfo authorInfo = new CommentDTO.AuthorInfo();
+        authorInfo.setId(comment.getAuthor().getId());
+        authorInfo.setUsername(comment.getAuthor().getUsername());
+        authorInfo.setAvatarUrl(comment.getAuthor().getAvatarUrl());
+        dto.setAuthor(authorInfo);
         return dto;
     }
     
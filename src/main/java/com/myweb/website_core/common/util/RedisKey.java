@@ -25,6 +25,7 @@ public class RedisKey {
     private static final String AUTH_MODULE = "auth";
     private static final String SYSTEM_MODULE = "system";
     private static final String AUDIT_MODULE = "audit";
+    private static final String FEED_MODULE = "feed";
     
     // ========== 帖子相关键 ==========
     public static final String POST_LIKE_COUNT = POST_MODULE + SEPARATOR + "like" + SEPARATOR + "count" + SEPARATOR;
@@ -32,8 +33,16 @@ public class RedisKey {
     public static final String POST_VIEW_COUNT = POST_MODULE + SEPARATOR + "view" + SEPARATOR + "count" + SEPARATOR;
     public static final String POST_COMMENT_COUNT = POST_MODULE + SEPARATOR + "comment" + SEPARATOR + "count" + SEPARATOR;
     public static final String POST_CACHE_PREFIX = CACHE_MODULE + SEPARATOR + POST_MODULE + SEPARATOR;
+    public static final String COMMENT_TREE_CACHE_PREFIX = CACHE_MODULE + SEPARATOR + "comment" + SEPARATOR + "tree" + SEPARATOR;
     public static final String POST_HOT_LIST = POST_MODULE + SEPARATOR + "hot" + SEPARATOR + "list";
     public static final String POST_TRENDING_LIST = POST_MODULE + SEPARATOR + "trending" + SEPARATOR + "list";
+    public static final String POST_RANK_LIKES = POST_MODULE + SEPARATOR + "rank" + SEPARATOR + "likes";
+    public static final String POST_RANK_HOUR_PREFIX = POST_MODULE + SEPARATOR + "rank" + SEPARATOR + "hour" + SEPARATOR;
+    public static final String POST_RANK_DAY_PREFIX = POST_MODULE + SEPARATOR + "rank" + SEPARATOR + "day" + SEPARATOR;
+    public static final String POST_RANK_HOT_PREFIX = POST_MODULE + SEPARATOR + "rank" + SEPARATOR + "hot" + SEPARATOR;
+    public static final String POST_LIKE_MEMBERS = POST_MODULE + SEPARATOR + "like" + SEPARATOR + "members" + SEPARATOR;
+    public static final String POST_COLLECT_MEMBERS = POST_MODULE + SEPARATOR + "collect" + SEPARATOR + "members" + SEPARATOR;
+    public static final String POST_INTERACTION_DIRTY_SET = POST_MODULE + SEPARATOR + "interaction" + SEPARATOR + "dirty";
     
     // ========== 用户相关键 ==========
     public static final String USER_LIKE_PREFIX = USER_MODULE + SEPARATOR + "like" + SEPARATOR;
@@ -45,6 +54,11 @@ public class RedisKey {
     public static final String USER_ONLINE_SET = USER_MODULE + SEPARATOR + "online" + SEPARATOR + "set";
     public static final String USER_LAST_ACTIVITY = USER_MODULE + SEPARATOR + "last" + SEPARATOR + "activity" + SEPARATOR;
     
+    // ========== 关注流相关键 ==========
+    public static final String FEED_INBOX_PREFIX = FEED_MODULE + SEPARATOR + "inbox" + SEPARATOR;
+    public static final String FEED_OUTBOX_PREFIX = FEED_MODULE + SEPARATOR + "outbox" + SEPARATOR;
+    public static final String FEED_CELEBRITY_SET = FEED_MODULE + SEPARATOR + "celebrity" + SEPARATOR + "set";
+    
     // ========== 邮箱验证相关键 ==========
     public static final String EMAIL_VERIFICATION_PREFIX = EMAIL_MODULE + SEPARATOR + "verification" + SEPARATOR;
     public static final String EMAIL_RATE_LIMIT_PREFIX = EMAIL_MODULE + SEPARATOR + "rate_limit" + SEPARATOR;
@@ -59,6 +73,7 @@ public class RedisKey {
     public static final String ACTIVE_SESSIONS_SET = "active" + SEPARATOR + "sessions";
     public static final String USER_ACTIVE_SESSION_PREFIX = USER_MODULE + SEPARATOR + "active" + SEPARATOR + SESSION_MODULE + SEPARATOR;
     public static final String SESSION_CLEANUP_LOCK = SESSION_MODULE + SEPARATOR + "cleanup" + SEPARATOR + "lock";
+    public static final String USER_KEY_INDEX_PREFIX = USER_MODULE + SEPARATOR + "keys" + SEPARATOR;
     
     // ========== 安全相关键 ==========
     public static final String SECURITY_EVENT_PREFIX = SECURITY_MODULE + SEPARATOR + "event" + SEPARATOR;
@@ -69,6 +84,7 @@ public class RedisKey {
     public static final String RATE_LIMIT_PREFIX = SECURITY_MODULE + SEPARATOR + "rate_limit" + SEPARATOR;
     public static final String CAPTCHA_PREFIX = SECURITY_MODULE + SEPARATOR + "captcha" + SEPARATOR;
     public static final String XSS_ATTEMPT_PREFIX = SECURITY_MODULE + SEPARATOR + "xss_attempt" + SEPARATOR;
+    public static final String INTEGRITY_CHECKPOINT_PREFIX = SECURITY_MODULE + SEPARATOR + "integrity" + SEPARATOR + "checkpoint" + SEPARATOR;
     
     // ========== 认证相关键 ==========
     public static final String JWT_BLACKLIST_PREFIX = AUTH_MODULE + SEPARATOR + "jwt" + SEPARATOR + "blacklist" + SEPARATOR;
@@ -80,6 +96,7 @@ public class RedisKey {
     
     // ========== 搜索相关键 ==========
     public static final String SEARCH_CACHE_PREFIX = SEARCH_MODULE + SEPARATOR + CACHE_MODULE + SEPARATOR;
+    public static final String SEARCH_CACHE_GENERATION = SEARCH_MODULE + SEPARATOR + "generation";
     public static final String POST_SEARCH_CACHE_PREFIX = SEARCH_MODULE + SEPARATOR + POST_MODULE + SEPARATOR;
     public static final String USER_SEARCH_CACHE_PREFIX = SEARCH_MODULE + SEPARATOR + USER_MODULE + SEPARATOR;
     public static final String HOT_SEARCH_KEYWORDS_KEY = SEARCH_MODULE + SEPARATOR + "hot" + SEPARATOR + "keywords";
@@ -139,6 +156,20 @@ public class RedisKey {
         return POST_COLLECT_COUNT + postId;
     }
     
+    /**
+     * 帖子点赞用户集合键
+     */
+    public static String postLikeMembersKey(Long postId) {
+        return POST_LIKE_MEMBERS + postId;
+    }
+    
+    /**
+     * 帖子收藏用户集合键
+     */
+    public static String postCollectMembersKey(Long postId) {
+        return POST_COLLECT_MEMBERS + postId;
+    }
+    
     /**
      * 帖子浏览数量键
      */
@@ -160,6 +191,34 @@ public class RedisKey {
         return POST_CACHE_PREFIX + postId;
     }
     
+    /**
+     * 帖子评论树缓存键
+     */
+    public static String commentTreeKey(Long postId) {
+        return COMMENT_TREE_CACHE_PREFIX + postId;
+    }
+    
+    /**
+     * 帖子热度小时桶键（有序集合，成员为帖子ID）
+     */
+    public static String postRankHourKey(long epochHour) {
+        return POST_RANK_HOUR_PREFIX + epochHour;
+    }
+    
+    /**
+     * 帖子热度天桶键（有序集合，成员为帖子ID）
+     */
+    public static String postRankDayKey(long epochDay) {
+        return POST_RANK_DAY_PREFIX + epochDay;
+    }
+    
+    /**
+     * 帖子热度榜键
+     */
+    public static String postRankHotKey(String window) {
+        return POST_RANK_HOT_PREFIX + window;
+    }
+    
     // ========== 用户相关方法 ==========
     
     /**
@@ -197,6 +256,22 @@ public class RedisKey {
         return USER_LAST_ACTIVITY + userId;
     }
     
+    // ========== 关注流相关方法 ==========
+    
+    /**
+     * 用户关注流收件箱键（有序集合，成员为帖子ID）
+     */
+    public static String feedInboxKey(Long userId) {
+        return FEED_INBOX_PREFIX + userId;
+    }
+    
+    /**
+     * 大V作者发件箱键（有序集合，成员为帖子ID）
+     */
+    public static String feedOutboxKey(Long authorId) {
+        return FEED_OUTBOX_PREFIX + authorId;
+    }
+    
     // ========== 邮箱验证相关方法 ==========
     
     /**
@@ -257,6 +332,13 @@ public class RedisKey {
         return USER_ACTIVE_SESSION_PREFIX + userId;
     }
     
+    /**
+     * 用户键索引（集合），记录键名中不含用户ID、但随用户退出需要清理的键
+     */
+    public static String userKeyIndexKey(Long userId) {
+        return USER_KEY_INDEX_PREFIX + userId;
+    }
+    
     // ========== 安全相关方法 ==========
     
     /**
@@ -308,6 +390,13 @@ public class RedisKey {
         return XSS_ATTEMPT_PREFIX + ip + SEPARATOR + sessionId;
     }
     
+    /**
+     * 完整性检查进度键（哈希）
+     */
+    public static String integrityCheckpointKey(String entityType, String mode) {
+        return INTEGRITY_CHECKPOINT_PREFIX + entityType + SEPARATOR + mode;
+    }
+    
     // ========== 认证相关方法 ==========
     
     /**
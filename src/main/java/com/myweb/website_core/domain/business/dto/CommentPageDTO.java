@@ -0,0 +1,38 @@
+package com.myweb.website_core.domain.business.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 评论分页DTO
+ * 
+ * 按顶级评论游标分页，每个顶级评论携带完整的回复树
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentPageDTO {
+    
+    /**
+     * 本页的顶级评论（含回复）
+     */
+    private List<CommentDTO> comments;
+    
+    /**
+     * 下一页游标（本页最后一个顶级评论ID），没有更多时为null
+     */
+    private Long nextCursor;
+    
+    /**
+     * 是否有更多数据
+     */
+    private Boolean hasMore;
+    
+    /**
+     * 顶级评论总数
+     */
+    private Integer totalThreads;
+}
@@ -0,0 +1,84 @@
+package com.myweb.website_core.domain.business.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 内容变更事件
+ *
+ * 帖子、评论、用户在创建/编辑/删除后通过ApplicationEventPublisher发布，
+ * 供搜索索引等派生数据增量更新使用。事件只携带ID，监听方按需重新加载实体。
+ *
+ * @author MyWeb
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+public class ContentChangeEvent {
+
+    // ========== 实体类型 ==========
+
+    public static final String ENTITY_POST = "POST";
+    public static final String ENTITY_COMMENT = "COMMENT";
+    public static final String ENTITY_USER = "USER";
+
+    // ========== 变更类型 ==========
+
+    public static final String CHANGE_CREATE = "CREATE";
+    public static final String CHANGE_UPDATE = "UPDATE";
+    public static final String CHANGE_DELETE = "DELETE";
+
+    /**
+     * 实体类型（POST, COMMENT, USER）
+     */
+    private String entityType;
+
+    /**
+     * 变更类型（CREATE, UPDATE, DELETE）
+     */
+    private String changeType;
+
+    /**
+     * 实体ID
+     */
+    private Long entityId;
+
+    /**
+     * 所属帖子ID（仅评论变更时有值）
+     */
+    private Long postId;
+
+    /**
+     * 变更时间
+     */
+    private LocalDateTime changeTime;
+
+    public ContentChangeEvent(String entityType, String changeType, Long entityId, Long postId) {
+        this.entityType = entityType;
+        this.changeType = changeType;
+        this.entityId = entityId;
+        this.postId = postId;
+        this.changeTime = LocalDateTime.now();
+    }
+
+    public static ContentChangeEvent post(String changeType, Long postId) {
+        return new ContentChangeEvent(ENTITY_POST, changeType, postId, postId);
+    }
+
+    public static ContentChangeEvent comment(String changeType, Long commentId, Long postId) {
+        return new ContentChangeEvent(ENTITY_COMMENT, changeType, commentId, postId);
+    }
+
+    public static ContentChangeEvent user(String changeType, Long userId) {
+        return new ContentChangeEvent(ENTITY_USER, changeType, userId, null);
+    }
+
+    /**
+     * 是否为删除事件
+     */
+    public boolean isDelete() {
+        return CHANGE_DELETE.equals(changeType);
+    }
+}
@@ -31,6 +31,10 @@ public class PostDTO {
     private Integer commentCount = 0;
     private Integer collectCount = 0;
     
+    // 当前用户的交互状态，未指定用户时为null
+    private Boolean liked;
+    private Boolean collected;
+    
     public PostDTO() {}
     
     public PostDTO(Post post, List<String> imageUrls) {
@@ -44,4 +48,23 @@ public class PostDTO {
         this.commentCount = post.getCommentCount();
         this.collectCount = post.getCollectCount();
     }
-}
\ No newline at end of file
+
+    /**
+     * 复制一份DTO，用于从共享缓存返回时填充当前用户的交互状态
+     */
+    public PostDTO copy() {
+        PostDTO copy = new PostDTO();
+        copy.id = id;
+        copy.title = title;
+        copy.content = content;
+        copy.author = author;
+        copy.createdAt = createdAt;
+        copy.images = images;
+        copy.likeCount = likeCount;
+        copy.commentCount = commentCount;
+        copy.collectCount = collectCount;
+        copy.liked = liked;
+        copy.collected = collected;
+        return copy;
+    }
+}
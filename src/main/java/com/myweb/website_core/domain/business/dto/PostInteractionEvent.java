@@ -0,0 +1,75 @@
+package com.myweb.website_core.domain.business.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 帖子交互事件
+ *
+ * 点赞/收藏切换后通过ApplicationEventPublisher发布，供排行榜等派生数据增量更新使用。
+ */
+@Data
+@NoArgsConstructor
+public class PostInteractionEvent {
+
+    // ========== 交互类型 ==========
+
+    public static final String TYPE_LIKE = "LIKE";
+    public static final String TYPE_COLLECT = "COLLECT";
+
+    /**
+     * 交互类型（LIKE, COLLECT）
+     */
+    private String type;
+
+    /**
+     * 帖子ID
+     */
+    private Long postId;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 切换后是否处于点赞/收藏状态
+     */
+    private boolean active;
+
+    /**
+     * 切换后的点赞/收藏数
+     */
+    private int count;
+
+    /**
+     * 事件时间
+     */
+    private LocalDateTime eventTime;
+
+    public PostInteractionEvent(String type, Long postId, Long userId, boolean active, int count) {
+        this.type = type;
+        this.postId = postId;
+        this.userId = userId;
+        this.active = active;
+        this.count = count;
+        this.eventTime = LocalDateTime.now();
+    }
+
+    public static PostInteractionEvent like(Long postId, Long userId, boolean active, int count) {
+        return new PostInteractionEvent(TYPE_LIKE, postId, userId, active, count);
+    }
+
+    public static PostInteractionEvent collect(Long postId, Long userId, boolean active, int count) {
+        return new PostInteractionEvent(TYPE_COLLECT, postId, userId, active, count);
+    }
+
+    /**
+     * 是否为点赞事件
+     */
+    public boolean isLike() {
+        return TYPE_LIKE.equals(type);
+    }
+}
@@ -0,0 +1,36 @@
+package com.myweb.website_core.domain.business.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 用户对帖子的交互状态
+ *
+ * 用于批量返回当前用户对一组帖子的点赞、收藏状态
+ */
+@Getter
+@Setter
+public class PostInteractionStatus {
+
+    @JsonProperty("liked")
+    private boolean liked;
+
+    @JsonProperty("collected")
+    private boolean collected;
+
+    public PostInteractionStatus() {}
+
+    public PostInteractionStatus(boolean liked, boolean collected) {
+        this.liked = liked;
+        this.collected = collected;
+    }
+
+    @Override
+    public String toString() {
+        return "PostInteractionStatus{" +
+                "liked=" + liked +
+                ", collected=" + collected +
+                '}';
+    }
+}
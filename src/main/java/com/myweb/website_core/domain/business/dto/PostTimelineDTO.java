@@ -0,0 +1,33 @@
+package com.myweb.website_core.domain.business.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 帖子时间线分页DTO
+ *
+ * 按 (创建时间, ID) 倒序游标分页
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostTimelineDTO {
+
+    /**
+     * 本页帖子
+     */
+    private List<PostDTO> posts;
+
+    /**
+     * 下一页游标，没有更多时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否有更多数据
+     */
+    private Boolean hasMore;
+}
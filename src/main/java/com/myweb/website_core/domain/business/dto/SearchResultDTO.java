@@ -64,6 +64,16 @@ public class SearchResultDTO<T> {
      */
     private Boolean hasMore;
     
+    /**
+     * 是否为部分结果（综合搜索中有数据源未在截止时间内返回）
+     */
+    private boolean partial;
+    
+    /**
+     * 未在截止时间内返回的数据源（POST, USER, COMMENT）
+     */
+    private List<String> incompleteSources;
+    
     /**
      * 是否有下一页（传统分页）
      */
@@ -96,6 +106,27 @@ public class SearchResultDTO<T> {
         return hasMore != null ? hasMore : false;
     }
     
+    /**
+     * 浅拷贝结果（结果项列表共享）
+     * 
+     * 本地缓存中的实例会被多个请求共享，返回拷贝以免调用方修改游标等字段时相互影响
+     */
+    public SearchResultDTO<T> copy() {
+        SearchResultDTO<T> copy = new SearchResultDTO<>();
+        copy.setItems(items);
+        copy.setTotal(total);
+        copy.setPage(page);
+        copy.setSize(size);
+        copy.setKeyword(keyword);
+        copy.setType(type);
+        copy.setSortBy(sortBy);
+        copy.setNextCursor(nextCursor);
+        copy.setHasMore(hasMore);
+        copy.setPartial(partial);
+        copy.setIncompleteSources(incompleteSources);
+        return copy;
+    }
+    
     /**
      * 创建空结果
      */
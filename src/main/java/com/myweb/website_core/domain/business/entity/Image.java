@@ -17,11 +17,14 @@ import java.time.LocalDateTime;
  * - 文件大小
  * - 内容类型
  * - 关联的帖子
+ * - 引用的图片内容（内容相同的图片共用一个文件）
  */
 @Getter
 @Setter
 @Entity
-@Table(name = "post_images")
+@Table(name = "post_images", indexes = {
+    @Index(name = "idx_post_images_post_id", columnList = "post_id")
+})
 public class Image {
     
     @Id
@@ -63,6 +66,14 @@ public class Image {
     @JoinColumn(name = "post_id")
     private Post post;
     
+    /**
+     * 引用的图片内容，为null表示旧版本独立存储的文件
+     */
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id")
+    private ImageBlob blob;
+    
     public Image() {
         this.uploadTime = LocalDateTime.now();
     }
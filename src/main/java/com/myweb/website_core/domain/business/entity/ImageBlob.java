@@ -0,0 +1,77 @@
+package com.myweb.website_core.domain.business.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 图片内容实体类
+ * 
+ * 按内容哈希寻址的图片文件，内容相同的上传共用一个文件：
+ * - 内容哈希（SHA-256，唯一）
+ * - 存储路径
+ * - 引用计数（引用该文件的图片记录数）
+ * - 失去最后一个引用的时间（用于延迟回收）
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "image_blobs",
+       indexes = @Index(name = "idx_image_blobs_orphaned_at", columnList = "orphaned_at"))
+public class ImageBlob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * 内容哈希（Base64编码的SHA-256）
+     */
+    @Column(name = "content_hash", nullable = false, unique = true, length = 64)
+    private String contentHash;
+    
+    @Column(nullable = false)
+    private String filePath;
+    
+    @Column(nullable = false)
+    private String contentType;
+    
+    @Column(nullable = false)
+    private Long fileSize;
+    
+    /**
+     * 引用计数，只通过仓库中的原子更新修改
+     */
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+    
+    /**
+     * 病毒扫描完成时间，为null表示存储时扫描引擎不可用
+     */
+    @Column(name = "scanned_at")
+    private LocalDateTime scannedAt;
+    
+    /**
+     * 引用计数降为0的时间，有引用时为null
+     */
+    @Column(name = "orphaned_at")
+    private LocalDateTime orphanedAt;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public ImageBlob() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public ImageBlob(String contentHash, String filePath, String contentType, Long fileSize) {
+        this.contentHash = contentHash;
+        this.filePath = filePath;
+        this.contentType = contentType;
+        this.fileSize = fileSize;
+        this.refCount = 1;
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -13,7 +13,12 @@ import java.util.List;
 
 @Getter
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    // 时间线按 (created_at, id) 倒序游标分页
+    @Index(name = "idx_posts_created_at_id", columnList = "created_at DESC, id DESC"),
+    // 关注流按作者读取最近的帖子
+    @Index(name = "idx_posts_author_id_id", columnList = "author_id, id DESC")
+})
 @EntityListeners(com.myweb.website_core.domain.business.listener.DataIntegrityListener.class)
 public class Post {
     @Id
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @Table(name = "user_follows", 
-       uniqueConstraints = @UniqueConstraint(columnNames = {"follower_id", "following_id"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"follower_id", "following_id"}),
+       indexes = @Index(name = "idx_user_follows_following_follower", columnList = "following_id, follower_id"))
 public class UserFollow {
     
     @Id
@@ -0,0 +1,27 @@
+package com.myweb.website_core.domain.security.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 内容完整性校验行
+ * <p>
+ * 完整性检查只需要内容和哈希字段，按此投影查询不加载作者、图片、回复等关联数据。
+ *
+ * @param id 帖子或评论ID
+ * @param content 内容
+ * @param contentHash 存储的内容哈希
+ * @param hashCalculatedAt 哈希计算时间，内容每次保存时更新
+ */
+public record ContentIntegrityRow(Long id,
+                                  String content,
+                                  String contentHash,
+                                  LocalDateTime hashCalculatedAt) {
+
+    /**
+     * 哈希是否需要重新计算（缺失或超过30天）
+     */
+    public boolean needsHashRecalculation() {
+        return contentHash == null || hashCalculatedAt == null ||
+               hashCalculatedAt.isBefore(LocalDateTime.now().minusDays(30));
+    }
+}
@@ -27,24 +27,15 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @Table(name = "audit_logs", indexes = {
-    // 用户ID索引 - 用于按用户查询审计日志
-    @Index(name = "idx_audit_user_id", columnList = "user_id"),
-    
-    // 操作类型索引 - 用于按操作类型查询
-    @Index(name = "idx_audit_operation", columnList = "operation"),
-    
+    // 表按 timestamp 月分区、每月按 result 分为成功/其他子分区（见V12迁移脚本），
+    // 单列索引与同列开头的复合索引重复，只保留复合索引，减少高频写入的索引维护
+
     // 时间戳索引 - 用于按时间范围查询（最常用的查询条件）
     @Index(name = "idx_audit_timestamp", columnList = "timestamp"),
     
     // 资源类型和ID复合索引 - 用于查询特定资源的操作记录
     @Index(name = "idx_audit_resource", columnList = "resource_type, resource_id"),
     
-    // IP地址索引 - 用于安全分析和异常检测
-    @Index(name = "idx_audit_ip_address", columnList = "ip_address"),
-    
-    // 操作结果索引 - 用于查询失败的操作
-    @Index(name = "idx_audit_result", columnList = "result"),
-    
     // 用户名索引 - 用于按用户名查询（支持已删除用户的审计）
     @Index(name = "idx_audit_username", columnList = "username"),
     
@@ -57,8 +48,8 @@ import java.time.LocalDateTime;
     // 复合索引：操作+时间 - 用于操作统计分析
     @Index(name = "idx_audit_operation_time", columnList = "operation, timestamp"),
     
-    // 复合索引：结果+时间 - 用于失败操作分析
-    @Index(name = "idx_audit_result_time", columnList = "result, timestamp")
+    // 复合索引：IP+时间 - 用于IP行为分析
+    @Index(name = "idx_audit_ip_time", columnList = "ip_address, timestamp")
 })
 public class AuditLog {
     
@@ -7,6 +7,7 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -36,6 +37,10 @@ public class RabbitMQConfig {
     public static final String SEARCH_AUDIT_QUEUE = "search.audit.queue";
     public static final String ACCESS_CONTROL_QUEUE = "access.control.queue";
     
+    // 交互消息批量消费容器工厂
+    public static final String INTERACTION_BATCH_CONTAINER_FACTORY = "interactionBatchListenerContainerFactory";
+    public static final String AUDIT_BATCH_CONTAINER_FACTORY = "auditBatchListenerContainerFactory";
+    
     // 死信队列常量
     public static final String INTERACTION_DLQ = "interaction.dlq";
     public static final String INTERACTION_DLX = "interaction.dlx";
@@ -392,4 +397,64 @@ public class RabbitMQConfig {
 
         return factory;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 交互消息批量消费容器工厂
+     * 
+     * 每次最多取batchSize条消息交给监听器，不足一批时等待receiveTimeout后提交已取到的消息。
+     * 默认单消费者，保证同一队列内的切换消息按顺序合并。
+     */
+    @Bean(INTERACTION_BATCH_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory interactionBatchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Qualifier("auditObjectMapper") ObjectMapper auditObjectMapper,
+            @Value("${app.interaction.batch.size:200}") int batchSize,
+            @Value("${app.interaction.batch.receive-timeout-ms:200}") long receiveTimeout,
+            @Value("${app.interaction.batch.consumers:1}") int consumers) {
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+
+        factory.setMessageConverter(new Jackson2JsonMessageConverter(auditObjectMapper));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeout);
+        factory.setPrefetchCount(batchSize);
+        factory.setConcurrentConsumers(consumers);
+        factory.setMaxConcurrentConsumers(consumers);
+
+        return factory;
+    }
+
+    /**
+     * 审计消息批量消费容器工厂
+     * 
+     * 每次最多取batchSize条审计消息一次写入数据库，不足一批时等待receiveTimeout后提交已取到的消息。
+     * 审计日志之间没有顺序依赖，可配置多个消费者并行写入。
+     */
+    @Bean(AUDIT_BATCH_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory auditBatchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Qualifier("auditObjectMapper") ObjectMapper auditObjectMapper,
+            @Value("${app.audit.ingest.batch.size:1000}") int batchSize,
+            @Value("${app.audit.ingest.batch.receive-timeout-ms:100}") long receiveTimeout,
+            @Value("${app.audit.ingest.batch.consumers:2}") int consumers) {
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+
+        factory.setMessageConverter(new Jackson2JsonMessageConverter(auditObjectMapper));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeout);
+        factory.setPrefetchCount(batchSize);
+        factory.setConcurrentConsumers(consumers);
+        factory.setMaxConcurrentConsumers(consumers);
+
+        return factory;
+    }
+}
@@ -0,0 +1,37 @@
+package com.myweb.website_core.infrastructure.config;
+
+import com.myweb.website_core.infrastructure.search.BoundedVirtualThreadExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 搜索配置类
+ *
+ * 配置综合搜索并行检索使用的执行器
+ *
+ * @author MyWeb
+ * @version 1.0
+ */
+@Configuration
+public class SearchConfig {
+
+    /**
+     * 综合搜索并行检索执行器
+     *
+     * 每个数据源检索使用一个新的虚拟线程，并发数由信号量限制；
+     * 达到上限时立即拒绝，该数据源按未完成处理，不阻塞请求线程。
+     * 这里有意不声明为TaskExecutor，以免影响@Async默认执行器的选择。
+     *
+     * @param maxConcurrency 最大并发检索数
+     * @return 执行器
+     */
+    @Bean(name = "searchFanOutExecutor", destroyMethod = "shutdown")
+    public ExecutorService searchFanOutExecutor(
+            @Value("${app.search.fan-out.max-concurrency:64}") int maxConcurrency) {
+        return new BoundedVirtualThreadExecutor(maxConcurrency,
+                Thread.ofVirtual().name("SearchFanOut-", 0).factory());
+    }
+}
@@ -52,6 +52,9 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authorizeHttpRequests(authz -> authz
+                // 批量交互状态与like-status一样需要认证，关注流按当前用户读取收件箱，需在"/api/posts/*"之前匹配
+                .requestMatchers("/api/posts/interaction-status", "/api/posts/feed").authenticated()
+                
                 // 公开访问的资源
                 .requestMatchers("/login", "/register", "/static/**", "/css/**", "/js/**", "/images/**", 
                                "/", "/view/**", "/users/register", "/users/login", "/users/register/code", 
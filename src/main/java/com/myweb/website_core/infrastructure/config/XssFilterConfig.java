@@ -139,6 +139,11 @@ public class XssFilterConfig {
          */
         private int cacheExpirationMinutes = 30;
         
+        /**
+         * 缓存容量上限（字节，按键和过滤结果的字符数估算），不大于0时按缓存大小估算
+         */
+        private long cacheMaxBytes = 16 * 1024 * 1024;
+        
         /**
          * 是否启用异步处理
          */
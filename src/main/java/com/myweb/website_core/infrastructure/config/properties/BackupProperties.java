@@ -224,6 +224,16 @@ public class BackupProperties {
          */
         private int level = 6;
         
+        /**
+         * 并行压缩线程数，0表示使用CPU核数
+         */
+        private int threads = 0;
+        
+        /**
+         * 分块大小（KB），每块独立压缩、加密
+         */
+        private int chunkSizeKb = 1024;
+        
         // Getters and Setters
         public boolean isEnabled() {
             return enabled;
@@ -248,6 +258,22 @@ public class BackupProperties {
         public void setLevel(int level) {
             this.level = level;
         }
+        
+        public int getThreads() {
+            return threads;
+        }
+        
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+        
+        public int getChunkSizeKb() {
+            return chunkSizeKb;
+        }
+        
+        public void setChunkSizeKb(int chunkSizeKb) {
+            this.chunkSizeKb = chunkSizeKb;
+        }
     }
     
     /**
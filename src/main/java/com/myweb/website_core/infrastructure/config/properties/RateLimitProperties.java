@@ -19,12 +19,26 @@ import java.util.Map;
 @ConfigurationProperties(prefix = "app.rate-limit")
 public class RateLimitProperties {
 
+    public static final String ALGORITHM_SLIDING_WINDOW_LOG = "SLIDING_WINDOW_LOG";
+    public static final String ALGORITHM_SLIDING_WINDOW_COUNTER = "SLIDING_WINDOW_COUNTER";
+
     // Getters and Setters
     /**
      * 是否启用访问频率限制
      */
     private boolean enabled = true;
     
+    /**
+     * Redis计数算法：SLIDING_WINDOW_LOG（ZSET记录每次请求，精确）
+     * 或 SLIDING_WINDOW_COUNTER（按当前/上一窗口计数加权估算，每个键O(1)内存）
+     */
+    private String algorithm = ALGORITHM_SLIDING_WINDOW_LOG;
+    
+    /**
+     * 本地令牌桶配置
+     */
+    private Local local = new Local();
+    
     /**
      * 默认限制配置
      */
@@ -49,6 +63,14 @@ public class RateLimitProperties {
         this.enabled = enabled;
     }
 
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public void setLocal(Local local) {
+        this.local = local;
+    }
+
     public void setDefaultLimit(DefaultLimit defaultLimit) {
         this.defaultLimit = defaultLimit;
     }
@@ -151,6 +173,75 @@ public class RateLimitProperties {
         }
     }
     
+    /**
+     * 本地令牌桶配置
+     * 
+     * 启用后每个节点按块从Redis预留配额放入本地令牌桶，桶内有令牌时不访问Redis
+     */
+    @Getter
+    public static class Local {
+        /**
+         * 是否启用本地令牌桶
+         */
+        private boolean enabled = true;
+        
+        /**
+         * 每次预留的配额占限制数的比例
+         */
+        private double leaseRatio = 0.1;
+        
+        /**
+         * 每次预留的最大配额
+         */
+        private int maxLeaseSize = 50;
+        
+        /**
+         * 预留配额的有效期（毫秒），不超过时间窗口
+         */
+        private long leaseTtlMillis = 5000;
+        
+        /**
+         * Redis拒绝后本地直接拒绝的时长（毫秒）
+         */
+        private long denyCacheMillis = 1000;
+        
+        /**
+         * 本地令牌桶最大数量，超过后新键直接访问Redis
+         */
+        private int maximumKeys = 100000;
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public void setLeaseRatio(double leaseRatio) {
+            this.leaseRatio = leaseRatio;
+        }
+
+        public void setMaxLeaseSize(int maxLeaseSize) {
+            this.maxLeaseSize = maxLeaseSize;
+        }
+
+        public void setLeaseTtlMillis(long leaseTtlMillis) {
+            this.leaseTtlMillis = leaseTtlMillis;
+        }
+
+        public void setDenyCacheMillis(long denyCacheMillis) {
+            this.denyCacheMillis = denyCacheMillis;
+        }
+
+        public void setMaximumKeys(int maximumKeys) {
+            this.maximumKeys = maximumKeys;
+        }
+        
+        /**
+         * 计算某个限制每次预留的配额，至少为1
+         */
+        public int leaseSize(int maxRequests) {
+            return Math.max(1, Math.min(maxLeaseSize, (int) (maxRequests * leaseRatio)));
+        }
+    }
+    
     /**
      * Redis配置
      */
@@ -237,6 +328,13 @@ public class RateLimitProperties {
         return limit;
     }
     
+    /**
+     * 是否使用滑动窗口计数算法
+     */
+    public boolean isSlidingWindowCounter() {
+        return ALGORITHM_SLIDING_WINDOW_COUNTER.equalsIgnoreCase(algorithm);
+    }
+    
     /**
      * 检查是否需要告警
      */
@@ -0,0 +1,151 @@
+package com.myweb.website_core.infrastructure.persistence.repository.audit;
+
+import com.myweb.website_core.domain.security.entity.AuditLog;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 审计日志批量写入仓库
+ *
+ * 审计消息批量消费时一次写入整批日志：PostgreSQL连接使用 COPY FROM STDIN，
+ * 其他数据库（如测试环境）退回JDBC批处理插入。写入直接走分区父表，由数据库路由到对应的时间分区。
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogBatchRepository {
+
+    private static final String COLUMNS = "user_id, username, operation, resource_type, resource_id, ip_address, " +
+            "user_agent, result, error_message, request_data, response_data, execution_time, timestamp, " +
+            "session_id, request_id, description, risk_level, location, tags, processed";
+
+    private static final int COLUMN_COUNT = 20;
+
+    private static final String COPY_SQL = "COPY audit_logs (" + COLUMNS + ") FROM STDIN";
+
+    private static final String INSERT_SQL = "INSERT INTO audit_logs (" + COLUMNS + ") VALUES (" +
+            String.join(", ", Collections.nCopies(COLUMN_COUNT, "?")) + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 批量写入审计日志
+     *
+     * 与单条保存一致：时间戳为空时取当前时间，风险级别为空时取操作类型的默认风险级别。
+     * 在当前事务的连接上执行，调用方事务回滚时整批撤销。
+     *
+     * @param logs 审计日志
+     * @return 写入的行数
+     */
+    public int insertAll(List<AuditLog> logs) {
+        if (logs.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> rows = new ArrayList<>(logs.size());
+        for (AuditLog auditLog : logs) {
+            rows.add(toRow(auditLog));
+        }
+        Integer written = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                return copyIn(connection, rows);
+            }
+            return null;
+        });
+        if (written != null) {
+            return written;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        return rows.size();
+    }
+
+    private int copyIn(Connection connection, List<Object[]> rows) throws SQLException {
+        StringBuilder data = new StringBuilder(rows.size() * 256);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    data.append('\t');
+                }
+                appendCopyValue(data, row[i]);
+            }
+            data.append('\n');
+        }
+        try {
+            long copied = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn(COPY_SQL, new StringReader(data.toString()));
+            return (int) copied;
+        } catch (IOException e) {
+            throw new SQLException("COPY写入审计日志失败", e);
+        }
+    }
+
+    private static Object[] toRow(AuditLog auditLog) {
+        LocalDateTime timestamp = auditLog.getTimestamp() != null ? auditLog.getTimestamp() : LocalDateTime.now();
+        Integer riskLevel = auditLog.getRiskLevel();
+        if (riskLevel == null && auditLog.getOperation() != null) {
+            riskLevel = auditLog.getOperation().getRiskLevel();
+        }
+        return new Object[]{
+                auditLog.getUserId(),
+                auditLog.getUsername(),
+                auditLog.getOperation() != null ? auditLog.getOperation().name() : null,
+                auditLog.getResourceType(),
+                auditLog.getResourceId(),
+                auditLog.getIpAddress(),
+                auditLog.getUserAgent(),
+                auditLog.getResult(),
+                auditLog.getErrorMessage(),
+                auditLog.getRequestData(),
+                auditLog.getResponseData(),
+                auditLog.getExecutionTime(),
+                Timestamp.valueOf(timestamp),
+                auditLog.getSessionId(),
+                auditLog.getRequestId(),
+                auditLog.getDescription(),
+                riskLevel,
+                auditLog.getLocation(),
+                auditLog.getTags(),
+                auditLog.getProcessed() != null ? auditLog.getProcessed() : Boolean.FALSE
+        };
+    }
+
+    /**
+     * COPY文本格式：NULL写作 \N，反斜杠和分隔符转义
+     */
+    private static void appendCopyValue(StringBuilder data, Object value) {
+        if (value == null) {
+            data.append("\\N");
+            return;
+        }
+        if (value instanceof Boolean bool) {
+            data.append(bool ? 't' : 'f');
+            return;
+        }
+        if (value instanceof Timestamp timestamp) {
+            data.append(timestamp.toLocalDateTime());
+            return;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> data.append("\\\\");
+                case '\t' -> data.append("\\t");
+                case '\n' -> data.append("\\n");
+                case '\r' -> data.append("\\r");
+                default -> data.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.myweb.website_core.infrastructure.persistence.repository.audit;
+
+import com.myweb.website_core.domain.security.entity.AuditLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+/**
+ * 审计日志导出仓库
+ * <p>
+ * 以游标方式逐行读取审计日志：PostgreSQL驱动只有在设置了fetch size且处于事务中时才使用服务端游标，
+ * 否则会一次性把结果集读入内存，因此调用方必须在只读事务中消费返回的流。
+ * 每行读出后立即从持久化上下文中分离，导出百万行时内存占用保持不变。
+ */
+@Repository
+public class AuditLogExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 按条件流式读取审计日志
+     *
+     * @param specification 查询条件，为null时不过滤
+     * @param sort 排序
+     * @param maxRows 最多读取的行数
+     * @param fetchSize 每次从数据库取回的行数
+     * @return 审计日志流，使用后必须关闭
+     */
+    public Stream<AuditLog> stream(Specification<AuditLog> specification, Sort sort, int maxRows, int fetchSize) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AuditLog> criteriaQuery = criteriaBuilder.createQuery(AuditLog.class);
+        Root<AuditLog> root = criteriaQuery.from(AuditLog.class);
+
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, criteriaQuery, criteriaBuilder);
+            if (predicate != null) {
+                criteriaQuery.where(predicate);
+            }
+        }
+        criteriaQuery.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        Stream<AuditLog> logs = entityManager.createQuery(criteriaQuery)
+                .setMaxResults(maxRows)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream();
+        return logs.peek(entityManager::detach);
+    }
+}
@@ -0,0 +1,147 @@
+package com.myweb.website_core.infrastructure.persistence.repository.audit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 审计日志分区管理仓库
+ *
+ * audit_logs 按 timestamp 每月一个范围分区（audit_logs_pYYYYMM），每个月分区再按 result
+ * 分为成功日志（_success）和其他日志（_other）两个子分区，超过保留期时整个（子）分区删除，
+ * 不再逐行DELETE。分区结构由 V12 迁移脚本创建，未迁移的库上 {@link #isPartitioned()} 返回false。
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class AuditLogPartitionRepository {
+
+    /**
+     * 分区父表
+     */
+    public static final String PARENT_TABLE = "audit_logs";
+
+    /**
+     * 成功日志子分区后缀
+     */
+    public static final String SUCCESS_SUFFIX = "_success";
+
+    /**
+     * 其他日志子分区后缀
+     */
+    public static final String OTHER_SUFFIX = "_other";
+
+    private static final String MONTH_PREFIX = PARENT_TABLE + "_p";
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final Pattern MONTH_PARTITION = Pattern.compile("^" + MONTH_PREFIX + "(\\d{6})$");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * audit_logs 是否已是分区表
+     */
+    public boolean isPartitioned() {
+        try {
+            Boolean partitioned = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt " +
+                    "JOIN pg_class c ON c.oid = pt.partrelid " +
+                    "WHERE c.relname = ? AND pg_table_is_visible(c.oid))",
+                    Boolean.class, PARENT_TABLE);
+            return Boolean.TRUE.equals(partitioned);
+        } catch (DataAccessException e) {
+            log.debug("无法查询审计日志分区信息，按未分区处理: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 已存在的月分区，按月份升序
+     */
+    public List<YearMonth> findMonthlyPartitions() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ? AND pg_table_is_visible(p.oid)",
+                String.class, PARENT_TABLE);
+        List<YearMonth> months = new ArrayList<>(names.size());
+        for (String name : names) {
+            YearMonth month = parseMonth(name);
+            if (month != null) {
+                months.add(month);
+            }
+        }
+        months.sort(null);
+        return months;
+    }
+
+    /**
+     * 创建月分区及其成功/其他日志子分区，已存在时跳过
+     */
+    public void createMonthlyPartition(YearMonth month) {
+        String name = partitionName(month);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + PARENT_TABLE +
+                " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')" +
+                " PARTITION BY LIST (result)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + SUCCESS_SUFFIX +
+                " PARTITION OF " + name + " FOR VALUES IN ('SUCCESS')");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + OTHER_SUFFIX +
+                " PARTITION OF " + name + " DEFAULT");
+    }
+
+    /**
+     * 删除整个月分区（含两个子分区）
+     */
+    public void dropMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(month));
+    }
+
+    /**
+     * 只删除月分区中的成功日志子分区，失败和错误日志继续保留
+     *
+     * @return 子分区存在并被删除时返回true
+     */
+    public boolean dropSuccessPartition(YearMonth month) {
+        String name = partitionName(month) + SUCCESS_SUFFIX;
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (!Boolean.TRUE.equals(exists)) {
+            return false;
+        }
+        jdbcTemplate.execute("DROP TABLE " + name);
+        return true;
+    }
+
+    /**
+     * 月分区表名，如 audit_logs_p202501
+     */
+    public static String partitionName(YearMonth month) {
+        return MONTH_PREFIX + month.format(MONTH_FORMAT);
+    }
+
+    /**
+     * 从月分区表名解析月份，不是月分区时返回null
+     */
+    public static YearMonth parseMonth(String partitionName) {
+        Matcher matcher = MONTH_PARTITION.matcher(partitionName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(matcher.group(1), MONTH_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.myweb.website_core.infrastructure.persistence.repository.comment;
 
 import com.myweb.website_core.domain.business.entity.Comment;
+import com.myweb.website_core.domain.security.dto.ContentIntegrityRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -31,4 +35,31 @@ public interface CommentRepository extends JpaRepository<Comment, Long>, JpaSpec
     
     // 查找帖子的所有评论
     List<Comment> findByPostId(Long postId);
-}
\ No newline at end of file
+    
+    // 一次查询帖子的全部评论和回复并抓取作者（用于在内存中组装评论树）
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.post.id = :postId ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findAllWithAuthorByPostId(@Param("postId") Long postId);
+    
+    // 根据ID批量查询评论并抓取作者和所属帖子
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author JOIN FETCH c.post WHERE c.id IN :ids")
+    List<Comment> findAllWithAuthorAndPostByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // 按ID游标分批读取评论（用于重建搜索索引）
+    @Query("SELECT c FROM Comment c WHERE c.id > :afterId ORDER BY c.id ASC")
+    List<Comment> findBatchAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // 按ID游标分批读取评论的完整性校验字段（用于完整性检查）
+    @Query("SELECT new com.myweb.website_core.domain.security.dto.ContentIntegrityRow(" +
+           "c.id, c.content, c.contentHash, c.hashCalculatedAt) " +
+           "FROM Comment c WHERE c.id > :afterId ORDER BY c.id ASC")
+    List<ContentIntegrityRow> findIntegrityRowsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // 按ID游标分批读取指定时间之后保存过的评论的完整性校验字段（用于增量完整性检查）
+    @Query("SELECT new com.myweb.website_core.domain.security.dto.ContentIntegrityRow(" +
+           "c.id, c.content, c.contentHash, c.hashCalculatedAt) " +
+           "FROM Comment c WHERE c.id > :afterId " +
+           "AND (c.hashCalculatedAt IS NULL OR c.hashCalculatedAt >= :since) ORDER BY c.id ASC")
+    List<ContentIntegrityRow> findIntegrityRowsModifiedSince(@Param("afterId") Long afterId,
+                                                             @Param("since") LocalDateTime since,
+                                                             Pageable pageable);
+}
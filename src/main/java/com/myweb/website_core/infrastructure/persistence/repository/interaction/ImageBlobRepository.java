@@ -0,0 +1,72 @@
+package com.myweb.website_core.infrastructure.persistence.repository.interaction;
+
+import com.myweb.website_core.domain.business.entity.ImageBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 图片内容数据访问接口
+ * <p>
+ * 引用计数只通过条件更新修改，并发的上传、删除和回收之间不需要加锁。
+ */
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, Long> {
+    
+    /**
+     * 根据内容哈希查找
+     */
+    Optional<ImageBlob> findByContentHash(String contentHash);
+    
+    /**
+     * 增加引用计数
+     * 
+     * @return 更新的行数，为0表示记录已被回收
+     */
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount + 1, b.orphanedAt = null WHERE b.id = :id")
+    int incrementRefCount(@Param("id") Long id);
+    
+    /**
+     * 减少引用计数，降为0时记录失去引用的时间
+     * 
+     * @return 更新的行数
+     */
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount - 1, " +
+           "b.orphanedAt = CASE WHEN b.refCount <= 1 THEN :now ELSE null END " +
+           "WHERE b.id = :id AND b.refCount > 0")
+    int decrementRefCount(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    /**
+     * 记录病毒扫描完成时间
+     */
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.scannedAt = :scannedAt WHERE b.id = :id")
+    int markScanned(@Param("id") Long id, @Param("scannedAt") LocalDateTime scannedAt);
+    
+    /**
+     * 按ID游标查找失去引用超过宽限期的记录
+     */
+    @Query("SELECT b FROM ImageBlob b WHERE b.refCount = 0 AND b.orphanedAt < :cutoff AND b.id > :afterId " +
+           "ORDER BY b.id")
+    List<ImageBlob> findOrphansAfterId(@Param("cutoff") LocalDateTime cutoff,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+    
+    /**
+     * 删除仍无引用的记录，回收期间被重新引用的记录不会删除
+     * 
+     * @return 删除的行数
+     */
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.id = :id AND b.refCount = 0")
+    int deleteIfUnreferenced(@Param("id") Long id);
+}
@@ -1,9 +1,14 @@
 package com.myweb.website_core.infrastructure.persistence.repository.interaction;
 
 import com.myweb.website_core.domain.business.entity.Image;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +28,12 @@ public interface ImageRepository extends JpaRepository<Image, Long> {
      */
     List<Image> findByPostId(Long postId);
     
+    /**
+     * 批量查询一组帖子的图片ID，按图片ID升序
+     */
+    @Query("SELECT i.post.id AS postId, i.id AS imageId FROM Image i WHERE i.post.id IN :postIds ORDER BY i.id")
+    List<PostImageId> findImageIdsByPostIds(@Param("postIds") Collection<Long> postIds);
+    
     /**
      * 根据文件路径查找图片
      */
@@ -32,4 +43,20 @@ public interface ImageRepository extends JpaRepository<Image, Long> {
      * 查找所有未关联帖子的图片
      */
     List<Image> findByPostIsNull();
-}
\ No newline at end of file
+    
+    /**
+     * 按ID游标查找上传早于指定时间且未关联帖子的图片
+     */
+    @Query("SELECT i FROM Image i WHERE i.post IS NULL AND i.uploadTime < :cutoff AND i.id > :afterId ORDER BY i.id")
+    List<Image> findUnassociatedBefore(@Param("cutoff") LocalDateTime cutoff,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+    
+    /**
+     * 帖子与图片ID
+     */
+    interface PostImageId {
+        Long getPostId();
+        Long getImageId();
+    }
+}
@@ -0,0 +1,210 @@
+package com.myweb.website_core.infrastructure.persistence.repository.interaction;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 点赞/收藏批量写入仓库
+ *
+ * 使用JDBC批处理执行点赞、收藏关系的插入删除，以及计数字段的增量更新和对账写入，
+ * 供交互消息的批量消费和Redis计数对账使用。帖子的点赞数、收藏数只通过对账写入。
+ */
+@Repository
+@RequiredArgsConstructor
+public class InteractionBatchRepository {
+
+    /**
+     * 点赞表
+     */
+    public static final String TABLE_POST_LIKES = "post_likes";
+
+    /**
+     * 收藏表
+     */
+    public static final String TABLE_POST_COLLECT = "post_collect";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 批量插入关系记录，已存在或帖子/用户不存在的记录被跳过
+     *
+     * @param table 关系表（post_likes 或 post_collect）
+     * @param pairs 用户ID与帖子ID
+     * @return 每条记录实际插入的行数，驱动无法提供时为 {@link Statement#SUCCESS_NO_INFO}
+     */
+    public int[] batchInsert(String table, List<UserPostPair> pairs) {
+        String sql = "INSERT INTO " + checkTable(table) + " (user_id, post_id, created_at) " +
+                "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM users WHERE id = ?) " +
+                "AND EXISTS (SELECT 1 FROM posts WHERE id = ?) " +
+                "ON CONFLICT (user_id, post_id) DO NOTHING";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(pairs.size());
+        for (UserPostPair pair : pairs) {
+            args.add(new Object[]{pair.userId(), pair.postId(), now, pair.userId(), pair.postId()});
+        }
+        return jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    /**
+     * 批量删除关系记录
+     *
+     * @param table 关系表（post_likes 或 post_collect）
+     * @param pairs 用户ID与帖子ID
+     * @return 每条记录实际删除的行数，驱动无法提供时为 {@link Statement#SUCCESS_NO_INFO}
+     */
+    public int[] batchDelete(String table, List<UserPostPair> pairs) {
+        String sql = "DELETE FROM " + checkTable(table) + " WHERE user_id = ? AND post_id = ?";
+        List<Object[]> args = new ArrayList<>(pairs.size());
+        for (UserPostPair pair : pairs) {
+            args.add(new Object[]{pair.userId(), pair.postId()});
+        }
+        return jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    /**
+     * 按增量批量更新用户点赞数
+     *
+     * @param deltas 用户ID -> 点赞数增量
+     */
+    public void incrementUserLikedCounts(Map<Long, Integer> deltas) {
+        applyDeltas("UPDATE users SET liked_count = GREATEST(COALESCE(liked_count, 0) + ?, 0) WHERE id = ?", deltas);
+    }
+
+    /**
+     * 批量写入帖子点赞数（Redis计数对账使用）
+     *
+     * @param counts 帖子ID -> 点赞数
+     */
+    public void updatePostLikeCounts(Map<Long, Long> counts) {
+        applyCounts("UPDATE posts SET like_count = ? WHERE id = ?", counts);
+    }
+
+    /**
+     * 批量写入帖子收藏数（Redis计数对账使用）
+     *
+     * @param counts 帖子ID -> 收藏数
+     */
+    public void updatePostCollectCounts(Map<Long, Long> counts) {
+        applyCounts("UPDATE posts SET collect_count = ? WHERE id = ?", counts);
+    }
+
+    /**
+     * 按关系表重新统计用户点赞数（批处理结果不可用时的兜底）
+     */
+    public void recountUserLikedCounts(Collection<Long> userIds) {
+        recount("UPDATE users SET liked_count = (SELECT COUNT(*) FROM post_likes WHERE user_id = ?) WHERE id = ?", userIds);
+    }
+
+    /**
+     * 一次查询获取用户在指定帖子中的点赞和收藏关系
+     *
+     * 两张关系表通过UNION ALL合并为一条IN查询，任一帖子列表为空时省略对应分支
+     *
+     * @param userId 用户ID
+     * @param likePostIds 需要判断点赞状态的帖子ID
+     * @param collectPostIds 需要判断收藏状态的帖子ID
+     * @return 已点赞和已收藏的帖子ID
+     */
+    public InteractedPostIds findInteractedPostIds(long userId, Collection<Long> likePostIds,
+                                                   Collection<Long> collectPostIds) {
+        Set<Long> liked = new HashSet<>();
+        Set<Long> collected = new HashSet<>();
+        List<String> branches = new ArrayList<>(2);
+        List<Object> args = new ArrayList<>(likePostIds.size() + collectPostIds.size() + 2);
+        if (!likePostIds.isEmpty()) {
+            branches.add("SELECT post_id, 1 AS kind FROM " + TABLE_POST_LIKES +
+                    " WHERE user_id = ? AND post_id IN (" + placeholders(likePostIds.size()) + ")");
+            args.add(userId);
+            args.addAll(likePostIds);
+        }
+        if (!collectPostIds.isEmpty()) {
+            branches.add("SELECT post_id, 2 AS kind FROM " + TABLE_POST_COLLECT +
+                    " WHERE user_id = ? AND post_id IN (" + placeholders(collectPostIds.size()) + ")");
+            args.add(userId);
+            args.addAll(collectPostIds);
+        }
+        if (branches.isEmpty()) {
+            return new InteractedPostIds(liked, collected);
+        }
+
+        jdbcTemplate.query(String.join(" UNION ALL ", branches), rs -> {
+            long postId = rs.getLong(1);
+            if (rs.getInt(2) == 1) {
+                liked.add(postId);
+            } else {
+                collected.add(postId);
+            }
+        }, args.toArray());
+        return new InteractedPostIds(liked, collected);
+    }
+
+    private void applyDeltas(String sql, Map<Long, Integer> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+            if (entry.getValue() != 0) {
+                args.add(new Object[]{entry.getValue(), entry.getKey()});
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, args);
+        }
+    }
+
+    private void applyCounts(String sql, Map<Long, Long> counts) {
+        List<Object[]> args = new ArrayList<>(counts.size());
+        for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+            args.add(new Object[]{entry.getValue().intValue(), entry.getKey()});
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, args);
+        }
+    }
+
+    private void recount(String sql, Collection<Long> ids) {
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[]{id, id});
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, args);
+        }
+    }
+
+    /**
+     * 表名拼接进SQL，只允许固定的两张关系表
+     */
+    private String checkTable(String table) {
+        if (!TABLE_POST_LIKES.equals(table) && !TABLE_POST_COLLECT.equals(table)) {
+            throw new IllegalArgumentException("不支持的关系表: " + table);
+        }
+        return table;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * 用户与帖子的关系键
+     */
+    public record UserPostPair(long userId, long postId) {
+    }
+
+    /**
+     * 用户已点赞、已收藏的帖子ID
+     */
+    public record InteractedPostIds(Set<Long> liked, Set<Long> collected) {
+    }
+}
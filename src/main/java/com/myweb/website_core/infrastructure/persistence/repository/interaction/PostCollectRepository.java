@@ -45,4 +45,8 @@ public interface PostCollectRepository extends JpaRepository<PostCollect, Long>
     
     // 根据帖子ID查找收藏记录
     List<PostCollect> findByPostId(Long postId);
-}
\ No newline at end of file
+    
+    // 获取帖子的所有收藏用户ID
+    @Query("SELECT pc.user.id FROM PostCollect pc WHERE pc.post.id = :postId")
+    List<Long> findUserIdsByPostId(@Param("postId") Long postId);
+}
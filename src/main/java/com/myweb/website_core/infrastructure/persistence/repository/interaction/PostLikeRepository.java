@@ -77,4 +77,10 @@ public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
      * 根据帖子ID查找点赞记录
      */
     List<PostLike> findByPostId(Long postId);
-}
\ No newline at end of file
+    
+    /**
+     * 获取帖子的所有点赞用户ID
+     */
+    @Query("SELECT pl.user.id FROM PostLike pl WHERE pl.post.id = :postId")
+    List<Long> findUserIdsByPostId(@Param("postId") Long postId);
+}
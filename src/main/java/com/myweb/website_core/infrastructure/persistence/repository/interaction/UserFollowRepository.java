@@ -1,12 +1,14 @@
 package com.myweb.website_core.infrastructure.persistence.repository.interaction;
 
 import com.myweb.website_core.domain.business.entity.UserFollow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -67,4 +69,21 @@ public interface UserFollowRepository extends JpaRepository<UserFollow, Long> {
      */
     @Query("SELECT uf.followerId FROM UserFollow uf WHERE uf.followingId = :followingId")
     List<Long> findFollowerIdsByFollowingId(@Param("followingId") Long followingId);
+
+    /**
+     * 按粉丝ID游标分批读取用户的粉丝ID（用于关注流推送）
+     */
+    @Query("SELECT uf.followerId FROM UserFollow uf WHERE uf.followingId = :followingId " +
+           "AND uf.followerId > :afterId ORDER BY uf.followerId ASC")
+    List<Long> findFollowerIdsAfter(@Param("followingId") Long followingId,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+    /**
+     * 在给定用户中筛选出被关注的用户ID
+     */
+    @Query("SELECT uf.followingId FROM UserFollow uf WHERE uf.followerId = :followerId " +
+           "AND uf.followingId IN :candidateIds")
+    List<Long> findFollowingIdsIn(@Param("followerId") Long followerId,
+                                  @Param("candidateIds") Collection<Long> candidateIds);
 }
\ No newline at end of file
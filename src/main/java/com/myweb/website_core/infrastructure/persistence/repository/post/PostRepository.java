@@ -1,12 +1,16 @@
 package com.myweb.website_core.infrastructure.persistence.repository.post;
 
 import com.myweb.website_core.domain.business.entity.Post;
+import com.myweb.website_core.domain.security.dto.ContentIntegrityRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -54,6 +58,16 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
      */
     @Query("SELECT p FROM Post p ORDER BY p.likeCount DESC")
     List<Post> findTopLikedPosts(@Param("limit") int limit);
+
+    /**
+     * 读取点赞数最多的帖子ID和点赞数（用于重建点赞排行榜）
+     *
+     * @param pageable 最多读取的数量
+     * @return 帖子ID和点赞数（按点赞数倒序）
+     */
+    @Query("SELECT p.id AS postId, p.likeCount AS likeCount FROM Post p " +
+           "WHERE p.likeCount > 0 ORDER BY p.likeCount DESC, p.id DESC")
+    List<PostLikeCount> findTopLikeCounts(Pageable pageable);
     
     /**
      * 搜索帖子（标题或内容包含关键词）
@@ -66,4 +80,95 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
            "LOWER(p.content) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "ORDER BY p.createdAt DESC")
     List<Post> searchPosts(@Param("keyword") String keyword);
-}
\ No newline at end of file
+
+    /**
+     * 根据ID批量查询帖子并抓取作者
+     * 
+     * @param ids 帖子ID集合
+     * @return 帖子列表（顺序不保证）
+     */
+    @Query("SELECT p FROM Post p LEFT JOIN FETCH p.author WHERE p.id IN :ids")
+    List<Post> findAllWithAuthorByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 时间线首页：按 (createdAt, id) 倒序读取最新的帖子并抓取作者
+     * 
+     * @param pageable 页大小
+     * @return 帖子列表
+     */
+    @Query("SELECT p FROM Post p LEFT JOIN FETCH p.author ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findTimelineFirstPage(Pageable pageable);
+    
+    /**
+     * 时间线翻页：读取 (createdAt, id) 游标之后的帖子并抓取作者
+     * 
+     * 使用行值比较 (created_at, id) &lt; (?, ?)，PostgreSQL可直接作为 (created_at, id) 索引的范围扫描起点
+     * 
+     * @param createdAt 上一页最后一个帖子的创建时间
+     * @param id 上一页最后一个帖子ID
+     * @param pageable 页大小
+     * @return 帖子列表
+     */
+    @Query("SELECT p FROM Post p LEFT JOIN FETCH p.author " +
+           "WHERE (p.createdAt, p.id) < (:createdAt, :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findTimelineBefore(@Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") Long id,
+                                  Pageable pageable);
+    
+    /**
+     * 按ID游标分批读取帖子（用于重建搜索索引）
+     * 
+     * @param afterId 上一批最后一个帖子ID
+     * @param pageable 批大小
+     * @return 帖子列表
+     */
+    @Query("SELECT p FROM Post p WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<Post> findBatchAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 读取一组作者最近发布的帖子ID，走 (author_id, id) 索引（用于重建关注流）
+     *
+     * @param authorIds 作者ID集合
+     * @param pageable 最多读取的数量
+     * @return 帖子ID列表（按ID倒序）
+     */
+    @Query("SELECT p.id FROM Post p WHERE p.author.id IN :authorIds ORDER BY p.id DESC")
+    List<Long> findRecentIdsByAuthorIdIn(@Param("authorIds") Collection<Long> authorIds, Pageable pageable);
+
+    /**
+     * 按ID游标分批读取帖子的完整性校验字段（用于完整性检查）
+     * 
+     * @param afterId 上一批最后一个帖子ID
+     * @param pageable 批大小
+     * @return 校验行列表
+     */
+    @Query("SELECT new com.myweb.website_core.domain.security.dto.ContentIntegrityRow(" +
+           "p.id, p.content, p.contentHash, p.hashCalculatedAt) " +
+           "FROM Post p WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<ContentIntegrityRow> findIntegrityRowsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * 按ID游标分批读取指定时间之后保存过的帖子的完整性校验字段（用于增量完整性检查）
+     * 
+     * @param afterId 上一批最后一个帖子ID
+     * @param since 水位时间
+     * @param pageable 批大小
+     * @return 校验行列表
+     */
+    @Query("SELECT new com.myweb.website_core.domain.security.dto.ContentIntegrityRow(" +
+           "p.id, p.content, p.contentHash, p.hashCalculatedAt) " +
+           "FROM Post p WHERE p.id > :afterId " +
+           "AND (p.hashCalculatedAt IS NULL OR p.hashCalculatedAt >= :since) ORDER BY p.id ASC")
+    List<ContentIntegrityRow> findIntegrityRowsModifiedSince(@Param("afterId") Long afterId,
+                                                             @Param("since") LocalDateTime since,
+                                                             Pageable pageable);
+
+    /**
+     * 帖子ID与点赞数
+     */
+    interface PostLikeCount {
+        Long getPostId();
+        Integer getLikeCount();
+    }
+}
@@ -1,9 +1,13 @@
 package com.myweb.website_core.infrastructure.persistence.repository.user;
 
 import com.myweb.website_core.domain.business.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,10 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     Optional<User> findByEmail(String email);
     Optional<User> findByUsernameOrEmail(String username, String email);
     boolean existsByEmailAndIdNot(String email, Long id);
-} 
\ No newline at end of file
+
+    /**
+     * 按ID游标分批读取用户（用于重建搜索索引）
+     */
+    @Query("SELECT u FROM User u WHERE u.id > :afterId ORDER BY u.id ASC")
+    List<User> findBatchAfterId(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,247 @@
+package com.myweb.website_core.infrastructure.redis;
+
+import com.myweb.website_core.common.util.RedisKey;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Redis键管理组件
+ * <p>
+ * 替代 KEYS 命令的批量键操作：
+ * <ul>
+ *   <li>按模式遍历使用 SCAN 游标，每次只取一批，不阻塞Redis</li>
+ *   <li>删除使用批量 UNLINK，内存回收在Redis后台线程完成</li>
+ *   <li>键名中不含用户ID的用户相关键登记到用户键索引，按用户清理时直接读取索引，开销只与该用户的键数量有关</li>
+ * </ul>
+ * 过期数据依赖键自身的TTL，不再轮询检查。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisKeyManager {
+
+    /**
+     * 每次SCAN的建议返回数量
+     */
+    static final int SCAN_COUNT = 1000;
+
+    /**
+     * 每次UNLINK的最大键数量
+     */
+    static final int BATCH_SIZE = 500;
+
+    /**
+     * 用户键索引的过期时间，不短于索引中最长的会话生命周期
+     */
+    static final Duration USER_KEY_INDEX_TTL = Duration.ofDays(7);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    // ========== 用户键索引 ==========
+
+    /**
+     * 登记属于用户的键
+     *
+     * @param userId 用户ID
+     * @param keys 键名
+     */
+    public void registerUserKeys(Long userId, String... keys) {
+        if (userId == null || keys == null || keys.length == 0) {
+            return;
+        }
+        String indexKey = RedisKey.userKeyIndexKey(userId);
+        redisTemplate.opsForSet().add(indexKey, (Object[]) keys);
+        redisTemplate.expire(indexKey, USER_KEY_INDEX_TTL);
+    }
+
+    /**
+     * 获取用户键索引中登记的键
+     *
+     * @param userId 用户ID
+     * @return 键名集合
+     */
+    public Set<String> getUserKeys(Long userId) {
+        if (userId == null) {
+            return Collections.emptySet();
+        }
+        Set<Object> members = redisTemplate.opsForSet().members(RedisKey.userKeyIndexKey(userId));
+        if (members == null || members.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> keys = new LinkedHashSet<>(members.size());
+        for (Object member : members) {
+            keys.add(String.valueOf(member));
+        }
+        return keys;
+    }
+
+    /**
+     * 删除用户键索引本身
+     *
+     * @param userId 用户ID
+     */
+    public void removeUserKeyIndex(Long userId) {
+        if (userId != null) {
+            unlink(List.of(RedisKey.userKeyIndexKey(userId)));
+        }
+    }
+
+    // ========== 批量删除 ==========
+
+    /**
+     * 分批UNLINK删除键
+     *
+     * @param keys 键名
+     * @return 实际删除的键数量
+     */
+    public long unlink(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+        long removed = 0;
+        List<String> batch = new ArrayList<>(Math.min(keys.size(), BATCH_SIZE));
+        for (String key : keys) {
+            batch.add(key);
+            if (batch.size() >= BATCH_SIZE) {
+                removed += unlinkBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            removed += unlinkBatch(batch);
+        }
+        return removed;
+    }
+
+    /**
+     * 按模式SCAN并UNLINK匹配的键
+     *
+     * @param pattern 键模式
+     * @return 删除的键数量
+     */
+    public long unlinkByPattern(String pattern) {
+        long[] removed = {0};
+        scan(pattern, batch -> removed[0] += unlinkBatch(batch));
+        log.debug("按模式删除Redis键: pattern={}, count={}", pattern, removed[0]);
+        return removed[0];
+    }
+
+    /**
+     * 按模式统计键数量
+     *
+     * @param pattern 键模式
+     * @return 匹配的键数量
+     */
+    public long countByPattern(String pattern) {
+        long[] count = {0};
+        scan(pattern, batch -> count[0] += batch.size());
+        return count[0];
+    }
+
+    /**
+     * 按模式SCAN键，每凑满一批回调一次
+     *
+     * @param pattern 键模式
+     * @param batchConsumer 批处理回调
+     */
+    public void scan(String pattern, Consumer<List<String>> batchConsumer) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= BATCH_SIZE) {
+                    batchConsumer.accept(List.copyOf(batch));
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(List.copyOf(batch));
+        }
+    }
+
+    // ========== 索引集合维护 ==========
+
+    /**
+     * 清理集合中对应键已不存在的成员
+     * <p>
+     * 使用 SSCAN 分批遍历集合，每批通过管道一次性检查对应键是否存在，再批量移除失效成员。
+     *
+     * @param setKey 集合键
+     * @param keyOfMember 成员到对应键名的映射
+     * @return 移除的成员数量
+     */
+    public long pruneSetMembers(String setKey, Function<String, String> keyOfMember) {
+        long removed = 0;
+        ScanOptions options = ScanOptions.scanOptions().count(SCAN_COUNT).build();
+        List<String> members = new ArrayList<>(BATCH_SIZE);
+        try (Cursor<Object> cursor = redisTemplate.opsForSet().scan(setKey, options)) {
+            while (cursor.hasNext()) {
+                members.add(String.valueOf(cursor.next()));
+                if (members.size() >= BATCH_SIZE) {
+                    removed += removeMissingMembers(setKey, members, keyOfMember);
+                    members.clear();
+                }
+            }
+        }
+        if (!members.isEmpty()) {
+            removed += removeMissingMembers(setKey, members, keyOfMember);
+        }
+        return removed;
+    }
+
+    // ========== 私有方法 ==========
+
+    private long unlinkBatch(List<String> keys) {
+        Long removed = redisTemplate.unlink(keys);
+        return removed != null ? removed : 0;
+    }
+
+    private long removeMissingMembers(String setKey, List<String> members, Function<String, String> keyOfMember) {
+        List<String> keys = members.stream().map(keyOfMember).toList();
+        List<Object> exists = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String key : keys) {
+                    ops.hasKey(key);
+                }
+                return null;
+            }
+        });
+        if (exists == null || exists.size() != members.size()) {
+            return 0;
+        }
+
+        List<Object> missing = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            if (Boolean.FALSE.equals(exists.get(i))) {
+                missing.add(members.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return 0;
+        }
+        Long removed = redisTemplate.opsForSet().remove(setKey, missing.toArray());
+        return removed != null ? removed : 0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.myweb.website_core.infrastructure.search;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并发数有上限的虚拟线程执行器
+ *
+ * 每个任务使用一个新的虚拟线程，虚拟线程不做池化；并发数由信号量限制。
+ * 没有空闲许可时立即拒绝任务，调用方不会因此阻塞，
+ * 可以把被拒绝的任务当作失败的数据源处理。
+ *
+ * @author MyWeb
+ * @version 1.0
+ */
+public class BoundedVirtualThreadExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+
+    /**
+     * @param maxConcurrency 最大并发任务数
+     * @param threadFactory 虚拟线程工厂
+     */
+    public BoundedVirtualThreadExecutor(int maxConcurrency, ThreadFactory threadFactory) {
+        this.delegate = Executors.newThreadPerTaskExecutor(threadFactory);
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * 提交任务
+     *
+     * @throws RejectedExecutionException 并发数已满或执行器已关闭时
+     */
+    @Override
+    public void execute(Runnable command) {
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("并发任务数已达上限");
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 当前可用许可数
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
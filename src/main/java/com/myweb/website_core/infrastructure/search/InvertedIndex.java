@@ -0,0 +1,250 @@
+package com.myweb.website_core.infrastructure.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存倒排索引
+ *
+ * 以文档ID（实体主键）为单位维护词元倒排表，支持：
+ * - 增量添加、更新和删除文档
+ * - 所有查询词元同时命中（AND语义）的检索
+ * - BM25相关性评分，或按文档排序键（如创建时间）倒序排列
+ *
+ * 读写通过读写锁保护，查询之间互不阻塞；单次写入只涉及一个文档的词元，持锁时间很短。
+ */
+public class InvertedIndex {
+
+    /**
+     * BM25词频饱和参数
+     */
+    private static final double K1 = 1.2;
+
+    /**
+     * BM25文档长度归一化参数
+     */
+    private static final double B = 0.75;
+
+    private final String name;
+
+    /**
+     * 词元 -> (文档ID -> 词频)
+     */
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    /**
+     * 文档ID -> 文档信息
+     */
+    private final Map<Long, DocInfo> documents = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long totalLength;
+
+    public InvertedIndex(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 添加或替换文档
+     *
+     * @param docId 文档ID
+     * @param text 待索引文本
+     * @param sortKey 排序键（如创建时间毫秒数），用于按时间排序
+     */
+    public void index(long docId, String text, long sortKey) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        for (String token : tokens) {
+            termFrequencies.merge(token, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(docId, entry.getValue());
+            }
+            documents.put(docId, new DocInfo(tokens.size(), sortKey, termFrequencies.keySet().toArray(new String[0])));
+            totalLength += tokens.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     *
+     * @param docId 文档ID
+     */
+    public void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 检索文档
+     *
+     * @param keyword 查询关键词
+     * @param byRelevance true按BM25评分排序，false按排序键倒序
+     * @param offset 结果偏移量
+     * @param limit 返回数量
+     * @param maxResults 参与排序的最大命中数
+     * @return 检索结果
+     */
+    public SearchHits search(String keyword, boolean byRelevance, int offset, int limit, int maxResults) {
+        Set<String> terms = new LinkedHashSet<>(SearchTokenizer.tokenizeQuery(keyword));
+        if (terms.isEmpty()) {
+            return SearchHits.EMPTY;
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    return SearchHits.EMPTY;
+                }
+                termPostings.add(posting);
+            }
+
+            // 从最短的倒排表开始求交集
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            Map<Long, Integer> shortest = termPostings.get(0);
+            int docCount = documents.size();
+            double avgLength = docCount > 0 ? (double) totalLength / docCount : 0;
+
+            double[] idf = new double[termPostings.size()];
+            for (int t = 0; t < termPostings.size(); t++) {
+                int df = termPostings.get(t).size();
+                idf[t] = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            }
+
+            for (Long docId : shortest.keySet()) {
+                DocInfo doc = documents.get(docId);
+                double score = 0;
+                boolean matched = true;
+                for (int t = 0; t < termPostings.size(); t++) {
+                    Integer tf = termPostings.get(t).get(docId);
+                    if (tf == null) {
+                        matched = false;
+                        break;
+                    }
+                    double norm = K1 * (1 - B + B * (avgLength > 0 ? doc.length / avgLength : 1));
+                    score += idf[t] * (tf * (K1 + 1)) / (tf + norm);
+                }
+                if (matched) {
+                    hits.add(new Hit(docId, score, doc.sortKey));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Comparator<Hit> order = byRelevance
+                ? Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::docId, Comparator.reverseOrder())
+                : Comparator.comparingLong(Hit::sortKey).reversed().thenComparing(Hit::docId, Comparator.reverseOrder());
+        hits.sort(order);
+
+        int total = Math.min(hits.size(), maxResults);
+        if (offset >= total) {
+            return new SearchHits(List.of(), total);
+        }
+        return new SearchHits(List.copyOf(hits.subList(offset, Math.min(offset + limit, total))), total);
+    }
+
+    /**
+     * 已索引的文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 词典大小
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void removeInternal(long docId) {
+        DocInfo existing = documents.remove(docId);
+        if (existing == null) {
+            return;
+        }
+        totalLength -= existing.length;
+        for (String term : existing.terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(docId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * 文档信息：长度、排序键和去重后的词元（删除时用于定位倒排表）
+     */
+    private record DocInfo(int length, long sortKey, String[] terms) {
+    }
+
+    /**
+     * 单个命中结果
+     */
+    public record Hit(long docId, double score, long sortKey) {
+    }
+
+    /**
+     * 检索结果：当前页命中和命中总数
+     */
+    public record SearchHits(List<Hit> hits, long total) {
+
+        public static final SearchHits EMPTY = new SearchHits(List.of(), 0);
+
+        public List<Long> docIds() {
+            return hits.stream().map(Hit::docId).toList();
+        }
+    }
+}
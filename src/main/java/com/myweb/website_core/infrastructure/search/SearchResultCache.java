@@ -0,0 +1,315 @@
+package com.myweb.website_core.infrastructure.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.myweb.website_core.common.constant.SearchConstants;
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.common.util.SearchUtils;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
+import com.myweb.website_core.domain.business.dto.SearchResultDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 搜索结果两级缓存
+ *
+ * - L1：进程内Caffeine缓存，容量有上限，采用W-TinyLFU准入与淘汰，热点查询不出JVM
+ * - L2：Redis缓存，多节点共享
+ *
+ * 清除搜索缓存时，通过Redis发布/订阅通知所有节点清除本地L1。
+ * 内容变更不逐个删除L2键，而是递增Redis中的缓存代数：L2键带有代数后缀，
+ * 代数变化后旧结果不再被读取，由TTL自然过期。内容变更合并后按固定间隔递增一次代数并广播，
+ * 各节点收到后切换代数并清空L1；没有变更时每个间隔从Redis同步一次代数，以防漏收广播。
+ * 两级缓存的命中、未命中和淘汰计数通过Micrometer导出。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchResultCache implements MessageListener {
+
+    /**
+     * 本地缓存失效广播频道
+     */
+    public static final String INVALIDATION_CHANNEL = "search:cache:invalidate";
+
+    /**
+     * 失效消息：清除全部本地缓存
+     */
+    private static final String INVALIDATE_ALL = "*";
+
+    /**
+     * 失效消息前缀：按关键词清除本地缓存
+     */
+    private static final String KEYWORD_PREFIX = "k:";
+
+    /**
+     * 失效消息前缀：切换到新的缓存代数
+     */
+    private static final String GENERATION_PREFIX = "g:";
+
+    /**
+     * L2键的代数后缀分隔符
+     */
+    private static final String GENERATION_SEPARATOR = ":g";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.search.near-cache.maximum-size:2000}")
+    private long maximumSize;
+
+    @Value("${app.search.near-cache.expire-after-write-seconds:60}")
+    private long expireAfterWriteSeconds;
+
+    private Cache<String, SearchResultDTO<?>> localCache;
+
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder remoteErrors = new LongAdder();
+
+    /**
+     * 是否有待广播的内容变更失效
+     */
+    private final AtomicBoolean contentChanged = new AtomicBoolean(false);
+
+    /**
+     * 本节点当前使用的缓存代数
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "search.l1");
+        FunctionCounter.builder("search.l2.requests", remoteHits, LongAdder::sum)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("search.l2.requests", remoteMisses, LongAdder::sum)
+                .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("search.l2.errors", remoteErrors, LongAdder::sum).register(meterRegistry);
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+        syncGeneration();
+        log.info("搜索结果本地缓存初始化完成，容量: {}, 过期时间: {}s", maximumSize, expireAfterWriteSeconds);
+    }
+
+    /**
+     * 获取缓存的搜索结果，L1未命中时查询L2并回填L1
+     *
+     * @param cacheKey 缓存键
+     * @return 搜索结果，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SearchResultDTO<T> get(String cacheKey) {
+        SearchResultDTO<?> local = localCache.getIfPresent(cacheKey);
+        if (local != null) {
+            return (SearchResultDTO<T>) local.copy();
+        }
+
+        String remoteKey = remoteKey(cacheKey);
+        try {
+            Object cached = redisTemplate.opsForValue().get(remoteKey);
+            if (cached instanceof SearchResultDTO<?> remote) {
+                remoteHits.increment();
+                localCache.put(cacheKey, remote);
+                return (SearchResultDTO<T>) remote.copy();
+            }
+            remoteMisses.increment();
+        } catch (Exception e) {
+            remoteErrors.increment();
+            log.warn("获取缓存搜索结果失败，缓存键: {}，错误: {}，将删除该缓存", remoteKey, e.getMessage());
+            // 删除有问题的缓存
+            try {
+                redisTemplate.delete(remoteKey);
+            } catch (Exception deleteEx) {
+                log.warn("删除有问题的缓存失败: {}", deleteEx.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 写入两级缓存
+     *
+     * @param cacheKey 缓存键
+     * @param result 搜索结果
+     */
+    public void put(String cacheKey, SearchResultDTO<?> result) {
+        localCache.put(cacheKey, result.copy());
+        try {
+            redisTemplate.opsForValue().set(remoteKey(cacheKey), result, SearchConstants.CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES);
+            log.debug("缓存搜索结果，缓存键: {}", cacheKey);
+        } catch (Exception e) {
+            remoteErrors.increment();
+            log.warn("缓存搜索结果失败，缓存键: {}", cacheKey, e);
+        }
+    }
+
+    /**
+     * 清除本节点L1并广播给其他节点
+     *
+     * @param keyword 关键词（为空则清除全部）
+     */
+    public void invalidate(String keyword) {
+        String message = StringUtils.hasText(keyword) ? KEYWORD_PREFIX + keyword : INVALIDATE_ALL;
+        invalidateLocal(message);
+        publish(message);
+    }
+
+    /**
+     * 内容变更提交后标记失效，由定时任务合并处理
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChange(ContentChangeEvent event) {
+        markContentChanged();
+    }
+
+    /**
+     * 标记内容已变更，下个间隔递增缓存代数
+     *
+     * 搜索索引在应用变更（包括其他节点同步来的变更）后也会调用，
+     * 保证代数递增发生在索引更新之后，不会把旧索引的结果缓存到新代数下。
+     */
+    public void markContentChanged() {
+        contentChanged.set(true);
+    }
+
+    /**
+     * 有内容变更时递增缓存代数并广播，否则从Redis同步代数
+     */
+    @Scheduled(fixedDelayString = "${app.search.near-cache.invalidation-interval-ms:1000}")
+    public void flushContentChanges() {
+        if (!contentChanged.compareAndSet(true, false)) {
+            syncGeneration();
+            return;
+        }
+        try {
+            Long next = stringRedisTemplate.opsForValue().increment(RedisKey.SEARCH_CACHE_GENERATION);
+            if (next != null) {
+                switchGeneration(next);
+                publish(GENERATION_PREFIX + next);
+            }
+        } catch (Exception e) {
+            // 下个间隔重试；本节点先清空L1，避免继续返回旧结果
+            contentChanged.set(true);
+            localCache.invalidateAll();
+            remoteErrors.increment();
+            log.warn("递增搜索缓存代数失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 接收其他节点（包括本节点）的失效广播
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            String text = body != null ? body.toString() : INVALIDATE_ALL;
+            if (text.startsWith(GENERATION_PREFIX)) {
+                switchGeneration(Long.parseLong(text.substring(GENERATION_PREFIX.length())));
+            } else {
+                invalidateLocal(text);
+            }
+        } catch (Exception e) {
+            log.warn("处理搜索缓存失效消息失败，清除全部本地缓存: {}", e.getMessage());
+            localCache.invalidateAll();
+        }
+    }
+
+    /**
+     * 获取两级缓存统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        CacheStats l1 = localCache.stats();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("l1Size", localCache.estimatedSize());
+        stats.put("l1Hits", l1.hitCount());
+        stats.put("l1Misses", l1.missCount());
+        stats.put("l1Evictions", l1.evictionCount());
+        stats.put("l1HitRate", l1.hitRate());
+        stats.put("l2Hits", remoteHits.sum());
+        stats.put("l2Misses", remoteMisses.sum());
+        stats.put("l2Errors", remoteErrors.sum());
+        stats.put("generation", generation.get());
+        return stats;
+    }
+
+    // ========== 私有方法 ==========
+
+    private String remoteKey(String cacheKey) {
+        return cacheKey + GENERATION_SEPARATOR + generation.get();
+    }
+
+    /**
+     * 切换到指定代数；代数与当前不同时清空L1
+     *
+     * 按“不同”而不是“更大”判断，Redis中的代数键丢失后重新从1开始也能切换过去。
+     */
+    private void switchGeneration(long next) {
+        long previous = generation.getAndSet(next);
+        if (previous != next) {
+            localCache.invalidateAll();
+            log.debug("搜索缓存代数切换: {} -> {}", previous, next);
+        }
+    }
+
+    private void syncGeneration() {
+        try {
+            String current = stringRedisTemplate.opsForValue().get(RedisKey.SEARCH_CACHE_GENERATION);
+            switchGeneration(current != null ? Long.parseLong(current) : 0L);
+        } catch (Exception e) {
+            log.debug("同步搜索缓存代数失败: {}", e.getMessage());
+        }
+    }
+
+    private void invalidateLocal(String message) {
+        if (!message.startsWith(KEYWORD_PREFIX)) {
+            localCache.invalidateAll();
+            log.debug("清除全部本地搜索缓存");
+            return;
+        }
+        String keyword = message.substring(KEYWORD_PREFIX.length());
+        String cacheKeyword = SearchUtils.toCacheKeyword(keyword);
+        localCache.asMap().keySet().removeIf(key -> key.contains(keyword) || key.contains(cacheKeyword));
+        log.debug("清除本地搜索缓存，关键词: {}", keyword);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            log.warn("广播搜索缓存失效消息失败: {}", e.getMessage());
+        }
+    }
+}
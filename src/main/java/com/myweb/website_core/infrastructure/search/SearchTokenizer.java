@@ -0,0 +1,116 @@
+package com.myweb.website_core.infrastructure.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索分词器
+ *
+ * 为倒排索引提供与语言无关的轻量分词：
+ * - 中日韩字符按二元组（bigram）切分；建索引时额外保留单字词元，以支持单字查询
+ * - 拉丁字母与数字按连续片段切分并统一转为小写
+ * - 其余字符（标点、空白、符号）作为分隔符
+ *
+ * 查询产生的词元总是索引词元的子集，因此“关键词的所有词元都命中”近似于原有的LIKE子串匹配
+ * （拉丁单词按整词匹配，不再匹配单词内部的子串）。
+ */
+public final class SearchTokenizer {
+
+    /**
+     * 单个拉丁词元的最大长度，超出部分截断，避免异常长串撑大词典
+     */
+    private static final int MAX_WORD_LENGTH = 32;
+
+    private SearchTokenizer() {
+        // 防止实例化
+    }
+
+    /**
+     * 对待索引文本进行分词
+     *
+     * @param text 原始文本
+     * @return 词元列表（按出现顺序，可能包含重复词元）
+     */
+    public static List<String> tokenize(String text) {
+        return tokenize(text, true);
+    }
+
+    /**
+     * 对查询关键词进行分词
+     *
+     * 查询侧只产生二元组（单字片段除外），使多字关键词不被高频单字稀释
+     *
+     * @param keyword 查询关键词
+     * @return 词元列表
+     */
+    public static List<String> tokenizeQuery(String keyword) {
+        return tokenize(keyword, false);
+    }
+
+    private static List<String> tokenize(String text, boolean withUnigrams) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjkRun = new StringBuilder();
+
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (isCjk(codePoint)) {
+                flushWord(word, tokens);
+                cjkRun.appendCodePoint(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, tokens, withUnigrams);
+                if (word.length() < MAX_WORD_LENGTH) {
+                    word.appendCodePoint(Character.toLowerCase(codePoint));
+                }
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjkRun, tokens, withUnigrams);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjkRun, tokens, withUnigrams);
+        return tokens;
+    }
+
+    /**
+     * 判断是否为中日韩字符
+     */
+    static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString().toLowerCase(Locale.ROOT));
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(StringBuilder run, List<String> tokens, boolean withUnigrams) {
+        if (run.length() == 0) {
+            return;
+        }
+        int[] codePoints = run.codePoints().toArray();
+        if (codePoints.length == 1 || withUnigrams) {
+            for (int j = 0; j < codePoints.length; j++) {
+                tokens.add(new String(codePoints, j, 1));
+            }
+        }
+        for (int j = 0; j + 1 < codePoints.length; j++) {
+            tokens.add(new String(codePoints, j, 2));
+        }
+        run.setLength(0);
+    }
+}
@@ -0,0 +1,382 @@
+package com.myweb.website_core.infrastructure.security;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 多模式匹配器
+ *
+ * 将一组正则规则编译为一个Aho-Corasick自动机（按ASCII忽略大小写）作为预过滤：
+ * 每条规则关联一个或多个“锚点”字面量，规则的任何匹配都必须包含其中之一。
+ * 扫描输入一遍即可得到所有锚点命中的候选规则，只对候选规则执行正则确认，
+ * 没有命中任何锚点的输入不会执行任何正则。
+ *
+ * 锚点可以显式指定，也可以从正则开头的字面量前缀自动提取；
+ * 无法提取锚点的规则每次都需要正则确认。
+ *
+ * 实例不可变，可在多线程间共享。
+ *
+ * @author MyWeb Security Team
+ * @version 1.0
+ */
+public final class MultiPatternMatcher {
+
+    /**
+     * 自动机字母表：只处理ASCII，非ASCII字符回到初始状态
+     */
+    private static final int ALPHABET = 128;
+
+    private static final int[] NO_RULES = new int[0];
+
+    private final List<Rule> rules;
+
+    /**
+     * 状态转移表（已合并失败链接，即完整DFA）
+     */
+    private final int[][] transitions;
+
+    /**
+     * 每个状态命中的规则（已合并失败链接上的输出）
+     */
+    private final int[][] outputs;
+
+    /**
+     * 没有锚点、每次都需要确认的规则
+     */
+    private final BitSet unanchoredRules;
+
+    private MultiPatternMatcher(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
+        this.unanchoredRules = new BitSet(rules.size());
+
+        List<int[]> children = new ArrayList<>();
+        List<BitSet> ruleSets = new ArrayList<>();
+        children.add(newNode());
+        ruleSets.add(new BitSet());
+
+        for (int r = 0; r < this.rules.size(); r++) {
+            Rule rule = this.rules.get(r);
+            if (rule.anchors().isEmpty()) {
+                unanchoredRules.set(r);
+                continue;
+            }
+            for (String anchor : rule.anchors()) {
+                int state = 0;
+                for (int i = 0; i < anchor.length(); i++) {
+                    int c = anchor.charAt(i);
+                    if (children.get(state)[c] < 0) {
+                        children.get(state)[c] = children.size();
+                        children.add(newNode());
+                        ruleSets.add(new BitSet());
+                    }
+                    state = children.get(state)[c];
+                }
+                ruleSets.get(state).set(r);
+            }
+        }
+
+        // 广度优先计算失败链接，并把缺失的转移补全为失败状态的转移
+        int stateCount = children.size();
+        int[] fail = new int[stateCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = children.get(0)[c];
+            if (next < 0) {
+                children.get(0)[c] = 0;
+            } else {
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            ruleSets.get(state).or(ruleSets.get(fail[state]));
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = children.get(state)[c];
+                if (next < 0) {
+                    children.get(state)[c] = children.get(fail[state])[c];
+                } else {
+                    fail[next] = children.get(fail[state])[c];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = children.toArray(new int[0][]);
+        this.outputs = new int[stateCount][];
+        for (int s = 0; s < stateCount; s++) {
+            BitSet set = ruleSets.get(s);
+            outputs[s] = set.isEmpty() ? NO_RULES : set.stream().toArray();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 输入是否可能匹配任一规则（只执行预过滤，不执行正则）
+     *
+     * @param input 输入内容
+     * @return 命中任一锚点或存在无锚点规则时返回true
+     */
+    public boolean mayMatch(CharSequence input) {
+        if (!unanchoredRules.isEmpty()) {
+            return true;
+        }
+        if (input == null) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            state = next(state, input.charAt(i));
+            if (outputs[state].length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 输入是否匹配任一规则
+     */
+    public boolean containsAny(CharSequence input) {
+        if (input == null) {
+            return false;
+        }
+        BitSet candidates = scan(input);
+        for (int r = candidates.nextSetBit(0); r >= 0; r = candidates.nextSetBit(r + 1)) {
+            if (rules.get(r).matches(input)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按规则添加顺序返回第一个匹配的规则类型
+     *
+     * @return 规则类型，没有匹配时返回null
+     */
+    public String firstMatchedType(CharSequence input) {
+        if (input == null) {
+            return null;
+        }
+        BitSet candidates = scan(input);
+        for (int r = candidates.nextSetBit(0); r >= 0; r = candidates.nextSetBit(r + 1)) {
+            Rule rule = rules.get(r);
+            if (rule.matches(input)) {
+                return rule.type();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 返回所有匹配的规则类型（按规则添加顺序去重）
+     */
+    public List<String> matchedTypes(CharSequence input) {
+        Set<String> types = new LinkedHashSet<>();
+        if (input == null) {
+            return new ArrayList<>();
+        }
+        BitSet candidates = scan(input);
+        for (int r = candidates.nextSetBit(0); r >= 0; r = candidates.nextSetBit(r + 1)) {
+            Rule rule = rules.get(r);
+            if (!types.contains(rule.type()) && rule.matches(input)) {
+                types.add(rule.type());
+            }
+        }
+        return new ArrayList<>(types);
+    }
+
+    /**
+     * 规则数量
+     */
+    public int ruleCount() {
+        return rules.size();
+    }
+
+    /**
+     * 自动机状态数量
+     */
+    public int stateCount() {
+        return transitions.length;
+    }
+
+    /**
+     * 扫描一遍输入，返回候选规则
+     */
+    private BitSet scan(CharSequence input) {
+        BitSet candidates = (BitSet) unanchoredRules.clone();
+        int state = 0;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            state = next(state, input.charAt(i));
+            for (int r : outputs[state]) {
+                candidates.set(r);
+            }
+        }
+        return candidates;
+    }
+
+    private int next(int state, char ch) {
+        if (ch >= ALPHABET) {
+            return 0;
+        }
+        return transitions[state][toLowerAscii(ch)];
+    }
+
+    private static int[] newNode() {
+        int[] node = new int[ALPHABET];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    private static char toLowerAscii(char ch) {
+        return ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+    }
+
+    /**
+     * 提取正则开头的字面量前缀，作为规则的锚点
+     *
+     * 遇到元字符、字符类转义或量词时停止；含有分支（|）或非ASCII前缀时不提取。
+     *
+     * @param regex 正则表达式
+     * @return 小写的字面量前缀，无法提取时返回空字符串
+     */
+    static String literalPrefix(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+        StringBuilder prefix = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char ch = regex.charAt(i);
+            int width = 1;
+            if (ch == '\\') {
+                if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    break;
+                }
+                ch = regex.charAt(i + 1);
+                width = 2;
+            } else if (".[]{}()*+?^$".indexOf(ch) >= 0) {
+                break;
+            }
+            int after = i + width;
+            if (after < regex.length() && "*?{".indexOf(regex.charAt(after)) >= 0) {
+                // 该字符可以不出现
+                break;
+            }
+            if (ch >= ALPHABET) {
+                return "";
+            }
+            prefix.append(toLowerAscii(ch));
+            i = after;
+            if (after < regex.length() && regex.charAt(after) == '+') {
+                break;
+            }
+        }
+        return prefix.toString();
+    }
+
+    /**
+     * 匹配规则
+     *
+     * @param type 规则类型
+     * @param pattern 确认用的正则，为null时命中锚点即视为匹配
+     * @param anchors 小写ASCII锚点，为空时每次都需要正则确认
+     */
+    public record Rule(String type, Pattern pattern, List<String> anchors) {
+
+        boolean matches(CharSequence input) {
+            return pattern == null || pattern.matcher(input).find();
+        }
+    }
+
+    /**
+     * 匹配器构建器
+     */
+    public static final class Builder {
+
+        private final List<Rule> rules = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 添加规则，使用指定的锚点
+         *
+         * @param anchors 锚点，规则的任何匹配都必须包含其中之一（忽略ASCII大小写）
+         */
+        public Builder add(String type, Pattern pattern, String... anchors) {
+            List<String> normalized = new ArrayList<>(anchors.length);
+            for (String anchor : anchors) {
+                normalized.add(normalizeAnchor(anchor));
+            }
+            rules.add(new Rule(type, pattern, List.copyOf(normalized)));
+            return this;
+        }
+
+        /**
+         * 添加规则，从正则开头的字面量前缀提取锚点
+         */
+        public Builder add(String type, Pattern pattern) {
+            String prefix = literalPrefix(pattern.pattern());
+            rules.add(new Rule(type, pattern, prefix.isEmpty() ? List.of() : List.of(prefix)));
+            return this;
+        }
+
+        /**
+         * 添加一组规则，分别提取锚点
+         */
+        public Builder addAll(String type, List<Pattern> patterns) {
+            for (Pattern pattern : patterns) {
+                add(type, pattern);
+            }
+            return this;
+        }
+
+        /**
+         * 添加一组规则，共用指定的锚点
+         */
+        public Builder addAll(String type, List<Pattern> patterns, String... anchors) {
+            for (Pattern pattern : patterns) {
+                add(type, pattern, anchors);
+            }
+            return this;
+        }
+
+        /**
+         * 添加字面量规则，包含任一字面量（忽略ASCII大小写）即视为匹配
+         */
+        public Builder addLiteral(String type, String... literals) {
+            return add(type, null, literals);
+        }
+
+        public MultiPatternMatcher build() {
+            return new MultiPatternMatcher(rules);
+        }
+
+        private static String normalizeAnchor(String anchor) {
+            if (anchor == null || anchor.isEmpty()) {
+                throw new IllegalArgumentException("锚点不能为空");
+            }
+            StringBuilder normalized = new StringBuilder(anchor.length());
+            for (int i = 0; i < anchor.length(); i++) {
+                char ch = anchor.charAt(i);
+                if (ch >= ALPHABET) {
+                    throw new IllegalArgumentException("锚点只能包含ASCII字符: " + anchor);
+                }
+                normalized.append(toLowerAscii(ch));
+            }
+            return normalized.toString();
+        }
+    }
+}
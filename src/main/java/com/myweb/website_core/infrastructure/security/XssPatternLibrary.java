@@ -1,5 +1,6 @@
 package com.myweb.website_core.infrastructure.security;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -213,6 +214,35 @@ public class XssPatternLibrary {
         );
     }
     
+    /**
+     * 所有攻击模式编译成的多模式匹配器
+     *
+     * 每条模式以其开头的字面量（如 "<script"、"onload"、"&#"）作为锚点，
+     * 输入只扫描一遍，只有命中锚点的模式才执行正则确认。
+     */
+    private static final MultiPatternMatcher MATCHER = MultiPatternMatcher.builder()
+        .addAll("SCRIPT_INJECTION", SCRIPT_INJECTION_PATTERNS)
+        .addAll("JAVASCRIPT_PROTOCOL", JAVASCRIPT_PROTOCOL_PATTERNS)
+        .addAll("EVENT_HANDLER", EVENT_HANDLER_PATTERNS)
+        .addAll("EXPRESSION", EXPRESSION_PATTERNS)
+        .addAll("STYLE", STYLE_PATTERNS)
+        .addAll("LINK", LINK_PATTERNS)
+        .addAll("FRAME", FRAME_PATTERNS)
+        .addAll("FORM", FORM_PATTERNS)
+        .addAll("META", META_PATTERNS)
+        .addAll("ENCODING_BYPASS", ENCODING_BYPASS_PATTERNS)
+        .addAll("COMMENT", COMMENT_PATTERNS)
+        .build();
+    
+    /**
+     * 获取所有攻击模式编译成的多模式匹配器
+     * 
+     * @return 多模式匹配器
+     */
+    public static MultiPatternMatcher getMatcher() {
+        return MATCHER;
+    }
+    
     /**
      * 检查输入是否包含XSS攻击模式
      * 
@@ -224,15 +254,7 @@ public class XssPatternLibrary {
             return false;
         }
         
-        for (List<Pattern> patternCategory : getAllPatternCategories()) {
-            for (Pattern pattern : patternCategory) {
-                if (pattern.matcher(input).find()) {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+        return MATCHER.containsAny(input);
     }
     
     /**
@@ -243,46 +265,10 @@ public class XssPatternLibrary {
      */
     public static List<String> getMatchedPatternTypes(String input) {
         if (input == null || input.isEmpty()) {
-            return Arrays.asList();
-        }
-        
-        List<String> matchedTypes = Arrays.asList();
-        
-        if (SCRIPT_INJECTION_PATTERNS.stream().anyMatch(p -> p.matcher(input).find())) {
-            matchedTypes.add("SCRIPT_INJECTION");
-        }
-        if (JAVASCRIPT_PROTOCOL_PATTERNS.stream().anyMatch(p -> p.matcher(input).find())) {
-            matchedTypes.add("JAVASCRIPT_PROTOCOL");
-        }
-        if (EVENT_HANDLER_PATTERNS.stream().anyMatch(p -> p.matcher(input).find())) {
-            matchedTypes.add("EVENT_HANDLER");
-        }
-        if (EXPRESSION_PATTERNS.stream().anyMatch(p -> p.matcher(input).find())) {
-            matchedTypes.add("EXPRESSION");
-        }
-        if (STYLE_PATTERNS.stream().anyMatch(p -> p.matcher(input).find())) {
-            matchedTypes.add("STYLE");
-        }
-        if (LINK_PATTERNS.stream().anyMatch(p -> p.matcher(input).find())) {
-            matchedTypes.add("LINK");
-        }
-        if (FRAME_PATTERNS.stream().anyMatch(p -> p.matcher(input).find())) {
-            matchedTypes.add("FRAME");
-        }
-        if (FORM_PATTERNS.stream().anyMatch(p -> p.matcher(input).find())) {
-            matchedTypes.add("FORM");
-        }
-        if (META_PATTERNS.stream().anyMatch(p -> p.matcher(input).find())) {
-            matchedTypes.add("META");
-        }
-        if (ENCODING_BYPASS_PATTERNS.stream().anyMatch(p -> p.matcher(input).find())) {
-            matchedTypes.add("ENCODING_BYPASS");
-        }
-        if (COMMENT_PATTERNS.stream().anyMatch(p -> p.matcher(input).find())) {
-            matchedTypes.add("COMMENT");
+            return new ArrayList<>();
         }
         
-        return matchedTypes;
+        return MATCHER.matchedTypes(input);
     }
     
     /**
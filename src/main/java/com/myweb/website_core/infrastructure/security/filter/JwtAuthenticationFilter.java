@@ -1,7 +1,9 @@
 package com.myweb.website_core.infrastructure.security.filter;
 
+import com.myweb.website_core.application.service.security.authentication.JWT.JwtPrincipalCache;
 import com.myweb.website_core.application.service.security.authentication.JWT.JwtService;
 import com.myweb.website_core.application.service.security.authentication.JWT.JwtTokenService;
+import com.myweb.website_core.application.service.security.authentication.JWT.VerifiedToken;
 import com.myweb.website_core.infrastructure.security.CustomUserDetailsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -26,6 +28,9 @@ import java.io.IOException;
  * 拦截HTTP请求，验证JWT令牌并设置Spring Security上下文
  * 支持Bearer令牌格式：Authorization: Bearer <token>
  * <p>
+ * 每个请求只验签一次；通过检查的用户主体按令牌ID缓存在本地，
+ * 缓存命中时不访问Redis和数据库，令牌撤销通过 {@link JwtPrincipalCache} 广播失效
+ * <p>
  * 符合GB/T 22239-2019身份鉴别要求
  * 
  * @author MyWeb
@@ -39,9 +44,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final JwtTokenService jwtTokenService;
     private final CustomUserDetailsService userDetailsService;
+    private final JwtPrincipalCache principalCache;
     
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
+    private static final WebAuthenticationDetailsSource DETAILS_SOURCE = new WebAuthenticationDetailsSource();
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -55,44 +62,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             log.debug("处理请求: {}, JWT令牌: {}", request.getRequestURI(), jwt != null ? "存在" : "不存在");
             
             if (StringUtils.hasText(jwt) && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // 验证令牌
-                boolean isValidToken = jwtTokenService.validateToken(jwt);
-                boolean isAccessToken = jwtService.isAccessToken(jwt);
-                
-                log.debug("JWT令牌验证结果: valid={}, isAccessToken={}", isValidToken, isAccessToken);
+                // 验证令牌，签名只校验一次
+                VerifiedToken token = jwtService.parseToken(jwt);
                 
-                if (isValidToken && isAccessToken) {
-                    // 从令牌中获取用户信息
-                    String username = jwtService.getUsernameFromToken(jwt);
-                    Long userId = jwtService.getUserIdFromToken(jwt);
-                    
-                    log.debug("从JWT令牌提取用户信息: username={}, userId={}", username, userId);
+                if (token != null && token.isAccessToken()) {
+                    UserDetails userDetails = principalCache.get(token);
+                    if (userDetails == null) {
+                        userDetails = loadPrincipal(jwt, token);
+                    } else {
+                        log.debug("JWT认证主体缓存命中: username={}, userId={}", token.username(), token.userId());
+                    }
                     
-                    if (StringUtils.hasText(username) && userId != null) {
-                        // 加载用户详情
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    if (userDetails != null) {
+                        // 创建认证对象
+                        UsernamePasswordAuthenticationToken authentication = 
+                                new UsernamePasswordAuthenticationToken(
+                                        userDetails, null, userDetails.getAuthorities());
                         
-                        if (userDetails != null) {
-                            // 创建认证对象
-                            UsernamePasswordAuthenticationToken authentication = 
-                                    new UsernamePasswordAuthenticationToken(
-                                            userDetails, null, userDetails.getAuthorities());
-                            
-                            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                            
-                            // 设置安全上下文
-                            SecurityContextHolder.getContext().setAuthentication(authentication);
-                            
-                            log.debug("JWT认证成功: username={}, userId={}, authorities={}", 
-                                    username, userId, userDetails.getAuthorities());
-                        } else {
-                            log.debug("无法加载用户详情: username={}", username);
-                        }
-                    } else {
-                        log.debug("JWT令牌中缺少用户信息: username={}, userId={}", username, userId);
+                        authentication.setDetails(DETAILS_SOURCE.buildDetails(request));
+                        
+                        // 设置安全上下文
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        
+                        log.debug("JWT认证成功: username={}, userId={}, authorities={}", 
+                                token.username(), token.userId(), userDetails.getAuthorities());
                     }
                 } else {
-                    log.debug("JWT令牌验证失败或非访问令牌: valid={}, isAccessToken={}", isValidToken, isAccessToken);
+                    log.debug("JWT令牌验证失败或非访问令牌: valid={}", token != null);
                 }
             } else if (!StringUtils.hasText(jwt)) {
                 log.debug("请求中未找到JWT令牌");
@@ -110,6 +106,41 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    /**
+     * 缓存未命中时检查黑名单并加载用户主体，成功后写入缓存
+     * 
+     * @param jwt JWT令牌
+     * @param token 已验证的令牌声明
+     * @return 用户主体，令牌已撤销或用户信息缺失时返回null
+     */
+    private UserDetails loadPrincipal(String jwt, VerifiedToken token) {
+        long generation = principalCache.currentGeneration();
+        
+        if (jwtTokenService.isTokenBlacklisted(jwt)) {
+            log.debug("令牌在黑名单中");
+            return null;
+        }
+        
+        String username = token.username();
+        Long userId = token.userId();
+        log.debug("从JWT令牌提取用户信息: username={}, userId={}", username, userId);
+        
+        if (!StringUtils.hasText(username) || userId == null) {
+            log.debug("JWT令牌中缺少用户信息: username={}, userId={}", username, userId);
+            return null;
+        }
+        
+        // 加载用户详情
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (userDetails == null) {
+            log.debug("无法加载用户详情: username={}", username);
+            return null;
+        }
+        
+        principalCache.put(token, userDetails, generation);
+        return userDetails;
+    }
+    
     /**
      * 从请求中提取JWT令牌
      * 
@@ -2,14 +2,25 @@ package com.myweb.website_core.infrastructure.security.filter;
 
 import com.myweb.website_core.application.service.security.XssMonitoringService;
 import com.myweb.website_core.application.service.security.XssStatisticsService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.myweb.website_core.common.util.EncryptionUtils;
 import com.myweb.website_core.infrastructure.config.XssFilterConfig;
-import lombok.RequiredArgsConstructor;
+import com.myweb.website_core.infrastructure.security.MultiPatternMatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.AntPathMatcher;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -30,16 +41,29 @@ import java.util.regex.Pattern;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class XssFilterService {
     
+    /**
+     * 不超过该长度的输入直接以原文作为缓存键，更长的输入使用SHA-256摘要
+     */
+    private static final int EXACT_KEY_MAX_LENGTH = 512;
+    
+    /**
+     * 未配置缓存字节上限时，按缓存条目数乘以该估算值计算
+     */
+    private static final long ESTIMATED_ENTRY_BYTES = 4 * 1024;
+    
+    /**
+     * 每个缓存条目的固定开销估算（对象头、引用、时间戳等）
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    
     private final XssFilterConfig xssFilterConfig;
     private final XssStatisticsService xssStatisticsService;
     private final XssMonitoringService xssMonitoringService;
     
-    // 缓存机制
-    private final ConcurrentHashMap<String, String> filterCache = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Long> cacheTimestamps = new ConcurrentHashMap<>();
+    // 缓存机制：按估算字节数限制容量，W-TinyLFU淘汰
+    private final Cache<String, String> filterCache;
     
     // 路径匹配器
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
@@ -52,6 +76,38 @@ public class XssFilterService {
     private static final Pattern DANGEROUS_PROTOCOL_PATTERN = Pattern.compile(
         "(javascript|vbscript|data|file|about):", Pattern.CASE_INSENSITIVE);
     
+    /**
+     * 攻击类型识别，按优先级排列，输入只扫描一遍
+     */
+    private static final MultiPatternMatcher ATTACK_TYPE_MATCHER = MultiPatternMatcher.builder()
+        .addLiteral("script_injection", "<script")
+        .addLiteral("javascript_protocol", "javascript:")
+        .addLiteral("event_handler", "onload=", "onerror=")
+        .addLiteral("frame_injection", "<iframe", "<frame")
+        .addLiteral("css_expression", "expression(")
+        .build();
+    
+    /**
+     * 预编译的自定义过滤规则，配置中的规则列表变化时重新编译
+     */
+    private volatile CustomFilterRules customFilterRules;
+    
+    public XssFilterService(XssFilterConfig xssFilterConfig, XssStatisticsService xssStatisticsService,
+                            XssMonitoringService xssMonitoringService) {
+        this.xssFilterConfig = xssFilterConfig;
+        this.xssStatisticsService = xssStatisticsService;
+        this.xssMonitoringService = xssMonitoringService;
+        this.filterCache = buildFilterCache(xssFilterConfig.getPerformance());
+        this.customFilterRules = compileCustomFilterRules(xssFilterConfig.getCustomXssPatterns());
+    }
+    
+    @Autowired
+    public XssFilterService(XssFilterConfig xssFilterConfig, XssStatisticsService xssStatisticsService,
+                            XssMonitoringService xssMonitoringService, MeterRegistry meterRegistry) {
+        this(xssFilterConfig, xssStatisticsService, xssMonitoringService);
+        CaffeineCacheMetrics.monitor(meterRegistry, filterCache, "xss.filter");
+    }
+    
     /**
      * 检测是否包含XSS攻击代码（不修改内容）
      * 
@@ -161,6 +217,12 @@ public class XssFilterService {
             log.warn("内容长度超限，已截断 - IP: {}, URI: {}", clientIp, requestUri);
         }
         
+        // 单次扫描：不含控制字符、HTML特殊字符、危险协议和自定义规则锚点的内容不会被修改
+        CustomFilterRules rules = getCustomFilterRules();
+        if (!rules.filterMatcher().mayMatch(content)) {
+            return content;
+        }
+        
         // 2. 移除控制字符
         content = removeControlCharacters(content);
         
@@ -171,7 +233,7 @@ public class XssFilterService {
         content = filterDangerousProtocols(content);
         
         // 5. 应用自定义过滤规则
-        content = applyCustomFilters(content);
+        content = applyCustomFilters(content, rules);
         
         // 6. HTML编码特殊字符
         if (xssFilterConfig.isEncodeSpecialChars()) {
@@ -341,21 +403,72 @@ public class XssFilterService {
      * 应用自定义过滤规则
      * 
      * @param content 内容
+     * @param rules 预编译的自定义过滤规则
      * @return 过滤后的内容
      */
-    private String applyCustomFilters(String content) {
+    private String applyCustomFilters(String content, CustomFilterRules rules) {
         String result = content;
         
-        for (String patternStr : xssFilterConfig.getCustomXssPatterns()) {
+        for (Pattern pattern : rules.patterns()) {
+            result = pattern.matcher(result).replaceAll("");
+        }
+        
+        return result;
+    }
+    
+    /**
+     * 获取预编译的自定义过滤规则
+     * 
+     * 配置中的规则列表与上次编译时不同（如配置刷新）时重新编译
+     * 
+     * @return 自定义过滤规则
+     */
+    private CustomFilterRules getCustomFilterRules() {
+        CustomFilterRules rules = customFilterRules;
+        List<String> source = xssFilterConfig.getCustomXssPatterns();
+        if (!rules.source().equals(source == null ? List.of() : source)) {
+            rules = compileCustomFilterRules(source);
+            customFilterRules = rules;
+        }
+        return rules;
+    }
+    
+    /**
+     * 编译自定义过滤规则
+     * 
+     * 无效的正则在编译时记录并跳过，不会在每次请求时重复报错。
+     * 同时构建过滤前的单次扫描匹配器：控制字符、HTML特殊字符、危险协议以及自定义规则的字面量前缀
+     * 
+     * @param patterns 配置的自定义正则
+     * @return 自定义过滤规则
+     */
+    private static CustomFilterRules compileCustomFilterRules(List<String> patterns) {
+        List<String> source = patterns == null ? List.of() : List.copyOf(patterns);
+        List<Pattern> compiled = new ArrayList<>(source.size());
+        MultiPatternMatcher.Builder builder = MultiPatternMatcher.builder();
+        
+        List<String> controlCharacters = new ArrayList<>();
+        for (char c = 0; c < 0x20; c++) {
+            if (c != '\t' && c != '\n' && c != '\r') {
+                controlCharacters.add(String.valueOf(c));
+            }
+        }
+        controlCharacters.add(String.valueOf((char) 0x7F));
+        builder.addLiteral("control", controlCharacters.toArray(new String[0]))
+            .addLiteral("special", "&", "<", ">", "\"", "'")
+            .add("protocol", DANGEROUS_PROTOCOL_PATTERN, "javascript:", "vbscript:", "data:", "file:", "about:");
+        
+        for (String patternStr : source) {
             try {
                 Pattern pattern = Pattern.compile(patternStr, Pattern.CASE_INSENSITIVE);
-                result = pattern.matcher(result).replaceAll("");
+                compiled.add(pattern);
+                builder.add("custom", pattern);
             } catch (Exception e) {
-                log.warn("应用自定义XSS过滤规则失败: {}", patternStr, e);
+                log.warn("自定义XSS过滤规则编译失败，已忽略: {}", patternStr, e);
             }
         }
         
-        return result;
+        return new CustomFilterRules(source, List.copyOf(compiled), builder.build());
     }
     
     /**
@@ -391,21 +504,8 @@ public class XssFilterService {
      * @return 攻击类型
      */
     private String detectAttackType(String input) {
-        String lowerInput = input.toLowerCase();
-        
-        if (lowerInput.contains("<script")) {
-            return "script_injection";
-        } else if (lowerInput.contains("javascript:")) {
-            return "javascript_protocol";
-        } else if (lowerInput.contains("onload=") || lowerInput.contains("onerror=")) {
-            return "event_handler";
-        } else if (lowerInput.contains("<iframe") || lowerInput.contains("<frame")) {
-            return "frame_injection";
-        } else if (lowerInput.contains("expression(")) {
-            return "css_expression";
-        } else {
-            return "unknown";
-        }
+        String attackType = ATTACK_TYPE_MATCHER.firstMatchedType(input);
+        return attackType != null ? attackType : "unknown";
     }
     
     /**
@@ -428,6 +528,24 @@ public class XssFilterService {
         return false;
     }
     
+    /**
+     * 获取过滤缓存统计信息
+     * 
+     * @return 缓存条目数、估算字节数、命中率等
+     */
+    public Map<String, Object> getCacheStatistics() {
+        CacheStats stats = filterCache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", filterCache.estimatedSize());
+        result.put("weightedBytes", filterCache.policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        result.put("hitRate", stats.hitRate());
+        return result;
+    }
+    
     /**
      * 获取缓存结果
      * 
@@ -438,25 +556,7 @@ public class XssFilterService {
         if (!xssFilterConfig.getPerformance().isCacheEnabled()) {
             return null;
         }
-        
-        String cacheKey = generateCacheKey(input);
-        String cachedResult = filterCache.get(cacheKey);
-        
-        if (cachedResult != null) {
-            Long timestamp = cacheTimestamps.get(cacheKey);
-            if (timestamp != null) {
-                long expirationTime = xssFilterConfig.getPerformance().getCacheExpirationMinutes() * 60 * 1000;
-                if (System.currentTimeMillis() - timestamp < expirationTime) {
-                    return cachedResult;
-                } else {
-                    // 缓存过期，清理
-                    filterCache.remove(cacheKey);
-                    cacheTimestamps.remove(cacheKey);
-                }
-            }
-        }
-        
-        return null;
+        return filterCache.getIfPresent(generateCacheKey(input));
     }
     
     /**
@@ -469,43 +569,49 @@ public class XssFilterService {
         if (!xssFilterConfig.getPerformance().isCacheEnabled()) {
             return;
         }
-        
-        // 检查缓存大小限制
-        int cacheSize = xssFilterConfig.getPerformance().getCacheSize();
-        if (filterCache.size() >= cacheSize) {
-            // 清理最旧的缓存项
-            cleanupOldestCacheEntries();
-        }
-        
-        String cacheKey = generateCacheKey(input);
-        filterCache.put(cacheKey, result);
-        cacheTimestamps.put(cacheKey, System.currentTimeMillis());
+        filterCache.put(generateCacheKey(input), result);
     }
     
     /**
      * 生成缓存键
      * 
+     * 短输入以原文为键，长输入以SHA-256摘要为键，前缀区分两种键，避免不同输入共用过滤结果
+     * 
      * @param input 输入内容
      * @return 缓存键
      */
     private String generateCacheKey(String input) {
-        return String.valueOf(input.hashCode());
+        if (input.length() <= EXACT_KEY_MAX_LENGTH) {
+            return "=" + input;
+        }
+        return "#" + EncryptionUtils.sha256(input);
+    }
+    
+    /**
+     * 创建过滤结果缓存
+     * 
+     * 容量按键和值的估算字节数限制，淘汰由Caffeine在写入时均摊完成，不阻塞读取
+     */
+    private static Cache<String, String> buildFilterCache(XssFilterConfig.PerformanceConfig performance) {
+        long maxBytes = performance.getCacheMaxBytes() > 0
+            ? performance.getCacheMaxBytes()
+            : Math.max(1, performance.getCacheSize()) * ESTIMATED_ENTRY_BYTES;
+        long expirationMinutes = Math.max(1, performance.getCacheExpirationMinutes());
+        return Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, String value) -> (key.length() + value.length()) * 2 + ENTRY_OVERHEAD_BYTES)
+            .expireAfterWrite(Duration.ofMinutes(expirationMinutes))
+            .recordStats()
+            .build();
     }
     
     /**
-     * 清理最旧的缓存项
+     * 预编译的自定义过滤规则
+     * 
+     * @param source 编译时的配置规则列表
+     * @param patterns 编译成功的正则
+     * @param filterMatcher 过滤前的单次扫描匹配器
      */
-    private void cleanupOldestCacheEntries() {
-        // 清理25%的缓存项
-        int itemsToRemove = Math.max(1, filterCache.size() / 4);
-        
-        cacheTimestamps.entrySet().stream()
-            .sorted(java.util.Map.Entry.comparingByValue())
-            .limit(itemsToRemove)
-            .forEach(entry -> {
-                String key = entry.getKey();
-                filterCache.remove(key);
-                cacheTimestamps.remove(key);
-            });
+    private record CustomFilterRules(List<String> source, List<Pattern> patterns, MultiPatternMatcher filterMatcher) {
     }
-}
\ No newline at end of file
+}
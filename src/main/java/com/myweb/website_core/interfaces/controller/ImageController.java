@@ -1,5 +1,6 @@
 package com.myweb.website_core.interfaces.controller;
 
+import com.myweb.website_core.application.service.file.ImageDeliveryService;
 import com.myweb.website_core.application.service.file.ImageService;
 import com.myweb.website_core.application.service.file.FileUploadService;
 import com.myweb.website_core.domain.business.entity.Image;
@@ -8,10 +9,9 @@ import com.myweb.website_core.common.util.PermissionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,21 +34,28 @@ public class ImageController {
     
     private final ImageService imageService;
     private final FileUploadService fileUploadService;
+    private final ImageDeliveryService imageDeliveryService;
     
     @Autowired
-    public ImageController(ImageService imageService, FileUploadService fileUploadService) {
+    public ImageController(ImageService imageService, FileUploadService fileUploadService,
+                           ImageDeliveryService imageDeliveryService) {
         this.imageService = imageService;
         this.fileUploadService = fileUploadService;
+        this.imageDeliveryService = imageDeliveryService;
     }
     
     /**
      * 根据ID获取图片文件（增强版本 - 包含文件完整性验证）
      * 
+     * 支持条件请求（If-None-Match，ETag为文件哈希）和单个Range请求，
+     * 内容由ImageDeliveryService直接写入响应。
+     * 
      * @param id 图片ID
-     * @return 图片文件资源
+     * @return 错误响应；成功时内容已写入响应，返回null
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Resource> getImage(@PathVariable Long id) {
+    public ResponseEntity<Void> getImage(@PathVariable Long id, HttpServletRequest request,
+                                         HttpServletResponse response) {
         long startTime = System.currentTimeMillis();
         String username = PermissionUtils.getCurrentUsername();
         
@@ -61,13 +68,11 @@ public class ImageController {
             
             Image image = imageOpt.get();
             
-            // ==================== 文件完整性验证 ====================
-            logger.debug("开始文件完整性验证: imageId={}, user={}", id, username);
-            boolean integrityValid = fileUploadService.verifyFileIntegrity(id);
+            // ==================== 条件请求、完整性验证与发送 ====================
+            ImageDeliveryService.Outcome outcome = imageDeliveryService.serve(image, request, response);
             
-            if (!integrityValid) {
+            if (outcome == ImageDeliveryService.Outcome.INTEGRITY_FAILED) {
                 // 文件完整性验证失败，记录安全事件并返回错误
-                long executionTime = System.currentTimeMillis() - startTime;
                 String errorLog = LoggingUtils.formatErrorLog(
                     "FILE_INTEGRITY_VIOLATION_DOWNLOAD", 
                     "文件下载时完整性验证失败，可能已被篡改",
@@ -85,51 +90,43 @@ public class ImageController {
                     .build();
             }
             
-            logger.debug("文件完整性验证通过: imageId={}, user={}", id, username);
-            
-            // ==================== 获取文件资源 ====================
-            Resource resource = imageService.getImageResource(id);
-            
-            // 设置响应头
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(image.getContentType()));
-            headers.setContentLength(image.getFileSize());
-            headers.setCacheControl("max-age=3600"); // 缓存1小时
-            headers.set("X-Integrity-Status", "VERIFIED"); // 添加完整性验证状态头
-            headers.set("X-File-Hash", image.getFileHash() != null ? 
-                       image.getFileHash().substring(0, 8) + "..." : "N/A");
-            
-            // 记录成功访问日志
-            long executionTime = System.currentTimeMillis() - startTime;
-            String successLog = LoggingUtils.formatOperationLog(
-                "FILE_DOWNLOAD_WITH_INTEGRITY_CHECK", username, "FILE:" + id, "SUCCESS",
-                String.format("文件: %s, 大小: %d bytes, 完整性: 已验证", 
-                             image.getOriginalFilename(), image.getFileSize()),
-                executionTime
-            );
-            logger.info(successLog);
+            // 记录访问日志，304不记录
+            if (outcome != ImageDeliveryService.Outcome.NOT_MODIFIED) {
+                long executionTime = System.currentTimeMillis() - startTime;
+                String successLog = LoggingUtils.formatOperationLog(
+                    "FILE_DOWNLOAD_WITH_INTEGRITY_CHECK", username, "FILE:" + id, "SUCCESS",
+                    String.format("文件: %s, 大小: %d bytes, 完整性: 已验证, 结果: %s", 
+                                 image.getOriginalFilename(), image.getFileSize(), outcome),
+                    executionTime
+                );
+                logger.info(successLog);
+            }
             
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(resource);
+            return null;
                     
         } catch (IOException e) {
-            long executionTime = System.currentTimeMillis() - startTime;
             String errorLog = LoggingUtils.formatErrorLog(
                 "FILE_DOWNLOAD_IO_ERROR", e.getMessage(), username, 
                 null, "FILE:" + id, null);
             logger.error(errorLog, e);
             
+            if (response.isCommitted()) {
+                return null;
+            }
+            response.reset();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .header("X-Error-Type", "IO_ERROR")
                 .build();
         } catch (Exception e) {
-            long executionTime = System.currentTimeMillis() - startTime;
             String errorLog = LoggingUtils.formatErrorLog(
                 "FILE_DOWNLOAD_SYSTEM_ERROR", e.getMessage(), username, 
                 null, "FILE:" + id, null);
             logger.error(errorLog, e);
             
+            if (response.isCommitted()) {
+                return null;
+            }
+            response.reset();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .header("X-Error-Type", "SYSTEM_ERROR")
                 .build();
@@ -1,10 +1,14 @@
 package com.myweb.website_core.interfaces.controller;
 
+import com.myweb.website_core.application.service.business.FollowFeedService;
+import com.myweb.website_core.application.service.business.PostRankingService;
 import com.myweb.website_core.application.service.business.PostService;
+import com.myweb.website_core.application.service.business.PostTimelineService;
 import com.myweb.website_core.application.service.security.authorization.AccessControlService;
 import com.myweb.website_core.common.enums.AuditOperation;
 import com.myweb.website_core.common.exception.security.ValidationException;
 import com.myweb.website_core.common.util.DTOConverter;
+import com.myweb.website_core.common.util.PermissionUtils;
 import com.myweb.website_core.common.validation.ValidateInput;
 import com.myweb.website_core.domain.business.dto.*;
 //import com.myweb.website_core.domain.dto.*;
@@ -21,6 +25,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import org.springframework.data.domain.Page;
@@ -30,7 +35,21 @@ import org.springframework.data.domain.Page;
 @RequestMapping("/api/posts")
 @RequiredArgsConstructor
 public class PostController {
+
+    /**
+     * 批量查询交互状态时单次最多的帖子数
+     */
+    private static final int MAX_INTERACTION_STATUS_POSTS = 200;
+
+    /**
+     * 首页帖子列表的下一页游标响应头
+     */
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final PostService postService;
+    private final PostTimelineService postTimelineService;
+    private final FollowFeedService followFeedService;
+    private final PostRankingService postRankingService;
     private final UserRepository userRepository;
     private final CommentService commentService;
     private final AccessControlService accessControlService;
@@ -143,16 +162,32 @@ public class PostController {
         }
     }
 
+    /**
+     * 帖子排行榜，从进程内快照读取
+     *
+     * @param window 排行榜：all总点赞榜，24h/7d热榜
+     */
     @GetMapping("/top-liked")
-    public CompletableFuture<List<Post>> getTopLikedPosts() {
-        return postService.getTopLikedPosts();
+    public ResponseEntity<List<PostDTO>> getTopLikedPosts(@RequestParam(defaultValue = "all") String window,
+                                                          @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(postRankingService.getTopPosts(PostRankingService.Board.fromCode(window), limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("帖子排行榜参数无效：{}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
 
+    /**
+     * 用户发布的帖子
+     * 
+     * 下面三个列表接口按 userId 选择帖子，点赞、收藏状态只为当前认证用户填充，匿名访问时不填充
+     */
     @GetMapping("/mine")
     public CompletableFuture<List<PostDTO>> getMyPosts(@RequestParam Long userId) {
         List<Post> posts = postService.findPostsByUserId(userId);
-        List<PostDTO> postDTOs = postService.convertToDTOList(posts);
+        List<PostDTO> postDTOs = postService.convertToDTOList(posts, PermissionUtils.getCurrentUserId());
         return CompletableFuture.completedFuture(postDTOs);
     }
 
@@ -160,7 +195,7 @@ public class PostController {
     public ResponseEntity<List<PostDTO>> getCollectedPosts(@RequestParam Long userId) {
         try {
             List<Post> collectedPosts = postService.findCollectedPostsByUserId(userId);
-            List<PostDTO> postDTOs = postService.convertToDTOList(collectedPosts);
+            List<PostDTO> postDTOs = postService.convertToDTOList(collectedPosts, PermissionUtils.getCurrentUserId());
             return ResponseEntity.ok(postDTOs);
         } catch (Exception e) {
             log.error("获取收藏的帖子时发生错误：" + e.getMessage());
@@ -172,7 +207,7 @@ public class PostController {
     public ResponseEntity<List<PostDTO>> getLikedPosts(@RequestParam Long userId) {
         try {
             List<Post> likedPosts = postService.findLikedPostsByUserId(userId);
-            List<PostDTO> postDTOs = postService.convertToDTOList(likedPosts);
+            List<PostDTO> postDTOs = postService.convertToDTOList(likedPosts, PermissionUtils.getCurrentUserId());
             return ResponseEntity.ok(postDTOs);
         } catch (Exception e) {
             log.error("获取点赞的帖子时发生错误：" + e.getMessage());
@@ -209,18 +244,92 @@ public class PostController {
         }
     }
 
+    /**
+     * 批量获取用户对一组帖子的点赞、收藏状态
+     *
+     * 替代逐个帖子调用like-status/collect-status，一次请求返回所有帖子的状态。
+     * 用户取自当前认证主体，不接受调用方传入的用户ID
+     */
+    @GetMapping("/interaction-status")
+    public ResponseEntity<ApiResponse<Map<Long, PostInteractionStatus>>> getInteractionStatus(
+            @RequestParam List<Long> postIds
+            ) {
+        Long userId = PermissionUtils.getCurrentUserId();
+        if (postIds.size() > MAX_INTERACTION_STATUS_POSTS) {
+            return ResponseEntity.ok(ApiResponse.error("单次最多查询" + MAX_INTERACTION_STATUS_POSTS + "个帖子"));
+        }
+        try {
+            return ResponseEntity.ok(ApiResponse.success(postService.getInteractionStatus(userId, postIds)));
+        } catch (Exception e) {
+            log.error("批量获取交互状态失败: userId={}, error={}", userId, e.getMessage());
+            return ResponseEntity.ok(ApiResponse.error("获取交互状态失败"));
+        }
+    }
+
+    /**
+     * 首页帖子列表（时间线的一页）
+     * 
+     * 保持返回帖子数组，下一页游标通过 X-Next-Cursor 响应头返回。
+     * 点赞、收藏状态只为当前认证用户填充，匿名访问时不填充
+     */
     @GetMapping("")
-    public ResponseEntity<List<PostDTO>> getAllPosts() {
+    public ResponseEntity<List<PostDTO>> getAllPosts(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size) {
         try {
-            List<Post> posts = postService.getAllPosts();
-            List<PostDTO> postDTOs = postService.convertToDTOList(posts);
-            return ResponseEntity.ok(postDTOs);
+            PostTimelineDTO timeline = postTimelineService.getTimeline(cursor, size, PermissionUtils.getCurrentUserId());
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (timeline.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, timeline.getNextCursor());
+            }
+            return response.body(timeline.getPosts());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("获取所有帖子时发生错误：" + e.getMessage()); // 添加异常打印用于调试
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * 帖子时间线，按 (创建时间, ID) 游标分页
+     * 
+     * 点赞、收藏状态只为当前认证用户填充，匿名访问时不填充
+     */
+    @GetMapping("/timeline")
+    public ResponseEntity<PostTimelineDTO> getTimeline(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(postTimelineService.getTimeline(cursor, size, PermissionUtils.getCurrentUserId()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("获取帖子时间线时发生错误：{}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * 关注流：已关注用户发布的帖子，按帖子ID游标分页
+     * 
+     * 需要认证，只能读取当前用户自己的关注流
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<PostTimelineDTO> getFollowFeed(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer size) {
+        Long userId = PermissionUtils.getCurrentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(followFeedService.getFeed(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("获取关注流时发生错误：{}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * 安全的帖子搜索接口
      * 使用SafeQueryService进行安全验证和SQL注入检测
@@ -400,7 +509,20 @@ public class PostController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-    
+
+    @GetMapping("/{id}/comments/page")
+    public ResponseEntity<CommentPageDTO> getCommentPage(@PathVariable Long id,
+                                                         @RequestParam(required = false) Long cursor,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        try {
+            CommentPageDTO page = commentService.getCommentPage(id, cursor, Math.min(size, 100));
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            log.error("分页获取评论时发生错误：" + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PostMapping("/{postId}/comments/{commentId}/replies")
     @ValidateInput(
         fieldNames = {"content"}, 
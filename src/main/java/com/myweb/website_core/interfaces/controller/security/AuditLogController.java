@@ -1,5 +1,6 @@
 package com.myweb.website_core.interfaces.controller.security;
 
+import com.myweb.website_core.application.service.security.audit.AuditExportJobService;
 import com.myweb.website_core.application.service.security.audit.AuditLogService;
 import com.myweb.website_core.common.enums.AuditOperation;
 import com.myweb.website_core.domain.security.dto.AuditLogQuery;
@@ -7,10 +8,13 @@ import com.myweb.website_core.domain.security.entity.AuditLog;
 import com.myweb.website_core.infrastructure.security.audit.Auditable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -19,6 +23,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -54,10 +59,12 @@ import java.util.Optional;
 public class AuditLogController {
     
     private final AuditLogService auditLogService;
+    private final AuditExportJobService auditExportJobService;
     
     @Autowired
-    public AuditLogController(AuditLogService auditLogService) {
+    public AuditLogController(AuditLogService auditLogService, AuditExportJobService auditExportJobService) {
         this.auditLogService = auditLogService;
+        this.auditExportJobService = auditExportJobService;
     }
     
     // ==================== 基础查询接口 ====================
@@ -440,15 +447,19 @@ public class AuditLogController {
     /**
      * 导出审计日志
      * 
+     * 以数据库游标逐行读取并直接写入响应流，不在内存中组装整个文件
+     * 
      * @param query 查询条件
      * @param format 导出格式（CSV/EXCEL）
-     * @return 导出文件
+     * @param response HTTP响应
+     * @return 导出成功时响应已写出，返回null
      */
     @PostMapping("/export")
     @Auditable(operation = AuditOperation.AUDIT_LOG_EXPORT, resourceType = "AUDIT_LOG")
-    public ResponseEntity<byte[]> exportAuditLogs(
+    public ResponseEntity<Void> exportAuditLogs(
             @RequestBody @Valid AuditLogQuery query,
-            @RequestParam(defaultValue = "CSV") String format) {
+            @RequestParam(defaultValue = "CSV") String format,
+            HttpServletResponse response) {
         
         try {
             // 设置导出模式
@@ -458,37 +469,113 @@ public class AuditLogController {
             query.setExportMode(true);
             query.setExportFormat(format);
             
-            // 执行导出
-            byte[] exportData = auditLogService.exportLogs(query, format);
-            
             // 设置响应头
-            HttpHeaders headers = new HttpHeaders();
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String filename = "audit_logs_" + timestamp;
-            
-            if ("EXCEL".equalsIgnoreCase(format)) {
-                headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-                headers.setContentDispositionFormData("attachment", filename + ".xlsx");
-            } else {
-                headers.setContentType(MediaType.parseMediaType("text/csv"));
-                headers.setContentDispositionFormData("attachment", filename + ".csv");
-            }
+            String filename = "audit_logs_" + timestamp + ("EXCEL".equalsIgnoreCase(format) ? ".xlsx" : ".csv");
+            response.setContentType(exportContentType(format));
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(filename).build().toString());
             
-            log.info("审计日志导出成功: format={}, size={} bytes, conditions={}", 
-                    format, exportData.length, query);
+            // 执行导出
+            long rows = auditLogService.exportLogs(query, format, response.getOutputStream());
+            response.flushBuffer();
             
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(exportData);
+            log.info("审计日志导出成功: format={}, rows={}, conditions={}", format, rows, query);
+            return null;
             
         } catch (Exception e) {
             log.error("审计日志导出失败: format={}, query={}", format, query, e);
+            if (response.isCommitted()) {
+                // 已开始输出文件内容，无法再返回错误状态
+                return null;
+            }
+            response.reset();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * 提交异步导出任务
+     * 
+     * 用于超过同步导出行数限制的大批量导出，完成后通过任务ID下载
+     * 
+     * @param query 查询条件
+     * @param format 导出格式（CSV/EXCEL）
+     * @return 导出任务
+     */
+    @PostMapping("/export/async")
+    @Auditable(operation = AuditOperation.AUDIT_LOG_EXPORT, resourceType = "AUDIT_LOG")
+    public ResponseEntity<AuditExportJobService.ExportJob> submitExportJob(
+            @RequestBody @Valid AuditLogQuery query,
+            @RequestParam(defaultValue = "CSV") String format) {
+        
+        try {
+            if (query == null) {
+                query = new AuditLogQuery();
+            }
+            query.setExportMode(true);
+            query.setExportFormat(format);
+            
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(auditExportJobService.submit(query, format));
+            
+        } catch (Exception e) {
+            log.error("提交审计日志导出任务失败: format={}, query={}", format, query, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * 查询异步导出任务状态
+     * 
+     * @param jobId 任务ID
+     * @return 导出任务
+     */
+    @GetMapping("/export/jobs/{jobId}")
+    public ResponseEntity<AuditExportJobService.ExportJob> getExportJob(@PathVariable String jobId) {
+        return auditExportJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * 下载异步导出结果
+     * 
+     * @param jobId 任务ID
+     * @return 导出文件
+     */
+    @GetMapping("/export/jobs/{jobId}/download")
+    @Auditable(operation = AuditOperation.AUDIT_LOG_EXPORT, resourceType = "AUDIT_LOG")
+    public ResponseEntity<Resource> downloadExport(@PathVariable String jobId) {
+        Optional<AuditExportJobService.ExportJob> job = auditExportJobService.getJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.get().getStatus() != AuditExportJobService.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        
+        FileSystemResource file = new FileSystemResource(job.get().getFile());
+        if (!file.exists()) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportContentType(job.get().getFormat())))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(job.get().getFilename()).build().toString())
+                .body(file);
+    }
+    
     // ==================== 私有辅助方法 ====================
     
+    /**
+     * 导出文件的Content-Type
+     */
+    private String exportContentType(String format) {
+        return "EXCEL".equalsIgnoreCase(format)
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                : "text/csv";
+    }
+    
     /**
      * 获取总操作数
      */
@@ -0,0 +1,29 @@
+-- 按内容哈希寻址的图片存储
+-- 内容相同的上传共用一个文件，post_images 通过 blob_id 引用，image_blobs.ref_count 记录引用数
+
+CREATE TABLE image_blobs (
+    id BIGSERIAL PRIMARY KEY,
+    content_hash VARCHAR(64) NOT NULL UNIQUE, -- Base64编码的SHA-256
+    file_path VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    file_size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    scanned_at TIMESTAMP, -- 病毒扫描完成时间
+    orphaned_at TIMESTAMP, -- 引用计数降为0的时间
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 回收任务只扫描失去引用的记录
+CREATE INDEX idx_image_blobs_orphaned_at ON image_blobs (orphaned_at) WHERE ref_count = 0;
+
+ALTER TABLE post_images
+ADD blob_id BIGINT REFERENCES image_blobs(id);
+
+CREATE INDEX idx_post_images_blob_id ON post_images (blob_id);
+
+-- 未关联帖子的图片按上传时间增量清理
+CREATE INDEX idx_post_images_unassociated ON post_images (upload_time, id) WHERE post_id IS NULL;
+
+COMMENT ON TABLE image_blobs IS '图片内容表（按内容哈希去重，引用计数）';
+COMMENT ON COLUMN image_blobs.ref_count IS '引用该文件的图片记录数';
+COMMENT ON COLUMN post_images.blob_id IS '引用的图片内容，为空表示旧版本独立存储的文件';
@@ -0,0 +1,149 @@
+-- 审计日志按时间分区
+-- audit_logs 改为按 timestamp 每月一个范围分区（audit_logs_pYYYYMM），每个月分区再按 result
+-- 分为成功日志（_success）和其他日志（_other）子分区。过期清理整体删除子分区/月分区，不再逐行DELETE；
+-- 成功日志保留 app.audit.retention-days，失败和错误日志保留 app.audit.failure-retention-days。
+-- 之后的月分区由 AuditLogService.ensureAuditLogPartitions 在每日清理时提前创建。
+
+-- 视图依赖旧表，先删除，迁移后重建
+DROP VIEW IF EXISTS v_security_events;
+DROP VIEW IF EXISTS v_user_activity_stats;
+DROP VIEW IF EXISTS v_operation_stats;
+
+ALTER TABLE audit_logs RENAME TO audit_logs_legacy;
+ALTER TABLE audit_logs_legacy RENAME CONSTRAINT audit_logs_pkey TO audit_logs_legacy_pkey;
+
+-- 分区表的主键必须包含全部分区键
+CREATE TABLE audit_logs (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id BIGINT,
+    username VARCHAR(50),
+    operation VARCHAR(50) NOT NULL,
+    resource_type VARCHAR(30),
+    resource_id BIGINT,
+    ip_address VARCHAR(45),
+    user_agent VARCHAR(500),
+    result VARCHAR(20) NOT NULL DEFAULT 'SUCCESS',
+    error_message TEXT,
+    request_data TEXT,
+    response_data TEXT,
+    execution_time BIGINT,
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    session_id VARCHAR(100),
+    request_id VARCHAR(50),
+    description VARCHAR(500),
+    risk_level INTEGER,
+    location VARCHAR(100),
+    device_fingerprint VARCHAR(100),
+    tags VARCHAR(200),
+    processed BOOLEAN NOT NULL DEFAULT FALSE,
+    processed_at TIMESTAMP,
+    processed_by VARCHAR(50),
+    process_notes VARCHAR(500),
+    PRIMARY KEY (id, timestamp, result)
+) PARTITION BY RANGE (timestamp);
+
+-- 超出已创建月分区的日志进入默认分区，不丢失
+CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+-- 从已有数据的最早月份到未来3个月创建月分区
+DO $$
+DECLARE
+    first_month DATE;
+    part_month DATE;
+    partition_name TEXT;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(timestamp), CURRENT_TIMESTAMP))::DATE
+    INTO first_month FROM audit_logs_legacy;
+
+    part_month := first_month;
+    WHILE part_month <= (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::DATE LOOP
+        partition_name := 'audit_logs_p' || to_char(part_month, 'YYYYMM');
+        EXECUTE format('CREATE TABLE %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L) PARTITION BY LIST (result)',
+                       partition_name, part_month, (part_month + INTERVAL '1 month')::DATE);
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES IN (''SUCCESS'')',
+                       partition_name || '_success', partition_name);
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT',
+                       partition_name || '_other', partition_name);
+        part_month := (part_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+INSERT INTO audit_logs (
+    id, user_id, username, operation, resource_type, resource_id, ip_address, user_agent, result,
+    error_message, request_data, response_data, execution_time, timestamp, session_id, request_id,
+    description, risk_level, location, device_fingerprint, tags, processed, processed_at, processed_by,
+    process_notes
+)
+SELECT
+    id, user_id, username, operation, resource_type, resource_id, ip_address, user_agent, result,
+    error_message, request_data, response_data, execution_time, timestamp, session_id, request_id,
+    description, risk_level, location, device_fingerprint, tags, processed, processed_at, processed_by,
+    process_notes
+FROM audit_logs_legacy;
+
+SELECT setval(pg_get_serial_sequence('audit_logs', 'id'),
+              COALESCE((SELECT MAX(id) FROM audit_logs), 0) + 1, false);
+
+DROP TABLE audit_logs_legacy;
+
+-- =====================================================
+-- 精简后的索引：在分区父表上创建，自动应用到每个分区
+-- 单列的 user_id / operation / ip_address 索引与同列开头的复合索引重复；
+-- result 已作为子分区键，不再单独建索引
+-- =====================================================
+
+CREATE INDEX idx_audit_timestamp ON audit_logs(timestamp);
+CREATE INDEX idx_audit_resource ON audit_logs(resource_type, resource_id);
+CREATE INDEX idx_audit_username ON audit_logs(username);
+CREATE INDEX idx_audit_session_id ON audit_logs(session_id);
+CREATE INDEX idx_audit_user_time ON audit_logs(user_id, timestamp);
+CREATE INDEX idx_audit_operation_time ON audit_logs(operation, timestamp);
+CREATE INDEX idx_audit_ip_time ON audit_logs(ip_address, timestamp);
+
+-- 未处理的高风险事件只占很少一部分，使用部分索引
+CREATE INDEX idx_audit_unprocessed_risk ON audit_logs(risk_level, timestamp) WHERE processed = FALSE;
+
+-- =====================================================
+-- 重建视图
+-- =====================================================
+
+CREATE OR REPLACE VIEW v_security_events AS
+SELECT
+    id,
+    user_id,
+    username,
+    operation,
+    resource_type,
+    resource_id,
+    ip_address,
+    result,
+    error_message,
+    risk_level,
+    location,
+    timestamp,
+    processed,
+    processed_by
+FROM audit_logs
+WHERE
+    result IN ('FAILURE', 'ERROR')
+    OR risk_level >= 4;
+
+CREATE OR REPLACE VIEW v_user_activity_stats AS
+SELECT
+    user_id,
+    username,
+    COUNT(*) as total_operations,
+    MAX(timestamp) as last_activity
+FROM audit_logs
+WHERE user_id IS NOT NULL
+GROUP BY user_id, username;
+
+CREATE OR REPLACE VIEW v_operation_stats AS
+SELECT
+    operation,
+    COUNT(*) as total_count,
+    MAX(timestamp) as last_occurrence
+FROM audit_logs
+GROUP BY operation;
+
+COMMENT ON TABLE audit_logs IS '审计日志表（按月分区，每月按结果分为成功/其他子分区）';
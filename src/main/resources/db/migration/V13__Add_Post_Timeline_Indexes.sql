@@ -0,0 +1,8 @@
+-- 帖子时间线索引
+-- 首页按 (created_at, id) 倒序游标分页，每页的图片ID按 post_id 批量查询
+
+-- 游标比较要求 created_at 非空；历史数据补为当前时间，同一时间的帖子按ID排序
+UPDATE posts SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_posts_created_at_id ON posts (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_post_images_post_id ON post_images (post_id);
@@ -0,0 +1,5 @@
+-- 关注流索引
+-- 发帖后按粉丝ID游标分批推送，重建收件箱时按作者读取最近的帖子
+
+CREATE INDEX IF NOT EXISTS idx_user_follows_following_follower ON user_follows (following_id, follower_id);
+CREATE INDEX IF NOT EXISTS idx_posts_author_id_id ON posts (author_id, id DESC);
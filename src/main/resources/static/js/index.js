@@ -15,28 +15,45 @@ document.addEventListener('DOMContentLoaded', async function () {
   initializeUserInterface();
 });
 
-// 异步加载所有帖子列表
-function loadAllPosts() {
+// 每页帖子数
+const PAGE_SIZE = 20;
+
+// 下一页游标，没有更多时为null
+let nextCursor = null;
+
+// 按游标分页加载帖子列表，cursor为空时加载首页
+function loadAllPosts(cursor) {
   console.log('loadAllPosts function called');
-  const url = '/blog/api/posts';
+  const params = new URLSearchParams({ size: PAGE_SIZE });
+  if (cursor) {
+    params.set('cursor', cursor);
+  }
+  const url = `/blog/api/posts/timeline?${params}`;
   console.log('Fetching URL:', url);
   
-  fetch(url)
-    .then(res => res.json())
-    .then(async posts => {
+  // 已登录时携带认证头，服务端按当前用户填充点赞、收藏状态
+  (AuthUtils.isLoggedIn() ? AuthUtils.authenticatedFetch(url) : fetch(url))
+    .then(res => {
+      if (!res.ok) {
+        throw new Error(`HTTP ${res.status}`);
+      }
+      return res.json();
+    })
+    .then(page => {
       const list = document.getElementById('allPostsList');
-      if (!posts || posts.length === 0) {
+      const posts = page?.posts || [];
+      if (!cursor && posts.length === 0) {
         list.innerHTML = '<div class="empty-state">暂无帖子</div>';
         return;
       }
       
-      // 如果用户已登录，获取用户的交互状态
-      let userInteractions = {};
-      if (AuthUtils.isLoggedIn()) {
-        userInteractions = await loadUserInteractionsForPosts(posts.map(p => p.id));
-      }
+      // 已登录时时间线已带回用户的点赞、收藏状态
+      const userInteractions = {};
+      posts.forEach(p => {
+        userInteractions[p.id] = { liked: p.liked, collected: p.collected };
+      });
       
-      list.innerHTML = posts.map(post => {
+      const html = posts.map(post => {
         const userLiked = userInteractions[post.id]?.liked || false;
         const userBookmarked = userInteractions[post.id]?.collected || false;
         
@@ -69,66 +86,56 @@ function loadAllPosts() {
         `;
       }).join('');
 
-      // 设置交互按钮事件处理
-      setupInteractionButtons();
+      if (!cursor) {
+        list.innerHTML = '';
+      }
+      document.getElementById('loadMorePosts')?.remove();
+
+      const template = document.createElement('template');
+      template.innerHTML = html;
+      const cards = Array.from(template.content.children);
+      cards.forEach(card => list.appendChild(card));
+
+      // 设置交互按钮事件处理（只处理本页新增的帖子）
+      cards.forEach(card => setupInteractionButtons(card));
+
+      nextCursor = page.hasMore ? page.nextCursor : null;
+      if (nextCursor) {
+        const loadMore = document.createElement('button');
+        loadMore.id = 'loadMorePosts';
+        loadMore.className = 'interaction-preview-btn';
+        loadMore.textContent = '加载更多';
+        loadMore.addEventListener('click', () => {
+          loadMore.disabled = true;
+          loadMore.textContent = '加载中...';
+          loadAllPosts(nextCursor);
+        });
+        list.appendChild(loadMore);
+      }
     })
     .catch(error => {
       console.error('加载帖子失败:', error);
-      const list = document.getElementById('allPostsList');
-      list.innerHTML = '<div class="empty-state">加载失败，请刷新重试</div>';
-    });
-}
-
-// 加载用户对帖子的交互状态
-async function loadUserInteractionsForPosts(postIds) {
-  if (!AuthUtils.isLoggedIn() || !postIds || postIds.length === 0) {
-    return {};
-  }
-
-  const interactions = {};
-  
-  try {
-    // 并发获取所有帖子的交互状态
-    const promises = postIds.map(async postId => {
-      try {
-        // 获取点赞状态
-        const likeResponse = await AuthUtils.authenticatedFetch(`/blog/api/posts/${postId}/like-status?userId=${userId}`);
-        let liked = false;
-        if (likeResponse.ok) {
-          const likeData = await likeResponse.json();
-          liked = likeData.success ? likeData.data : false;
+      if (cursor) {
+        const loadMore = document.getElementById('loadMorePosts');
+        if (loadMore) {
+          loadMore.disabled = false;
+          loadMore.textContent = '加载更多';
         }
-
-        // 获取收藏状态
-        const collectResponse = await AuthUtils.authenticatedFetch(`/blog/api/posts/${postId}/collect-status?userId=${userId}`);
-        let collected = false;
-        if (collectResponse.ok) {
-          const collectData = await collectResponse.json();
-          collected = collectData.success ? collectData.data : false;
-        }
-
-        interactions[postId] = { liked, collected };
-      } catch (error) {
-        console.warn(`获取帖子 ${postId} 交互状态失败:`, error);
-        interactions[postId] = { liked: false, collected: false };
+        showNotification('加载更多帖子失败，请重试', 'error');
+        return;
       }
+      const list = document.getElementById('allPostsList');
+      list.innerHTML = '<div class="empty-state">加载失败，请刷新重试</div>';
     });
-
-    await Promise.all(promises);
-  } catch (error) {
-    console.error('批量获取交互状态失败:', error);
-  }
-
-  return interactions;
 }
 
 // 设置交互按钮事件处理
-function setupInteractionButtons() {
+function setupInteractionButtons(root = document) {
   // 如果用户未登录，不需要设置事件处理
   if (!AuthUtils.isLoggedIn()) return;
 
   // 点赞按钮
-  document.querySelectorAll('.interaction-preview-btn[data-action="like"]').forEach(btn => {
+  root.querySelectorAll('.interaction-preview-btn[data-action="like"]').forEach(btn => {
     btn.addEventListener('click', async function (e) {
       e.preventDefault();
       const postId = this.dataset.postId;
@@ -183,7 +190,7 @@ function setupInteractionButtons() {
   });
 
   // 收藏按钮
-  document.querySelectorAll('.interaction-preview-btn[data-action="bookmark"]').forEach(btn => {
+  root.querySelectorAll('.interaction-preview-btn[data-action="bookmark"]').forEach(btn => {
     btn.addEventListener('click', async function (e) {
       e.preventDefault();
       const postId = this.dataset.postId;
@@ -6,8 +6,10 @@ import com.myweb.website_core.domain.business.entity.User;
 import com.myweb.website_core.domain.security.dto.AuditLogQuery;
 import com.myweb.website_core.domain.security.dto.AuditLogRequest;
 import com.myweb.website_core.domain.security.entity.AuditLog;
+import com.myweb.website_core.infrastructure.persistence.repository.audit.AuditLogPartitionRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.audit.AuditLogRepository;
 import com.myweb.website_core.application.service.security.audit.AuditLogService;
+import com.myweb.website_core.application.service.security.audit.AuditMessageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,7 +26,9 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -53,6 +57,12 @@ class AuditLogServiceEnhancedTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private AuditMessageService auditMessageService;
+
+    @Mock
+    private AuditLogPartitionRepository auditLogPartitionRepository;
+
     @InjectMocks
     private AuditLogService auditLogService;
 
@@ -64,6 +74,8 @@ class AuditLogServiceEnhancedTest {
     void setUp() {
         // 设置配置值
         ReflectionTestUtils.setField(auditLogService, "retentionDays", 90);
+        ReflectionTestUtils.setField(auditLogService, "failureRetentionDays", 0);
+        ReflectionTestUtils.setField(auditLogService, "partitionMonthsAhead", 3);
         ReflectionTestUtils.setField(auditLogService, "batchSize", 1000);
         ReflectionTestUtils.setField(auditLogService, "exportLimit", 10000);
 
@@ -228,6 +240,64 @@ class AuditLogServiceEnhancedTest {
         verify(auditLogRepository).deleteByTimestampBefore(cutoffTime);
     }
 
+    @Test
+    void testCleanupExpiredLogsKeepsFailureLogsByDefault() {
+        // Given
+        YearMonth current = YearMonth.now();
+        YearMonth expired = current.minusMonths(24);
+        when(auditLogPartitionRepository.isPartitioned()).thenReturn(true);
+        when(auditLogPartitionRepository.findMonthlyPartitions()).thenReturn(List.of(expired, current));
+        when(auditLogPartitionRepository.dropSuccessPartition(expired)).thenReturn(true);
+
+        // When
+        auditLogService.cleanupExpiredLogs();
+
+        // Then
+        verify(auditLogPartitionRepository).dropSuccessPartition(expired);
+        verify(auditLogPartitionRepository, never()).dropMonthlyPartition(any());
+        verify(auditLogPartitionRepository, never()).dropSuccessPartition(current);
+    }
+
+    @Test
+    void testCleanupExpiredLogsDropsPartitions() {
+        // Given
+        ReflectionTestUtils.setField(auditLogService, "failureRetentionDays", 365);
+        YearMonth current = YearMonth.now();
+        YearMonth expired = current.minusMonths(24);
+        YearMonth successExpired = current.minusMonths(6);
+        when(auditLogPartitionRepository.isPartitioned()).thenReturn(true);
+        when(auditLogPartitionRepository.findMonthlyPartitions())
+                .thenReturn(List.of(expired, successExpired, current.minusMonths(1), current));
+        when(auditLogPartitionRepository.dropSuccessPartition(successExpired)).thenReturn(true);
+
+        // When
+        auditLogService.cleanupExpiredLogs();
+
+        // Then
+        verify(auditLogPartitionRepository, times(4)).createMonthlyPartition(any(YearMonth.class));
+        verify(auditLogPartitionRepository).createMonthlyPartition(current.plusMonths(3));
+        verify(auditLogPartitionRepository).dropMonthlyPartition(expired);
+        verify(auditLogPartitionRepository).dropSuccessPartition(successExpired);
+        verify(auditLogPartitionRepository, never()).dropMonthlyPartition(successExpired);
+        verify(auditLogPartitionRepository, never()).dropSuccessPartition(current);
+        verify(auditLogRepository, never()).deleteSuccessLogsByTimestampBefore(any());
+    }
+
+    @Test
+    void testCleanupExpiredLogsWithoutPartitions() {
+        // Given
+        when(auditLogPartitionRepository.isPartitioned()).thenReturn(false);
+        when(auditLogRepository.deleteSuccessLogsByTimestampBefore(any(LocalDateTime.class))).thenReturn(0);
+
+        // When
+        auditLogService.cleanupExpiredLogs();
+
+        // Then
+        verify(auditLogRepository).deleteSuccessLogsByTimestampBefore(any(LocalDateTime.class));
+        verify(auditLogPartitionRepository, never()).dropMonthlyPartition(any());
+        verify(auditLogPartitionRepository, never()).createMonthlyPartition(any());
+    }
+
     @Test
     void testLogOperationWithInvalidRequest() {
         // Given
@@ -11,13 +11,13 @@ import com.myweb.website_core.infrastructure.persistence.repository.user.UserRep
 import com.myweb.website_core.application.service.security.audit.AuditLogService;
 import com.myweb.website_core.application.service.security.authorization.AuthorizationService;
 import com.myweb.website_core.application.service.security.authorization.RoleService;
+import com.myweb.website_core.infrastructure.redis.RedisKeyManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.RedisTemplate;
 
 import java.util.Optional;
 import java.util.Set;
@@ -51,7 +51,7 @@ class AuthorizationServiceTest {
     private CommentRepository commentRepository;
     
     @Mock
-    private RedisTemplate<String, Object> redisTemplate;
+    private RedisKeyManager redisKeyManager;
     
     @Mock
     private AuditLogService auditLogService;
@@ -576,39 +576,37 @@ class AuthorizationServiceTest {
     @Test
     void testRefreshUserPermissionCache_ShouldClearCache() {
         // Given
-        when(redisTemplate.keys(anyString())).thenReturn(Set.of("key1", "key2"));
+        when(redisKeyManager.unlinkByPattern(anyString())).thenReturn(2L);
         
         // When
         authorizationService.refreshUserPermissionCache("testuser");
         
         // Then
-        verify(redisTemplate, times(2)).keys(anyString());
-        verify(redisTemplate, times(2)).delete(any(Set.class));
+        verify(redisKeyManager).unlinkByPattern("user:permissions:testuser:*");
+        verify(redisKeyManager).unlinkByPattern("user:roles:testuser:*");
     }
     
     @Test
     void testRefreshResourceOwnershipCache_ShouldClearCache() {
         // Given
-        when(redisTemplate.keys(anyString())).thenReturn(Set.of("key1"));
+        when(redisKeyManager.unlinkByPattern(anyString())).thenReturn(1L);
         
         // When
         authorizationService.refreshResourceOwnershipCache("POST", 1L);
         
         // Then
-        verify(redisTemplate).keys(anyString());
-        verify(redisTemplate).delete(any(Set.class));
+        verify(redisKeyManager).unlinkByPattern(anyString());
     }
     
     @Test
     void testClearAllPermissionCache_ShouldClearAllCaches() {
         // Given
-        when(redisTemplate.keys(anyString())).thenReturn(Set.of("key1", "key2"));
+        when(redisKeyManager.unlinkByPattern(anyString())).thenReturn(2L);
         
         // When
         authorizationService.clearAllPermissionCache();
         
         // Then
-        verify(redisTemplate, times(3)).keys(anyString());
-        verify(redisTemplate, times(3)).delete(any(Set.class));
+        verify(redisKeyManager, times(3)).unlinkByPattern(anyString());
     }
 }
\ No newline at end of file
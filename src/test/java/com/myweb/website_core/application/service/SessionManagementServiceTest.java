@@ -8,6 +8,7 @@ import com.myweb.website_core.domain.security.dto.SessionInfo;
 import com.myweb.website_core.domain.security.dto.SessionStatistics;
 import com.myweb.website_core.domain.business.entity.User;
 import com.myweb.website_core.application.service.security.audit.AuditLogService;
+import com.myweb.website_core.infrastructure.redis.RedisKeyManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -54,6 +55,9 @@ class SessionManagementServiceTest {
     @Mock
     private AuditLogService auditLogService;
     
+    @Mock
+    private RedisKeyManager redisKeyManager;
+    
     @Mock
     private ValueOperations<String, Object> valueOperations;
     
@@ -124,6 +128,8 @@ class SessionManagementServiceTest {
         verify(valueOperations).set(eq(RedisKey.sessionKey(testSessionId)), any(SessionInfo.class), eq(24L), eq(TimeUnit.HOURS));
         verify(valueOperations).set(eq(RedisKey.userActiveSessionKey(testUser.getId())), eq(testSessionId), eq(24L), eq(TimeUnit.HOURS));
         verify(setOperations).add(RedisKey.ACTIVE_SESSIONS_SET, testSessionId);
+        verify(redisKeyManager).registerUserKeys(testUser.getId(),
+                RedisKey.sessionKey(testSessionId), RedisKey.sessionActivityKey(testSessionId));
         
         // 验证审计日志
         //verify(auditLogService).logUserLogin(testUser, testIpAddress, testUserAgent, "SUCCESS");
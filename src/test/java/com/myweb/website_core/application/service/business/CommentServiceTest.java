@@ -0,0 +1,151 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.application.service.security.integeration.dataManage.DataIntegrityService;
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.domain.business.dto.CommentDTO;
+import com.myweb.website_core.domain.business.dto.CommentPageDTO;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
+import com.myweb.website_core.domain.business.entity.Comment;
+import com.myweb.website_core.domain.business.entity.User;
+import com.myweb.website_core.infrastructure.persistence.repository.comment.CommentRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * CommentService评论树加载测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CommentService评论树测试")
+class CommentServiceTest {
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DataIntegrityService dataIntegrityService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private CommentService commentService;
+
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        commentService = new CommentService(commentRepository, postRepository, userRepository,
+                dataIntegrityService, eventPublisher, redisTemplate);
+        ReflectionTestUtils.setField(commentService, "treeCacheTtlSeconds", 600L);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        author = new User();
+        author.setId(7L);
+        author.setUsername("author");
+    }
+
+    @Test
+    @DisplayName("一次查询组装评论树并写入缓存")
+    void testGetCommentsByPostIdBuildsTreeFromSingleQuery() {
+        Comment root = comment(1L, null);
+        Comment reply = comment(2L, root);
+        Comment nested = comment(3L, reply);
+        Comment other = comment(4L, null);
+        when(commentRepository.findAllWithAuthorByPostId(10L)).thenReturn(List.of(root, reply, nested, other));
+
+        List<CommentDTO> tree = commentService.getCommentsByPostId(10L);
+
+        assertEquals(2, tree.size());
+        assertEquals(1L, tree.get(0).getId());
+        assertEquals(2L, tree.get(0).getReplies().get(0).getId());
+        assertEquals(3L, tree.get(0).getReplies().get(0).getReplies().get(0).getId());
+        assertNull(tree.get(1).getReplies());
+        assertEquals("author", tree.get(0).getAuthor().getUsername());
+        verify(valueOperations).set(RedisKey.commentTreeKey(10L), tree, Duration.ofSeconds(600));
+        verify(commentRepository, never()).findTopLevelCommentsByPostId(anyLong());
+    }
+
+    @Test
+    @DisplayName("缓存命中时不查询数据库")
+    void testGetCommentsByPostIdUsesCache() {
+        List<CommentDTO> cached = List.of(dto(1L));
+        when(valueOperations.get(RedisKey.commentTreeKey(10L))).thenReturn(cached);
+
+        assertSame(cached, commentService.getCommentsByPostId(10L));
+        verify(commentRepository, never()).findAllWithAuthorByPostId(anyLong());
+    }
+
+    @Test
+    @DisplayName("按顶级评论游标分页")
+    void testGetCommentPage() {
+        when(valueOperations.get(RedisKey.commentTreeKey(10L))).thenReturn(List.of(dto(1L), dto(3L), dto(5L)));
+
+        CommentPageDTO first = commentService.getCommentPage(10L, null, 2);
+        assertEquals(List.of(1L, 3L), first.getComments().stream().map(CommentDTO::getId).toList());
+        assertTrue(first.getHasMore());
+        assertEquals(3L, first.getNextCursor());
+        assertEquals(3, first.getTotalThreads());
+
+        CommentPageDTO second = commentService.getCommentPage(10L, first.getNextCursor(), 2);
+        assertEquals(List.of(5L), second.getComments().stream().map(CommentDTO::getId).toList());
+        assertFalse(second.getHasMore());
+        assertNull(second.getNextCursor());
+
+        // 游标对应的评论已删除
+        CommentPageDTO resumed = commentService.getCommentPage(10L, 4L, 2);
+        assertEquals(List.of(5L), resumed.getComments().stream().map(CommentDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("评论变更后失效帖子评论树缓存")
+    void testOnCommentChangeEvictsTree() {
+        commentService.onCommentChange(ContentChangeEvent.comment(ContentChangeEvent.CHANGE_CREATE, 1L, 10L));
+        commentService.onCommentChange(ContentChangeEvent.post(ContentChangeEvent.CHANGE_UPDATE, 10L));
+
+        verify(redisTemplate, times(1)).unlink(RedisKey.commentTreeKey(10L));
+    }
+
+    private Comment comment(Long id, Comment parent) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setContent("评论" + id);
+        comment.setAuthor(author);
+        comment.setParent(parent);
+        return comment;
+    }
+
+    private static CommentDTO dto(Long id) {
+        CommentDTO dto = new CommentDTO();
+        dto.setId(id);
+        return dto;
+    }
+}
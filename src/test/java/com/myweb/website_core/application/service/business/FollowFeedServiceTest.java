@@ -0,0 +1,197 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.domain.business.dto.PostDTO;
+import com.myweb.website_core.domain.business.dto.PostTimelineDTO;
+import com.myweb.website_core.domain.business.entity.Post;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.UserFollowRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * FollowFeedService关注流测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FollowFeedService关注流测试")
+class FollowFeedServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private UserFollowRepository userFollowRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private PostTimelineService postTimelineService;
+
+    private FollowFeedService followFeedService;
+
+    @BeforeEach
+    void setUp() {
+        followFeedService = new FollowFeedService(stringRedisTemplate, userFollowRepository, postRepository,
+                postTimelineService);
+        ReflectionTestUtils.setField(followFeedService, "maxSize", 800);
+        ReflectionTestUtils.setField(followFeedService, "outboxSize", 200);
+        ReflectionTestUtils.setField(followFeedService, "celebrityThreshold", 100);
+        ReflectionTestUtils.setField(followFeedService, "fanOutBatchSize", 2);
+        ReflectionTestUtils.setField(followFeedService, "inboxTtlDays", 7L);
+        ReflectionTestUtils.setField(followFeedService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(followFeedService, "maxPageSize", 10);
+        lenient().when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        lenient().when(postTimelineService.assemble(anyList(), any())).thenAnswer(invocation -> {
+            List<Post> posts = invocation.getArgument(0);
+            List<PostDTO> dtos = new ArrayList<>();
+            posts.forEach(post -> dtos.add(new PostDTO(post, List.of())));
+            return dtos;
+        });
+    }
+
+    @Test
+    @DisplayName("读取一页：一次有序集合范围查询加一次批量帖子查询")
+    void testGetFeedReadsInboxRange() {
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(true, new LinkedHashSet<>(List.of("9", "7", "4")), Set.of()));
+        when(postRepository.findAllWithAuthorByIdIn(List.of(9L, 7L))).thenReturn(List.of(post(7L), post(9L)));
+
+        PostTimelineDTO feed = followFeedService.getFeed(1L, null, 2);
+
+        assertEquals(List.of(9L, 7L), feed.getPosts().stream().map(PostDTO::getId).toList());
+        assertTrue(feed.getHasMore());
+        assertEquals("7", feed.getNextCursor());
+        verify(userFollowRepository, never()).findFollowingIdsByFollowerId(anyLong());
+        verify(postTimelineService).assemble(anyList(), eq(1L));
+    }
+
+    @Test
+    @DisplayName("已删除的帖子从收件箱移除")
+    void testGetFeedRemovesDeletedPosts() {
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(true, new LinkedHashSet<>(List.of("9", "7")), Set.of()));
+        when(postRepository.findAllWithAuthorByIdIn(List.of(9L, 7L))).thenReturn(List.of(post(7L)));
+
+        PostTimelineDTO feed = followFeedService.getFeed(1L, "10", 2);
+
+        assertEquals(List.of(7L), feed.getPosts().stream().map(PostDTO::getId).toList());
+        assertFalse(feed.getHasMore());
+        verify(zSetOperations).remove(RedisKey.feedInboxKey(1L), "9");
+    }
+
+    @Test
+    @DisplayName("收件箱不存在时从数据库重建")
+    void testGetFeedRebuildsMissingInbox() {
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(false, Set.of(), Set.of()));
+        when(userFollowRepository.findFollowingIdsByFollowerId(1L)).thenReturn(List.of(2L, 3L));
+        when(postRepository.findRecentIdsByAuthorIdIn(eq(List.of(2L, 3L)), any(Pageable.class)))
+                .thenReturn(List.of(8L, 5L));
+        when(postRepository.findAllWithAuthorByIdIn(List.of(8L, 5L))).thenReturn(List.of(post(8L), post(5L)));
+
+        PostTimelineDTO feed = followFeedService.getFeed(1L, null, 2);
+
+        assertEquals(List.of(8L, 5L), feed.getPosts().stream().map(PostDTO::getId).toList());
+        verify(zSetOperations).add(eq(RedisKey.feedInboxKey(1L)), argThat(tuples -> tuples.size() == 3));
+        verify(stringRedisTemplate).expire(RedisKey.feedInboxKey(1L), 7L, TimeUnit.DAYS);
+    }
+
+    @Test
+    @DisplayName("合并已关注大V发件箱中的帖子")
+    void testGetFeedMergesCelebrityOutbox() {
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(true, new LinkedHashSet<>(List.of("9", "5")), Set.of("50", "60")))
+                .thenReturn(List.of(new LinkedHashSet<>(List.of("7", "5"))));
+        when(userFollowRepository.findFollowingIdsIn(eq(1L), anyCollection())).thenReturn(List.of(50L));
+        when(postRepository.findAllWithAuthorByIdIn(List.of(9L, 7L))).thenReturn(List.of(post(9L), post(7L)));
+
+        PostTimelineDTO feed = followFeedService.getFeed(1L, null, 2);
+
+        assertEquals(List.of(9L, 7L), feed.getPosts().stream().map(PostDTO::getId).toList());
+        assertTrue(feed.getHasMore());
+    }
+
+    @Test
+    @DisplayName("无效游标抛出IllegalArgumentException")
+    void testInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> followFeedService.getFeed(1L, "abc", 2));
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    @DisplayName("按粉丝ID游标分批推送到收件箱")
+    @SuppressWarnings("unchecked")
+    void testFanOutPushesToFollowersInBatches() {
+        when(userFollowRepository.countByFollowingId(2L)).thenReturn(3);
+        when(userFollowRepository.findFollowerIdsAfter(eq(2L), eq(0L), any(Pageable.class))).thenReturn(List.of(3L, 4L));
+        when(userFollowRepository.findFollowerIdsAfter(eq(2L), eq(4L), any(Pageable.class))).thenReturn(List.of(5L));
+
+        followFeedService.fanOut(10L, 2L);
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(stringRedisTemplate, times(2)).execute(any(DefaultRedisScript.class), keys.capture(), any(Object[].class));
+        assertEquals(List.of(RedisKey.feedInboxKey(3L), RedisKey.feedInboxKey(4L)), keys.getAllValues().get(0));
+        assertEquals(List.of(RedisKey.feedInboxKey(5L)), keys.getAllValues().get(1));
+        verify(zSetOperations, never()).add(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    @DisplayName("大V作者只写入发件箱")
+    void testFanOutCelebrityWritesOutbox() {
+        when(userFollowRepository.countByFollowingId(2L)).thenReturn(100);
+
+        followFeedService.fanOut(10L, 2L);
+
+        verify(zSetOperations).add(RedisKey.feedOutboxKey(2L), "10", 10d);
+        verify(zSetOperations).removeRange(RedisKey.feedOutboxKey(2L), 0, -201);
+        verify(setOperations).add(RedisKey.FEED_CELEBRITY_SET, "2");
+        verify(userFollowRepository, never()).findFollowerIdsAfter(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("取消关注后从收件箱移除被关注者的帖子")
+    void testUnfollowRemovesPosts() {
+        when(postRepository.findRecentIdsByAuthorIdIn(eq(List.of(2L)), any(Pageable.class))).thenReturn(List.of(8L, 5L));
+
+        followFeedService.onFollowChanged(1L, 2L, false);
+
+        verify(zSetOperations).remove(RedisKey.feedInboxKey(1L), "8", "5");
+    }
+
+    private Post post(Long id) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle("帖子" + id);
+        return post;
+    }
+}
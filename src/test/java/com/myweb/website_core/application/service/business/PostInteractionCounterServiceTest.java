@@ -0,0 +1,236 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.application.service.integration.MessageConsumerService;
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.InteractionBatchRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.InteractionBatchRepository.UserPostPair;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.PostCollectRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.PostLikeRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PostInteractionCounterService Redis计数测试
+ *
+ * Redis以内存集合模拟，切换和成员判断脚本按Lua脚本的语义执行。
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("PostInteractionCounterService计数测试")
+class PostInteractionCounterServiceTest {
+
+    private static final long POST_ID = 5L;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private PostLikeRepository postLikeRepository;
+
+    @Mock
+    private PostCollectRepository postCollectRepository;
+
+    @Mock
+    private InteractionBatchRepository interactionBatchRepository;
+
+    @InjectMocks
+    private MessageConsumerService messageConsumerService;
+
+    private PostInteractionCounterService counterService;
+
+    /**
+     * 模拟的Redis集合
+     */
+    private final Map<String, Set<String>> sets = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        counterService = new PostInteractionCounterService(stringRedisTemplate, postRepository,
+                postLikeRepository, postCollectRepository, interactionBatchRepository);
+        ReflectionTestUtils.setField(counterService, "ttlDays", 7L);
+        ReflectionTestUtils.setField(counterService, "reconcileBatchSize", 100);
+
+        when(postRepository.existsById(POST_ID)).thenReturn(true);
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenAnswer(invocation -> runScript(invocation.getArgument(0), invocation.getArgument(1),
+                        varargs(invocation.getArguments())));
+        when(setOperations.add(anyString(), any(String[].class))).thenAnswer(invocation -> {
+            Object[] all = invocation.getArguments();
+            Set<String> set = sets.computeIfAbsent((String) all[0], key -> new LinkedHashSet<>());
+            long added = 0;
+            for (Object member : varargs(all, 1)) {
+                added += set.add((String) member) ? 1 : 0;
+            }
+            return added;
+        });
+        when(setOperations.pop(anyString(), anyLong())).thenAnswer(invocation -> {
+            Set<String> set = sets.remove(invocation.<String>getArgument(0));
+            return set == null ? List.of() : new ArrayList<>(set);
+        });
+        when(setOperations.isMember(anyString(), any())).thenAnswer(invocation ->
+                sets.getOrDefault(invocation.<String>getArgument(0), Set.of()).contains(invocation.<Object>getArgument(1)));
+        when(stringRedisTemplate.renameIfAbsent(anyString(), anyString())).thenAnswer(invocation -> {
+            String target = invocation.getArgument(1);
+            if (sets.containsKey(target)) {
+                return false;
+            }
+            sets.put(target, sets.remove(invocation.<String>getArgument(0)));
+            return true;
+        });
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            // 对账脚本依次读取每个脏帖子的点赞、收藏集合大小
+            List<Object> sizes = new ArrayList<>();
+            sizes.add((long) sets.getOrDefault(RedisKey.postLikeMembersKey(POST_ID), Set.of()).size());
+            sizes.add((long) sets.getOrDefault(RedisKey.postCollectMembersKey(POST_ID), Set.of()).size());
+            return sizes;
+        });
+    }
+
+    @Test
+    @DisplayName("冷帖子首次切换时从数据库加载集合，再切换成员")
+    void testToggleLoadsColdPost() {
+        when(postLikeRepository.findUserIdsByPostId(POST_ID)).thenReturn(List.of(1L, 2L));
+
+        PostInteractionCounterService.ToggleResult result = counterService.toggleLike(POST_ID, 3L);
+
+        assertTrue(result.active());
+        assertEquals(3, result.count());
+        assertEquals(Set.of("_", "1", "2", "3"), sets.get(RedisKey.postLikeMembersKey(POST_ID)));
+        assertTrue(sets.get(RedisKey.POST_INTERACTION_DIRTY_SET).contains(String.valueOf(POST_ID)));
+        verify(postLikeRepository, times(1)).findUserIdsByPostId(POST_ID);
+    }
+
+    @Test
+    @DisplayName("再次切换移除成员，计数不包含占位成员")
+    void testToggleTwiceRemovesMember() {
+        when(postLikeRepository.findUserIdsByPostId(POST_ID)).thenReturn(List.of());
+
+        counterService.toggleLike(POST_ID, 3L);
+        PostInteractionCounterService.ToggleResult result = counterService.toggleLike(POST_ID, 3L);
+
+        assertFalse(result.active());
+        assertEquals(0, result.count());
+        assertFalse(counterService.isLiked(POST_ID, 3L));
+    }
+
+    @Test
+    @DisplayName("对账将集合大小减去占位成员写回数据库，已过期的集合不覆盖")
+    void testReconcileWritesSetSizes() {
+        when(postLikeRepository.findUserIdsByPostId(POST_ID)).thenReturn(List.of(1L));
+        counterService.toggleLike(POST_ID, 2L);
+
+        counterService.reconcileCounts();
+
+        verify(interactionBatchRepository).updatePostLikeCounts(Map.of(POST_ID, 2L));
+        verify(interactionBatchRepository).updatePostCollectCounts(Map.of());
+        assertFalse(sets.containsKey(RedisKey.POST_INTERACTION_DIRTY_SET));
+    }
+
+    @Test
+    @DisplayName("对账失败时帖子重新放回脏集合")
+    void testReconcileFailureRequeues() {
+        when(postLikeRepository.findUserIdsByPostId(POST_ID)).thenReturn(List.of());
+        counterService.toggleLike(POST_ID, 2L);
+        doThrow(new RuntimeException("数据库不可用")).when(interactionBatchRepository).updatePostLikeCounts(anyMap());
+
+        counterService.reconcileCounts();
+
+        assertEquals(Set.of(String.valueOf(POST_ID)), sets.get(RedisKey.POST_INTERACTION_DIRTY_SET));
+    }
+
+    @Test
+    @DisplayName("对账之后才消费的点赞消息不会再次修改帖子点赞数")
+    void testBatchReplayedAfterReconcileNotDoubleCounted() {
+        when(postLikeRepository.findUserIdsByPostId(POST_ID)).thenReturn(List.of());
+        when(interactionBatchRepository.batchInsert(InteractionBatchRepository.TABLE_POST_LIKES,
+                List.of(new UserPostPair(9L, POST_ID)))).thenReturn(new int[]{1});
+
+        // 请求线程切换点赞，对账先于消息消费执行
+        counterService.toggleLike(POST_ID, 9L);
+        counterService.reconcileCounts();
+        // 消息随后才被批量消费，重放同一次点赞
+        messageConsumerService.handlePostLikeBatch(List.of(Map.of("userId", 9L, "postId", POST_ID, "type", true)));
+        counterService.reconcileCounts();
+
+        // 帖子点赞数只在对账中写入一次，值为1
+        verify(interactionBatchRepository).updatePostLikeCounts(Map.of(POST_ID, 1L));
+        verify(interactionBatchRepository).batchInsert(InteractionBatchRepository.TABLE_POST_LIKES,
+                List.of(new UserPostPair(9L, POST_ID)));
+        verify(interactionBatchRepository).incrementUserLikedCounts(Map.of(9L, 1));
+        verify(interactionBatchRepository).updatePostCollectCounts(anyMap());
+        verifyNoMoreInteractions(interactionBatchRepository);
+    }
+
+    // ========== 辅助方法 ==========
+
+    /**
+     * 按脚本语义在内存集合上执行
+     */
+    private List<Long> runScript(RedisScript<?> script, List<String> keys, Object[] args) {
+        if (script.getScriptAsString().contains("SREM")) {
+            Set<String> members = sets.get(keys.get(0));
+            if (members == null) {
+                return List.of(-1L, 0L);
+            }
+            String userId = (String) args[0];
+            long state = members.remove(userId) ? 0L : 1L;
+            if (state == 1L) {
+                members.add(userId);
+            }
+            sets.computeIfAbsent(keys.get(1), key -> new LinkedHashSet<>()).add((String) args[1]);
+            return List.of(state, (long) members.size() - 1);
+        }
+        List<Long> result = new ArrayList<>();
+        for (String key : keys) {
+            Set<String> members = sets.get(key);
+            result.add(members == null ? -1L : members.contains((String) args[0]) ? 1L : 0L);
+        }
+        return result;
+    }
+
+    private static Object[] varargs(Object[] arguments) {
+        return varargs(arguments, 2);
+    }
+
+    /**
+     * 兼容可变参数展开与未展开两种调用形式
+     */
+    private static Object[] varargs(Object[] arguments, int from) {
+        if (arguments.length == from + 1 && arguments[from] instanceof Object[] array) {
+            return array;
+        }
+        return Arrays.copyOfRange(arguments, from, arguments.length);
+    }
+}
@@ -0,0 +1,190 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
+import com.myweb.website_core.domain.business.dto.PostDTO;
+import com.myweb.website_core.domain.business.dto.PostInteractionEvent;
+import com.myweb.website_core.domain.business.entity.Post;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PostRankingService排行榜测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PostRankingService排行榜测试")
+class PostRankingServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private RedisOperations<String, String> pipelineOperations;
+
+    @Mock
+    private ZSetOperations<String, String> pipelineZSetOperations;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private PostTimelineService postTimelineService;
+
+    private PostRankingService postRankingService;
+
+    @BeforeEach
+    void setUp() {
+        postRankingService = new PostRankingService(stringRedisTemplate, postRepository, postTimelineService);
+        ReflectionTestUtils.setField(postRankingService, "size", 3);
+        ReflectionTestUtils.setField(postRankingService, "capacity", 10);
+        ReflectionTestUtils.setField(postRankingService, "likeWeight", 1d);
+        ReflectionTestUtils.setField(postRankingService, "collectWeight", 2d);
+        ReflectionTestUtils.setField(postRankingService, "commentWeight", 3d);
+        ReflectionTestUtils.setField(postRankingService, "halfLifeHours24h", 6d);
+        ReflectionTestUtils.setField(postRankingService, "halfLifeHours7d", 48d);
+        lenient().when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(pipelineOperations.opsForZSet()).thenReturn(pipelineZSetOperations);
+        lenient().when(postTimelineService.assemble(anyList(), isNull())).thenAnswer(invocation -> {
+            List<Post> posts = invocation.getArgument(0);
+            List<PostDTO> dtos = new ArrayList<>();
+            posts.forEach(post -> dtos.add(new PostDTO(post, List.of())));
+            return dtos;
+        });
+    }
+
+    @Test
+    @DisplayName("点赞写入总榜绝对值并累加热度桶")
+    void testLikeUpdatesBoardsInOneRoundTrip() {
+        postRankingService.onInteraction(PostInteractionEvent.like(5L, 1L, true, 12));
+
+        runPipeline();
+        verify(pipelineZSetOperations).add(RedisKey.POST_RANK_LIKES, "5", 12d);
+        verify(pipelineZSetOperations, times(2)).incrementScore(anyString(), eq("5"), eq(1d));
+    }
+
+    @Test
+    @DisplayName("取消收藏扣减热度，不改变总榜")
+    void testUncollectDecrementsHotScore() {
+        postRankingService.onInteraction(PostInteractionEvent.collect(5L, 1L, false, 0));
+
+        runPipeline();
+        verify(pipelineZSetOperations, never()).add(anyString(), anyString(), anyDouble());
+        verify(pipelineZSetOperations, never()).remove(anyString(), any());
+        verify(pipelineZSetOperations, times(2)).incrementScore(anyString(), eq("5"), eq(-2d));
+    }
+
+    @Test
+    @DisplayName("评论按权重累加热度")
+    void testCommentAddsHotScore() {
+        postRankingService.onContentChange(ContentChangeEvent.comment(ContentChangeEvent.CHANGE_CREATE, 9L, 5L));
+
+        runPipeline();
+        verify(pipelineZSetOperations, times(2)).incrementScore(anyString(), eq("5"), eq(3d));
+    }
+
+    @Test
+    @DisplayName("刷新后从内存快照读取，不访问数据库和Redis")
+    void testTopPostsServedFromSnapshot() {
+        when(stringRedisTemplate.hasKey(RedisKey.POST_RANK_LIKES)).thenReturn(true);
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(
+                new LinkedHashSet<>(List.of("3", "1", "2")),
+                new LinkedHashSet<>(List.of("2")),
+                new LinkedHashSet<>()));
+        when(postRepository.findAllWithAuthorByIdIn(anyCollection())).thenReturn(List.of(post(1L), post(2L), post(3L)));
+
+        postRankingService.refresh();
+        clearInvocations(stringRedisTemplate, postRepository);
+
+        assertEquals(List.of(3L, 1L), ids(postRankingService.getTopPosts(PostRankingService.Board.ALL_TIME, 2)));
+        assertEquals(List.of(2L), ids(postRankingService.getTopPosts(PostRankingService.Board.HOT_24H, 3)));
+        assertTrue(postRankingService.getTopPosts(PostRankingService.Board.HOT_7D, 3).isEmpty());
+        verifyNoInteractions(stringRedisTemplate, postRepository);
+    }
+
+    @Test
+    @DisplayName("按衰减权重合并热榜窗口")
+    @SuppressWarnings("unchecked")
+    void testRefreshMergesDecayedWindows() {
+        when(stringRedisTemplate.hasKey(RedisKey.POST_RANK_LIKES)).thenReturn(true);
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(new LinkedHashSet<>(), new LinkedHashSet<>(), new LinkedHashSet<>()));
+
+        postRankingService.refresh();
+
+        ArgumentCaptor<List<String>> otherKeys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Weights> weights = ArgumentCaptor.forClass(Weights.class);
+        verify(zSetOperations).unionAndStore(anyString(), otherKeys.capture(), eq(RedisKey.postRankHotKey("24h")),
+                eq(Aggregate.SUM), weights.capture());
+        assertEquals(23, otherKeys.getValue().size());
+        assertEquals(24, weights.getValue().size());
+        assertEquals(0.5, weights.getValue().getWeight(6), 1e-9);
+        verify(zSetOperations).unionAndStore(anyString(), anyList(), eq(RedisKey.postRankHotKey("7d")),
+                eq(Aggregate.SUM), any(Weights.class));
+        verify(postRepository, never()).findAllWithAuthorByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("帖子删除后立即移出快照")
+    void testDeletedPostRemovedFromSnapshot() {
+        when(stringRedisTemplate.hasKey(RedisKey.POST_RANK_LIKES)).thenReturn(true);
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(
+                new LinkedHashSet<>(List.of("3", "1")), new LinkedHashSet<>(), new LinkedHashSet<>()));
+        when(postRepository.findAllWithAuthorByIdIn(anyCollection())).thenReturn(List.of(post(1L), post(3L)));
+        postRankingService.refresh();
+
+        postRankingService.onContentChange(ContentChangeEvent.post(ContentChangeEvent.CHANGE_DELETE, 3L));
+
+        assertEquals(List.of(1L), ids(postRankingService.getTopPosts(PostRankingService.Board.ALL_TIME, 3)));
+        verify(zSetOperations).remove(RedisKey.POST_RANK_LIKES, "3");
+    }
+
+    @Test
+    @DisplayName("无效的排行榜和数量")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> PostRankingService.Board.fromCode("30d"));
+        assertThrows(IllegalArgumentException.class,
+                () -> postRankingService.getTopPosts(PostRankingService.Board.ALL_TIME, 4));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runPipeline() {
+        ArgumentCaptor<SessionCallback<Object>> callback = ArgumentCaptor.forClass(SessionCallback.class);
+        verify(stringRedisTemplate).executePipelined(callback.capture());
+        callback.getValue().execute(pipelineOperations);
+    }
+
+    private Post post(Long id) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle("帖子" + id);
+        return post;
+    }
+
+    private List<Long> ids(List<PostDTO> posts) {
+        return posts.stream().map(PostDTO::getId).toList();
+    }
+}
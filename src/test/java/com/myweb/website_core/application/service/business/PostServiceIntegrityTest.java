@@ -1,5 +1,6 @@
 package com.myweb.website_core.application.service.business;
 
+import com.myweb.website_core.application.service.integration.MessageProducerService;
 import com.myweb.website_core.application.service.security.integeration.dataManage.DataIntegrityService;
 import com.myweb.website_core.application.service.security.audit.AuditLogService;
 import com.myweb.website_core.common.exception.DataIntegrityException;
@@ -15,6 +16,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoSettings;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -55,6 +57,12 @@ public class PostServiceIntegrityTest {
     
     @Mock
     private PostLikeService postLikeService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MessageProducerService messageProducerService;
     
     private PostService postService;
     
@@ -69,7 +77,7 @@ public class PostServiceIntegrityTest {
         postService = new PostService(
             postRepository,
             userRepository,
-            null, // messageProducerService
+            messageProducerService,
             null, // postMapper
             null, // redisTemplate
             null, // postCollectRepository
@@ -78,7 +86,8 @@ public class PostServiceIntegrityTest {
             dataIntegrityService,
             auditLogService,
             null  // safeQueryService
-                ,null
+                ,null,
+            eventPublisher
         );
         
         // 初始化测试数据
@@ -416,6 +425,9 @@ public class PostServiceIntegrityTest {
         
         // 验证帖子被保存
         verify(postRepository).save(newPost);
+        
+        // 验证发送帖子创建消息用于推送关注流
+        verify(messageProducerService).sendPostCreatedMessage(newPost);
     }
     
     @Test
@@ -0,0 +1,148 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
+import com.myweb.website_core.domain.business.dto.PostDTO;
+import com.myweb.website_core.domain.business.dto.PostInteractionStatus;
+import com.myweb.website_core.domain.business.dto.PostTimelineDTO;
+import com.myweb.website_core.domain.business.entity.Post;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.ImageRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PostTimelineService游标分页测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PostTimelineService时间线测试")
+class PostTimelineServiceTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private PostLikeService postLikeService;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private PostTimelineService postTimelineService;
+
+    @BeforeEach
+    void setUp() {
+        postTimelineService = new PostTimelineService(postRepository, imageRepository, postLikeService,
+                redisTemplate, listenerContainer);
+        ReflectionTestUtils.setField(postTimelineService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(postTimelineService, "maxPageSize", 10);
+        ReflectionTestUtils.setField(postTimelineService, "cachedSize", 3);
+    }
+
+    @Test
+    @DisplayName("首页从内存缓存返回，只查询一次数据库")
+    void testFirstPageServedFromCache() {
+        when(postRepository.findTimelineFirstPage(any(Pageable.class))).thenReturn(posts(5, 4, 3, 2));
+
+        PostTimelineDTO first = postTimelineService.getTimeline(null, null, null);
+        PostTimelineDTO second = postTimelineService.getTimeline(null, 3, null);
+
+        assertEquals(List.of(5L, 4L), ids(first));
+        assertTrue(first.getHasMore());
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of(5L, 4L, 3L), ids(second));
+        assertTrue(second.getHasMore());
+        verify(postRepository, times(1)).findTimelineFirstPage(any(Pageable.class));
+        verify(imageRepository, times(1)).findImageIdsByPostIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("按游标读取下一页")
+    void testNextPageUsesCursor() {
+        when(postRepository.findTimelineFirstPage(any(Pageable.class))).thenReturn(posts(5, 4, 3, 2));
+        when(postRepository.findTimelineBefore(eq(BASE_TIME.plusMinutes(4)), eq(4L), any(Pageable.class)))
+                .thenReturn(posts(3));
+
+        PostTimelineDTO first = postTimelineService.getTimeline(null, 2, null);
+        PostTimelineDTO next = postTimelineService.getTimeline(first.getNextCursor(), 2, null);
+
+        assertEquals(List.of(3L), ids(next));
+        assertFalse(next.getHasMore());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("无效游标抛出IllegalArgumentException")
+    void testInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> postTimelineService.getTimeline("not-a-cursor", 2, null));
+        verify(postRepository, never()).findTimelineBefore(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("填充当前用户交互状态时不修改共享缓存")
+    void testInteractionStatusDoesNotLeakIntoCache() {
+        when(postRepository.findTimelineFirstPage(any(Pageable.class))).thenReturn(posts(5, 4));
+        when(postLikeService.getInteractionStatus(eq(1L), anyCollection()))
+                .thenReturn(Map.of(5L, new PostInteractionStatus(true, false)));
+
+        PostTimelineDTO mine = postTimelineService.getTimeline(null, 2, 1L);
+        PostTimelineDTO anonymous = postTimelineService.getTimeline(null, 2, null);
+
+        assertTrue(mine.getPosts().get(0).getLiked());
+        assertNotEquals(Boolean.TRUE, anonymous.getPosts().get(0).getLiked());
+    }
+
+    @Test
+    @DisplayName("帖子变更后合并刷新首页并广播")
+    void testFlushPostChangesRefreshesAndBroadcasts() {
+        when(postRepository.findTimelineFirstPage(any(Pageable.class))).thenReturn(posts(5), posts(6, 5));
+        postTimelineService.getTimeline(null, 2, null);
+
+        postTimelineService.onContentChange(ContentChangeEvent.post(ContentChangeEvent.CHANGE_CREATE, 6L));
+        postTimelineService.flushPostChanges();
+        postTimelineService.flushPostChanges();
+
+        assertEquals(List.of(6L, 5L), ids(postTimelineService.getTimeline(null, 2, null)));
+        verify(postRepository, times(2)).findTimelineFirstPage(any(Pageable.class));
+        verify(redisTemplate, times(1)).convertAndSend(eq(PostTimelineService.REFRESH_CHANNEL), anyString());
+    }
+
+    private List<Post> posts(long... ids) {
+        List<Post> posts = new ArrayList<>();
+        for (long id : ids) {
+            Post post = new Post();
+            post.setId(id);
+            post.setTitle("帖子" + id);
+            post.setCreatedAt(BASE_TIME.plusMinutes(id));
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    private List<Long> ids(PostTimelineDTO page) {
+        return page.getPosts().stream().map(PostDTO::getId).toList();
+    }
+}
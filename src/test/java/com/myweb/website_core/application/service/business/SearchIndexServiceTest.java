@@ -0,0 +1,138 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
+import com.myweb.website_core.domain.business.entity.Post;
+import com.myweb.website_core.infrastructure.persistence.repository.comment.CommentRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepository;
+import com.myweb.website_core.infrastructure.search.SearchResultCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SearchIndexService跨节点同步测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SearchIndexService索引同步测试")
+class SearchIndexServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    private SearchIndexService searchIndexService;
+
+    @BeforeEach
+    void setUp() {
+        searchIndexService = new SearchIndexService(postRepository, commentRepository, userRepository,
+                redisTemplate, listenerContainer, searchResultCache);
+        ReflectionTestUtils.setField(searchIndexService, "enabled", true);
+        ((AtomicBoolean) ReflectionTestUtils.getField(searchIndexService, "ready")).set(true);
+    }
+
+    @Test
+    @DisplayName("本地变更更新索引并广播给其他节点")
+    void testLocalChangePublished() {
+        Post post = post(7L, "redis cluster");
+        when(postRepository.findById(7L)).thenReturn(Optional.of(post));
+        when(postRepository.findAllWithAuthorByIdIn(List.of(7L))).thenReturn(List.of(post));
+
+        searchIndexService.onContentChange(ContentChangeEvent.post(ContentChangeEvent.CHANGE_CREATE, 7L));
+
+        assertEquals(List.of(post), searchIndexService.searchPosts("redis", "TIME", 0, 10).items());
+        String nodeId = (String) ReflectionTestUtils.getField(searchIndexService, "nodeId");
+        verify(redisTemplate).convertAndSend(SearchIndexService.SYNC_CHANNEL, nodeId + "|POST|CREATE|7");
+    }
+
+    @Test
+    @DisplayName("其他节点的变更消息从数据库重新加载后写入本节点索引")
+    void testRemoteChangeApplied() {
+        Post post = post(8L, "kafka stream");
+        stringSerializer();
+        when(postRepository.findById(8L)).thenReturn(Optional.of(post));
+        when(postRepository.findAllWithAuthorByIdIn(List.of(8L))).thenReturn(List.of(post));
+
+        searchIndexService.onMessage(message("other-node|POST|UPDATE|8"), null);
+
+        assertEquals(List.of(post), searchIndexService.searchPosts("kafka", "TIME", 0, 10).items());
+        verify(redisTemplate, never()).convertAndSend(anyString(), any());
+        verify(searchResultCache).markContentChanged();
+    }
+
+    @Test
+    @DisplayName("其他节点的删除消息从本节点索引移除文档")
+    void testRemoteDeleteApplied() {
+        Post post = post(9L, "redis sentinel");
+        stringSerializer();
+        when(postRepository.findById(9L)).thenReturn(Optional.of(post));
+        searchIndexService.onContentChange(ContentChangeEvent.post(ContentChangeEvent.CHANGE_CREATE, 9L));
+
+        searchIndexService.onMessage(message("other-node|POST|DELETE|9"), null);
+
+        assertEquals(0, searchIndexService.searchPosts("sentinel", "TIME", 0, 10).total());
+    }
+
+    @Test
+    @DisplayName("忽略本节点自己发出的同步消息")
+    void testOwnMessageIgnored() {
+        stringSerializer();
+        String nodeId = (String) ReflectionTestUtils.getField(searchIndexService, "nodeId");
+
+        searchIndexService.onMessage(message(nodeId + "|POST|UPDATE|10"), null);
+
+        verify(postRepository, never()).findById(anyLong());
+    }
+
+    // ========== 辅助方法 ==========
+
+    private void stringSerializer() {
+        doReturn(StringRedisSerializer.UTF_8).when(redisTemplate).getValueSerializer();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(SearchIndexService.SYNC_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Post post(Long id, String title) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle(title);
+        post.setContent("");
+        post.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(id));
+        return post;
+    }
+}
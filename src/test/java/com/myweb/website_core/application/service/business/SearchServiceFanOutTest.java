@@ -0,0 +1,171 @@
+package com.myweb.website_core.application.service.business;
+
+import com.myweb.website_core.common.constant.SearchConstants;
+import com.myweb.website_core.common.util.SearchUtils;
+import com.myweb.website_core.domain.business.dto.SearchRequestDTO;
+import com.myweb.website_core.domain.business.dto.SearchResultDTO;
+import com.myweb.website_core.domain.business.entity.Post;
+import com.myweb.website_core.infrastructure.persistence.repository.comment.CommentRepositoryCustom;
+import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepositoryCustom;
+import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepositoryCustom;
+import com.myweb.website_core.infrastructure.redis.RedisKeyManager;
+import com.myweb.website_core.infrastructure.search.BoundedVirtualThreadExecutor;
+import com.myweb.website_core.infrastructure.search.SearchResultCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SearchService综合搜索并行检索测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SearchService并行检索测试")
+class SearchServiceFanOutTest {
+
+    @Mock
+    private PostRepositoryCustom postRepository;
+
+    @Mock
+    private UserRepositoryCustom userRepository;
+
+    @Mock
+    private CommentRepositoryCustom commentRepository;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @Mock
+    private RedisKeyManager redisKeyManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BoundedVirtualThreadExecutor executor;
+    private SimpleMeterRegistry meterRegistry;
+    private SearchService searchService;
+
+    /**
+     * 放行被阻塞的慢查询，避免测试结束后仍有线程挂起
+     */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new BoundedVirtualThreadExecutor(8, Thread.ofVirtual().factory());
+        searchService = new SearchService(postRepository, userRepository, commentRepository, redisTemplate,
+                searchIndexService, searchResultCache, redisKeyManager, executor, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(searchService, "postTimeoutMs", 100L);
+        ReflectionTestUtils.setField(searchService, "userTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(searchService, "commentTimeoutMs", 2000L);
+
+        lenient().when(userRepository.findUsersWithSafeSearch(anyString(), anyString(), anyString(), anyInt(), anyInt()))
+                .thenReturn(Page.empty());
+        lenient().when(commentRepository.findCommentsWithSafeSearch(anyString(), anyString(), anyString(), anyInt(), anyInt()))
+                .thenReturn(Page.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("所有数据源按时完成时返回完整结果并写入缓存")
+    void testAllSourcesComplete() {
+        when(postRepository.findPostsWithSafeSearch(anyString(), anyString(), anyString(), anyInt(), anyInt()))
+                .thenReturn(Page.empty());
+
+        SearchRequestDTO request = request();
+        SearchResultDTO<Object> result = searchService.searchAll(request);
+
+        assertFalse(result.isPartial());
+        assertTrue(result.getIncompleteSources().isEmpty());
+        verify(searchResultCache).put(SearchUtils.buildAllSearchCacheKey(request), result);
+    }
+
+    @Test
+    @DisplayName("数据源超过截止时间时返回部分结果且不缓存")
+    void testSlowSourceReturnsPartialResult() {
+        when(postRepository.findPostsWithSafeSearch(anyString(), anyString(), anyString(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return Page.<Post>empty();
+                });
+
+        SearchRequestDTO request = request();
+        long startNanos = System.nanoTime();
+        SearchResultDTO<Object> result = searchService.searchAll(request);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        assertTrue(result.isPartial());
+        assertEquals(List.of(SearchConstants.SEARCH_TYPE_POST), result.getIncompleteSources());
+        assertTrue(elapsedMs < 2000, "综合搜索应在帖子截止时间后返回，实际耗时: " + elapsedMs + "ms");
+        assertEquals(1.0, meterRegistry.counter("search.fanout.timeouts", "source", SearchConstants.SEARCH_TYPE_POST).count());
+        verify(searchResultCache, never()).put(eq(SearchUtils.buildAllSearchCacheKey(request)), any());
+    }
+
+    @Test
+    @DisplayName("并发数已满时数据源记为未完成，不阻塞调用线程")
+    void testSaturatedExecutorRejectsSource() throws InterruptedException {
+        executor.shutdownNow();
+        executor = new BoundedVirtualThreadExecutor(2, Thread.ofVirtual().factory());
+        ReflectionTestUtils.setField(searchService, "searchFanOutExecutor", executor);
+        // 占满全部许可
+        CountDownLatch blocked = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        blocked.await(5, TimeUnit.SECONDS);
+
+        SearchResultDTO<Object> result = searchService.searchAll(request());
+
+        assertTrue(result.isPartial());
+        assertEquals(List.of(SearchConstants.SEARCH_TYPE_POST, SearchConstants.SEARCH_TYPE_USER,
+                SearchConstants.SEARCH_TYPE_COMMENT), result.getIncompleteSources());
+        assertEquals(1.0, meterRegistry.counter("search.fanout.rejected", "source", SearchConstants.SEARCH_TYPE_POST).count());
+    }
+
+    // ========== 辅助方法 ==========
+
+    private static SearchRequestDTO request() {
+        SearchRequestDTO request = new SearchRequestDTO();
+        request.setKeyword("并行检索");
+        request.setType(SearchConstants.SEARCH_TYPE_ALL);
+        request.setPage(0);
+        request.setSize(20);
+        request.setSortBy(SearchConstants.SORT_BY_TIME);
+        return request;
+    }
+}
@@ -1,8 +1,9 @@
 package com.myweb.website_core.application.service.file;
 
+import com.myweb.website_core.application.service.security.FileSecurityMonitoringService;
 import com.myweb.website_core.application.service.security.integeration.FileUploadSecurityService;
+import com.myweb.website_core.application.service.security.integeration.UploadInspectionResult;
 import com.myweb.website_core.application.service.security.integeration.dataManage.DataIntegrityService;
-import com.myweb.website_core.application.service.security.IPS.virusprotect.VirusScanService;
 import com.myweb.website_core.application.service.security.IPS.virusprotect.VirusScanResult;
 import com.myweb.website_core.common.exception.FileUploadException;
 import com.myweb.website_core.common.exception.FileValidationException;
@@ -14,9 +15,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.concurrent.CompletableFuture;
@@ -54,7 +57,10 @@ class EnhancedFileUploadServiceTest {
     private DataIntegrityService dataIntegrityService;
     
     @Mock
-    private VirusScanService virusScanService;
+    private FileSecurityMonitoringService fileSecurityMonitoringService;
+    
+    @Mock
+    private ImageBlobService imageBlobService;
     
     private FileUploadService fileUploadService;
     
@@ -65,13 +71,39 @@ class EnhancedFileUploadServiceTest {
             imageService,
             fileUploadSecurityService,
             dataIntegrityService,
-            virusScanService
+            fileSecurityMonitoringService,
+            imageBlobService
         );
         
         // 设置默认的mock行为，使用临时目录
-        when(fileUploadConfig.getUploadDir()).thenReturn(tempDir.toString() + "/");
-        when(fileUploadConfig.getMaxFileSize()).thenReturn(5 * 1024 * 1024L);
-        when(fileUploadConfig.getAllowedTypes()).thenReturn(new String[]{"image/jpeg", "image/png"});
+        lenient().when(fileUploadConfig.getUploadDir()).thenReturn(tempDir.toString() + "/");
+        lenient().when(fileUploadConfig.getMaxFileSize()).thenReturn(5 * 1024 * 1024L);
+        lenient().when(fileUploadConfig.getAllowedTypes()).thenReturn(new String[]{"image/jpeg", "image/png"});
+        lenient().when(imageBlobService.getStagingDirectory()).thenReturn(tempDir);
+    }
+    
+    /**
+     * 模拟安全验证通过：把文件内容写入暂存文件并返回检查结果
+     */
+    private void stubValidationPasses(MultipartFile file, String contentHash) throws Exception {
+        VirusScanResult cleanScanResult = VirusScanResult.success(
+            file.getOriginalFilename(), 1L, "testuser", "MockEngine", 100L
+        );
+        when(fileUploadSecurityService.validateAndStage(eq(file), any(), any(), any(), any(Path.class), any()))
+            .thenAnswer(invocation -> {
+                Path stagedFile = invocation.getArgument(4);
+                Files.write(stagedFile, file.getBytes());
+                return new UploadInspectionResult(contentHash, file.getSize(), "image/jpeg", cleanScanResult);
+            });
+    }
+    
+    /**
+     * 暂存目录中残留的暂存文件
+     */
+    private long countTempFiles() throws Exception {
+        try (var paths = Files.walk(tempDir)) {
+            return paths.filter(path -> path.getFileName().toString().endsWith(".tmp")).count();
+        }
     }
     
     @Test
@@ -88,61 +120,65 @@ class EnhancedFileUploadServiceTest {
         String expectedHash = "test-hash-value";
         Long postId = 1L;
         
-        // Mock安全验证通过
-        doNothing().when(fileUploadSecurityService)
-            .validateUploadedFile(eq(file), any(), any(), any());
+        // Mock安全验证通过（包含病毒扫描和哈希计算）
+        stubValidationPasses(file, expectedHash);
         
-        // Mock病毒扫描通过
-        VirusScanResult cleanScanResult = VirusScanResult.success(
-            "test.jpg", 1L, "testuser", "MockEngine", 100L
-        );
-        when(virusScanService.scanFile(eq(file), any(), any()))
-            .thenReturn(CompletableFuture.completedFuture(cleanScanResult));
-        
-        // Mock文件名生成
-        when(fileUploadSecurityService.generateSecureFileName(eq("test.jpg"), any()))
-            .thenReturn("secure-filename.jpg");
-        
-        // Mock哈希计算
-        when(dataIntegrityService.calculateHash(anyString()))
-            .thenReturn(expectedHash);
-        
-        // Mock图片保存
+        // Mock图片保存：按内容存储
         Image savedImage = new Image();
         savedImage.setId(123L);
         savedImage.setOriginalFilename("test.jpg");
+        savedImage.setFilePath(tempDir.resolve("blob.jpg").toString());
         savedImage.setFileHash(expectedHash);
         savedImage.setHashCalculatedAt(LocalDateTime.now());
         
-        when(imageService.saveImageWithHash(
+        when(imageService.saveUploadedImage(
             eq("test.jpg"), 
-            eq("secure-filename.jpg"), 
-            anyString(), 
             eq("image/jpeg"), 
-            eq((long) imageContent.length), 
-            eq(expectedHash), 
+            any(Path.class), 
+            argThat(inspection -> expectedHash.equals(inspection.contentHash())), 
+            eq("jpg"), 
             eq(postId)
-        )).thenReturn(savedImage);
+        )).thenAnswer(invocation -> {
+            // 暂存文件中是完整的上传内容
+            Path stagedFile = invocation.getArgument(2);
+            assertArrayEquals(imageContent, Files.readAllBytes(stagedFile));
+            return savedImage;
+        });
+        when(fileSecurityMonitoringService.monitorFileUpload(any(), any(), anyLong(), any(), any(), any(), any()))
+            .thenReturn(CompletableFuture.completedFuture(null));
         
         // 执行测试
         String result = fileUploadService.uploadImage(file, postId);
         
         // 验证结果
         assertEquals("/blog/api/images/123", result);
+        assertEquals(0, countTempFiles());
         
-        // 验证调用
-        verify(fileUploadSecurityService).validateUploadedFile(eq(file), any(), any(), any());
-        verify(virusScanService).scanFile(eq(file), any(), any());
-        verify(dataIntegrityService).calculateHash(anyString());
-        verify(imageService).saveImageWithHash(
-            eq("test.jpg"), 
-            eq("secure-filename.jpg"), 
-            anyString(), 
-            eq("image/jpeg"), 
-            eq((long) imageContent.length), 
-            eq(expectedHash), 
-            eq(postId)
-        );
+        // 验证调用：哈希来自安全验证的单次读取，不再单独计算
+        verify(fileUploadSecurityService).validateAndStage(eq(file), any(), any(), any(), any(Path.class), any());
+        verify(dataIntegrityService, never()).calculateHash(anyString());
+    }
+    
+    @Test
+    void testUploadImage_ConcurrentSameContent_RetriesOnce() throws Exception {
+        MultipartFile file = new MockMultipartFile(
+            "file", "same.jpg", "image/jpeg", "same content".getBytes());
+        stubValidationPasses(file, "same-hash");
+        
+        Image savedImage = new Image();
+        savedImage.setId(7L);
+        savedImage.setFilePath(tempDir.resolve("blob.jpg").toString());
+        
+        // 第一次存储与并发的相同内容冲突，重试时引用已提交的内容
+        when(imageService.saveUploadedImage(any(), any(), any(Path.class), any(), any(), any()))
+            .thenThrow(new DataIntegrityViolationException("duplicate content_hash"))
+            .thenReturn(savedImage);
+        when(fileSecurityMonitoringService.monitorFileUpload(any(), any(), anyLong(), any(), any(), any(), any()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        
+        assertEquals("/blog/api/images/7", fileUploadService.uploadImage(file, null));
+        verify(imageService, times(2)).saveUploadedImage(any(), any(), any(Path.class), any(), any(), any());
+        assertEquals(0, countTempFiles());
     }
     
     @Test
@@ -156,9 +192,8 @@ class EnhancedFileUploadServiceTest {
         );
         
         // Mock安全验证失败
-        doThrow(new FileValidationException("不支持的文件类型"))
-            .when(fileUploadSecurityService)
-            .validateUploadedFile(eq(file), any(), any(), any());
+        when(fileUploadSecurityService.validateAndStage(eq(file), any(), any(), any(), any(Path.class), any()))
+            .thenThrow(new FileValidationException("不支持的文件类型"));
         
         // 执行测试并验证异常
         FileUploadException exception = assertThrows(
@@ -168,10 +203,9 @@ class EnhancedFileUploadServiceTest {
         
         assertTrue(exception.getMessage().contains("不支持的文件类型"));
         
-        // 验证没有进行后续操作
-        verify(virusScanService, never()).scanFile(any(), any(), any());
-        verify(dataIntegrityService, never()).calculateHash(anyString());
-        verify(imageService, never()).saveImageWithHash(any(), any(), any(), any(), any(), any(), any());
+        // 验证没有进行后续操作，临时文件已删除
+        verify(imageService, never()).saveUploadedImage(any(), any(), any(), any(), any(), any());
+        assertEquals(0, countTempFiles());
     }
     
     @Test
@@ -184,22 +218,13 @@ class EnhancedFileUploadServiceTest {
             "EICAR-STANDARD-ANTIVIRUS-TEST-FILE".getBytes()
         );
         
-        // Mock安全验证通过
-        doNothing().when(fileUploadSecurityService)
-            .validateUploadedFile(eq(file), any(), any(), any());
-        
-        // Mock病毒扫描检测到病毒
-        VirusScanResult virusResult = VirusScanResult.virusDetected(
-            "virus.jpg", 
-            "EICAR-Test-Signature", 
-            VirusScanResult.ThreatLevel.LOW,
-            1L, 
-            "testuser", 
-            "MockEngine", 
-            200L
-        );
-        when(virusScanService.scanFile(eq(file), any(), any()))
-            .thenReturn(CompletableFuture.completedFuture(virusResult));
+        // Mock安全验证中的病毒扫描检测到病毒：部分内容已写入临时文件
+        when(fileUploadSecurityService.validateAndStage(eq(file), any(), any(), any(), any(Path.class), any()))
+            .thenAnswer(invocation -> {
+                Path stagedFile = invocation.getArgument(4);
+                Files.write(stagedFile, file.getBytes());
+                throw new FileValidationException("检测到恶意文件: EICAR-Test-Signature (威胁级别: LOW)");
+            });
         
         // 执行测试并验证异常
         FileUploadException exception = assertThrows(
@@ -210,9 +235,9 @@ class EnhancedFileUploadServiceTest {
         assertTrue(exception.getMessage().contains("检测到恶意文件"));
         assertTrue(exception.getMessage().contains("EICAR-Test-Signature"));
         
-        // 验证没有进行文件保存
-        verify(dataIntegrityService, never()).calculateHash(anyString());
-        verify(imageService, never()).saveImageWithHash(any(), any(), any(), any(), any(), any(), any());
+        // 验证没有进行文件保存，临时文件已删除
+        verify(imageService, never()).saveUploadedImage(any(), any(), any(), any(), any(), any());
+        assertEquals(0, countTempFiles());
     }
     
     @Test
@@ -225,15 +250,9 @@ class EnhancedFileUploadServiceTest {
             "large file content".getBytes()
         );
         
-        // Mock安全验证通过
-        doNothing().when(fileUploadSecurityService)
-            .validateUploadedFile(eq(file), any(), any(), any());
-        
-        // Mock病毒扫描超时
-        CompletableFuture<VirusScanResult> timeoutFuture = new CompletableFuture<>();
-        // 不完成这个Future，模拟超时
-        when(virusScanService.scanFile(eq(file), any(), any()))
-            .thenReturn(timeoutFuture);
+        // Mock安全验证中的病毒扫描超时
+        when(fileUploadSecurityService.validateAndStage(eq(file), any(), any(), any(), any(Path.class), any()))
+            .thenThrow(new FileValidationException("文件安全扫描超时，请稍后重试"));
         
         // 执行测试并验证异常
         FileUploadException exception = assertThrows(
@@ -241,7 +260,9 @@ class EnhancedFileUploadServiceTest {
             () -> fileUploadService.uploadImage(file, null)
         );
         
-        assertTrue(exception.getMessage().contains("文件安全扫描超时"));
+        // 验证拒绝的提示原样返回，不加系统异常前缀
+        assertEquals("文件安全扫描超时，请稍后重试", exception.getMessage());
+        assertInstanceOf(FileValidationException.class, exception.getCause());
     }
     
     @Test
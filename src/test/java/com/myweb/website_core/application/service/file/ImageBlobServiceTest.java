@@ -0,0 +1,150 @@
+package com.myweb.website_core.application.service.file;
+
+import com.myweb.website_core.application.service.security.integeration.UploadInspectionResult;
+import com.myweb.website_core.domain.business.entity.ImageBlob;
+import com.myweb.website_core.infrastructure.config.properties.FileUploadConfig;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.ImageBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 图片内容存储服务测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ImageBlobServiceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+    
+    @Mock
+    private FileUploadConfig fileUploadConfig;
+    
+    private ImageBlobService imageBlobService;
+    
+    private final byte[] content = "image content".getBytes();
+    private String contentHash;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        imageBlobService = new ImageBlobService(imageBlobRepository, fileUploadConfig);
+        lenient().when(fileUploadConfig.getUploadDir()).thenReturn(tempDir.toString() + "/");
+        contentHash = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+    
+    private Path stage() throws Exception {
+        Path staged = Files.createTempFile(imageBlobService.getStagingDirectory(), ".upload-", ".tmp");
+        Files.write(staged, content);
+        return staged;
+    }
+    
+    private UploadInspectionResult inspection(boolean scanReused) {
+        return new UploadInspectionResult(contentHash, content.length, "image/jpeg", null, scanReused);
+    }
+    
+    @Test
+    void testAcquireOrStore_NewContent_MovesStagedFile() throws Exception {
+        Path staged = stage();
+        when(imageBlobRepository.findByContentHash(contentHash)).thenReturn(Optional.empty());
+        when(imageBlobRepository.saveAndFlush(any(ImageBlob.class))).thenAnswer(invocation -> {
+            ImageBlob blob = invocation.getArgument(0);
+            blob.setId(1L);
+            return blob;
+        });
+        
+        ImageBlob blob = imageBlobService.acquireOrStore(staged, inspection(false), "image/jpeg", "jpg");
+        
+        Path blobPath = Path.of(blob.getFilePath());
+        assertFalse(Files.exists(staged));
+        assertArrayEquals(content, Files.readAllBytes(blobPath));
+        assertTrue(blobPath.getFileName().toString().endsWith(".jpg"));
+        assertEquals(1, blob.getRefCount());
+        // 扫描引擎不可用时未扫描，下次上传相同内容仍需扫描
+        assertNull(blob.getScannedAt());
+    }
+    
+    @Test
+    void testAcquireOrStore_ExistingContent_IncrementsRefCountOnly() throws Exception {
+        Path existingFile = tempDir.resolve("existing.jpg");
+        Files.write(existingFile, content);
+        ImageBlob existing = new ImageBlob(contentHash, existingFile.toString(), "image/jpeg", (long) content.length);
+        existing.setId(5L);
+        existing.setScannedAt(LocalDateTime.now());
+        when(imageBlobRepository.findByContentHash(contentHash)).thenReturn(Optional.of(existing));
+        when(imageBlobRepository.incrementRefCount(5L)).thenReturn(1);
+        Path staged = stage();
+        
+        ImageBlob blob = imageBlobService.acquireOrStore(staged, inspection(true), "image/jpeg", "jpg");
+        
+        assertSame(existing, blob);
+        // 暂存文件未使用，由调用方删除
+        assertTrue(Files.exists(staged));
+        verify(imageBlobRepository, never()).saveAndFlush(any());
+        verify(imageBlobRepository, never()).markScanned(anyLong(), any());
+    }
+    
+    @Test
+    void testAcquireOrStore_ExistingRowCollected_StoresNewContent() throws Exception {
+        ImageBlob collected = new ImageBlob(contentHash, tempDir.resolve("gone.jpg").toString(), "image/jpeg", 1L);
+        collected.setId(5L);
+        when(imageBlobRepository.findByContentHash(contentHash)).thenReturn(Optional.of(collected));
+        // 回收任务已删除该记录
+        when(imageBlobRepository.incrementRefCount(5L)).thenReturn(0);
+        when(imageBlobRepository.saveAndFlush(any(ImageBlob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        ImageBlob blob = imageBlobService.acquireOrStore(stage(), inspection(false), "image/jpeg", "jpg");
+        
+        assertNotSame(collected, blob);
+        assertArrayEquals(content, Files.readAllBytes(Path.of(blob.getFilePath())));
+    }
+    
+    @Test
+    void testIsScanned_RequiresScanAndExistingFile() throws Exception {
+        Path existingFile = tempDir.resolve("existing.jpg");
+        ImageBlob blob = new ImageBlob(contentHash, existingFile.toString(), "image/jpeg", 1L);
+        blob.setScannedAt(LocalDateTime.now());
+        when(imageBlobRepository.findByContentHash(contentHash)).thenReturn(Optional.of(blob));
+        
+        assertFalse(imageBlobService.isScanned(contentHash));
+        Files.write(existingFile, content);
+        assertTrue(imageBlobService.isScanned(contentHash));
+        assertFalse(imageBlobService.isScanned("other"));
+    }
+    
+    @Test
+    void testDeleteOrphanBatch_SkipsReReferencedBlobs() {
+        ImageBlob first = new ImageBlob("a", tempDir.resolve("a.jpg").toString(), "image/jpeg", 1L);
+        first.setId(1L);
+        ImageBlob second = new ImageBlob("b", tempDir.resolve("b.jpg").toString(), "image/jpeg", 1L);
+        second.setId(2L);
+        when(imageBlobRepository.findOrphansAfterId(any(), eq(0L), any())).thenReturn(List.of(first, second));
+        when(imageBlobRepository.deleteIfUnreferenced(1L)).thenReturn(1);
+        // 回收期间被重新引用
+        when(imageBlobRepository.deleteIfUnreferenced(2L)).thenReturn(0);
+        
+        ImageBlobService.OrphanBatch batch =
+            imageBlobService.deleteOrphanBatch(LocalDateTime.now(), 0L, 10);
+        
+        assertEquals(2L, batch.lastId());
+        assertEquals(2, batch.scanned());
+        assertEquals(List.of(tempDir.resolve("a.jpg")), batch.deletedFiles());
+    }
+}
@@ -0,0 +1,196 @@
+package com.myweb.website_core.application.service.file;
+
+import com.myweb.website_core.domain.business.entity.Image;
+import com.myweb.website_core.domain.business.entity.ImageBlob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 图片发送服务测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ImageDeliveryServiceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Mock
+    private FileUploadService fileUploadService;
+    
+    private ImageDeliveryService imageDeliveryService;
+    
+    private final byte[] content = "0123456789abcdef".getBytes();
+    private Image image;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        imageDeliveryService = new ImageDeliveryService(fileUploadService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(imageDeliveryService, "hotCacheMaxBytes", 1024L);
+        ReflectionTestUtils.setField(imageDeliveryService, "hotCacheMaxFileBytes", 8L);
+        ReflectionTestUtils.setField(imageDeliveryService, "verifiedCacheSize", 100L);
+        imageDeliveryService.init();
+        
+        Path file = tempDir.resolve("image.jpg");
+        Files.write(file, content);
+        image = new Image("image.jpg", "image.jpg", file.toString(), "image/jpeg", (long) content.length, "hash");
+        image.setId(1L);
+        image.setBlob(new ImageBlob());
+        lenient().when(fileUploadService.verifyFileIntegrity(1L)).thenReturn(true);
+    }
+    
+    @Test
+    void testServe_Full_SetsStrongETagAndImmutableCaching() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertEquals(ImageDeliveryService.Outcome.FULL, imageDeliveryService.serve(image, request, response));
+        
+        assertEquals(200, response.getStatus());
+        assertEquals("\"hash\"", response.getHeader("ETag"));
+        assertTrue(response.getHeader("Cache-Control").contains("immutable"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+    
+    @Test
+    void testServe_IfNoneMatch_ReturnsNotModifiedWithoutVerification() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/1");
+        request.addHeader("If-None-Match", "W/\"other\", \"hash\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertEquals(ImageDeliveryService.Outcome.NOT_MODIFIED, imageDeliveryService.serve(image, request, response));
+        
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        verify(fileUploadService, never()).verifyFileIntegrity(anyLong());
+    }
+    
+    @Test
+    void testServe_Range_ReturnsPartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/1");
+        request.addHeader("Range", "bytes=4-7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertEquals(ImageDeliveryService.Outcome.PARTIAL, imageDeliveryService.serve(image, request, response));
+        
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 4-7/16", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 4, 8), response.getContentAsByteArray());
+    }
+    
+    @Test
+    void testServe_SuffixRange_ReturnsLastBytes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/1");
+        request.addHeader("Range", "bytes=-3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        imageDeliveryService.serve(image, request, response);
+        
+        assertEquals("bytes 13-15/16", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 13, 16), response.getContentAsByteArray());
+    }
+    
+    @Test
+    void testServe_UnsatisfiableRange_Returns416() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/1");
+        request.addHeader("Range", "bytes=100-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertEquals(ImageDeliveryService.Outcome.RANGE_NOT_SATISFIABLE,
+                     imageDeliveryService.serve(image, request, response));
+        
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */16", response.getHeader("Content-Range"));
+    }
+    
+    @Test
+    void testServe_IfRangeMismatch_ReturnsFullContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/1");
+        request.addHeader("Range", "bytes=0-3");
+        request.addHeader("If-Range", "\"stale\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertEquals(ImageDeliveryService.Outcome.FULL, imageDeliveryService.serve(image, request, response));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+    
+    @Test
+    void testServe_IfRangeStrongMatch_ReturnsPartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/1");
+        request.addHeader("Range", "bytes=0-3");
+        request.addHeader("If-Range", "\"hash\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertEquals(ImageDeliveryService.Outcome.PARTIAL, imageDeliveryService.serve(image, request, response));
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 4), response.getContentAsByteArray());
+    }
+    
+    @Test
+    void testServe_IfRangeWeakETag_ReturnsFullContent() throws Exception {
+        // 没有哈希的旧图片只有弱ETag，即使与 If-Range 相同也不能发送部分内容
+        image.setFileHash(null);
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        imageDeliveryService.serve(image, new MockHttpServletRequest("GET", "/api/images/1"), first);
+        String weakETag = first.getHeader("ETag");
+        assertTrue(weakETag.startsWith("W/"));
+        
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/1");
+        request.addHeader("Range", "bytes=0-3");
+        request.addHeader("If-Range", weakETag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertEquals(ImageDeliveryService.Outcome.FULL, imageDeliveryService.serve(image, request, response));
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+    
+    @Test
+    void testServe_SendfileSupported_DelegatesToContainer() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/1");
+        request.setAttribute(ImageDeliveryService.SENDFILE_SUPPORT, Boolean.TRUE);
+        request.addHeader("Range", "bytes=2-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        imageDeliveryService.serve(image, request, response);
+        
+        assertEquals(2L, request.getAttribute(ImageDeliveryService.SENDFILE_START));
+        assertEquals(16L, request.getAttribute(ImageDeliveryService.SENDFILE_END));
+        assertEquals(14, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+    
+    @Test
+    void testServe_VerifiesIntegrityOncePerFileVersion() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            imageDeliveryService.serve(image, new MockHttpServletRequest("GET", "/api/images/1"),
+                                       new MockHttpServletResponse());
+        }
+        verify(fileUploadService, times(1)).verifyFileIntegrity(1L);
+    }
+    
+    @Test
+    void testServe_IntegrityFailure_WritesNothing() throws Exception {
+        when(fileUploadService.verifyFileIntegrity(1L)).thenReturn(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertEquals(ImageDeliveryService.Outcome.INTEGRITY_FAILED,
+                     imageDeliveryService.serve(image, new MockHttpServletRequest("GET", "/api/images/1"), response));
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertNull(response.getHeader("ETag"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.myweb.website_core.application.service.integration;
+
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.InteractionBatchRepository;
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.InteractionBatchRepository.UserPostPair;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 点赞/收藏消息批量消费测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MessageConsumerService批量消费测试")
+class MessageConsumerServiceBatchTest {
+
+    private static final String LIKES = InteractionBatchRepository.TABLE_POST_LIKES;
+    private static final String COLLECT = InteractionBatchRepository.TABLE_POST_COLLECT;
+
+    @Mock
+    private InteractionBatchRepository interactionBatchRepository;
+
+    @InjectMocks
+    private MessageConsumerService messageConsumerService;
+
+    @Test
+    @DisplayName("同一批次内对同一用户和帖子的多次切换只保留最终状态")
+    void testTogglesCoalesced() {
+        when(interactionBatchRepository.batchInsert(LIKES, List.of(pair(2, 10)))).thenReturn(new int[]{1});
+        when(interactionBatchRepository.batchDelete(LIKES, List.of(pair(1, 10)))).thenReturn(new int[]{1});
+
+        messageConsumerService.handlePostLikeBatch(List.of(
+                message(1, 10, true),
+                message(2, 10, true),
+                message(1, 10, false)));
+
+        verify(interactionBatchRepository).batchInsert(LIKES, List.of(pair(2, 10)));
+        verify(interactionBatchRepository).batchDelete(LIKES, List.of(pair(1, 10)));
+    }
+
+    @Test
+    @DisplayName("用户点赞数增量按实际插入/删除的行数计算，帖子计数不在消费端更新")
+    void testDeltasFollowAffectedRows() {
+        // 用户1的点赞已存在（ON CONFLICT DO NOTHING 返回0），用户2为新点赞
+        when(interactionBatchRepository.batchInsert(LIKES, List.of(pair(1, 10), pair(2, 10))))
+                .thenReturn(new int[]{0, 1});
+
+        messageConsumerService.handlePostLikeBatch(List.of(message(1, 10, true), message(2, 10, true)));
+
+        verify(interactionBatchRepository).incrementUserLikedCounts(Map.of(2L, 1));
+        verify(interactionBatchRepository).batchInsert(LIKES, List.of(pair(1, 10), pair(2, 10)));
+        verifyNoMoreInteractions(interactionBatchRepository);
+    }
+
+    @Test
+    @DisplayName("驱动未返回影响行数时改为按关系表重新统计用户点赞数")
+    void testRecountWhenRowCountsUnavailable() {
+        when(interactionBatchRepository.batchDelete(LIKES, List.of(pair(3, 20))))
+                .thenReturn(new int[]{Statement.SUCCESS_NO_INFO});
+
+        messageConsumerService.handlePostLikeBatch(List.of(message(3, 20, false)));
+
+        verify(interactionBatchRepository).recountUserLikedCounts(Set.of(3L));
+        verify(interactionBatchRepository, never()).incrementUserLikedCounts(any());
+    }
+
+    @Test
+    @DisplayName("收藏消息只写入关系记录，不更新任何计数")
+    void testCollectBatchWritesRowsOnly() {
+        when(interactionBatchRepository.batchDelete(COLLECT, List.of(pair(3, 20))))
+                .thenReturn(new int[]{1});
+
+        messageConsumerService.handlePostCollectBatch(List.of(message(3, 20, false)));
+
+        verify(interactionBatchRepository).batchDelete(COLLECT, List.of(pair(3, 20)));
+        verifyNoMoreInteractions(interactionBatchRepository);
+    }
+
+    @Test
+    @DisplayName("无效消息被跳过，不影响同批次的其他消息")
+    void testInvalidMessageSkipped() {
+        when(interactionBatchRepository.batchInsert(COLLECT, List.of(pair(4, 30)))).thenReturn(new int[]{1});
+
+        messageConsumerService.handlePostCollectBatch(List.of(
+                Map.of("postId", "not-a-number", "userId", 4, "type", true),
+                message(4, 30, true)));
+
+        verify(interactionBatchRepository).batchInsert(COLLECT, List.of(pair(4, 30)));
+    }
+
+    @Test
+    @DisplayName("写入失败时异常抛出，整批回滚")
+    void testFailureRethrown() {
+        when(interactionBatchRepository.batchInsert(eq(LIKES), anyList()))
+                .thenThrow(new DataIntegrityViolationException("写入失败"));
+
+        List<Map<String, Object>> messages = List.of(message(5, 40, true));
+        assertThrows(DataIntegrityViolationException.class, () -> messageConsumerService.handlePostLikeBatch(messages));
+        verify(interactionBatchRepository, never()).incrementUserLikedCounts(any());
+    }
+
+    // ========== 辅助方法 ==========
+
+    private static Map<String, Object> message(long userId, long postId, boolean type) {
+        return Map.of("userId", userId, "postId", postId, "type", type);
+    }
+
+    private static UserPostPair pair(long userId, long postId) {
+        return new UserPostPair(userId, postId);
+    }
+}
@@ -0,0 +1,189 @@
+package com.myweb.website_core.application.service.security;
+
+import com.myweb.website_core.application.service.security.integeration.dataManage.BackupArchive;
+import com.myweb.website_core.application.service.security.integeration.dataManage.BackupArchiveReader;
+import com.myweb.website_core.application.service.security.integeration.dataManage.BackupArchiveWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分块备份归档读写测试
+ */
+class BackupArchiveTest {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    @TempDir
+    Path tempDir;
+
+    private ExecutorService executor;
+    private SecretKey key;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(3);
+        key = BackupArchive.deriveKey("testEncryptionKey123456789012345678901234567890");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testRoundTripCompressedAndEncrypted() throws Exception {
+        byte[] data = sqlDump(50_000);
+        Path archive = write(data, 6, key);
+
+        assertEquals(data.length, readAll(archive, key).length);
+        assertArrayEquals(data, readAll(archive, key));
+        try (BackupArchiveReader reader = new BackupArchiveReader(archive, key)) {
+            assertEquals(data.length, reader.getPlainSize());
+            assertEquals((data.length + CHUNK_SIZE - 1) / CHUNK_SIZE, reader.getFrameCount());
+        }
+    }
+
+    @Test
+    void testRoundTripWithoutCompressionOrEncryption() throws Exception {
+        byte[] data = sqlDump(3 * CHUNK_SIZE);
+        Path archive = write(data, -1, null);
+
+        assertArrayEquals(data, readAll(archive, null));
+    }
+
+    @Test
+    void testEmptyInput() throws Exception {
+        Path archive = write(new byte[0], 6, key);
+
+        assertEquals(0, readAll(archive, key).length);
+    }
+
+    @Test
+    void testChecksumMatchesWrittenFile() throws Exception {
+        byte[] data = sqlDump(20_000);
+        BackupArchiveWriter writer = new BackupArchiveWriter(CHUNK_SIZE, 6, key, executor, 4);
+        Path archive = tempDir.resolve("backup.enc");
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            writer.write(new ByteArrayInputStream(data), out);
+        }
+
+        assertEquals(Files.size(archive), writer.getArchiveBytes());
+        assertEquals(data.length, writer.getPlainBytes());
+        String expected = java.util.HexFormat.of().formatHex(
+                java.security.MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(archive)));
+        assertEquals(expected, writer.getChecksum());
+    }
+
+    @Test
+    void testCopyRangeAcrossFrames() throws Exception {
+        byte[] data = sqlDump(40_000);
+        Path archive = write(data, 6, key);
+
+        try (BackupArchiveReader reader = new BackupArchiveReader(archive, key)) {
+            long[][] ranges = {{0, 10}, {CHUNK_SIZE - 5, 10}, {5000, 9000}, {data.length - 7, 100}, {data.length, 10}};
+            for (long[] range : ranges) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                reader.copyRange(range[0], range[1], out);
+                int from = (int) range[0];
+                int to = (int) Math.min(data.length, range[0] + range[1]);
+                assertArrayEquals(Arrays.copyOfRange(data, from, to), out.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    void testTamperedFrameIsRejected() throws Exception {
+        byte[] data = sqlDump(20_000);
+        Path archive = write(data, 6, key);
+
+        byte[] bytes = Files.readAllBytes(archive);
+        bytes[100] ^= 0x01;
+        Files.write(archive, bytes);
+
+        assertThrows(IOException.class, () -> readAll(archive, key));
+    }
+
+    @Test
+    void testTruncatedArchiveIsRejected() throws Exception {
+        byte[] data = sqlDump(20_000);
+        Path archive = write(data, 6, key);
+
+        byte[] bytes = Files.readAllBytes(archive);
+        Files.write(archive, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertThrows(IOException.class, () -> new BackupArchiveReader(archive, key).close());
+    }
+
+    @Test
+    void testWrongKeyIsRejected() throws Exception {
+        Path archive = write(sqlDump(10_000), 6, key);
+
+        SecretKey wrongKey = BackupArchive.deriveKey("anotherKey");
+        assertThrows(IOException.class, () -> readAll(archive, wrongKey));
+        assertThrows(IOException.class, () -> new BackupArchiveReader(archive, null).close());
+    }
+
+    @Test
+    void testArchivesUseIndependentFrameKeys() throws Exception {
+        byte[] data = sqlDump(3 * CHUNK_SIZE);
+        Path first = write(data, -1, key);
+        Path second = write(data, -1, key);
+
+        // 文件头28字节，之后的帧数据在同一密钥、同样输入下也不能相同
+        byte[] firstBytes = Files.readAllBytes(first);
+        byte[] secondBytes = Files.readAllBytes(second);
+        assertFalse(Arrays.equals(Arrays.copyOfRange(firstBytes, 28, firstBytes.length),
+                Arrays.copyOfRange(secondBytes, 28, secondBytes.length)));
+        assertArrayEquals(data, readAll(first, key));
+        assertArrayEquals(data, readAll(second, key));
+    }
+
+    private Path write(byte[] data, int level, SecretKey secretKey) throws IOException {
+        Path archive = Files.createTempFile(tempDir, "backup", ".archive");
+        BackupArchiveWriter writer = new BackupArchiveWriter(CHUNK_SIZE, level, secretKey, executor, 4);
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            writer.write(new ByteArrayInputStream(data), out);
+        }
+        assertTrue(BackupArchive.isArchive(Files.readAllBytes(archive)));
+        return archive;
+    }
+
+    private static byte[] readAll(Path archive, SecretKey secretKey) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BackupArchiveReader reader = new BackupArchiveReader(archive, secretKey)) {
+            reader.copyTo(out);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 生成类似pg_dump输出的数据
+     */
+    private static byte[] sqlDump(int length) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(length + 128);
+        int id = 0;
+        while (sb.length() < length) {
+            sb.append("INSERT INTO posts VALUES (").append(id++).append(", '")
+              .append(Long.toHexString(random.nextLong())).append("');\n");
+        }
+        return sb.substring(0, length).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -2,6 +2,8 @@ package com.myweb.website_core.application.service.security;
 
 import com.myweb.website_core.application.service.integration.EmailService;
 import com.myweb.website_core.application.service.security.audit.AuditMessageService;
+import com.myweb.website_core.application.service.security.integeration.dataManage.BackupArchive;
+import com.myweb.website_core.application.service.security.integeration.dataManage.BackupArchiveReader;
 import com.myweb.website_core.application.service.security.integeration.dataManage.BackupService;
 import com.myweb.website_core.infrastructure.config.properties.BackupProperties;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,7 +22,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
-import java.io.IOException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 
 /**
@@ -114,6 +118,33 @@ class BackupServiceTest {
         verify(auditLogService, atLeastOnce()).logOperation(any());
     }
     
+    @Test
+    void testPerformBackupWritesEncryptedArchive() throws Exception {
+        // Given
+        when(encryption.isEnabled()).thenReturn(true);
+        
+        // When
+        BackupService.BackupResult result = backupService.performBackup(BackupService.BackupType.FULL);
+        
+        // Then
+        assertTrue(result.isSuccess(), result.getErrorMessage());
+        assertTrue(result.getFilePath().endsWith(".backup.gz.enc"));
+        assertTrue(backupService.verifyBackupIntegrity(result.getFilePath()));
+        assertEquals(backupService.calculateFileChecksum(Path.of(result.getFilePath())), result.getChecksum());
+        
+        // 没有遗留临时文件
+        try (var files = Files.list(tempDir)) {
+            assertTrue(files.noneMatch(path -> path.toString().endsWith(".part")));
+        }
+        
+        ByteArrayOutputStream restored = new ByteArrayOutputStream();
+        try (BackupArchiveReader reader = new BackupArchiveReader(
+                Path.of(result.getFilePath()), BackupArchive.deriveKey(encryption.getKey()))) {
+            reader.copyTo(restored);
+        }
+        assertTrue(restored.toString(StandardCharsets.UTF_8).contains("INSERT INTO test_table VALUES (1, 'test data');"));
+    }
+    
     @Test
     void testVerifyBackupIntegrity() {
         // Given
@@ -225,24 +256,18 @@ class BackupServiceTest {
         }
         
         @Override
-        protected boolean performDatabaseBackup(Path backupFilePath, BackupType backupType) {
-            try {
-                // 创建一个模拟的备份文件
-                String mockBackupContent = String.format(
-                    "-- Mock database backup\n" +
-                    "-- Backup Type: %s\n" +
-                    "-- Generated at: %s\n" +
-                    "CREATE TABLE test_table (id INTEGER, name VARCHAR(100));\n" +
-                    "INSERT INTO test_table VALUES (1, 'test data');\n",
-                    backupType.name(),
-                    java.time.LocalDateTime.now()
-                );
-                
-                Files.writeString(backupFilePath, mockBackupContent);
-                return true;
-            } catch (IOException e) {
-                return false;
-            }
+        protected DatabaseDump openDatabaseDump(BackupType backupType) {
+            // 模拟的数据库导出数据
+            String mockBackupContent = String.format(
+                "-- Mock database backup\n" +
+                "-- Backup Type: %s\n" +
+                "-- Generated at: %s\n" +
+                "CREATE TABLE test_table (id INTEGER, name VARCHAR(100));\n" +
+                "INSERT INTO test_table VALUES (1, 'test data');\n",
+                backupType.name(),
+                java.time.LocalDateTime.now()
+            );
+            return DatabaseDump.of(new ByteArrayInputStream(mockBackupContent.getBytes(StandardCharsets.UTF_8)));
         }
     }
 }
\ No newline at end of file
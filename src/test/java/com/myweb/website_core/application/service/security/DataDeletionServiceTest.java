@@ -1,8 +1,10 @@
 package com.myweb.website_core.application.service.security;
 
+import com.myweb.website_core.application.service.file.ImageBlobService;
 import com.myweb.website_core.application.service.security.audit.AuditMessageService;
 import com.myweb.website_core.application.service.security.confirm.ConfirmationService;
 import com.myweb.website_core.application.service.security.integeration.dataManage.DataDeletionService;
+import com.myweb.website_core.common.util.RedisKey;
 import com.myweb.website_core.domain.business.entity.*;
 import com.myweb.website_core.infrastructure.persistence.repository.comment.CommentRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.interaction.ImageRepository;
@@ -10,18 +12,23 @@ import com.myweb.website_core.infrastructure.persistence.repository.interaction.
 import com.myweb.website_core.infrastructure.persistence.repository.interaction.PostLikeRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.user.UserRepository;
+import com.myweb.website_core.infrastructure.redis.RedisKeyManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -57,6 +64,9 @@ class DataDeletionServiceTest {
     @Mock
     private ImageRepository imageRepository;
     
+    @Mock
+    private ImageBlobService imageBlobService;
+    
     @Mock
     private AuditMessageService auditLogService;
     
@@ -69,6 +79,12 @@ class DataDeletionServiceTest {
     @Mock
     private ValueOperations<String, Object> valueOperations;
     
+    @Mock
+    private RedisKeyManager redisKeyManager;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
     @InjectMocks
     private DataDeletionService dataDeletionService;
     
@@ -114,7 +130,6 @@ class DataDeletionServiceTest {
         
         // 设置Redis模拟
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(redisTemplate.keys(anyString())).thenReturn(Collections.emptySet());
     }
     
     @Test
@@ -294,32 +309,65 @@ class DataDeletionServiceTest {
     
     @Test
     void testClearSessionData() {
-        // 准备测试数据
-        Set<String> sessionKeys = Set.of("spring:session:sessions:session1", "spring:session:sessions:session2");
-        when(redisTemplate.keys("spring:session:sessions:*")).thenReturn(sessionKeys);
-        when(valueOperations.get("spring:session:sessions:session1")).thenReturn("user:1:data");
-        when(valueOperations.get("spring:session:sessions:session2")).thenReturn("user:2:data");
+        // 准备测试数据：用户键索引中登记了另一个会话，当前会话为session2
+        when(redisKeyManager.getUserKeys(1L)).thenReturn(Set.of(RedisKey.sessionKey("session3")));
+        when(valueOperations.get(RedisKey.userActiveSessionKey(1L))).thenReturn("session2");
         
         // 执行测试
         dataDeletionService.clearSessionData(1L, "session1");
         
-        // 验证方法调用
-        verify(redisTemplate).delete("spring:session:sessions:session1");
-        verify(redisTemplate, atLeastOnce()).keys(anyString());
+        // 验证：按确定的键名和索引删除，不遍历键空间
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> keysCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(redisKeyManager).unlink(keysCaptor.capture());
+        assertTrue(keysCaptor.getValue().containsAll(List.of(
+            RedisKey.sessionKey("session1"),
+            RedisKey.sessionKey("session2"),
+            RedisKey.sessionKey("session3"),
+            RedisKey.sessionActivityKey("session2"),
+            "auth:token:1",
+            "csrf:token:1")));
+        verify(redisKeyManager).removeUserKeyIndex(1L);
+        verify(redisKeyManager, never()).unlinkByPattern(anyString());
+        verify(redisTemplate, never()).keys(anyString());
         verify(auditLogService).logOperation(any());
     }
     
+    @Test
+    void testDeleteUserCompletely_ClearsCacheWithoutKeys() {
+        // 准备测试数据
+        when(confirmationService.consumeConfirmationToken("test-token")).thenReturn(testToken);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(postRepository.findByAuthorId(1L)).thenReturn(Collections.emptyList());
+        when(commentRepository.findByAuthorIdOrderByCreatedAtDesc(1L)).thenReturn(Collections.emptyList());
+        when(postLikeRepository.findByUserId(1L)).thenReturn(Collections.emptyList());
+        when(postCollectRepository.findByUserId(1L)).thenReturn(Collections.emptyList());
+        when(redisKeyManager.unlink(anyCollection())).thenReturn(3L);
+        when(redisKeyManager.unlinkByPattern("auth:*:1")).thenReturn(2L);
+        
+        // 执行测试
+        DataDeletionService.DeletionResult result = dataDeletionService.deleteUserCompletely(1L, "test-token", "2");
+        
+        // 验证：会话和业务缓存按键名删除，通配键使用SCAN+UNLINK
+        assertTrue(result.isSuccess());
+        assertEquals(5, result.getStatistics().getClearedCacheKeys());
+        verify(redisKeyManager).unlinkByPattern("user:*:1:*");
+        verify(redisKeyManager).unlinkByPattern("verification:*:1");
+        verify(redisKeyManager).removeUserKeyIndex(1L);
+        verify(redisTemplate, never()).keys(anyString());
+    }
+    
     @Test
     void testClearTemporaryData() {
         // 准备测试数据
-        Set<String> tempKeys = Set.of("temp:data1", "temp:data2");
-        when(redisTemplate.keys("temp:*")).thenReturn(tempKeys);
+        when(redisKeyManager.unlinkByPattern("temp:*")).thenReturn(2L);
         
         // 执行测试
         dataDeletionService.clearTemporaryData();
         
         // 验证方法调用
-        verify(redisTemplate).delete(tempKeys);
+        verify(redisKeyManager).unlinkByPattern("temp:*");
+        verify(redisTemplate, never()).keys(anyString());
         verify(auditLogService).logOperation(any());
     }
     
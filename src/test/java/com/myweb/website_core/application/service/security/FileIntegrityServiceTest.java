@@ -14,6 +14,9 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -69,4 +72,49 @@ class FileIntegrityServiceTest {
 
         // 执行测试
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCheckFileIntegrity_UnchangedSizeAndMtime_ShouldSkipRehashUntilFullCheck() throws IOException {
+        Path testFile = tempDir.resolve("fast.yml");
+        Files.writeString(testFile, "key: value1");
+        FileTime originalTime = Files.getLastModifiedTime(testFile);
+        assertTrue(fileIntegrityService.checkFileIntegrity(testFile).isValid());
+
+        // 同样长度的内容，并恢复修改时间
+        Files.writeString(testFile, "key: value2");
+        Files.setLastModifiedTime(testFile, originalTime);
+
+        ReflectionTestUtils.setField(fileIntegrityService, "fastPathEnabled", true);
+        assertTrue(fileIntegrityService.checkFileIntegrity(testFile).isValid());
+
+        ReflectionTestUtils.setField(fileIntegrityService, "fastPathEnabled", false);
+        FileIntegrityService.FileIntegrityResult result = fileIntegrityService.checkFileIntegrity(testFile);
+        assertFalse(result.isValid());
+        assertNotEquals(result.getExpectedHash(), result.getCurrentHash());
+    }
+
+    @Test
+    void testUpdateFileHashes_ShouldAppendChangedRecordsToManifest() throws IOException {
+        Path testFile = tempDir.resolve("manifest.yml");
+        Files.writeString(testFile, "test: content");
+        FileIntegrityService.FileIntegrityResult result = fileIntegrityService.checkFileIntegrity(testFile);
+
+        ReflectionTestUtils.invokeMethod(fileIntegrityService, "updateFileHashes", List.of(result));
+        ReflectionTestUtils.invokeMethod(fileIntegrityService, "updateFileHashes", List.of(result));
+
+        Path manifest = tempDir.resolve("hashes").resolve("manifest.tsv");
+        assertEquals(1, Files.readAllLines(manifest).size(), "未变化的记录不应重复追加");
+
+        FileIntegrityService reloaded = new FileIntegrityService(auditLogService, dataIntegrityService);
+        ReflectionTestUtils.setField(reloaded, "hashStoragePath", tempDir.resolve("hashes").toString());
+        ReflectionTestUtils.invokeMethod(reloaded, "loadStoredHashes");
+
+        @SuppressWarnings("unchecked")
+        Map<String, FileIntegrityService.FileIntegrityRecord> records =
+            (Map<String, FileIntegrityService.FileIntegrityRecord>) ReflectionTestUtils.getField(reloaded, "fileIntegrityMap");
+        FileIntegrityService.FileIntegrityRecord record = records.get(testFile.toString());
+        assertNotNull(record);
+        assertEquals(result.getCurrentHash(), record.getHashValue());
+        assertEquals(Files.size(testFile), record.getSize());
+    }
+}
@@ -2,6 +2,7 @@ package com.myweb.website_core.application.service.security;
 
 import com.myweb.website_core.application.service.security.audit.AuditMessageService;
 import com.myweb.website_core.application.service.security.integeration.FileUploadSecurityService;
+import com.myweb.website_core.application.service.security.integeration.UploadInspectionResult;
 import com.myweb.website_core.common.exception.FileValidationException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +14,10 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.mock.web.MockMultipartFile;
 
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.util.Base64;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.lenient;
 
@@ -267,4 +272,38 @@ class FileUploadSecurityServiceTest {
         assertTrue(exception.getMessage().contains("文件名长度不能超过255个字符") ||
                    exception.getMessage().contains("JPEG文件结构不完整"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testValidateUploadedFile_WithSink_ShouldWriteContentAndReturnHash() throws Exception {
+        byte[] pngBytes = {
+            (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A, // PNG signature
+            0x00, 0x00, 0x00, 0x0D, 0x49, 0x48, 0x44, 0x52 // IHDR chunk start
+        };
+        MockMultipartFile file = new MockMultipartFile(
+            "file", "test.png", "image/png", pngBytes);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        
+        UploadInspectionResult result =
+            fileUploadSecurityService.validateUploadedFile(file, 1L, "testuser", request, sink);
+        
+        // 同一次读取写入了完整内容，并计算了原始字节的SHA-256
+        assertArrayEquals(pngBytes, sink.toByteArray());
+        String expectedHash = Base64.getEncoder().encodeToString(
+            MessageDigest.getInstance("SHA-256").digest(pngBytes));
+        assertEquals(expectedHash, result.contentHash());
+        assertEquals(pngBytes.length, result.size());
+        assertEquals("image/png", result.detectedType());
+    }
+    
+    @Test
+    void testValidateUploadedFile_UppercaseSvgScript_ShouldThrowException() {
+        String maliciousSvg = "<svg><SCRIPT>alert('xss')</SCRIPT></svg>";
+        MockMultipartFile file = new MockMultipartFile(
+            "file", "test.svg", "image/svg+xml", maliciousSvg.getBytes());
+        
+        FileValidationException exception = assertThrows(FileValidationException.class, () ->
+            fileUploadSecurityService.validateUploadedFile(file, 1L, "testuser", request));
+        
+        assertTrue(exception.getMessage().contains("SVG文件包含危险元素"));
+    }
+}
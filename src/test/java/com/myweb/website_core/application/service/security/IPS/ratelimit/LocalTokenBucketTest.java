@@ -0,0 +1,101 @@
+package com.myweb.website_core.application.service.security.IPS.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 本地令牌桶测试
+ *
+ * Redis窗口以一个计数模拟，窗口长度远大于测试时长，预留和归还直接增减计数。
+ */
+@DisplayName("LocalTokenBucket测试")
+class LocalTokenBucketTest {
+
+    private static final long LEASE_TTL = 5000L;
+    private static final long DENY_CACHE = 1000L;
+    private static final int LEASE_SIZE = 5;
+    private static final int LIMIT = 10;
+
+    private final LocalTokenBucket bucket = new LocalTokenBucket();
+
+    /**
+     * 模拟窗口中的计数
+     */
+    private int held;
+
+    private final List<Integer> requestedSizes = new ArrayList<>();
+
+    private final IntFunction<LocalTokenBucket.Lease> reserve = requested -> {
+        requestedSizes.add(requested);
+        int granted = Math.max(0, Math.min(requested, LIMIT - held));
+        held += granted;
+        return new LocalTokenBucket.Lease(granted, requestedSizes.size());
+    };
+
+    private final ObjIntConsumer<LocalTokenBucket.Lease> release = (lease, unused) -> held -= unused;
+
+    @Test
+    @DisplayName("稀疏客户端：每个请求间隔超过租约有效期时仍能用满限制")
+    void testSparseClientNotThrottled() {
+        for (int i = 0; i < LIMIT; i++) {
+            assertTrue(acquire(i * (LEASE_TTL + 1)), "第" + (i + 1) + "个请求被拒绝");
+        }
+
+        // 窗口中只计入实际使用的令牌
+        assertEquals(LIMIT, held);
+        // 第一次预留完整数量，之后按上一租约用掉的数量预留
+        assertEquals(LEASE_SIZE, requestedSizes.get(0));
+        assertTrue(requestedSizes.subList(1, requestedSizes.size()).stream().allMatch(size -> size == 1));
+    }
+
+    @Test
+    @DisplayName("租约在过期前耗尽时恢复完整的预留数量")
+    void testExhaustedLeaseRestoresFullSize() {
+        // 稀疏阶段将预留数量收缩为1
+        acquire(0);
+        acquire(LEASE_TTL + 1);
+        // 突发请求耗尽租约
+        acquire(LEASE_TTL + 2);
+
+        assertEquals(List.of(LEASE_SIZE, 1, LEASE_SIZE), requestedSizes);
+    }
+
+    @Test
+    @DisplayName("定时归还过期租约中未使用的令牌")
+    void testReleaseIfExpired() {
+        acquire(0);
+        assertEquals(LEASE_SIZE, held);
+
+        bucket.releaseIfExpired(LEASE_TTL - 1);
+        assertEquals(LEASE_SIZE, held);
+
+        bucket.releaseIfExpired(LEASE_TTL);
+        assertEquals(1, held);
+
+        // 已归还的租约不会重复归还
+        bucket.releaseIfExpired(LEASE_TTL + 1);
+        assertEquals(1, held);
+        assertEquals(0, bucket.availableTokens(LEASE_TTL + 1));
+    }
+
+    @Test
+    @DisplayName("预留被拒绝后在拒绝缓存期内不再访问Redis")
+    void testDeniedLeaseCached() {
+        held = LIMIT;
+
+        assertFalse(acquire(0));
+        assertFalse(acquire(DENY_CACHE - 1));
+        assertEquals(1, requestedSizes.size());
+    }
+
+    private boolean acquire(long now) {
+        return bucket.tryAcquire(now, LEASE_TTL, DENY_CACHE, LEASE_SIZE, reserve, release);
+    }
+}
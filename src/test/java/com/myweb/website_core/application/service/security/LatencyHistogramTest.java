@@ -0,0 +1,65 @@
+package com.myweb.website_core.application.service.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 延迟直方图测试
+ */
+@DisplayName("延迟直方图测试")
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("分桶上界覆盖记录值且相对误差不超过1/32")
+    void testBucketPrecision() {
+        for (long value = 0; value <= LatencyHistogram.MAX_TRACKABLE_MICROS; value += Math.max(1, value / 7)) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long upper = LatencyHistogram.highestEquivalentValue(index);
+            assertTrue(upper >= value, "value=" + value);
+            assertTrue(upper - value <= value / 32, "value=" + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestEquivalentValue(index - 1) < value, "value=" + value);
+            }
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+        assertEquals(0, LatencyHistogram.bucketIndex(-1));
+    }
+
+    @Test
+    @DisplayName("小于32微秒的值精确记录")
+    void testExactLowValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.recordMicros(i);
+        }
+
+        assertEquals(5, histogram.valueAtQuantile(0.5));
+        assertEquals(9, histogram.valueAtQuantile(0.9));
+        assertEquals(10, histogram.valueAtQuantile(1));
+        assertEquals(1, histogram.valueAtQuantile(0));
+    }
+
+    @Test
+    @DisplayName("切换窗口后分位数取上一个完整窗口")
+    void testRotate() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAtQuantile(0.99));
+
+        histogram.recordMicros(20);
+        histogram.rotate();
+        histogram.recordMicros(5);
+        assertEquals(20, histogram.valueAtQuantile(0.99));
+        assertEquals(1, histogram.previousWindowCount());
+        assertEquals(1, histogram.currentWindowCount());
+
+        histogram.rotate();
+        assertEquals(5, histogram.valueAtQuantile(0.99));
+        assertEquals(0, histogram.currentWindowCount());
+
+        histogram.reset();
+        assertEquals(0, histogram.valueAtQuantile(0.99));
+        assertThrows(IllegalArgumentException.class, () -> histogram.valueAtQuantile(1.5));
+    }
+}
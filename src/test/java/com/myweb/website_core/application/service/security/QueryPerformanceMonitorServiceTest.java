@@ -1,10 +1,13 @@
 package com.myweb.website_core.application.service.security;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -291,4 +294,69 @@ class QueryPerformanceMonitorServiceTest {
         assertEquals(5, stats.getTotalResultCount());
         assertEquals(50.0, stats.getSuccessRate());
     }
+    
+    @Test
+    @DisplayName("测试执行时间分位数")
+    void testQueryStatistics_Percentiles() {
+        // Given - 1ms到1000ms各一次
+        String queryType = "PERCENTILE_QUERY";
+        for (int i = 1; i <= 1000; i++) {
+            queryPerformanceMonitorService.recordQueryExecution(queryType, i, 1, true);
+        }
+        
+        // Then - 直方图相对误差不超过1/32
+        QueryPerformanceMonitorService.QueryStatistics stats = 
+            queryPerformanceMonitorService.getQueryStatistics(queryType);
+        assertEquals(500, stats.getP50(), 500 / 32.0);
+        assertEquals(950, stats.getP95(), 950 / 32.0);
+        assertEquals(990, stats.getP99(), 990 / 32.0);
+        assertEquals(999, stats.getP999(), 999 / 32.0);
+        assertEquals(1000, stats.getMaxExecutionTime());
+    }
+    
+    @Test
+    @DisplayName("测试纳秒精度记录与窗口切换")
+    void testRecordNanosAndRotateWindows() {
+        // Given
+        String queryType = "NANOS_QUERY";
+        queryPerformanceMonitorService.recordQueryExecutionNanos(queryType, TimeUnit.MICROSECONDS.toNanos(2500), 1, true);
+        queryPerformanceMonitorService.rotateWindows();
+        
+        // When - 新窗口中只有快查询
+        queryPerformanceMonitorService.recordQueryExecutionNanos(queryType, TimeUnit.MICROSECONDS.toNanos(10), 1, true);
+        
+        // Then - 分位数取上一个完整窗口，累计统计不受窗口影响
+        QueryPerformanceMonitorService.QueryStatistics stats = 
+            queryPerformanceMonitorService.getQueryStatistics(queryType);
+        assertEquals(2.5, stats.getP99(), 2.5 / 32);
+        assertEquals(2, stats.getTotalExecutions());
+        assertEquals(1.255, stats.getAvgExecutionTime(), 1e-9);
+        
+        queryPerformanceMonitorService.rotateWindows();
+        assertEquals(0.01, stats.getP99(), 1e-9);
+    }
+    
+    @Test
+    @DisplayName("测试分位数导出到Micrometer")
+    void testBindToMeterRegistry() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queryPerformanceMonitorService.recordQueryExecution("EXISTING_QUERY", 20, 1, true);
+        
+        // When
+        queryPerformanceMonitorService.bindTo(registry);
+        queryPerformanceMonitorService.recordQueryExecution("NEW_QUERY", 40, 1, true);
+        
+        // Then - 绑定前后出现的查询类型都会导出
+        Gauge existing = registry.get("query.execution.latency")
+                .tags("type", "EXISTING_QUERY", "quantile", "0.99").gauge();
+        Gauge created = registry.get("query.execution.latency")
+                .tags("type", "NEW_QUERY", "quantile", "0.5").gauge();
+        assertEquals(20, existing.value(), 20 / 32.0);
+        assertEquals(40, created.value(), 40 / 32.0);
+        
+        // 重置后仪表按名称读取，没有数据时为NaN
+        queryPerformanceMonitorService.resetStatistics();
+        assertTrue(Double.isNaN(existing.value()));
+    }
 }
\ No newline at end of file
@@ -14,6 +14,7 @@ import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -155,6 +156,77 @@ class RateLimitingServiceTest {
         assertTrue(result); // Should allow access when Redis fails
     }
     
+    @Test
+    void testIsAllowed_WithLocalTier_ShouldReserveQuotaInChunks() {
+        // Given
+        RateLimitProperties.Local local = new RateLimitProperties.Local();
+        local.setLeaseRatio(0.5); // 每次预留 10 * 0.5 = 5 个配额
+        when(rateLimitProperties.getLocal()).thenReturn(local);
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any()))
+            .thenReturn(Arrays.asList(5L, 10L, 5L)); // granted=5
+        
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimitingService.isAllowed("192.168.1.1", "/api/test", null));
+        }
+        
+        // Then
+        verify(redisTemplate, times(1)).execute(any(DefaultRedisScript.class), anyList(), any());
+    }
+    
+    @Test
+    void testIsAllowed_WithLocalTier_WhenRedisDenies_ShouldDenyLocally() {
+        // Given
+        RateLimitProperties.Local local = new RateLimitProperties.Local();
+        local.setDenyCacheMillis(60_000);
+        when(rateLimitProperties.getLocal()).thenReturn(local);
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any()))
+            .thenReturn(Arrays.asList(10L, 10L, 0L)); // granted=0
+        
+        // When
+        boolean first = rateLimitingService.isAllowed("192.168.1.1", "/api/test", null);
+        boolean second = rateLimitingService.isAllowed("192.168.1.1", "/api/test", null);
+        
+        // Then
+        assertFalse(first);
+        assertFalse(second);
+        verify(redisTemplate, times(1)).execute(any(DefaultRedisScript.class), anyList(), any());
+    }
+    
+    @Test
+    void testIsAllowed_WithLocalTier_SparseClient_ShouldReturnUnusedQuota() throws InterruptedException {
+        // Given
+        RateLimitProperties.Local local = new RateLimitProperties.Local();
+        local.setLeaseRatio(0.5); // 每次预留 10 * 0.5 = 5 个配额
+        local.setLeaseTtlMillis(1);
+        when(rateLimitProperties.getLocal()).thenReturn(local);
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList(), any(Object[].class)))
+            .thenReturn(Arrays.asList(5L, 10L, 5L)); // granted=5
+        
+        // When: 只发出一个请求，租约随后过期
+        assertTrue(rateLimitingService.isAllowed("192.168.1.1", "/api/test", null));
+        Thread.sleep(5);
+        rateLimitingService.releaseExpiredLeases();
+        
+        // Then: 未使用的4个配额按成员编号2~5从窗口中移除
+        verify(redisTemplate, times(2)).execute(any(DefaultRedisScript.class), anyList(), any(Object[].class));
+        verify(redisTemplate).execute(
+            argThat(script -> script.getScriptAsString().contains("ZREM")),
+            eq(List.of("rate_limit:ip:192.168.1.1:/api/test")),
+            anyLong(), eq(2), eq(5));
+    }
+    
+    @Test
+    void testLocalLeaseSize_ShouldStayWithinBounds() {
+        RateLimitProperties.Local local = new RateLimitProperties.Local();
+        local.setLeaseRatio(0.1);
+        local.setMaxLeaseSize(50);
+        
+        assertEquals(1, local.leaseSize(5));     // 严格限制退化为逐次预留
+        assertEquals(6, local.leaseSize(60));
+        assertEquals(50, local.leaseSize(10000));
+    }
+    
     @Test
     void testGetRateLimitStatus_WhenDisabled_ShouldReturnDefaultStatus() {
         // Given
@@ -2,19 +2,25 @@ package com.myweb.website_core.application.service.security;
 
 import com.myweb.website_core.application.service.security.audit.AuditMessageService;
 import com.myweb.website_core.application.service.security.authentication.SessionCleanupService;
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.infrastructure.redis.RedisKeyManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.ValueOperations;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -36,15 +42,24 @@ class SessionCleanupServiceTest {
     @Mock
     private ValueOperations<String, Object> valueOperations;
     
+    @Mock
+    private SetOperations<String, Object> setOperations;
+    
     @Mock
     private AuditMessageService auditLogService;
     
+    @Mock
+    private RedisKeyManager redisKeyManager;
+    
     @InjectMocks
     private SessionCleanupService sessionCleanupService;
     
     @BeforeEach
     void setUp() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        lenient().when(redisKeyManager.unlink(anyCollection()))
+                .thenAnswer(invocation -> (long) ((Collection<?>) invocation.getArgument(0)).size());
     }
     
     @Test
@@ -53,25 +68,14 @@ class SessionCleanupServiceTest {
         Long userId = 1L;
         String sessionId = "test-session-id";
         
-        Set<String> sessionKeys = Set.of(
-            "spring:session:sessions:session1",
-            "spring:session:sessions:session2"
-        );
-        Set<String> authTokenKeys = Set.of("auth:token:1:token1");
-        Set<String> csrfTokenKeys = Set.of("csrf:token:1:token1");
-        Set<String> tempDataKeys = Set.of("temp:user:1:data1");
-        Set<String> userCacheKeys = Set.of("user:profile:1");
-        
         // 设置模拟行为
-        when(redisTemplate.hasKey("spring:session:sessions:" + sessionId)).thenReturn(true);
-        when(redisTemplate.keys("spring:session:sessions:*")).thenReturn(sessionKeys);
-        when(redisTemplate.keys("auth:token:1:*")).thenReturn(authTokenKeys);
-        when(redisTemplate.keys("csrf:token:1:*")).thenReturn(csrfTokenKeys);
-        when(redisTemplate.keys("temp:user:1:*")).thenReturn(tempDataKeys);
-        when(redisTemplate.keys("user:profile:1")).thenReturn(userCacheKeys);
-        
-        when(valueOperations.get("spring:session:sessions:session1")).thenReturn("user:1:data");
-        when(valueOperations.get("spring:session:sessions:session2")).thenReturn("user:2:data");
+        when(redisTemplate.hasKey(RedisKey.sessionKey(sessionId))).thenReturn(true);
+        when(valueOperations.get(RedisKey.userActiveSessionKey(userId))).thenReturn("session1");
+        when(redisKeyManager.getUserKeys(userId)).thenReturn(Set.of(
+            "auth:token:1:token1",
+            "csrf:token:token1",
+            "temp:user:1:data1"
+        ));
         
         // 执行测试
         CompletableFuture<SessionCleanupService.CleanupStatistics> future = 
@@ -81,12 +85,24 @@ class SessionCleanupServiceTest {
         
         // 验证结果
         assertNotNull(statistics);
+        assertEquals(1, statistics.getClearedAuthTokens());
+        assertEquals(1, statistics.getClearedCsrfTokens());
+        assertEquals(1, statistics.getClearedTempData());
         assertTrue(statistics.getTotalCleared() > 0);
         
-        // 验证方法调用
-        verify(redisTemplate).delete("spring:session:sessions:" + sessionId);
-        verify(redisTemplate).delete(authTokenKeys);
-        verify(redisTemplate).delete(csrfTokenKeys);
+        // 验证方法调用：只删除确定的键和索引中的键，不扫描键空间
+        verify(redisTemplate).delete(RedisKey.sessionKey(sessionId));
+        verify(redisKeyManager).unlink(List.of(
+            RedisKey.sessionKey("session1"),
+            RedisKey.sessionActivityKey("session1"),
+            RedisKey.userActiveSessionKey(userId),
+            RedisKey.userSessionKey(userId)
+        ));
+        verify(redisKeyManager).unlink(List.of("auth:token:1:token1"));
+        verify(redisKeyManager).unlink(List.of("csrf:token:token1"));
+        verify(setOperations).remove(RedisKey.ACTIVE_SESSIONS_SET, "session1");
+        verify(redisKeyManager).removeUserKeyIndex(userId);
+        verify(redisTemplate, never()).keys(anyString());
         verify(auditLogService).logOperation(any());
     }
     
@@ -96,11 +112,6 @@ class SessionCleanupServiceTest {
         Long userId = 1L;
         String sessionId = null;
         
-        Set<String> sessionKeys = Set.of("spring:session:sessions:session1");
-        when(redisTemplate.keys("spring:session:sessions:*")).thenReturn(sessionKeys);
-        when(redisTemplate.keys(anyString())).thenReturn(Set.of());
-        when(valueOperations.get("spring:session:sessions:session1")).thenReturn("user:1:data");
-        
         // 执行测试
         CompletableFuture<SessionCleanupService.CleanupStatistics> future = 
             sessionCleanupService.cleanupUserSession(userId, sessionId);
@@ -111,62 +122,40 @@ class SessionCleanupServiceTest {
         assertNotNull(statistics);
         
         // 验证没有删除指定会话（因为sessionId为null）
-        verify(redisTemplate, never()).delete("spring:session:sessions:null");
+        verify(redisTemplate, never()).hasKey(anyString());
+        verify(redisTemplate, never()).delete(anyString());
         verify(auditLogService).logOperation(any());
     }
     
     @Test
     void testCleanupExpiredSessions() {
-        // 准备测试数据
-        Set<String> sessionKeys = Set.of(
-            "spring:session:sessions:expired1",
-            "spring:session:sessions:active1"
-        );
-        Set<String> authTokenKeys = Set.of("auth:token:expired1");
-        Set<String> csrfTokenKeys = Set.of("csrf:token:expired1");
-        Set<String> tempKeys = Set.of("temp:expired1");
-        
-        when(redisTemplate.keys("spring:session:sessions:*")).thenReturn(sessionKeys);
-        when(redisTemplate.keys("auth:token:*")).thenReturn(authTokenKeys);
-        when(redisTemplate.keys("csrf:token:*")).thenReturn(csrfTokenKeys);
-        when(redisTemplate.keys("temp:*")).thenReturn(tempKeys);
-        
-        // 设置过期时间
-        when(redisTemplate.getExpire("spring:session:sessions:expired1", TimeUnit.SECONDS)).thenReturn(-1L);
-        when(redisTemplate.getExpire("spring:session:sessions:active1", TimeUnit.SECONDS)).thenReturn(3600L);
-        when(redisTemplate.getExpire("auth:token:expired1", TimeUnit.SECONDS)).thenReturn(-1L);
-        when(redisTemplate.getExpire("csrf:token:expired1", TimeUnit.SECONDS)).thenReturn(-1L);
-        when(redisTemplate.getExpire("temp:expired1", TimeUnit.SECONDS)).thenReturn(-1L);
+        when(redisKeyManager.pruneSetMembers(eq(RedisKey.ACTIVE_SESSIONS_SET), any())).thenReturn(2L);
         
         // 执行测试
         sessionCleanupService.cleanupExpiredSessions();
         
-        // 验证方法调用
-        verify(redisTemplate).delete("spring:session:sessions:expired1");
-        verify(redisTemplate).delete("auth:token:expired1");
-        verify(redisTemplate).delete("csrf:token:expired1");
-        verify(redisTemplate).delete("temp:expired1");
-        
-        // 验证没有删除活跃会话
-        verify(redisTemplate, never()).delete("spring:session:sessions:active1");
+        // 验证只修剪活跃会话集合，其余数据交给TTL
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Function<String, String>> keyOfMember = ArgumentCaptor.forClass(Function.class);
+        verify(redisKeyManager).pruneSetMembers(eq(RedisKey.ACTIVE_SESSIONS_SET), keyOfMember.capture());
+        assertEquals(RedisKey.sessionKey("s1"), keyOfMember.getValue().apply("s1"));
+        verify(redisTemplate, never()).keys(anyString());
+        verify(redisTemplate, never()).getExpire(anyString(), any());
+        verify(auditLogService).logOperation(any());
     }
     
     @Test
     void testCleanupOnSystemRestart() {
-        // 准备测试数据
-        Set<String> tempKeys = Set.of("temp:data1", "temp:data2");
-        Set<String> sessionKeys = Set.of("spring:session:sessions:session1");
-        
-        when(redisTemplate.keys("temp:*")).thenReturn(tempKeys);
-        when(redisTemplate.keys("spring:session:sessions:*")).thenReturn(sessionKeys);
-        when(redisTemplate.getExpire("spring:session:sessions:session1", TimeUnit.SECONDS)).thenReturn(-1L);
+        when(redisKeyManager.unlinkByPattern("temp:*")).thenReturn(2L);
         
         // 执行测试
         sessionCleanupService.cleanupOnSystemRestart();
         
         // 验证方法调用
-        verify(redisTemplate).delete(tempKeys);
-        verify(redisTemplate).delete("spring:session:sessions:session1");
+        verify(redisKeyManager).unlinkByPattern("temp:*");
+        verify(redisKeyManager).unlinkByPattern("upload:temp:*");
+        verify(redisKeyManager).pruneSetMembers(eq(RedisKey.ACTIVE_SESSIONS_SET), any());
+        verify(redisTemplate, never()).keys(anyString());
         verify(auditLogService).logOperation(any());
     }
     
@@ -176,13 +165,10 @@ class SessionCleanupServiceTest {
         Long userId = 1L;
         Long operatorUserId = 2L;
         
-        Set<String> sessionKeys = Set.of("spring:session:sessions:session1");
-        Set<String> authTokenKeys = Set.of("auth:token:1:token1");
-        
-        when(redisTemplate.keys("spring:session:sessions:*")).thenReturn(sessionKeys);
-        when(redisTemplate.keys("auth:token:1:*")).thenReturn(authTokenKeys);
-        when(redisTemplate.keys(anyString())).thenReturn(Set.of());
-        when(valueOperations.get("spring:session:sessions:session1")).thenReturn("user:1:data");
+        when(redisKeyManager.getUserKeys(userId)).thenReturn(Set.of(
+            RedisKey.sessionKey("session1"),
+            "auth:token:1:token1"
+        ));
         
         // 执行测试
         SessionCleanupService.CleanupStatistics statistics = 
@@ -191,24 +177,20 @@ class SessionCleanupServiceTest {
         // 验证结果
         assertNotNull(statistics);
         assertTrue(statistics.getTotalCleared() > 0);
+        assertEquals(1, statistics.getClearedAuthTokens());
         
         // 验证方法调用
-        verify(redisTemplate).delete(authTokenKeys);
+        verify(redisKeyManager).unlink(List.of("auth:token:1:token1"));
+        verify(redisKeyManager).removeUserKeyIndex(userId);
         verify(auditLogService).logOperation(any());
     }
     
     @Test
     void testGetSessionStatistics() {
-        // 准备测试数据
-        Set<String> sessionKeys = Set.of("session1", "session2");
-        Set<String> authTokenKeys = Set.of("token1");
-        Set<String> csrfTokenKeys = Set.of("csrf1");
-        Set<String> tempKeys = Set.of("temp1", "temp2", "temp3");
-        
-        when(redisTemplate.keys("spring:session:sessions:*")).thenReturn(sessionKeys);
-        when(redisTemplate.keys("auth:token:*")).thenReturn(authTokenKeys);
-        when(redisTemplate.keys("csrf:token:*")).thenReturn(csrfTokenKeys);
-        when(redisTemplate.keys("temp:*")).thenReturn(tempKeys);
+        when(setOperations.size(RedisKey.ACTIVE_SESSIONS_SET)).thenReturn(2L);
+        when(redisKeyManager.countByPattern("auth:token:*")).thenReturn(1L);
+        when(redisKeyManager.countByPattern("csrf:token:*")).thenReturn(1L);
+        when(redisKeyManager.countByPattern("temp:*")).thenReturn(3L);
         
         // 执行测试
         Map<String, Object> statistics = sessionCleanupService.getSessionStatistics();
@@ -225,7 +207,7 @@ class SessionCleanupServiceTest {
     @Test
     void testGetSessionStatistics_WithException() {
         // 设置异常情况
-        when(redisTemplate.keys(anyString())).thenThrow(new RuntimeException("Redis error"));
+        when(setOperations.size(anyString())).thenThrow(new RuntimeException("Redis error"));
         
         // 执行测试
         Map<String, Object> statistics = sessionCleanupService.getSessionStatistics();
@@ -286,6 +268,7 @@ class SessionCleanupServiceTest {
         
         // 设置异常情况
         when(redisTemplate.hasKey(anyString())).thenThrow(new RuntimeException("Redis error"));
+        when(valueOperations.get(anyString())).thenThrow(new RuntimeException("Redis error"));
         
         // 执行测试
         CompletableFuture<SessionCleanupService.CleanupStatistics> future = 
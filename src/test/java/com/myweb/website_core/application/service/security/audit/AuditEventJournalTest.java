@@ -0,0 +1,188 @@
+package com.myweb.website_core.application.service.security.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 审计事件本地日志测试
+ */
+class AuditEventJournalTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path tempDir;
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(AuditEventJournal.Entry entry) {
+        return new String(entry.payload(), StandardCharsets.UTF_8);
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    @Test
+    void testAppendAndRead() throws Exception {
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 4L)) {
+            assertTrue(journal.append("security.audit", payload("{\"a\":1}")));
+            assertTrue(journal.append("user.auth", payload("{\"b\":2}")));
+
+            List<AuditEventJournal.Entry> entries = journal.read(10);
+
+            assertEquals(2, entries.size());
+            assertEquals("security.audit", entries.get(0).routingKey());
+            assertEquals("{\"a\":1}", text(entries.get(0)));
+            assertEquals("user.auth", entries.get(1).routingKey());
+            assertEquals("{\"b\":2}", text(entries.get(1)));
+
+            // 未提交时再次读取得到相同记录
+            assertEquals(2, journal.read(10).size());
+
+            journal.commit(entries.get(0).next());
+            List<AuditEventJournal.Entry> remaining = journal.read(10);
+            assertEquals(1, remaining.size());
+            assertEquals("user.auth", remaining.get(0).routingKey());
+        }
+    }
+
+    @Test
+    void testReplayAfterReopen() throws Exception {
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 4L)) {
+            journal.append("security.audit", payload("first"));
+            journal.append("security.audit", payload("second"));
+            journal.commit(journal.read(1).get(0).next());
+        }
+
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 4L)) {
+            List<AuditEventJournal.Entry> entries = journal.read(10);
+            assertEquals(1, entries.size());
+            assertEquals("second", text(entries.get(0)));
+
+            // 重新打开后追加到已有记录之后
+            journal.append("security.audit", payload("third"));
+            assertEquals(List.of("second", "third"), journal.read(10).stream().map(AuditEventJournalTest::text).toList());
+        }
+    }
+
+    @Test
+    void testTornRecordDiscardedOnReopen() throws Exception {
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 4L)) {
+            journal.append("security.audit", payload("complete"));
+        }
+
+        // 模拟写了一半的记录：长度已写入，内容未写入
+        Path segment;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            segment = files.filter(path -> path.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+        }
+        int recordLength = 8 + 1 + "security.audit".length() + "complete".length();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 100), recordLength);
+        }
+
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 4L)) {
+            assertEquals(List.of("complete"), journal.read(10).stream().map(AuditEventJournalTest::text).toList());
+
+            journal.append("security.audit", payload("after"));
+            assertEquals(List.of("complete", "after"), journal.read(10).stream().map(AuditEventJournalTest::text).toList());
+        }
+    }
+
+    @Test
+    void testSegmentRollAndDeletion() throws Exception {
+        byte[] body = new byte[1000];
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 8L)) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(journal.append("security.audit", body));
+            }
+            assertTrue(journal.segmentCount() > 1);
+
+            List<AuditEventJournal.Entry> entries = journal.read(100);
+            assertEquals(10, entries.size());
+
+            journal.commit(entries.get(entries.size() - 1).next());
+            assertEquals(1, journal.segmentCount());
+            assertEquals(1, segmentFiles());
+            assertTrue(journal.read(100).isEmpty());
+        }
+    }
+
+    @Test
+    void testAppendRejectedWhenFull() throws Exception {
+        byte[] body = new byte[1000];
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 2L)) {
+            int appended = 0;
+            while (journal.append("security.audit", body)) {
+                appended++;
+                assertTrue(appended < 100);
+            }
+            assertEquals(2, journal.segmentCount());
+
+            // 转发后腾出空间
+            List<AuditEventJournal.Entry> entries = journal.read(100);
+            assertEquals(appended, entries.size());
+            journal.commit(entries.get(entries.size() - 1).next());
+            assertTrue(journal.append("security.audit", body));
+        }
+    }
+
+    @Test
+    void testDirectoryLockedWhileOpen() throws Exception {
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 4L)) {
+            journal.append("security.audit", payload("first"));
+
+            // 同一目录不能被第二个实例打开
+            assertThrows(IOException.class, () -> new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 4L));
+        }
+
+        // 关闭后锁释放，可以重新打开
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 4L)) {
+            assertEquals(List.of("first"), journal.read(10).stream().map(AuditEventJournalTest::text).toList());
+        }
+    }
+
+    @Test
+    void testForceAfterSegmentRoll() throws Exception {
+        byte[] body = new byte[1000];
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 8L)) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(journal.append("security.audit", body));
+            }
+            assertTrue(journal.segmentCount() > 1);
+
+            // 切换出去的分段和当前分段一起刷盘
+            journal.force();
+            journal.force();
+        }
+
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 8L)) {
+            assertEquals(10, journal.read(100).size());
+        }
+    }
+
+    @Test
+    void testOversizedRecordRejected() throws Exception {
+        try (AuditEventJournal journal = new AuditEventJournal(tempDir, SEGMENT_BYTES, SEGMENT_BYTES * 4L)) {
+            assertFalse(journal.append("security.audit", new byte[SEGMENT_BYTES]));
+            assertTrue(journal.read(10).isEmpty());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.myweb.website_core.application.service.security.audit;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 审计日志报表写入器测试
+ */
+class AuditLogReportWriterTest {
+
+    @Test
+    void testCsvEscaping() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (AuditLogReportWriter writer = AuditLogReportWriter.create("CSV", List.of("用户名", "错误信息"), outputStream)) {
+            writer.writeRow(List.of("testuser", "a,b"));
+            writer.writeRow(List.of("admin", "say \"hi\"\nbye"));
+        }
+
+        String csv = outputStream.toString(StandardCharsets.UTF_8);
+        assertEquals("用户名,错误信息\n" +
+                     "testuser,\"a,b\"\n" +
+                     "admin,\"say \"\"hi\"\"\nbye\"\n", csv);
+    }
+
+    @Test
+    void testExcelStreamsRowsBeyondWindow() throws Exception {
+        int rows = AuditLogReportWriter.EXCEL_ROW_WINDOW * 3;
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (AuditLogReportWriter writer = AuditLogReportWriter.create("EXCEL", List.of("用户名", "结果"), outputStream)) {
+            for (int i = 0; i < rows; i++) {
+                writer.writeRow(List.of("user" + i, "SUCCESS"));
+            }
+        }
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("审计日志", sheet.getSheetName());
+            assertEquals(rows, sheet.getLastRowNum());
+            assertEquals("用户名", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("user0", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("user" + (rows - 1), sheet.getRow(rows).getCell(0).getStringCellValue());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.myweb.website_core.application.service.security.authentication;
+
+import com.myweb.website_core.application.service.security.authentication.JWT.JwtPrincipalCache;
+import com.myweb.website_core.application.service.security.authentication.JWT.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * JWT认证主体缓存测试
+ */
+@ExtendWith(MockitoExtension.class)
+class JwtPrincipalCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private JwtPrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new JwtPrincipalCache(redisTemplate, listenerContainer, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(principalCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(principalCache, "maxAgeSeconds", 300L);
+        principalCache.init();
+
+        verify(listenerContainer).addMessageListener(eq(principalCache), any(Topic.class));
+    }
+
+    @Test
+    void testPutAndGet() {
+        VerifiedToken token = token("t1", 1L, 3600);
+        UserDetails principal = principal("alice");
+
+        principalCache.put(token, principal, principalCache.currentGeneration());
+
+        assertSame(principal, principalCache.get(token));
+        assertNull(principalCache.get(token("t2", 1L, 3600)));
+    }
+
+    @Test
+    void testExpiredTokenIsNotCached() {
+        VerifiedToken token = token("t1", 1L, -10);
+
+        principalCache.put(token, principal("alice"), principalCache.currentGeneration());
+
+        assertNull(principalCache.get(token));
+    }
+
+    @Test
+    void testInvalidateTokenPublishesAndRemoves() {
+        VerifiedToken token = token("t1", 1L, 3600);
+        principalCache.put(token, principal("alice"), principalCache.currentGeneration());
+
+        principalCache.invalidateToken("t1");
+
+        assertNull(principalCache.get(token));
+        verify(redisTemplate).convertAndSend(JwtPrincipalCache.INVALIDATION_CHANNEL, "t:t1");
+    }
+
+    @Test
+    void testInvalidateUserRemovesOnlyThatUser() {
+        VerifiedToken alice1 = token("a1", 1L, 3600);
+        VerifiedToken alice2 = token("a2", 1L, 3600);
+        VerifiedToken bob = token("b1", 2L, 3600);
+        long generation = principalCache.currentGeneration();
+        principalCache.put(alice1, principal("alice"), generation);
+        principalCache.put(alice2, principal("alice"), generation);
+        principalCache.put(bob, principal("bob"), generation);
+
+        principalCache.invalidateUser(1L);
+
+        assertNull(principalCache.get(alice1));
+        assertNull(principalCache.get(alice2));
+        assertNotNull(principalCache.get(bob));
+        verify(redisTemplate).convertAndSend(JwtPrincipalCache.INVALIDATION_CHANNEL, "u:1");
+    }
+
+    @Test
+    void testPutDiscardedWhenRevokedDuringLoad() {
+        VerifiedToken token = token("t1", 1L, 3600);
+        long generation = principalCache.currentGeneration();
+
+        // 加载期间收到撤销
+        principalCache.invalidateToken("t1");
+        principalCache.put(token, principal("alice"), generation);
+
+        assertNull(principalCache.get(token));
+    }
+
+    @Test
+    void testRemoteInvalidationMessage() {
+        doReturn(RedisSerializer.string()).when(redisTemplate).getValueSerializer();
+        VerifiedToken token = token("t1", 1L, 3600);
+        principalCache.put(token, principal("alice"), principalCache.currentGeneration());
+
+        principalCache.onMessage(new DefaultMessage(
+                JwtPrincipalCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "t:t1".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertNull(principalCache.get(token));
+        verify(redisTemplate, never()).convertAndSend(anyString(), any());
+    }
+
+    @Test
+    void testUnreadableMessageClearsAll() {
+        VerifiedToken token = token("t1", 1L, 3600);
+        principalCache.put(token, principal("alice"), principalCache.currentGeneration());
+
+        principalCache.onMessage(new DefaultMessage(new byte[0], new byte[]{1, 2, 3}), null);
+
+        assertNull(principalCache.get(token));
+    }
+
+    private static VerifiedToken token(String tokenId, Long userId, long expiresInSeconds) {
+        Instant now = Instant.now();
+        return new VerifiedToken(tokenId, userId, "user" + userId, "USER", "access",
+                now, now.plusSeconds(expiresInSeconds));
+    }
+
+    private static UserDetails principal(String username) {
+        return User.withUsername(username).password("password").authorities("ROLE_USER").build();
+    }
+}
@@ -6,6 +6,7 @@ import com.myweb.website_core.common.enums.UserRole;
 import com.myweb.website_core.common.util.RedisKey;
 import com.myweb.website_core.domain.security.dto.AuditLogRequest;
 import com.myweb.website_core.domain.security.dto.SessionInfo;
+import com.myweb.website_core.infrastructure.redis.RedisKeyManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,8 +19,11 @@ import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.ValueOperations;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -57,6 +61,9 @@ class SessionCleanupServiceTest {
     @Mock
     private SetOperations<String, Object> setOperations;
     
+    @Mock
+    private RedisKeyManager redisKeyManager;
+    
     @InjectMocks
     private SessionCleanupService sessionCleanupService;
     
@@ -211,7 +218,8 @@ class SessionCleanupServiceTest {
         
         // 验证清理操作
         verify(redisTemplate).delete(RedisKey.userActiveSessionKey(testUserId));
-        verify(redisTemplate, atLeastOnce()).keys(anyString());
+        verify(redisKeyManager).getUserKeys(testUserId);
+        verify(redisTemplate, never()).keys(anyString());
     }
     
     @Test
@@ -236,7 +244,6 @@ class SessionCleanupServiceTest {
     void testCleanupUserCacheData() {
         // Given - 通过反射调用私有方法或通过公共方法间接测试
         String reason = "TEST_CLEANUP";
-        when(redisTemplate.keys(anyString())).thenReturn(Set.of("user:like:1:123", "user:collect:1:456"));
         
         // When
         CompletableFuture<Boolean> result = sessionCleanupService.performUserLogoutCleanup(
@@ -247,7 +254,8 @@ class SessionCleanupServiceTest {
         
         // 验证用户缓存清理
         verify(redisTemplate, atLeastOnce()).delete(anyString());
-        verify(redisTemplate, atLeastOnce()).keys(anyString());
+        verify(redisKeyManager).unlink(argThat(keys -> keys.contains("user:profile:" + testUserId)));
+        verify(redisTemplate, never()).keys(anyString());
     }
     
     @Test
@@ -280,19 +288,33 @@ class SessionCleanupServiceTest {
     @Test
     void testScheduledOrphanedDataCleanup() {
         // Given
-        Set<String> sessionKeys = Set.of(
-                RedisKey.SESSION_PREFIX + "orphaned-session-1",
-                RedisKey.SESSION_PREFIX + "orphaned-session-2"
+        List<String> sessionKeys = List.of(
+                RedisKey.sessionKey("orphaned-session-1"),
+                RedisKey.sessionActivityKey("orphaned-session-2"),
+                RedisKey.sessionKey(testSessionId),
+                RedisKey.sessionStatsKey("current")
         );
-        when(redisTemplate.keys(RedisKey.SESSION_PREFIX + "*")).thenReturn(sessionKeys);
-        when(setOperations.isMember(eq(RedisKey.ACTIVE_SESSIONS_SET), anyString())).thenReturn(false);
+        doAnswer(invocation -> {
+            Consumer<List<String>> consumer = invocation.getArgument(1);
+            consumer.accept(sessionKeys);
+            return null;
+        }).when(redisKeyManager).scan(eq(RedisKey.SESSION_PREFIX + "*"), any());
+        when(setOperations.isMember(eq(RedisKey.ACTIVE_SESSIONS_SET), any(Object[].class))).thenReturn(Map.of(
+                "orphaned-session-1", false,
+                "orphaned-session-2", false,
+                testSessionId, true
+        ));
         
         // When
         sessionCleanupService.scheduledOrphanedDataCleanup();
         
         // Then
-        // 验证孤立数据被清理
-        verify(redisTemplate, times(2)).delete(anyString());
+        // 验证孤立数据被清理，活跃会话和统计键保留
+        verify(redisKeyManager).unlink(List.of(
+                RedisKey.sessionKey("orphaned-session-1"),
+                RedisKey.sessionActivityKey("orphaned-session-2")
+        ));
+        verify(redisTemplate, never()).keys(anyString());
     }
     
     @Test
@@ -2,8 +2,8 @@ package com.myweb.website_core.application.task;
 
 import com.myweb.website_core.application.service.security.integeration.dataManage.DataIntegrityService;
 import com.myweb.website_core.application.service.security.audit.AuditLogService;
-import com.myweb.website_core.domain.business.entity.Post;
-import com.myweb.website_core.domain.business.entity.Comment;
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.domain.security.dto.ContentIntegrityRow;
 import com.myweb.website_core.infrastructure.persistence.repository.post.PostRepository;
 import com.myweb.website_core.infrastructure.persistence.repository.comment.CommentRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,11 +11,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,26 +47,34 @@ class DataIntegrityTaskTest {
     @Mock
     private CommentRepository commentRepository;
     
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+    
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    
     private DataIntegrityTask dataIntegrityTask;
     
     @BeforeEach
     void setUp() {
         dataIntegrityTask = new DataIntegrityTask(
-            dataIntegrityService, auditLogService, postRepository, commentRepository);
+            dataIntegrityService, auditLogService, postRepository, commentRepository, redisTemplate);
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
         
         // 设置配置值
         ReflectionTestUtils.setField(dataIntegrityTask, "alertThreshold", 10);
         ReflectionTestUtils.setField(dataIntegrityTask, "batchSize", 100);
+        ReflectionTestUtils.setField(dataIntegrityTask, "parallelism", 2);
     }
     
     @Test
     void testPerformDailyIntegrityCheck() {
         // 准备测试数据
-        Post post = createTestPost(1L, "测试帖子", "测试内容", "hash1");
-        Comment comment = createTestComment(1L, "测试评论", "hash2");
+        ContentIntegrityRow post = createTestRow(1L, "测试内容", "hash1");
+        ContentIntegrityRow comment = createTestRow(1L, "测试评论", "hash2");
         
-        when(postRepository.findAll()).thenReturn(Arrays.asList(post));
-        when(commentRepository.findAll()).thenReturn(Arrays.asList(comment));
+        when(postRepository.findIntegrityRowsAfterId(eq(0L), any(Pageable.class))).thenReturn(Arrays.asList(post));
+        when(commentRepository.findIntegrityRowsAfterId(eq(0L), any(Pageable.class))).thenReturn(Arrays.asList(comment));
         
         // 模拟完整性检查结果
         DataIntegrityService.IntegrityCheckResult validResult = 
@@ -88,11 +100,11 @@ class DataIntegrityTaskTest {
     @Test
     void testCheckAllPostsIntegrityActual() throws Exception {
         // 准备测试数据
-        Post post1 = createTestPost(1L, "帖子1", "内容1", "hash1");
-        Post post2 = createTestPost(2L, "帖子2", "内容2", "hash2");
-        List<Post> posts = Arrays.asList(post1, post2);
+        ContentIntegrityRow post1 = createTestRow(1L, "内容1", "hash1");
+        ContentIntegrityRow post2 = createTestRow(2L, "内容2", "hash2");
+        List<ContentIntegrityRow> posts = Arrays.asList(post1, post2);
         
-        when(postRepository.findAll()).thenReturn(posts);
+        when(postRepository.findIntegrityRowsAfterId(eq(0L), any(Pageable.class))).thenReturn(posts);
         
         // 模拟完整性检查结果 - 一个有问题，一个正常
         DataIntegrityService.IntegrityCheckResult validResult = 
@@ -130,11 +142,11 @@ class DataIntegrityTaskTest {
     @Test
     void testCheckAllCommentsIntegrityActual() throws Exception {
         // 准备测试数据
-        Comment comment1 = createTestComment(1L, "评论1", "hash1");
-        Comment comment2 = createTestComment(2L, "评论2", "hash2");
-        List<Comment> comments = Arrays.asList(comment1, comment2);
+        ContentIntegrityRow comment1 = createTestRow(1L, "评论1", "hash1");
+        ContentIntegrityRow comment2 = createTestRow(2L, "评论2", "hash2");
+        List<ContentIntegrityRow> comments = Arrays.asList(comment1, comment2);
         
-        when(commentRepository.findAll()).thenReturn(comments);
+        when(commentRepository.findIntegrityRowsAfterId(eq(0L), any(Pageable.class))).thenReturn(comments);
         
         // 模拟完整性检查结果 - 都正常
         DataIntegrityService.IntegrityCheckResult validResult = 
@@ -156,6 +168,37 @@ class DataIntegrityTaskTest {
         verify(dataIntegrityService, times(2)).checkCommentIntegrity(anyLong(), anyString(), anyString());
     }
     
+    @Test
+    void testIncrementalCheckOnlyScansRowsSinceWatermark() throws Exception {
+        String checkpointKey = RedisKey.integrityCheckpointKey("post", "incremental");
+        when(hashOperations.entries(checkpointKey)).thenReturn(Map.of("watermark", 1000L));
+        when(postRepository.findIntegrityRowsModifiedSince(eq(0L), any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(createTestRow(3L, "内容3", "hash3")));
+        when(dataIntegrityService.checkPostIntegrity(3L, "内容3", "hash3"))
+            .thenReturn(DataIntegrityService.IntegrityCheckResult.builder().isValid(true).build());
+        
+        assertEquals(0, dataIntegrityTask.checkAllPostsIntegrityActual().get());
+        
+        verify(postRepository, never()).findIntegrityRowsAfterId(anyLong(), any(Pageable.class));
+        verify(hashOperations).put(eq(checkpointKey), eq("watermark"), anyLong());
+    }
+    
+    @Test
+    void testResumeFromCheckpoint() throws Exception {
+        String checkpointKey = RedisKey.integrityCheckpointKey("comment", "deep");
+        when(hashOperations.entries(checkpointKey)).thenReturn(Map.of("cursor", 5L, "runStartedAt", 1000L));
+        when(commentRepository.findIntegrityRowsAfterId(eq(5L), any(Pageable.class)))
+            .thenReturn(List.of(createTestRow(6L, "评论6", "hash6")));
+        when(dataIntegrityService.checkCommentIntegrity(6L, "评论6", "hash6"))
+            .thenReturn(DataIntegrityService.IntegrityCheckResult.builder().isValid(true).build());
+        
+        assertEquals(0, dataIntegrityTask.checkAllCommentsIntegrityDeep().get());
+        
+        // 完成后以本轮开始时间作为新水位
+        verify(commentRepository, never()).findIntegrityRowsAfterId(eq(0L), any(Pageable.class));
+        verify(hashOperations).put(checkpointKey, "watermark", 1000L);
+    }
+    
     @Test
     void testGenerateRepairSuggestions() {
         // 准备测试数据
@@ -196,8 +239,8 @@ class DataIntegrityTaskTest {
     @Test
     void testTriggerManualIntegrityCheck() throws Exception {
         // 准备测试数据
-        when(postRepository.findAll()).thenReturn(Arrays.asList());
-        when(commentRepository.findAll()).thenReturn(Arrays.asList());
+        when(postRepository.findIntegrityRowsAfterId(eq(0L), any(Pageable.class))).thenReturn(Arrays.asList());
+        when(commentRepository.findIntegrityRowsAfterId(eq(0L), any(Pageable.class))).thenReturn(Arrays.asList());
         
         // 执行测试
         CompletableFuture<DataIntegrityTask.IntegrityCheckReport> result = 
@@ -258,24 +301,7 @@ class DataIntegrityTaskTest {
     
     // ==================== 辅助方法 ====================
     
-    private Post createTestPost(Long id, String title, String content, String contentHash) {
-        Post post = new Post();
-        ReflectionTestUtils.setField(post, "id", id);
-        post.setTitle(title);
-        post.setContent(content);
-        post.setContentHash(contentHash);
-        post.setHashCalculatedAt(LocalDateTime.now());
-        post.setCreatedAt(LocalDateTime.now());
-        return post;
-    }
-    
-    private Comment createTestComment(Long id, String content, String contentHash) {
-        Comment comment = new Comment();
-        ReflectionTestUtils.setField(comment, "id", id);
-        comment.setContent(content);
-        comment.setContentHash(contentHash);
-        comment.setHashCalculatedAt(LocalDateTime.now());
-        comment.setCreatedAt(LocalDateTime.now());
-        return comment;
+    private ContentIntegrityRow createTestRow(Long id, String content, String contentHash) {
+        return new ContentIntegrityRow(id, content, contentHash, LocalDateTime.now());
     }
-}
\ No newline at end of file
+}
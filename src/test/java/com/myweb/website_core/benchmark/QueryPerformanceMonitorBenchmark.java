@@ -0,0 +1,91 @@
+package com.myweb.website_core.benchmark;
+
+import com.myweb.website_core.application.service.security.QueryPerformanceMonitorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查询性能监控基准测试
+ *
+ * 8个线程同时向少量热点查询类型记录执行时间，测量每次记录的平均开销（纳秒）：
+ * {@code recordNanos} 是 {@code recordQueryExecutionNanos} 快速路径，目标低于100ns；
+ * {@code monitorFinish} 是创建 QueryPerformanceMonitor 再 finish 的兼容路径，作为对照。
+ * 加 {@code -prof gc} 运行可确认快速路径每次操作分配0字节。
+ * 运行 main 方法或 {@code java -cp <测试类路径> org.openjdk.jmh.Main QueryPerformanceMonitorBenchmark}。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class QueryPerformanceMonitorBenchmark {
+
+    private static final String[] QUERY_TYPES = {
+        "COMPLEX_DYNAMIC_QUERY", "PARAMETERIZED_QUERY", "AGGREGATE_QUERY", "SEARCH_QUERY"
+    };
+
+    private static final int SAMPLE_COUNT = 1024;
+
+    private QueryPerformanceMonitorService monitorService;
+
+    /**
+     * 预先生成的执行时间样本（纳秒，50µs~50ms，对数分布），避免在测量中生成随机数
+     */
+    private long[] elapsedNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        monitorService = new QueryPerformanceMonitorService();
+        elapsedNanos = new long[SAMPLE_COUNT];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            elapsedNanos[i] = (long) (50_000 * Math.pow(1000, random.nextDouble()));
+        }
+        // 先创建各查询类型的统计，测量的是稳定状态下的记录开销
+        for (String queryType : QUERY_TYPES) {
+            monitorService.recordQueryExecutionNanos(queryType, 1, 0, true);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public void recordNanos(Cursor cursor) {
+        int i = cursor.next++;
+        monitorService.recordQueryExecutionNanos(QUERY_TYPES[i & (QUERY_TYPES.length - 1)],
+                elapsedNanos[i & (SAMPLE_COUNT - 1)], 20, true);
+    }
+
+    @Benchmark
+    public void monitorFinish(Cursor cursor) {
+        int i = cursor.next++;
+        monitorService.startMonitoring(QUERY_TYPES[i & (QUERY_TYPES.length - 1)], "基准测试").finish(20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QueryPerformanceMonitorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.myweb.website_core.benchmark;
+
+import com.myweb.website_core.application.service.security.IPS.ratelimit.RateLimitingService;
+import com.myweb.website_core.infrastructure.config.RedisConfig;
+import com.myweb.website_core.infrastructure.config.properties.RateLimitProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 访问频率限制基准测试
+ *
+ * 对比滑动窗口日志（ZSET）、滑动窗口计数两种Redis算法，以及是否启用本地令牌桶时的吞吐量。
+ * 需要本地可用的Redis（可通过 -Dbenchmark.redis.host / -Dbenchmark.redis.port 指定），
+ * 运行 main 方法或 {@code java -cp <测试类路径> org.openjdk.jmh.Main RateLimitingBenchmark}。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(8)
+@Fork(1)
+public class RateLimitingBenchmark {
+
+    private static final String KEY_PREFIX = "rate_limit_bench:";
+
+    private static final int CLIENT_COUNT = 64;
+
+    @Param({"SLIDING_WINDOW_LOG", "SLIDING_WINDOW_COUNTER"})
+    public String algorithm;
+
+    @Param({"false", "true"})
+    public boolean localTier;
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+    private RateLimitingService rateLimitingService;
+    private String[] clientIps;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("benchmark.redis.host", "localhost"),
+                Integer.getInteger("benchmark.redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setAlgorithm(algorithm);
+        properties.getLocal().setEnabled(localTier);
+        properties.getRedis().setKeyPrefix(KEY_PREFIX);
+        properties.getAlert().setEnabled(false);
+        // 限制足够大，测量的是判断开销而不是拒绝路径
+        properties.getDefaultLimit().setMaxRequests(1_000_000);
+        properties.getDefaultLimit().setWindowSizeSeconds(60);
+
+        rateLimitingService = new RateLimitingService(redisTemplate, properties, null);
+
+        clientIps = new String[CLIENT_COUNT];
+        for (int i = 0; i < CLIENT_COUNT; i++) {
+            clientIps[i] = "10.0.0." + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        var keys = redisTemplate.keys(KEY_PREFIX + "*");
+        if (keys != null && !keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public boolean isAllowed() {
+        String clientIp = clientIps[ThreadLocalRandom.current().nextInt(CLIENT_COUNT)];
+        return rateLimitingService.isAllowed(clientIp, "/api/posts", null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,190 @@
+package com.myweb.website_core.benchmark;
+
+import com.myweb.website_core.infrastructure.security.XssPatternLibrary;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * XSS模式扫描基准测试
+ *
+ * 在一组模拟帖子正文（中英文段落、允许的HTML标签、代码片段，少量夹带攻击载荷）上，
+ * 对比逐条执行攻击模式库正则与多模式匹配器单次扫描的吞吐量。
+ * 每次操作扫描整个语料，辅助计数器 {@code bytes} 给出每秒扫描的UTF-8字节数（除以10^6即MB/s）。
+ * 运行 main 方法或 {@code java -cp <测试类路径> org.openjdk.jmh.Main XssScanBenchmark}。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class XssScanBenchmark {
+
+    private static final String[] CHINESE_SENTENCES = {
+        "今天整理了一下最近学习Spring Boot的笔记，分享给大家。",
+        "这个问题困扰了我好几天，最后发现是配置文件的缩进写错了。",
+        "周末去爬山，山顶的风景非常好，推荐大家有空去看看。",
+        "有没有人遇到过Redis连接池耗尽的情况？求指点。",
+        "感谢楼主的分享，收藏了，回头仔细研究一下。",
+        "数据库索引不是越多越好，写多读少的表要慎重。",
+        "新买的键盘手感不错，就是声音有点大，室友有意见。"
+    };
+
+    private static final String[] ENGLISH_SENTENCES = {
+        "The cache hit rate dropped after the last deployment, so we rolled back.",
+        "Use a connection pool and make sure every statement is closed properly.",
+        "I benchmarked both approaches and the second one is about twice as fast.",
+        "Does anyone know why the function returns null on the first call?",
+        "Remember to set the timeout; otherwise the request may hang forever."
+    };
+
+    private static final String[] CODE_SNIPPETS = {
+        "<pre><code>// 初始化连接\nRedisTemplate template = new RedisTemplate();\ntemplate.afterPropertiesSet();</code></pre>",
+        "<pre><code>for (int i = 0; i &lt; n; i++) {\n    sum += values[i]; /* 累加 */\n}</code></pre>",
+        "<code>SELECT * FROM posts WHERE title LIKE '%spring%'</code>"
+    };
+
+    private static final String[] ATTACK_PAYLOADS = {
+        "<script>alert(document.cookie)</script>",
+        "<img src=x onerror=alert(1)>",
+        "<a href=\"javascript:alert(1)\">点我领奖</a>",
+        "<iframe src=\"https://evil.example.com\"></iframe>",
+        "<div style=\"background: expression(alert(1))\">"
+    };
+
+    /**
+     * 夹带攻击载荷的帖子比例（百分比）
+     */
+    @Param({"2"})
+    public int attackPercent;
+
+    /**
+     * 语料中的帖子数量
+     */
+    @Param({"2000"})
+    public int postCount;
+
+    private String[] corpus;
+    private long corpusBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(20250101L);
+        corpus = new String[postCount];
+        corpusBytes = 0;
+        for (int i = 0; i < postCount; i++) {
+            corpus[i] = buildPost(random);
+            corpusBytes += corpus[i].getBytes(StandardCharsets.UTF_8).length;
+        }
+    }
+
+    /**
+     * 扫描字节计数，JMH按时间单位输出其速率
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ScanCounters {
+        public long bytes;
+    }
+
+    @Benchmark
+    public int sequentialPatterns(ScanCounters counters) {
+        int detected = 0;
+        for (String post : corpus) {
+            if (sequentialContainsXss(post)) {
+                detected++;
+            }
+        }
+        counters.bytes += corpusBytes;
+        return detected;
+    }
+
+    @Benchmark
+    public int multiPatternMatcher(ScanCounters counters) {
+        int detected = 0;
+        for (String post : corpus) {
+            if (XssPatternLibrary.containsXssPattern(post)) {
+                detected++;
+            }
+        }
+        counters.bytes += corpusBytes;
+        return detected;
+    }
+
+    @Benchmark
+    public int multiPatternMatcherTypes(ScanCounters counters) {
+        int types = 0;
+        for (String post : corpus) {
+            types += XssPatternLibrary.getMatchedPatternTypes(post).size();
+        }
+        counters.bytes += corpusBytes;
+        return types;
+    }
+
+    /**
+     * 原实现：按分类逐条执行正则
+     */
+    private static boolean sequentialContainsXss(String input) {
+        for (List<Pattern> category : XssPatternLibrary.getAllPatternCategories()) {
+            for (Pattern pattern : category) {
+                if (pattern.matcher(input).find()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private String buildPost(Random random) {
+        StringBuilder post = new StringBuilder();
+        int paragraphs = 1 + random.nextInt(5);
+        for (int p = 0; p < paragraphs; p++) {
+            post.append("<p>");
+            int sentences = 2 + random.nextInt(6);
+            for (int s = 0; s < sentences; s++) {
+                if (random.nextInt(3) == 0) {
+                    post.append(ENGLISH_SENTENCES[random.nextInt(ENGLISH_SENTENCES.length)]).append(' ');
+                } else {
+                    post.append(CHINESE_SENTENCES[random.nextInt(CHINESE_SENTENCES.length)]);
+                }
+                if (random.nextInt(8) == 0) {
+                    post.append("<strong>重点</strong>");
+                }
+            }
+            post.append("</p>\n");
+            if (random.nextInt(6) == 0) {
+                post.append(CODE_SNIPPETS[random.nextInt(CODE_SNIPPETS.length)]).append('\n');
+            }
+        }
+        if (random.nextInt(100) < attackPercent) {
+            post.append(ATTACK_PAYLOADS[random.nextInt(ATTACK_PAYLOADS.length)]);
+        }
+        return post.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(XssScanBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,104 @@
+package com.myweb.website_core.infrastructure.persistence.repository.interaction;
+
+import com.myweb.website_core.infrastructure.persistence.repository.interaction.InteractionBatchRepository.UserPostPair;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 点赞/收藏批量写入SQL测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InteractionBatchRepository批量SQL测试")
+class InteractionBatchRepositoryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private InteractionBatchRepository repository;
+
+    @Captor
+    private ArgumentCaptor<String> sqlCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> argsCaptor;
+
+    @Test
+    @DisplayName("批量插入跳过已存在的记录以及不存在的帖子/用户")
+    void testBatchInsertOnConflict() {
+        repository.batchInsert(InteractionBatchRepository.TABLE_POST_LIKES, List.of(new UserPostPair(1L, 10L)));
+
+        verify(jdbcTemplate).batchUpdate(sqlCaptor.capture(), argsCaptor.capture());
+        String sql = sqlCaptor.getValue();
+        assertTrue(sql.startsWith("INSERT INTO post_likes (user_id, post_id, created_at)"));
+        assertTrue(sql.contains("EXISTS (SELECT 1 FROM users WHERE id = ?)"));
+        assertTrue(sql.contains("EXISTS (SELECT 1 FROM posts WHERE id = ?)"));
+        assertTrue(sql.endsWith("ON CONFLICT (user_id, post_id) DO NOTHING"));
+
+        Object[] args = argsCaptor.getValue().get(0);
+        assertEquals(5, args.length);
+        assertEquals(List.of(1L, 10L, 1L, 10L), List.of(args[0], args[1], args[3], args[4]));
+    }
+
+    @Test
+    @DisplayName("批量删除按用户和帖子定位记录")
+    void testBatchDelete() {
+        repository.batchDelete(InteractionBatchRepository.TABLE_POST_COLLECT,
+                List.of(new UserPostPair(2L, 20L), new UserPostPair(3L, 30L)));
+
+        verify(jdbcTemplate).batchUpdate(sqlCaptor.capture(), argsCaptor.capture());
+        assertEquals("DELETE FROM post_collect WHERE user_id = ? AND post_id = ?", sqlCaptor.getValue());
+        assertEquals(2, argsCaptor.getValue().size());
+        assertArrayEquals(new Object[]{3L, 30L}, argsCaptor.getValue().get(1));
+    }
+
+    @Test
+    @DisplayName("只允许固定的两张关系表拼接进SQL")
+    void testRejectsUnknownTable() {
+        List<UserPostPair> pairs = List.of(new UserPostPair(1L, 1L));
+
+        assertThrows(IllegalArgumentException.class, () -> repository.batchInsert("users; DROP TABLE posts", pairs));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("增量更新跳过为0的增量，且计数不会减为负数")
+    void testDeltaUpdateSkipsZero() {
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(1L, 2);
+        deltas.put(2L, 0);
+        deltas.put(3L, -1);
+
+        repository.incrementUserLikedCounts(deltas);
+
+        verify(jdbcTemplate).batchUpdate(sqlCaptor.capture(), argsCaptor.capture());
+        assertEquals("UPDATE users SET liked_count = GREATEST(COALESCE(liked_count, 0) + ?, 0) WHERE id = ?",
+                sqlCaptor.getValue());
+        assertEquals(2, argsCaptor.getValue().size());
+        assertArrayEquals(new Object[]{2, 1L}, argsCaptor.getValue().get(0));
+        assertArrayEquals(new Object[]{-1, 3L}, argsCaptor.getValue().get(1));
+    }
+
+    @Test
+    @DisplayName("增量全为0时不执行SQL")
+    void testDeltaUpdateNoop() {
+        repository.incrementUserLikedCounts(Map.of(1L, 0));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
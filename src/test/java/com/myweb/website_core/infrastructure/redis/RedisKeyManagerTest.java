@@ -0,0 +1,116 @@
+package com.myweb.website_core.infrastructure.redis;
+
+import com.myweb.website_core.common.util.RedisKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Redis键管理组件测试
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisKeyManagerTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private SetOperations<String, Object> setOperations;
+
+    private RedisKeyManager redisKeyManager;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        redisKeyManager = new RedisKeyManager(redisTemplate);
+    }
+
+    @Test
+    void testRegisterUserKeysRefreshesIndexTtl() {
+        redisKeyManager.registerUserKeys(1L, "session:s1", "session:activity:s1");
+
+        verify(setOperations).add(RedisKey.userKeyIndexKey(1L), "session:s1", "session:activity:s1");
+        verify(redisTemplate).expire(RedisKey.userKeyIndexKey(1L), RedisKeyManager.USER_KEY_INDEX_TTL);
+    }
+
+    @Test
+    void testUnlinkSplitsIntoBatches() {
+        List<String> keys = IntStream.range(0, RedisKeyManager.BATCH_SIZE * 2 + 1).mapToObj(i -> "k" + i).toList();
+        when(redisTemplate.unlink(anyCollection()))
+                .thenAnswer(invocation -> (long) ((List<?>) invocation.getArgument(0)).size());
+
+        assertEquals(keys.size(), redisKeyManager.unlink(keys));
+        verify(redisTemplate, times(3)).unlink(anyCollection());
+        verify(redisTemplate, never()).delete(anyCollection());
+    }
+
+    @Test
+    void testUnlinkByPatternUsesScan() {
+        List<String> keys = IntStream.range(0, RedisKeyManager.BATCH_SIZE + 10).mapToObj(i -> "search:" + i).toList();
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor(keys));
+        when(redisTemplate.unlink(anyCollection()))
+                .thenAnswer(invocation -> (long) ((List<?>) invocation.getArgument(0)).size());
+
+        assertEquals(keys.size(), redisKeyManager.unlinkByPattern("search:*"));
+        verify(redisTemplate, times(2)).unlink(anyCollection());
+        verify(redisTemplate, never()).keys(anyString());
+    }
+
+    @Test
+    void testCountByPattern() {
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor(List.of("a", "b", "c")));
+
+        assertEquals(3, redisKeyManager.countByPattern("*"));
+        verify(redisTemplate, never()).unlink(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPruneSetMembersRemovesOnlyMissing() {
+        when(setOperations.scan(eq(RedisKey.ACTIVE_SESSIONS_SET), any(ScanOptions.class)))
+                .thenReturn(cursor(List.<Object>of("s1", "s2", "s3")));
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(List.of(true, false, false));
+        when(setOperations.remove(RedisKey.ACTIVE_SESSIONS_SET, "s2", "s3")).thenReturn(2L);
+
+        assertEquals(2, redisKeyManager.pruneSetMembers(RedisKey.ACTIVE_SESSIONS_SET, RedisKey::sessionKey));
+        verify(setOperations).remove(RedisKey.ACTIVE_SESSIONS_SET, "s2", "s3");
+    }
+
+    @Test
+    void testGetUserKeys() {
+        when(setOperations.members(RedisKey.userKeyIndexKey(1L))).thenReturn(Set.of("session:s1"));
+
+        assertEquals(Set.of("session:s1"), redisKeyManager.getUserKeys(1L));
+        assertTrue(redisKeyManager.getUserKeys(null).isEmpty());
+    }
+
+    /**
+     * 基于列表的SCAN游标
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Cursor<T> cursor(List<T> values) {
+        Iterator<T> iterator = new ArrayList<>(values).iterator();
+        Cursor<T> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+}
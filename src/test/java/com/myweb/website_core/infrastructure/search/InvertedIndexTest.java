@@ -0,0 +1,84 @@
+package com.myweb.website_core.infrastructure.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存倒排索引测试
+ *
+ * @author MyWeb
+ * @version 1.0
+ */
+@DisplayName("内存倒排索引测试")
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex("post");
+        index.index(1L, "Spring Boot 入门教程", 100L);
+        index.index(2L, "Java并发编程实战", 200L);
+        index.index(3L, "Spring Cloud 微服务实战教程", 300L);
+    }
+
+    @Test
+    @DisplayName("中文关键词按二元组匹配")
+    void testSearchChineseKeyword() {
+        InvertedIndex.SearchHits hits = index.search("实战", true, 0, 10, 1000);
+
+        assertEquals(2, hits.total());
+        assertTrue(hits.docIds().containsAll(List.of(2L, 3L)));
+    }
+
+    @Test
+    @DisplayName("单字查询命中单字词元")
+    void testSearchSingleCharacter() {
+        InvertedIndex.SearchHits hits = index.search("程", true, 0, 10, 1000);
+
+        assertEquals(3, hits.total());
+    }
+
+    @Test
+    @DisplayName("多个词元要求全部命中")
+    void testSearchRequiresAllTerms() {
+        InvertedIndex.SearchHits hits = index.search("spring 教程", true, 0, 10, 1000);
+
+        assertEquals(2, hits.total());
+        assertEquals(0, index.search("spring 并发", true, 0, 10, 1000).total());
+    }
+
+    @Test
+    @DisplayName("按排序键倒序返回并分页")
+    void testSearchByTimeWithPaging() {
+        InvertedIndex.SearchHits firstPage = index.search("spring", false, 0, 1, 1000);
+        InvertedIndex.SearchHits secondPage = index.search("spring", false, 1, 1, 1000);
+
+        assertEquals(2, firstPage.total());
+        assertEquals(List.of(3L), firstPage.docIds());
+        assertEquals(List.of(1L), secondPage.docIds());
+    }
+
+    @Test
+    @DisplayName("更新和删除文档后倒排表同步")
+    void testUpdateAndRemove() {
+        index.index(1L, "Kotlin 协程", 100L);
+        assertEquals(0, index.search("boot", true, 0, 10, 1000).total());
+        assertEquals(List.of(1L), index.search("协程", true, 0, 10, 1000).docIds());
+
+        index.remove(1L);
+        assertEquals(0, index.search("协程", true, 0, 10, 1000).total());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("空关键词不返回结果")
+    void testSearchEmptyKeyword() {
+        assertSame(InvertedIndex.SearchHits.EMPTY, index.search("  ", true, 0, 10, 1000));
+    }
+}
@@ -0,0 +1,174 @@
+package com.myweb.website_core.infrastructure.search;
+
+import com.myweb.website_core.common.util.RedisKey;
+import com.myweb.website_core.domain.business.dto.ContentChangeEvent;
+import com.myweb.website_core.domain.business.dto.SearchResultDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 搜索结果两级缓存测试
+ *
+ * Redis以内存Map模拟，验证内容变更后L1和L2都不再返回旧结果。
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("搜索结果两级缓存测试")
+class SearchResultCacheTest {
+
+    private static final String CACHE_KEY = "search:cache:post:spring:0:20:RELEVANCE";
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> stringValueOperations;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * 模拟的Redis数据
+     */
+    private final Map<String, Object> redis = new HashMap<>();
+    private final AtomicLong redisGeneration = new AtomicLong();
+
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), any(), anyLong(), any());
+        doReturn(StringRedisSerializer.UTF_8).when(redisTemplate).getValueSerializer();
+
+        when(stringRedisTemplate.opsForValue()).thenReturn(stringValueOperations);
+        when(stringValueOperations.increment(RedisKey.SEARCH_CACHE_GENERATION))
+                .thenAnswer(invocation -> redisGeneration.incrementAndGet());
+        when(stringValueOperations.get(RedisKey.SEARCH_CACHE_GENERATION))
+                .thenAnswer(invocation -> redisGeneration.get() == 0 ? null : String.valueOf(redisGeneration.get()));
+
+        cache = new SearchResultCache(redisTemplate, stringRedisTemplate, listenerContainer, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(cache, "expireAfterWriteSeconds", 60L);
+        cache.init();
+    }
+
+    @Test
+    @DisplayName("创建→搜索→更新→搜索：内容变更后不再返回L1或L2中的旧结果")
+    void testContentChangeInvalidatesBothTiers() {
+        // 创建后第一次搜索，写入两级缓存
+        cache.put(CACHE_KEY, result("v1"));
+        assertEquals("v1", cache.<String>get(CACHE_KEY).getItems().get(0));
+
+        // 更新帖子，提交后合并处理
+        cache.onContentChange(ContentChangeEvent.post(ContentChangeEvent.CHANGE_UPDATE, 1L));
+        cache.flushContentChanges();
+
+        // 旧结果仍留在Redis中，但不能再被读到
+        assertTrue(redis.values().stream().anyMatch(value -> "v1".equals(((SearchResultDTO<?>) value).getItems().get(0))));
+        assertNull(cache.get(CACHE_KEY));
+
+        // 重新搜索后缓存新结果
+        cache.put(CACHE_KEY, result("v2"));
+        assertEquals("v2", cache.<String>get(CACHE_KEY).getItems().get(0));
+        verify(redisTemplate).convertAndSend(SearchResultCache.INVALIDATION_CHANNEL, "g:1");
+    }
+
+    @Test
+    @DisplayName("多次内容变更在一个间隔内只递增一次代数")
+    void testContentChangesCoalesced() {
+        cache.onContentChange(ContentChangeEvent.post(ContentChangeEvent.CHANGE_CREATE, 1L));
+        cache.onContentChange(ContentChangeEvent.post(ContentChangeEvent.CHANGE_UPDATE, 2L));
+        cache.markContentChanged();
+
+        cache.flushContentChanges();
+        cache.flushContentChanges();
+
+        assertEquals(1L, redisGeneration.get());
+        verify(stringValueOperations, times(1)).increment(RedisKey.SEARCH_CACHE_GENERATION);
+    }
+
+    @Test
+    @DisplayName("收到其他节点的代数广播后清空L1并读取新代数的L2")
+    void testRemoteGenerationMessage() {
+        cache.put(CACHE_KEY, result("v1"));
+
+        // 其他节点递增代数并写入新结果
+        redisGeneration.set(5);
+        redis.put(CACHE_KEY + ":g5", result("v2"));
+        cache.onMessage(message("g:5"), null);
+
+        assertEquals("v2", cache.<String>get(CACHE_KEY).getItems().get(0));
+    }
+
+    @Test
+    @DisplayName("漏收广播时定时同步代数")
+    void testGenerationSyncedWithoutBroadcast() {
+        cache.put(CACHE_KEY, result("v1"));
+
+        redisGeneration.set(3);
+        cache.flushContentChanges();
+
+        assertNull(cache.get(CACHE_KEY));
+    }
+
+    @Test
+    @DisplayName("按关键词清除只影响匹配的本地缓存")
+    void testKeywordInvalidation() {
+        String otherKey = "search:cache:post:java:0:20:RELEVANCE";
+        cache.put(CACHE_KEY, result("v1"));
+        cache.put(otherKey, result("v1"));
+        redis.clear();
+
+        cache.onMessage(message("k:spring"), null);
+
+        assertNull(cache.get(CACHE_KEY));
+        assertNotNull(cache.get(otherKey));
+    }
+
+    // ========== 辅助方法 ==========
+
+    private static SearchResultDTO<String> result(String item) {
+        SearchResultDTO<String> result = new SearchResultDTO<>();
+        result.setItems(List.of(item));
+        result.setTotal(1L);
+        return result;
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(SearchResultCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
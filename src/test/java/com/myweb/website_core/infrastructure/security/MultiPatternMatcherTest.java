@@ -0,0 +1,107 @@
+package com.myweb.website_core.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多模式匹配器单元测试
+ *
+ * 测试MultiPatternMatcher的锚点提取、预过滤和正则确认，
+ * 并与逐条执行攻击模式库正则的结果对比
+ *
+ * @author MyWeb Security Team
+ * @version 1.0
+ */
+class MultiPatternMatcherTest {
+
+    private static final String[] INPUTS = {
+        "",
+        "普通的中文帖子内容，没有任何标签。",
+        "Hello World, this is a normal post about Java and Spring Boot.",
+        "<p>段落</p><strong>加粗</strong><a href=\"https://example.com\">链接</a>",
+        "<script>alert('XSS')</script>",
+        "<SCRIPT SRC=//evil.com/x.js></SCRIPT>",
+        "<img src=x OnError=alert(1)>",
+        "<a href='JaVaScRiPt:alert(1)'>点我</a>",
+        "<iframe src=\"data:text/html,<b>x</b>\"></iframe>",
+        "<div style=\"width: expression(alert(1))\">",
+        "@import url(evil.css); behavior: url(x.htc)",
+        "<form action=javascript:alert(1)><input type=text></form>",
+        "<meta http-equiv=\"refresh\" content=\"0;url=javascript:alert(1)\">",
+        "&#60;script&#62; %3Cscript%3E \\x3c \\u003c \\074",
+        "<!-- 注释 --> /* 注释 */ // 行注释 <![CDATA[ x ]]>",
+        "setTimeout (code, 10); eval(x); new Function('a')",
+        "价格 100% 满意，onload 事件讲解（不含等号）",
+        "ｏｎｌｏａｄ＝全角字符不是ASCII"
+    };
+
+    @Test
+    void testLibraryMatcher_ShouldAgreeWithSequentialPatterns() {
+        String[] types = {"SCRIPT_INJECTION", "JAVASCRIPT_PROTOCOL", "EVENT_HANDLER", "EXPRESSION", "STYLE",
+            "LINK", "FRAME", "FORM", "META", "ENCODING_BYPASS", "COMMENT"};
+        List<List<Pattern>> categories = XssPatternLibrary.getAllPatternCategories();
+
+        for (String input : INPUTS) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < categories.size(); i++) {
+                if (categories.get(i).stream().anyMatch(p -> p.matcher(input).find())) {
+                    expected.add(types[i]);
+                }
+            }
+
+            assertEquals(expected, XssPatternLibrary.getMatchedPatternTypes(input), "类型不一致: " + input);
+            assertEquals(!expected.isEmpty(), XssPatternLibrary.containsXssPattern(input), "检测结果不一致: " + input);
+        }
+    }
+
+    @Test
+    void testLiteralPrefix_ShouldStopAtMetaCharacters() {
+        assertEquals("<script", MultiPatternMatcher.literalPrefix("<script[^>]*>"));
+        assertEquals("onload", MultiPatternMatcher.literalPrefix("onload\\s*="));
+        assertEquals("&#", MultiPatternMatcher.literalPrefix("&#x?[0-9a-f]+;?"));
+        assertEquals("\\x", MultiPatternMatcher.literalPrefix("\\\\x[0-9a-f]{2}"));
+        assertEquals("/*", MultiPatternMatcher.literalPrefix("/\\*.*?\\*/"));
+        assertEquals("<![cdata[", MultiPatternMatcher.literalPrefix("<!\\[CDATA\\[.*?\\]\\]>"));
+        assertEquals("aa", MultiPatternMatcher.literalPrefix("aa+b"));
+        assertEquals("", MultiPatternMatcher.literalPrefix("(javascript|vbscript):"));
+        assertEquals("", MultiPatternMatcher.literalPrefix("中文"));
+    }
+
+    @Test
+    void testUnanchoredRule_ShouldAlwaysBeVerified() {
+        MultiPatternMatcher matcher = MultiPatternMatcher.builder()
+            .add("alternation", Pattern.compile("(foo|bar)\\d", Pattern.CASE_INSENSITIVE))
+            .build();
+
+        assertTrue(matcher.mayMatch("anything"));
+        assertTrue(matcher.containsAny("xx BAR1 yy"));
+        assertFalse(matcher.containsAny("xx bar yy"));
+    }
+
+    @Test
+    void testOverlappingAnchors_ShouldReportAllMatches() {
+        MultiPatternMatcher matcher = MultiPatternMatcher.builder()
+            .addLiteral("frame", "<frame")
+            .addLiteral("frameset", "<frameset")
+            .addLiteral("set", "set")
+            .build();
+
+        assertEquals(List.of("frame", "frameset", "set"), matcher.matchedTypes("<FRAMESET rows=*>"));
+        assertEquals("set", matcher.firstMatchedType("reset"));
+        assertNull(matcher.firstMatchedType("<fram e"));
+        assertFalse(matcher.mayMatch("完全无关的内容"));
+    }
+
+    @Test
+    void testNonAsciiAnchor_ShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> MultiPatternMatcher.builder().addLiteral("cjk", "脚本"));
+        assertThrows(IllegalArgumentException.class,
+            () -> MultiPatternMatcher.builder().addLiteral("empty", ""));
+    }
+}
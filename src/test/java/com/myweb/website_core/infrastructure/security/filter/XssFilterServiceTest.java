@@ -284,6 +284,39 @@ class XssFilterServiceTest {
         // Then
         assertEquals(result1, result2);
         // 第二次调用应该使用缓存，不会再次记录监控事件
+        verify(xssMonitoringService, times(1)).recordXssEvent(anyString(), anyString(), anyString(), anyBoolean(), anyLong());
+        assertEquals(1L, xssFilterService.getCacheStatistics().get("hits"));
+    }
+    
+    @Test
+    void testFilterXss_HashCollision_ShouldNotShareCachedResult() {
+        // Given - "Aa" 与 "BB" 的hashCode相同
+        String input1 = "Aa plain text";
+        String input2 = "BB plain text";
+        assertEquals(input1.hashCode(), input2.hashCode());
+        
+        // When
+        String result1 = xssFilterService.filterXss(input1, "/api/posts", "192.168.1.1");
+        String result2 = xssFilterService.filterXss(input2, "/api/posts", "192.168.1.1");
+        
+        // Then
+        assertEquals(input1, result1);
+        assertEquals(input2, result2);
+    }
+    
+    @Test
+    void testFilterXss_LargeInput_ShouldUseDigestCacheKey() {
+        // Given
+        String input = "Large content ".repeat(100) + "<script>alert(1)</script>";
+        
+        // When
+        String result1 = xssFilterService.filterXss(input, "/api/posts", "192.168.1.1");
+        String result2 = xssFilterService.filterXss(input, "/api/posts", "192.168.1.1");
+        
+        // Then
+        assertEquals(result1, result2);
+        assertFalse(result2.contains("<script>"));
+        assertEquals(1L, xssFilterService.getCacheStatistics().get("hits"));
     }
     
     @Test
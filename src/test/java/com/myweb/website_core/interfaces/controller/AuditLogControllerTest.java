@@ -1,6 +1,7 @@
 package com.myweb.website_core.interfaces.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myweb.website_core.application.service.security.audit.AuditExportJobService;
 import com.myweb.website_core.application.service.security.audit.AuditLogService;
 import com.myweb.website_core.common.enums.AuditOperation;
 import com.myweb.website_core.domain.security.dto.AuditLogQuery;
@@ -20,6 +21,9 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +31,7 @@ import java.util.Optional;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -56,6 +61,9 @@ class AuditLogControllerTest {
     @MockBean
     private AuditLogService auditLogService;
     
+    @MockBean
+    private AuditExportJobService auditExportJobService;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
@@ -287,8 +295,10 @@ class AuditLogControllerTest {
     void testExportAuditLogs_CSV_ShouldReturnCsvFile() throws Exception {
         // Given
         String csvData = "时间,用户名,操作,结果\n2025-01-01 10:00:00,testuser,USER_LOGIN_SUCCESS,SUCCESS\n";
-        when(auditLogService.exportLogs(any(AuditLogQuery.class), eq("CSV")))
-                .thenReturn(csvData.getBytes());
+        doAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write(csvData.getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(auditLogService).exportLogs(any(AuditLogQuery.class), eq("CSV"), any(OutputStream.class));
         
         AuditLogQuery query = new AuditLogQuery();
         query.setUsername("testuser");
@@ -303,7 +313,7 @@ class AuditLogControllerTest {
                 .andExpect(header().string("Content-Type", "text/csv"))
                 .andExpect(header().string("Content-Disposition", containsString("attachment")))
                 .andExpect(header().string("Content-Disposition", containsString("audit_logs_")))
-                .andExpect(content().string(csvData));
+                .andExpect(content().bytes(csvData.getBytes(StandardCharsets.UTF_8)));
     }
     
     @Test
@@ -312,8 +322,10 @@ class AuditLogControllerTest {
     void testExportAuditLogs_Excel_ShouldReturnExcelFile() throws Exception {
         // Given
         byte[] excelData = "fake excel data".getBytes();
-        when(auditLogService.exportLogs(any(AuditLogQuery.class), eq("EXCEL")))
-                .thenReturn(excelData);
+        doAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write(excelData);
+            return 1L;
+        }).when(auditLogService).exportLogs(any(AuditLogQuery.class), eq("EXCEL"), any(OutputStream.class));
         
         AuditLogQuery query = new AuditLogQuery();
         query.setResult("FAILURE");
@@ -330,6 +342,40 @@ class AuditLogControllerTest {
                 .andExpect(header().string("Content-Disposition", containsString(".xlsx")));
     }
     
+    @Test
+    @DisplayName("提交异步导出任务")
+    @WithMockUser(roles = "ADMIN")
+    void testSubmitExportJob_ShouldReturnAccepted() throws Exception {
+        // Given
+        AuditExportJobService.ExportJob job = new AuditExportJobService.ExportJob("job-1", "CSV", Path.of("job-1.csv"));
+        when(auditExportJobService.submit(any(AuditLogQuery.class), eq("CSV"))).thenReturn(job);
+        
+        // When & Then
+        mockMvc.perform(post("/api/admin/audit-logs/export/async")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AuditLogQuery())))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+    
+    @Test
+    @DisplayName("下载未完成的导出任务")
+    @WithMockUser(roles = "ADMIN")
+    void testDownloadExport_WhenRunning_ShouldReturnConflict() throws Exception {
+        // Given
+        AuditExportJobService.ExportJob job = new AuditExportJobService.ExportJob("job-1", "CSV", Path.of("job-1.csv"));
+        when(auditExportJobService.getJob("job-1")).thenReturn(Optional.of(job));
+        when(auditExportJobService.getJob("missing")).thenReturn(Optional.empty());
+        
+        // When & Then
+        mockMvc.perform(get("/api/admin/audit-logs/export/jobs/job-1/download"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/admin/audit-logs/export/jobs/missing/download"))
+                .andExpect(status().isNotFound());
+    }
+    
     // ==================== 参数验证测试 ====================
     
     @Test
@@ -388,7 +434,7 @@ class AuditLogControllerTest {
     @WithMockUser(roles = "ADMIN")
     void testExportAuditLogs_WithServiceException_ShouldReturn500() throws Exception {
         // Given
-        when(auditLogService.exportLogs(any(AuditLogQuery.class), anyString()))
+        when(auditLogService.exportLogs(any(AuditLogQuery.class), anyString(), any(OutputStream.class)))
                 .thenThrow(new RuntimeException("Export failed"));
         
         AuditLogQuery query = new AuditLogQuery();
@@ -2,7 +2,10 @@ package com.myweb.website_core.interfaces.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.myweb.website_core.application.service.business.CommentService;
+import com.myweb.website_core.application.service.business.FollowFeedService;
+import com.myweb.website_core.application.service.business.PostRankingService;
 import com.myweb.website_core.application.service.business.PostService;
+import com.myweb.website_core.application.service.business.PostTimelineService;
 import com.myweb.website_core.application.service.security.authorization.AccessControlService;
 import com.myweb.website_core.application.service.security.IPS.virusprotect.InputValidationService;
 import com.myweb.website_core.common.exception.security.ValidationException;
@@ -55,6 +58,15 @@ public class PostControllerInputValidationIntegrationTest {
 
     @MockBean
     private PostService postService;
+    
+    @MockBean
+    private PostTimelineService postTimelineService;
+
+    @MockBean
+    private FollowFeedService followFeedService;
+
+    @MockBean
+    private PostRankingService postRankingService;
 
     @MockBean
     private CommentService commentService;
@@ -0,0 +1,195 @@
+package com.myweb.website_core.interfaces.controller;
+
+import com.myweb.website_core.application.service.business.FollowFeedService;
+import com.myweb.website_core.application.service.business.PostService;
+import com.myweb.website_core.application.service.business.PostTimelineService;
+import com.myweb.website_core.domain.business.dto.ApiResponse;
+import com.myweb.website_core.domain.business.dto.PostDTO;
+import com.myweb.website_core.domain.business.dto.PostInteractionStatus;
+import com.myweb.website_core.domain.business.dto.PostTimelineDTO;
+import com.myweb.website_core.domain.business.entity.Post;
+import com.myweb.website_core.domain.business.entity.User;
+import com.myweb.website_core.infrastructure.security.CustomUserDetailsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PostController按当前用户返回数据的接口测试
+ *
+ * 验证用户只取自当前认证主体，调用方无法查询他人的交互状态和关注流
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PostController当前用户数据测试")
+class PostControllerInteractionTest {
+
+    @Mock
+    private PostService postService;
+
+    @Mock
+    private PostTimelineService postTimelineService;
+
+    @Mock
+    private FollowFeedService followFeedService;
+
+    @InjectMocks
+    private PostController postController;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("批量交互状态按当前认证用户查询")
+    void testInteractionStatusUsesPrincipal() {
+        authenticate(7L);
+        Map<Long, PostInteractionStatus> statuses = Map.of(1L, new PostInteractionStatus(true, false));
+        when(postService.getInteractionStatus(7L, List.of(1L, 2L))).thenReturn(statuses);
+
+        ResponseEntity<ApiResponse<Map<Long, PostInteractionStatus>>> response =
+                postController.getInteractionStatus(List.of(1L, 2L));
+
+        assertTrue(response.getBody().isSuccess());
+        assertSame(statuses, response.getBody().getData());
+    }
+
+    @Test
+    @DisplayName("批量交互状态超过单次上限时不查询")
+    void testInteractionStatusRejectsTooManyPosts() {
+        authenticate(7L);
+        List<Long> postIds = LongStream.rangeClosed(1, 201).boxed().toList();
+
+        ResponseEntity<ApiResponse<Map<Long, PostInteractionStatus>>> response =
+                postController.getInteractionStatus(postIds);
+
+        assertFalse(response.getBody().isSuccess());
+        verifyNoInteractions(postService);
+    }
+
+    @Test
+    @DisplayName("帖子列表为当前认证用户填充点赞、收藏状态")
+    void testPostListUsesPrincipal() {
+        authenticate(7L);
+        when(postTimelineService.getTimeline(null, 20, 7L))
+                .thenReturn(new PostTimelineDTO(List.of(new PostDTO()), "next", true));
+
+        ResponseEntity<List<PostDTO>> response = postController.getAllPosts(null, 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("next", response.getHeaders().getFirst("X-Next-Cursor"));
+        verify(postTimelineService).getTimeline(null, 20, 7L);
+    }
+
+    @Test
+    @DisplayName("匿名访问帖子列表时不填充点赞、收藏状态")
+    void testPostListAnonymous() {
+        when(postTimelineService.getTimeline(isNull(), isNull(), isNull()))
+                .thenReturn(new PostTimelineDTO(List.of(), null, false));
+
+        ResponseEntity<List<PostDTO>> response = postController.getAllPosts(null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(postTimelineService).getTimeline(null, null, null);
+    }
+
+    @Test
+    @DisplayName("时间线为当前认证用户填充点赞、收藏状态，匿名访问时不填充")
+    void testTimelineUsesPrincipal() {
+        PostTimelineDTO page = new PostTimelineDTO(List.of(), null, false);
+        when(postTimelineService.getTimeline(eq("cursor"), isNull(), any())).thenReturn(page);
+
+        postController.getTimeline("cursor", null);
+        authenticate(7L);
+        ResponseEntity<PostTimelineDTO> response = postController.getTimeline("cursor", null);
+
+        assertSame(page, response.getBody());
+        verify(postTimelineService).getTimeline("cursor", null, null);
+        verify(postTimelineService).getTimeline("cursor", null, 7L);
+    }
+
+    @Test
+    @DisplayName("关注流读取当前认证用户的收件箱")
+    void testFollowFeedUsesPrincipal() {
+        authenticate(7L);
+        PostTimelineDTO page = new PostTimelineDTO(List.of(), null, false);
+        when(followFeedService.getFeed(7L, null, 10)).thenReturn(page);
+
+        ResponseEntity<PostTimelineDTO> response = postController.getFollowFeed(null, 10);
+
+        assertSame(page, response.getBody());
+    }
+
+    @Test
+    @DisplayName("未认证时关注流返回401，不创建收件箱")
+    void testFollowFeedRequiresPrincipal() {
+        ResponseEntity<PostTimelineDTO> response = postController.getFollowFeed(null, 10);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(followFeedService);
+    }
+
+    @Test
+    @DisplayName("用户发布的帖子按查询参数选择，交互状态按当前认证用户填充")
+    void testMyPostsFlagsUsePrincipal() {
+        authenticate(7L);
+        List<Post> posts = List.of(new Post());
+        when(postService.findPostsByUserId(3L)).thenReturn(posts);
+
+        postController.getMyPosts(3L);
+
+        verify(postService).convertToDTOList(posts, 7L);
+    }
+
+    @Test
+    @DisplayName("收藏的帖子不为查询参数中的用户填充交互状态")
+    void testCollectedPostsFlagsUsePrincipal() {
+        authenticate(7L);
+        List<Post> posts = List.of(new Post());
+        when(postService.findCollectedPostsByUserId(3L)).thenReturn(posts);
+
+        postController.getCollectedPosts(3L);
+
+        verify(postService).convertToDTOList(posts, 7L);
+    }
+
+    @Test
+    @DisplayName("匿名访问点赞的帖子时不填充交互状态")
+    void testLikedPostsAnonymous() {
+        List<Post> posts = List.of(new Post());
+        when(postService.findLikedPostsByUserId(3L)).thenReturn(posts);
+
+        ResponseEntity<List<PostDTO>> response = postController.getLikedPosts(3L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(postService).convertToDTOList(posts, null);
+    }
+
+    // ========== 辅助方法 ==========
+
+    private static void authenticate(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        user.setUsername("user" + userId);
+        CustomUserDetailsService.CustomUserPrincipal principal = new CustomUserDetailsService.CustomUserPrincipal(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList()));
+    }
+}